@@ -0,0 +1,235 @@
+// Copyright © 2012-2023 VLINGO LABS. All rights reserved.
+//
+// This Source Code Form is subject to the terms of the
+// Mozilla Public License, v. 2.0. If a copy of the MPL
+// was not distributed with this file, You can obtain
+// one at https://mozilla.org/MPL/2.0/.
+
+package io.vlingo.xoom.lattice.grid;
+
+import java.util.Arrays;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.vlingo.xoom.actors.Actor;
+import io.vlingo.xoom.actors.Configuration;
+import io.vlingo.xoom.actors.Definition;
+import io.vlingo.xoom.cluster.StaticClusterConfiguration;
+import io.vlingo.xoom.cluster.model.Properties;
+import io.vlingo.xoom.common.Completes;
+
+/**
+ * Boots a cluster of {@code Grid} nodes inside one JVM over the loopback transport, drives
+ * a mix of remote tells and asks against counter actors spread across the nodes from
+ * the first node, and reports throughput and ask latency percentiles for each phase:
+ * <ol>
+ *   <li>{@code steady}: all nodes up</li>
+ *   <li>{@code leave}: the last node stopped, its actors relocating to the others</li>
+ *   <li>{@code join}: the last node started again, actors relocating back to it</li>
+ * </ol>
+ * Run with {@code mvn -Pjmh test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=io.vlingo.xoom.lattice.grid.GridClusterBenchmark}, or from an IDE,
+ * with these system properties:
+ * <ul>
+ *   <li>{@code bench.nodes}: the number of grid nodes, 3 by default</li>
+ *   <li>{@code bench.actors}: the number of counter actors, 1000 by default</li>
+ *   <li>{@code bench.ask.ratio}: the fraction of messages that are asks, 0.5 by default</li>
+ *   <li>{@code bench.inflight}: the maximum number of unanswered asks, 256 by default</li>
+ *   <li>{@code bench.threads}: the number of sending threads, 4 by default</li>
+ *   <li>{@code bench.warmup}, {@code bench.duration}: the seconds of warm-up and of each phase, 10 and 20 by default</li>
+ *   <li>{@code bench.churn}: whether to run the leave and join phases, true by default</li>
+ *   <li>{@code bench.port}: the first port of the cluster, 37371 by default</li>
+ * </ul>
+ * Grid options given as system properties, such as {@code -Dgrid.codec=compact} or
+ * {@code -Dgrid.hashring.type=maglev}, are added to the cluster properties of every node,
+ * so each change can be compared under the same load.
+ */
+public class GridClusterBenchmark {
+  private static final int MaxSamples = 1 << 22;
+
+  private final int nodes = Integer.getInteger("bench.nodes", 3);
+  private final int actors = Integer.getInteger("bench.actors", 1000);
+  private final double askRatio = Double.parseDouble(System.getProperty("bench.ask.ratio", "0.5"));
+  private final int inflight = Integer.getInteger("bench.inflight", 256);
+  private final int threads = Integer.getInteger("bench.threads", 4);
+  private final int warmupSeconds = Integer.getInteger("bench.warmup", 10);
+  private final int phaseSeconds = Integer.getInteger("bench.duration", 20);
+  private final boolean churn = Boolean.parseBoolean(System.getProperty("bench.churn", "true"));
+  private final int port = Integer.getInteger("bench.port", 37371);
+
+  private final StaticClusterConfiguration configuration = GridClusterProperties.allNodes(port, nodes);
+  private final Grid[] grids = new Grid[nodes];
+  private final Semaphore permits = new Semaphore(inflight);
+  private Counter[] counters;
+
+  public static void main(final String[] args) throws Exception {
+    new GridClusterBenchmark().run();
+    System.exit(0);
+  }
+
+  private void run() throws Exception {
+    for (int node = 0; node < nodes; ++node) {
+      grids[node] = startNode(node);
+    }
+    awaitMembers(nodes);
+
+    counters = new Counter[actors];
+    for (int actor = 0; actor < actors; ++actor) {
+      counters[actor] = grids[0].actorFor(Counter.class, Definition.has(CounterActor.class, Definition.NoParameters));
+    }
+
+    System.out.println("nodes=" + nodes + " actors=" + actors + " ask.ratio=" + askRatio + " inflight=" + inflight + " threads=" + threads);
+    drive("warmup", warmupSeconds);
+    report(drive("steady", phaseSeconds));
+
+    if (churn && nodes > 1) {
+      final int last = nodes - 1;
+      grids[last].terminate();
+      report(drive("leave", phaseSeconds));
+
+      grids[last] = startNode(last);
+      awaitMembers(nodes);
+      report(drive("join", phaseSeconds));
+    }
+
+    for (final Grid grid : grids) {
+      grid.terminate();
+    }
+  }
+
+  private Grid startNode(final int node) throws Exception {
+    return Grid.start("bench-node-" + (node + 1), Configuration.define(), propertiesWithGridOptions(), configuration.propertiesOf(node));
+  }
+
+  private Properties propertiesWithGridOptions() {
+    final java.util.Properties properties = new java.util.Properties();
+    for (final String key : configuration.properties.stringPropertyNames()) {
+      properties.setProperty(key, configuration.properties.getProperty(key));
+    }
+    for (final String key : System.getProperties().stringPropertyNames()) {
+      if (key.startsWith("grid.")) {
+        properties.setProperty(key, System.getProperty(key));
+      }
+    }
+    return Properties.openForTest(properties);
+  }
+
+  private void awaitMembers(final int members) throws InterruptedException {
+    while (grids[0].allOtherNodes().size() < members - 1) {
+      TimeUnit.MILLISECONDS.sleep(100);
+    }
+  }
+
+  private Phase drive(final String name, final int seconds) throws InterruptedException {
+    final Phase phase = new Phase(name);
+    final long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+    final Thread[] senders = new Thread[threads];
+    for (int sender = 0; sender < threads; ++sender) {
+      senders[sender] = new Thread(() -> send(phase, end), "bench-sender-" + sender);
+      senders[sender].start();
+    }
+    for (final Thread sender : senders) {
+      sender.join();
+    }
+    phase.elapsedNanos = System.nanoTime() - phase.startNanos;
+    return phase;
+  }
+
+  private void send(final Phase phase, final long end) {
+    final ThreadLocalRandom random = ThreadLocalRandom.current();
+    while (System.nanoTime() < end) {
+      final Counter counter = counters[random.nextInt(actors)];
+      if (random.nextDouble() >= askRatio) {
+        counter.increment();
+        phase.tells.incrementAndGet();
+        continue;
+      }
+      try {
+        if (!permits.tryAcquire(1, TimeUnit.SECONDS)) {
+          phase.failures.incrementAndGet(); // asks lost to a leaving node never answer
+          continue;
+        }
+      } catch (InterruptedException e) {
+        return;
+      }
+      final long start = System.nanoTime();
+      counter.incrementAndGet()
+          .andThenConsume(count -> {
+            phase.record(System.nanoTime() - start);
+            permits.release();
+          })
+          .recoverFrom(e -> {
+            phase.failures.incrementAndGet();
+            permits.release();
+            return -1;
+          });
+    }
+  }
+
+  private void report(final Phase phase) {
+    final long[] latencies = Arrays.copyOf(phase.samples, Math.min(phase.recorded.get(), MaxSamples));
+    Arrays.sort(latencies);
+    final double seconds = phase.elapsedNanos / 1e9;
+    System.out.printf("%-7s tells/s=%,.0f asks/s=%,.0f failures=%d latency(us) p50=%.1f p90=%.1f p99=%.1f p99.9=%.1f max=%.1f%n",
+        phase.name,
+        phase.tells.get() / seconds,
+        phase.recorded.get() / seconds,
+        phase.failures.get(),
+        percentile(latencies, 0.5),
+        percentile(latencies, 0.9),
+        percentile(latencies, 0.99),
+        percentile(latencies, 0.999),
+        percentile(latencies, 1.0));
+  }
+
+  private static double percentile(final long[] sorted, final double percentile) {
+    if (sorted.length == 0) {
+      return 0;
+    }
+    final int index = (int) Math.min(sorted.length - 1, Math.ceil(percentile * sorted.length) - 1);
+    return sorted[Math.max(0, index)] / 1000.0;
+  }
+
+  private static final class Phase {
+    final String name;
+    final long startNanos = System.nanoTime();
+    final long[] samples = new long[MaxSamples];
+    final AtomicInteger recorded = new AtomicInteger();
+    final AtomicLong tells = new AtomicLong();
+    final AtomicLong failures = new AtomicLong();
+    long elapsedNanos;
+
+    Phase(final String name) {
+      this.name = name;
+    }
+
+    void record(final long latencyNanos) {
+      final int index = recorded.getAndIncrement();
+      if (index < MaxSamples) {
+        samples[index] = latencyNanos;
+      }
+    }
+  }
+
+  public interface Counter {
+    void increment();
+    Completes<Integer> incrementAndGet();
+  }
+
+  public static class CounterActor extends Actor implements Counter {
+    private int count;
+
+    @Override
+    public void increment() {
+      ++count;
+    }
+
+    @Override
+    public Completes<Integer> incrementAndGet() {
+      return completes().with(++count);
+    }
+  }
+}
@@ -0,0 +1,83 @@
+// Copyright © 2012-2023 VLINGO LABS. All rights reserved.
+//
+// This Source Code Form is subject to the terms of the
+// Mozilla Public License, v. 2.0. If a copy of the MPL
+// was not distributed with this file, You can obtain
+// one at https://mozilla.org/MPL/2.0/.
+
+package io.vlingo.xoom.lattice.grid;
+
+import java.lang.reflect.Proxy;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.vlingo.xoom.actors.LocalMessage;
+import io.vlingo.xoom.actors.Mailbox;
+import io.vlingo.xoom.actors.Message;
+import io.vlingo.xoom.lattice.grid.hashring.HashRing;
+import io.vlingo.xoom.lattice.grid.hashring.HashRings;
+import io.vlingo.xoom.wire.node.Id;
+
+/**
+ * Measures what {@code GridMailbox.send} adds to a local delivery: deciding that the
+ * address is owned by this node. The local mailbox is a no-op proxy, and
+ * {@code localMailboxSend} measures it alone as the baseline.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GridMailboxBenchmark {
+  private static final Id LocalId = Id.of(1);
+
+  @Param({ "murmur-sorted-map", "snapshot", "maglev", "rendezvous", "jump" })
+  public String ring;
+
+  @Param({ "3", "20" })
+  public int nodes;
+
+  private Mailbox local;
+  private GridMailbox gridMailbox;
+  private Message message;
+
+  @Setup
+  public void setUp() throws Exception {
+    final HashRing<Id> hashRing = HashRings.of(ring, 100);
+    for (int node = 1; node <= nodes; ++node) {
+      hashRing.includeNode(Id.of(node));
+    }
+
+    GridAddress address = GridAddress.from(UUID.randomUUID(), null);
+    while (!LocalId.equals(hashRing.nodeOf(address.idTyped()))) {
+      address = GridAddress.from(UUID.randomUUID(), null);
+    }
+
+    local = (Mailbox) Proxy.newProxyInstance(Mailbox.class.getClassLoader(), new Class<?>[] { Mailbox.class }, (proxy, method, args) -> null);
+    gridMailbox = new GridMailbox(local, LocalId, address, hashRing, null);
+    message = new LocalMessage<>(null, Runnable.class, Runnable::run, null, "run()");
+  }
+
+  @Benchmark
+  public void localMailboxSend() {
+    local.send(message);
+  }
+
+  @Benchmark
+  public void gridMailboxSend() {
+    gridMailbox.send(message);
+  }
+}
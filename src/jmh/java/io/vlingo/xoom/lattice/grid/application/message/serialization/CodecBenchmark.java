@@ -0,0 +1,193 @@
+// Copyright © 2012-2023 VLINGO LABS. All rights reserved.
+//
+// This Source Code Form is subject to the terms of the
+// Mozilla Public License, v. 2.0. If a copy of the MPL
+// was not distributed with this file, You can obtain
+// one at https://mozilla.org/MPL/2.0/.
+
+package io.vlingo.xoom.lattice.grid.application.message.serialization;
+
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.nustaq.serialization.FSTConfiguration;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.vlingo.xoom.actors.Actor;
+import io.vlingo.xoom.actors.Address;
+import io.vlingo.xoom.actors.Definition;
+import io.vlingo.xoom.common.SerializableConsumer;
+import io.vlingo.xoom.lattice.grid.GridAddress;
+import io.vlingo.xoom.lattice.grid.application.message.Answer;
+import io.vlingo.xoom.lattice.grid.application.message.Decoder;
+import io.vlingo.xoom.lattice.grid.application.message.Encoder;
+import io.vlingo.xoom.lattice.grid.application.message.GridDeliver;
+import io.vlingo.xoom.lattice.grid.application.message.Message;
+import io.vlingo.xoom.lattice.grid.application.message.Relocate;
+import io.vlingo.xoom.lattice.grid.application.message.RemoteInvocation;
+
+/**
+ * Measures encoding and decoding of grid messages through each {@code Encoder} and
+ * {@code Decoder}:
+ * <ul>
+ *   <li>{@code java}: {@code JavaObjectEncoder} and {@code JavaObjectDecoder}</li>
+ *   <li>{@code fst}: {@code FSTEncoder} and {@code FSTDecoder}, the {@code GridNode} default</li>
+ *   <li>{@code compact}: {@code CompactEncoder} and {@code CompactDecoder}, with the protocol registered</li>
+ *   <li>{@code compact-dispatch}: the compact codec sending {@code RemoteInvocation}s ({@code grid.remote.dispatch})</li>
+ * </ul>
+ * The {@code encodedBytes} counter reports the size of the encoded message; run with
+ * {@code -prof gc} for the allocation rate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CodecBenchmark {
+  private static final String Representation = "add(java.lang.String, int)";
+
+  @Param({ "java", "fst", "compact", "compact-dispatch" })
+  public String codec;
+
+  @Param({ "grid-deliver", "answer", "relocate-256", "relocate-16384" })
+  public String message;
+
+  private Encoder encoder;
+  private Decoder decoder;
+  private Message encoding;
+  private ByteBuffer buffer;
+  private ByteBuffer encoded;
+
+  @Setup
+  public void setUp() {
+    final FSTConfiguration conf = FSTConfiguration.createDefaultConfiguration();
+    switch (codec) {
+    case "java":
+      encoder = new JavaObjectEncoder();
+      decoder = new JavaObjectDecoder();
+      break;
+    case "fst":
+      encoder = new FSTEncoder(conf);
+      decoder = new FSTDecoder(conf);
+      break;
+    default:
+      final CompactDictionary dictionary = new CompactDictionary(getClass().getClassLoader())
+              .registerClass(Counter.class, CodecBenchmark.class)
+              .registerString(Representation);
+      encoder = new CompactEncoder(dictionary, conf);
+      decoder = new CompactDecoder(dictionary, conf);
+    }
+
+    encoding = message(codec.equals("compact-dispatch"));
+    buffer = ByteBuffer.allocate(1024 * 1024);
+    encoder.encode(encoding, buffer);
+    buffer.flip();
+    encoded = ByteBuffer.allocate(buffer.remaining()).put(buffer);
+    encoded.flip();
+  }
+
+  @Benchmark
+  public int encode(final EncodedSize size) {
+    buffer.clear();
+    encoder.encode(encoding, buffer);
+    size.encodedBytes = buffer.position();
+    return buffer.position();
+  }
+
+  @Benchmark
+  public byte[] encodeToArray() {
+    return encoder.encode(encoding);
+  }
+
+  @Benchmark
+  public Message decode() {
+    return decoder.decode(encoded.duplicate());
+  }
+
+  /**
+   * The size in bytes of the last encoded message, reported as an event count.
+   */
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  public static class EncodedSize {
+    public long encodedBytes;
+  }
+
+  private Message message(final boolean dispatch) {
+    final Address address = GridAddress.from(UUID.randomUUID(), "counter");
+    final Definition.SerializationProxy definition =
+            Definition.SerializationProxy.from(Definition.has(CounterActor.class, Arrays.asList("counter", 0)));
+
+    switch (this.message) {
+    case "answer":
+      return new Answer<>(0x1234_5678_9abcL, 42L);
+    case "grid-deliver":
+      return new GridDeliver<>(Counter.class, address, definition, consumer("label", 7, dispatch), 0x1234_5678_9abcL, Representation);
+    default:
+      final int snapshotBytes = Integer.parseInt(this.message.substring(this.message.indexOf('-') + 1));
+      return new Relocate(address, definition, new Snapshot("counter", snapshotBytes), Arrays.asList(
+              new GridDeliver<>(Counter.class, address, definition, consumer("first", 1, dispatch), Representation),
+              new GridDeliver<>(Counter.class, address, definition, consumer("second", 2, dispatch), Representation)));
+    }
+  }
+
+  // as generated in actor proxies: a static lambda capturing the arguments
+  private static SerializableConsumer<Counter> consumer(final String label, final int amount, final boolean dispatch) {
+    final SerializableConsumer<Counter> consumer = counter -> counter.add(label, amount);
+    return dispatch ? RemoteInvocation.from(consumer) : consumer;
+  }
+
+  public interface Counter {
+    void add(final String label, final int amount);
+  }
+
+  public static class CounterActor extends Actor implements Counter {
+    private final String name;
+    private int count;
+
+    public CounterActor(final String name, final int count) {
+      this.name = name;
+      this.count = count;
+    }
+
+    @Override
+    public void add(final String label, final int amount) {
+      count += amount;
+    }
+
+    @Override
+    public String toString() {
+      return name + ":" + count;
+    }
+  }
+
+  public static final class Snapshot implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    public final String name;
+    public final long[] values;
+
+    Snapshot(final String name, final int bytes) {
+      this.name = name;
+      this.values = new long[bytes / Long.BYTES];
+      for (int index = 0; index < values.length; ++index) {
+        values[index] = index * 0x9e3779b97f4a7c15L;
+      }
+    }
+  }
+}
@@ -0,0 +1,69 @@
+// Copyright © 2012-2023 VLINGO LABS. All rights reserved.
+//
+// This Source Code Form is subject to the terms of the
+// Mozilla Public License, v. 2.0. If a copy of the MPL
+// was not distributed with this file, You can obtain
+// one at https://mozilla.org/MPL/2.0/.
+
+package io.vlingo.xoom.lattice.grid.hashring;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.vlingo.xoom.wire.node.Id;
+
+/**
+ * Measures the membership changes and the {@code copy()} that {@code Grid} makes on every
+ * node join and leave. The MD5 rings do not support {@code copy()}, and the
+ * {@code MurmurArrayHashRing} does not exclude nodes reliably, so they are not measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HashRingChurnBenchmark {
+  @Param({ "murmur-sorted-map", "snapshot", "maglev", "rendezvous", "jump", "bounded-load" })
+  public String ring;
+
+  @Param({ "3", "20", "200" })
+  public int nodes;
+
+  @Param({ "10", "100", "1000" })
+  public int pointsPerNode;
+
+  private HashRing<Id> hashRing;
+  private Id churning;
+
+  @Setup
+  public void setUp() throws Exception {
+    hashRing = HashRings.of(ring, pointsPerNode);
+    for (int node = 1; node <= nodes; ++node) {
+      hashRing.includeNode(Id.of(node));
+    }
+    churning = Id.of(nodes + 1);
+  }
+
+  @Benchmark
+  public HashRing<Id> includeThenExcludeNode() {
+    hashRing.includeNode(churning);
+    return hashRing.excludeNode(churning);
+  }
+
+  @Benchmark
+  public HashRing<Id> copy() {
+    return hashRing.copy();
+  }
+}
@@ -0,0 +1,78 @@
+// Copyright © 2012-2023 VLINGO LABS. All rights reserved.
+//
+// This Source Code Form is subject to the terms of the
+// Mozilla Public License, v. 2.0. If a copy of the MPL
+// was not distributed with this file, You can obtain
+// one at https://mozilla.org/MPL/2.0/.
+
+package io.vlingo.xoom.lattice.grid.hashring;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.vlingo.xoom.wire.node.Id;
+
+/**
+ * Measures {@code nodeOf} of every {@code HashRing} for keys as {@code Grid} passes them
+ * ({@code UUID}) and as strings. The maglev, rendezvous and jump rings do not use
+ * {@code pointsPerNode}. Run with {@code -prof gc} to see the allocation per lookup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HashRingLookupBenchmark {
+  private static final int Keys = 4096; // a power of two
+
+  @Param({ "md5-array", "md5-list", "murmur-array", "murmur-sorted-map", "snapshot", "maglev", "rendezvous", "jump", "bounded-load" })
+  public String ring;
+
+  @Param({ "3", "20", "200" })
+  public int nodes;
+
+  @Param({ "10", "100", "1000" })
+  public int pointsPerNode;
+
+  private HashRing<Id> hashRing;
+  private UUID[] ids;
+  private String[] idStrings;
+  private int next;
+
+  @Setup
+  public void setUp() throws Exception {
+    hashRing = HashRings.of(ring, pointsPerNode);
+    for (int node = 1; node <= nodes; ++node) {
+      hashRing.includeNode(Id.of(node));
+    }
+    ids = new UUID[Keys];
+    idStrings = new String[Keys];
+    for (int index = 0; index < Keys; ++index) {
+      ids[index] = UUID.randomUUID();
+      idStrings[index] = ids[index].toString();
+    }
+  }
+
+  @Benchmark
+  public Id nodeOfUUID() {
+    return hashRing.nodeOf(ids[next++ & (Keys - 1)]);
+  }
+
+  @Benchmark
+  public Id nodeOfString() {
+    return hashRing.nodeOf(idStrings[next++ & (Keys - 1)]);
+  }
+}
@@ -0,0 +1,52 @@
+// Copyright © 2012-2023 VLINGO LABS. All rights reserved.
+//
+// This Source Code Form is subject to the terms of the
+// Mozilla Public License, v. 2.0. If a copy of the MPL
+// was not distributed with this file, You can obtain
+// one at https://mozilla.org/MPL/2.0/.
+
+package io.vlingo.xoom.lattice.grid.hashring;
+
+/**
+ * Builds each {@code HashRing} implementation by the name used in benchmark {@code @Param}s.
+ */
+public final class HashRings {
+  public static <T> HashRing<T> of(final String type, final int pointsPerNode) throws Exception {
+    switch (type) {
+    case "md5-array":
+      return new MD5ArrayHashRing<>(pointsPerNode, HashRings::point);
+    case "md5-list":
+      return new MD5ListHashRing<>(pointsPerNode, HashRings::point);
+    case "murmur-array":
+      return new MurmurArrayHashRing<>(pointsPerNode, HashRings::point);
+    case "murmur-sorted-map":
+      return new MurmurSortedMapHashRing<>(pointsPerNode);
+    case "snapshot":
+      return new SnapshotHashRing<>(pointsPerNode);
+    case "maglev":
+      return new MaglevHashRing<>();
+    case "rendezvous":
+      return new RendezvousHashRing<>();
+    case "jump":
+      return new JumpHashRing<>();
+    case "bounded-load":
+      return new BoundedLoadHashRing<>(new SnapshotHashRing<>(pointsPerNode), 0.25);
+    default:
+      throw new IllegalArgumentException("Unknown ring: " + type);
+    }
+  }
+
+  private static <T> HashedNodePoint<T> point(final Integer hash, final T node) {
+    return new HashedNodePoint<T>(hash, node) {
+      @Override
+      public void excluded() {
+      }
+
+      @Override
+      public void included() {
+      }
+    };
+  }
+
+  private HashRings() { }
+}
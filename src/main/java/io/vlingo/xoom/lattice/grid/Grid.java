@@ -9,8 +9,12 @@ package io.vlingo.xoom.lattice.grid;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 import io.vlingo.xoom.cluster.model.NodeProperties;
@@ -33,8 +37,14 @@ import io.vlingo.xoom.actors.__InternalOnlyAccessor;
 import io.vlingo.xoom.common.identity.IdentityGeneratorType;
 import io.vlingo.xoom.lattice.grid.application.GridActorControl;
 import io.vlingo.xoom.lattice.grid.application.QuorumObserver;
+import io.vlingo.xoom.lattice.grid.application.Redirects;
+import io.vlingo.xoom.lattice.grid.hashring.BoundedLoadHashRing;
 import io.vlingo.xoom.lattice.grid.hashring.HashRing;
-import io.vlingo.xoom.lattice.grid.hashring.MurmurSortedMapHashRing;
+import io.vlingo.xoom.lattice.grid.hashring.JumpHashRing;
+import io.vlingo.xoom.lattice.grid.hashring.LoadPlacement;
+import io.vlingo.xoom.lattice.grid.hashring.MaglevHashRing;
+import io.vlingo.xoom.lattice.grid.hashring.RendezvousHashRing;
+import io.vlingo.xoom.lattice.grid.hashring.SnapshotHashRing;
 import io.vlingo.xoom.wire.node.Id;
 
 public class Grid extends Stage implements GridRuntime {
@@ -80,7 +90,9 @@ public class Grid extends Stage implements GridRuntime {
 
 
   private final GridNodeBootstrap gridNodeBootstrap;
+  private final GridProperties gridProperties;
   private final HashRing<Id> hashRing;
+  private final Redirects redirects;
 
   private Id nodeId;
   private Collection<Node> liveNodes = new ArrayList<>();
@@ -95,7 +107,9 @@ public class Grid extends Stage implements GridRuntime {
     super(world, addressFactory, NodeProperties.from(localNodeProperties).getName(), GridStageBuckets, GridStageInitialCapacity);
 
     this.isHealthyCluster = false;
-    this.hashRing = new MurmurSortedMapHashRing<>(100);
+    this.gridProperties = GridProperties.from(clusterProperties);
+    this.hashRing = hashRingOf(gridProperties);
+    this.redirects = new Redirects(hashRing, gridProperties.redirectTimeToLive(), gridProperties.redirectCacheSize());
     this.clusterAppStageName = clusterProperties.clusterApplicationStageName();
     extenderStartDirectoryScanner(true); // forces DirectoryEvictor into action
     this.gridNodeBootstrap = GridNodeBootstrap.boot(this, localNodeProperties, clusterProperties, false);
@@ -107,7 +121,7 @@ public class Grid extends Stage implements GridRuntime {
 
   @Override
   protected ActorFactory.MailboxWrapper mailboxWrapper() {
-    return (address, mailbox) -> new GridMailbox(mailbox, nodeId, address, hashRing, outbound);
+    return (address, mailbox) -> new GridMailbox(mailbox, nodeId, address, hashRing, redirects, outbound);
   }
 
   public void terminate() {
@@ -147,15 +161,11 @@ public class Grid extends Stage implements GridRuntime {
     final HashRing<Id> copy = this.hashRing.copy();
     this.hashRing.excludeNode(nodeId);
 
-    __InternalOnlyAccessor.allActorAddresses(this).stream()
-            .filter(address -> address.isDistributable() && isAssignedTo(copy, address, nodeId))
-            .forEach(address -> {
-              final Actor actor = __InternalOnlyAccessor.actorOf(this, address);
-              final Id toNode = hashRing.nodeOf(address.idString());
-              if (toNode != null) { // last node in the cluster?
-                relocateActorTo(actor, address, toNode);
-              }
-            });
+    // no id is reassigned when this is the last node in the cluster
+    relocateReassigned(hashRing.reassignment(copy, nodeId), toNode -> true);
+    if (outbound != null) {
+      outbound.drainRelocations();
+    }
   }
 
   @Override
@@ -185,11 +195,21 @@ public class Grid extends Stage implements GridRuntime {
     return gridNodeBootstrap;
   }
 
+  @Override
+  public GridProperties gridProperties() {
+    return gridProperties;
+  }
+
   @Override
   public HashRing<Id> hashRing() {
     return hashRing;
   }
 
+  @Override
+  public Redirects redirects() {
+    return redirects;
+  }
+
   @Override
   public void nodeJoined(final Id newNode) {
     if (nodeId.equals(newNode)) {
@@ -200,13 +220,64 @@ public class Grid extends Stage implements GridRuntime {
     final HashRing<Id> copy = this.hashRing.copy();
     this.hashRing.includeNode(newNode);
 
-    __InternalOnlyAccessor.allActorAddresses(this).stream()
-        .filter(address ->
-            address.isDistributable() && shouldRelocateTo(copy, address, newNode))
-        .forEach(address -> {
-          final Actor actor = __InternalOnlyAccessor.actorOf(this, address);
-          relocateActorTo(actor, address, newNode);
-        });
+    relocateReassigned(hashRing.reassignment(copy, nodeId), newNode::equals);
+  }
+
+  @Override
+  public void nodeLoads(final Id node, final Map<Id, Long> loads) {
+    if (hashRing instanceof BoundedLoadHashRing) {
+      ((BoundedLoadHashRing<Id>) this.hashRing).report(node, loads);
+    }
+  }
+
+  @Override
+  public Map<Id, Long> localLoads() {
+    final Map<Id, Long> loads = new HashMap<>();
+    if (!(hashRing instanceof BoundedLoadHashRing)) {
+      return loads;
+    }
+
+    final BoundedLoadHashRing<Id> bounded = (BoundedLoadHashRing<Id>) this.hashRing;
+    for (final Address address : __InternalOnlyAccessor.allActorAddresses(this)) {
+      if (address.isDistributable()) {
+        final Actor actor = __InternalOnlyAccessor.actorOf(this, address);
+        // an actor suspended for relocation already counts on the node it moves to
+        if (actor != null && !actor.isStopped() && !GridActorOperations.isSuspendedForRelocation(actor)) {
+          final Id naturalNode = bounded.naturalNodeOf(address.idTyped());
+          if (naturalNode != null) {
+            loads.merge(naturalNode, 1L, Long::sum);
+          }
+        }
+      }
+    }
+    return loads;
+  }
+
+  @Override
+  public LoadPlacement<Id> nextPlacement() {
+    if (!(hashRing instanceof BoundedLoadHashRing)) {
+      return null;
+    }
+    // only the live node of the lowest id computes placements, so that all install the same ones
+    if (liveNodes.stream().anyMatch(node -> node.id().compareTo(nodeId) < 0)) {
+      return null;
+    }
+    return ((BoundedLoadHashRing<Id>) this.hashRing).nextPlacement();
+  }
+
+  @Override
+  public void placement(final LoadPlacement<Id> placement) {
+    if (!(hashRing instanceof BoundedLoadHashRing)) {
+      return;
+    }
+
+    final HashRing<Id> copy = this.hashRing.copy();
+    if (!((BoundedLoadHashRing<Id>) this.hashRing).place(placement) || copy.epoch() == this.hashRing.epoch()) {
+      return;
+    }
+
+    // the excess ids spill off overloaded nodes, and return once they are well below capacity
+    relocateReassigned(hashRing.reassignment(copy, nodeId), toNode -> true);
   }
 
   @Override
@@ -214,6 +285,21 @@ public class Grid extends Stage implements GridRuntime {
     this.liveNodes = liveNodes;
   }
 
+  /**
+   * Relocates the local distributable actors whose ids {@code reassignment} maps to a node
+   * accepted by {@code toNodes}. The outbound control ships them in chunks per node.
+   */
+  private void relocateReassigned(final Function<Object, Id> reassignment, final Predicate<Id> toNodes) {
+    for (final Address address : __InternalOnlyAccessor.allActorAddresses(this)) {
+      if (address.isDistributable()) {
+        final Id toNode = reassignment.apply(address.idTyped());
+        if (toNode != null && toNodes.test(toNode)) {
+          relocateActorTo(__InternalOnlyAccessor.actorOf(this, address), address, toNode);
+        }
+      }
+    }
+  }
+
   private void relocateActorTo(Actor actor, Address address, Id toNode) {
     if (!GridActorOperations.isSuspendedForRelocation(actor)) {
       logger.debug("Relocating actor [{}] to [{}]", address, toNode);
@@ -229,13 +315,22 @@ public class Grid extends Stage implements GridRuntime {
     }
   }
 
-  private boolean shouldRelocateTo(HashRing<Id> previous, Address address, Id newNode) {
-    return isAssignedTo(previous, address, nodeId)
-        && isAssignedTo(this.hashRing, address, newNode);
-  }
-
-  private static boolean isAssignedTo(HashRing<Id> ring, Address a, Id node) {
-    return node.equals(ring.nodeOf(a.idString()));
+  private static HashRing<Id> hashRingOf(final GridProperties properties) {
+    final HashRing<Id> ring;
+    switch (properties.hashRingType()) {
+    case "maglev":
+      ring = new MaglevHashRing<>(properties.hashRingTableSize());
+      break;
+    case "rendezvous":
+      ring = new RendezvousHashRing<>();
+      break;
+    case "jump":
+      ring = new JumpHashRing<>();
+      break;
+    default:
+      ring = new SnapshotHashRing<>(properties.hashRingPoints());
+    }
+    return properties.hashRingBoundedLoad() ? new BoundedLoadHashRing<>(ring, properties.hashRingBoundedLoadEpsilon()) : ring;
   }
 
   @Override
@@ -284,7 +379,7 @@ public class Grid extends Stage implements GridRuntime {
   @Override
   protected <T> ActorProtocolActor<T> actorProtocolFor(Class<T> protocol, Definition definition, Actor parent, Address maybeAddress, Mailbox maybeMailbox, Supervisor maybeSupervisor, Logger logger) {
     final Address address = maybeAddress == null ? addressFactory().unique() : maybeAddress;
-    final Id node = hashRing.nodeOf(address.idString());
+    final Id node = hashRing.nodeOf(address.idTyped());
     final Mailbox mailbox = maybeRemoteMailbox(address, definition, maybeMailbox, () -> {
       outbound.start(node, nodeId, protocol, address, Definition.SerializationProxy.from(definition));
     });
@@ -294,7 +389,7 @@ public class Grid extends Stage implements GridRuntime {
   @Override
   protected ActorProtocolActor<Object>[] actorProtocolFor(Class<?>[] protocols, Definition definition, Actor parent, Address maybeAddress, Mailbox maybeMailbox, Supervisor maybeSupervisor, Logger logger) {
     final Address address = maybeAddress == null ? addressFactory().unique() : maybeAddress;
-    final Id node = hashRing.nodeOf(address.idString());
+    final Id node = hashRing.nodeOf(address.idTyped());
     final Mailbox mailbox = maybeRemoteMailbox(address, definition, maybeMailbox, () -> {
       outbound.start(node, nodeId, protocols[0], address, Definition.SerializationProxy.from(definition)); // TODO remote start all protocols
     });
@@ -311,7 +406,7 @@ public class Grid extends Stage implements GridRuntime {
       }
     }
 
-    final Id node = hashRing.nodeOf(address.idString());
+    final Id node = hashRing.nodeOf(address.idTyped());
     final Mailbox __mailbox;
     if (node != null && !node.equals(nodeId)) {
       out.run();
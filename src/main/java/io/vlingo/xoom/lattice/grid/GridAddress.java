@@ -15,6 +15,16 @@ import io.vlingo.xoom.actors.UUIDAddress;
 public final class GridAddress extends UUIDAddress implements Serializable {
   private static final long serialVersionUID = -7172480689137574451L;
 
+  /**
+   * Answers the {@code GridAddress} of {@code id} and {@code name}, as taken apart by a message codec.
+   * @param id the UUID identity of the address
+   * @param name the String name of the address, which may be null
+   * @return GridAddress
+   */
+  public static GridAddress from(final UUID id, final String name) {
+    return new GridAddress(id, name);
+  }
+
   @Override
   public boolean isDistributable() {
     return true;
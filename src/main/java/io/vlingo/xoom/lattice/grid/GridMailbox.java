@@ -26,6 +26,7 @@ import io.vlingo.xoom.actors.Returns;
 import io.vlingo.xoom.actors.Stoppable;
 import io.vlingo.xoom.common.SerializableConsumer;
 import io.vlingo.xoom.lattice.grid.application.GridActorControl;
+import io.vlingo.xoom.lattice.grid.application.Redirects;
 import io.vlingo.xoom.lattice.grid.hashring.HashRing;
 import io.vlingo.xoom.wire.node.Id;
 
@@ -38,23 +39,48 @@ public class GridMailbox implements Mailbox {
   private final Address address;
 
   private final HashRing<Id> hashRing;
+  private final Redirects redirects;
 
   private final GridActorControl.Outbound outbound;
 
+  private volatile Owner owner; // the last nodeOf(address) answer, valid while the ring epoch is unchanged
+
   public GridMailbox(Mailbox local, Id localId, Address address, HashRing<Id> hashRing, GridActorControl.Outbound outbound) {
+    this(local, localId, address, hashRing, Redirects.disabled(), outbound);
+  }
+
+  public GridMailbox(Mailbox local, Id localId, Address address, HashRing<Id> hashRing, Redirects redirects, GridActorControl.Outbound outbound) {
     this.local = local;
     this.localId = localId;
     this.address = address;
     this.hashRing = hashRing;
+    this.redirects = redirects;
     this.outbound = outbound;
   }
 
+  private Id ownerOf() {
+    final long epoch = hashRing.epoch(); // read before nodeOf, so a concurrent change invalidates the answer
+    final Id redirected = redirects.ownerOf(address, epoch); // the owner told by a node that forwarded to it
+    if (redirected != null) {
+      return redirected;
+    }
+    final Owner cached = owner;
+    if (cached != null && cached.epoch == epoch) {
+      return cached.node;
+    }
+    final Id node = hashRing.nodeOf(address.idTyped());
+    if (epoch != HashRing.Unversioned) {
+      owner = new Owner(epoch, node);
+    }
+    return node;
+  }
+
   private void delegateUnlessIsRemote(Consumer<Id> remote, Runnable consumer) {
     if (!address.isDistributable()) {
       consumer.run();
       return;
     }
-    Id nodeOf = hashRing.nodeOf(address.idString());
+    Id nodeOf = ownerOf();
     if (nodeOf == null || nodeOf.equals(localId)) {
       consumer.run();
     } else {
@@ -66,7 +92,7 @@ public class GridMailbox implements Mailbox {
     if (!address.isDistributable()) {
       return supplier.get();
     }
-    Id nodeOf = hashRing.nodeOf(address.idString());
+    Id nodeOf = ownerOf();
     if (nodeOf == null || nodeOf.equals(localId)) {
       return supplier.get();
     } else {
@@ -192,4 +218,14 @@ public class GridMailbox implements Mailbox {
       local.run();
     }, local);
   }
+
+  private static final class Owner {
+    final long epoch;
+    final Id node;
+
+    Owner(final long epoch, final Id node) {
+      this.epoch = epoch;
+      this.node = node;
+    }
+  }
 }
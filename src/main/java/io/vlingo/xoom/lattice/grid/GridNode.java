@@ -7,54 +7,75 @@
 
 package io.vlingo.xoom.lattice.grid;
 
-import io.vlingo.xoom.actors.Definition;
-import io.vlingo.xoom.actors.Returns;
 import io.vlingo.xoom.cluster.model.application.ClusterApplicationAdapter;
 import io.vlingo.xoom.cluster.model.attribute.Attribute;
 import io.vlingo.xoom.cluster.model.attribute.AttributesProtocol;
 import io.vlingo.xoom.cluster.model.node.Registry;
+import io.vlingo.xoom.common.Cancellable;
+import io.vlingo.xoom.common.Scheduled;
 import io.vlingo.xoom.common.SerializableConsumer;
 import io.vlingo.xoom.lattice.grid.InboundGridActorControl.InboundGridActorControlInstantiator;
 import io.vlingo.xoom.lattice.grid.application.*;
 import io.vlingo.xoom.lattice.grid.application.OutboundGridActorControl.OutboundGridActorControlInstantiator;
+import io.vlingo.xoom.lattice.grid.application.message.Decoder;
+import io.vlingo.xoom.lattice.grid.application.message.Encoder;
 import io.vlingo.xoom.lattice.grid.application.message.GridDeliver;
 import io.vlingo.xoom.lattice.grid.application.message.UnAckMessage;
+import io.vlingo.xoom.lattice.grid.application.message.serialization.CompactDecoder;
+import io.vlingo.xoom.lattice.grid.application.message.serialization.CompactDictionary;
+import io.vlingo.xoom.lattice.grid.application.message.serialization.CompactEncoder;
 import io.vlingo.xoom.lattice.grid.application.message.serialization.FSTDecoder;
 import io.vlingo.xoom.lattice.grid.application.message.serialization.FSTEncoder;
-import io.vlingo.xoom.lattice.util.ExpiringHardRefHolder;
+import io.vlingo.xoom.lattice.grid.hashring.LoadPlacement;
 import io.vlingo.xoom.lattice.util.HardRefHolder;
 import io.vlingo.xoom.lattice.util.OutBuffers;
+import io.vlingo.xoom.lattice.util.WheelHardRefHolder;
 import io.vlingo.xoom.wire.fdx.outbound.ApplicationOutboundStream;
 import io.vlingo.xoom.wire.message.RawMessage;
 import io.vlingo.xoom.wire.node.Id;
 import io.vlingo.xoom.wire.node.Node;
 import org.nustaq.serialization.FSTConfiguration;
 
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.stream.Collectors;
 
-public class GridNode extends ClusterApplicationAdapter {
-  // Sent messages waiting for continuation (answer) onto current node
-  private static final Map<UUID, UnAckMessage> gridMessagesCorrelations = new ConcurrentHashMap<>();
-  private static final Map<UUID, Returns<?>> actorMessagesCorrelations = new ConcurrentHashMap<>();
+public class GridNode extends ClusterApplicationAdapter implements Scheduled<Object> {
+  // Cluster attribute set of the natural loads published for the bounded-load HashRing, by node id
+  private static final String LoadAttributeSet = "xoom-grid-node-load";
+  // Cluster attribute set of the single placement computed for the bounded-load HashRing
+  private static final String PlacementAttributeSet = "xoom-grid-placement";
+  private static final String PlacementAttribute = "placement";
+  private static final long HolderTick = 1000;
 
   private AttributesProtocol client;
   private final GridRuntime gridRuntime;
   private final Node localNode;
   private final Registry registry;
 
+  // Sent messages waiting for continuation (answer) onto current node
+  private final CorrelationTable correlations;
+  private final Cancellable correlationsExpiry;
+
+  private final Cancellable holderExpiry;
+
   private final GridActorControl.Outbound outbound;
 
-  private final GridActorControl.Inbound inbound;
+  private final InboundControls inbounds;
+
+  private final InboundCredits credits;
 
   private final ApplicationMessageHandler applicationMessageHandler;
 
   private final Collection<QuorumObserver> quorumObservers;
 
+  private Cancellable loadPublisher;
+  private boolean loadPublished;
+  private boolean placementPublished;
+
   public GridNode(final GridRuntime gridRuntime, final Node localNode, final Registry registry) {
     this.gridRuntime = gridRuntime;
     this.localNode = localNode;
@@ -64,8 +85,25 @@ public class GridNode extends ClusterApplicationAdapter {
     // set classloader with available proxy classes
     conf.setClassLoader(gridRuntime.worldClassLoader());
 
-    final HardRefHolder holder = gridRuntime.world().actorFor(HardRefHolder.class,
-        Definition.has(ExpiringHardRefHolder.class, ExpiringHardRefHolder::new));
+    final GridProperties properties = gridRuntime.gridProperties();
+    final Encoder encoder;
+    final Decoder decoder;
+    if (properties.compactCodec()) {
+      final CompactDictionary dictionary = new CompactDictionary(gridRuntime.worldClassLoader());
+      properties.compactCodecClasses().forEach(dictionary::registerClassName);
+      properties.compactCodecRepresentations().forEach(dictionary::registerString);
+      encoder = new CompactEncoder(dictionary, conf);
+      decoder = new CompactDecoder(dictionary, conf);
+    } else {
+      encoder = new FSTEncoder(conf);
+      decoder = new FSTDecoder(conf);
+    }
+
+    this.correlations = new CorrelationTable(properties.askTimeout(), properties.timerTick());
+    this.correlationsExpiry = scheduler().schedule(correlations, null, properties.timerTick(), properties.timerTick());
+
+    final WheelHardRefHolder holder = new WheelHardRefHolder(properties.bufferHoldTimeout(), HolderTick);
+    this.holderExpiry = scheduler().schedule(holder, null, HolderTick, HolderTick);
 
     this.outbound =
             stage().actorFor(
@@ -74,36 +112,74 @@ public class GridNode extends ClusterApplicationAdapter {
                     new OutboundGridActorControlInstantiator(
                                     localNode.id(),
                                     registry,
-                                    new FSTEncoder(conf),
-                                    gridMessagesCorrelations::put,
-                                    actorMessagesCorrelations::put,
-                                    new OutBuffers(holder)));
+                                    encoder,
+                                    correlations,
+                                    outBuffersOf(properties, holder),
+                                    properties));
 
     this.gridRuntime.setOutbound(outbound);
 
-    this.inbound =
+    this.credits = properties.flowControlEnabled()
+            ? new InboundCredits(properties.flowWindow(), properties.flowInboundLimit(), outbound::grant)
+            : InboundCredits.disabled();
+
+    // one inbound control per pipeline worker, so that the workers dispatch in parallel
+    final GridActorControl.Inbound[] controls = new GridActorControl.Inbound[Math.max(1, properties.inboundWorkers())];
+    for (int index = 0; index < controls.length; ++index) {
+      controls[index] =
+              stage().actorFor(
+                      GridActorControl.Inbound.class,
+                      InboundGridActorControl.class,
+                      new InboundGridActorControlInstantiator(
+                              gridRuntime,
+                              correlations,
+                              credits));
+    }
+    this.inbounds = new InboundControls(controls);
+
+    // with lanes, answers are completed by an inbound control of their own, not behind deliveries
+    final GridActorControl.Inbound answers = !properties.lanesEnabled() ? controls[0] :
             stage().actorFor(
                     GridActorControl.Inbound.class,
                     InboundGridActorControl.class,
                     new InboundGridActorControlInstantiator(
                             gridRuntime,
-                            gridMessagesCorrelations::remove,
-                            actorMessagesCorrelations::remove));
+                            correlations));
 
     this.applicationMessageHandler =
             new GridApplicationMessageHandler(
                     localNode.id(),
                     gridRuntime.hashRing(),
-                    inbound,
+                    inbounds,
+                    answers,
                     outbound,
-                    new FSTDecoder(conf), holder,
-                    scheduler());
+                    decoder, holder,
+                    scheduler(),
+                    credits,
+                    properties,
+                    gridRuntime.redirects());
 
     this.quorumObservers = new ArrayList<>(3);
 
     registerQuorumObserver(gridRuntime);
   }
 
+  private static OutBuffers outBuffersOf(final GridProperties properties, final HardRefHolder holder) {
+    final OutBuffers.Overflow overflow;
+    switch (properties.outboundBufferOverflow()) {
+    case "reject":
+      overflow = OutBuffers.Overflow.Reject;
+      break;
+    case "spill":
+      overflow = OutBuffers.Overflow.Spill;
+      break;
+    default:
+      overflow = OutBuffers.Overflow.DropOldest;
+    }
+    return new OutBuffers(holder, properties.outboundBufferBytes(), overflow,
+        Paths.get(properties.outboundBufferSpillDirectory()), properties.outboundBufferSpillSegmentBytes());
+  }
+
   public final void registerQuorumObserver(final QuorumObserver observer) {
     this.quorumObservers.add(observer);
   }
@@ -112,6 +188,46 @@ public class GridNode extends ClusterApplicationAdapter {
   public void start() {
     logger().debug("GRID: Started on node: " + localNode);
     gridRuntime.hashRing().includeNode(localNode.id());
+
+    final GridProperties properties = gridRuntime.gridProperties();
+    if (properties.hashRingBoundedLoad()) {
+      final long interval = properties.hashRingBoundedLoadInterval();
+      this.loadPublisher = scheduler().schedule(selfAs(Scheduled.class), null, interval, interval);
+    }
+  }
+
+  /**
+   * Publishes the natural loads of the local node to the cluster, for the bounded-load
+   * {@code HashRing}, and the next placement when this node computes them.
+   */
+  @Override
+  public void intervalSignal(final Scheduled<Object> scheduled, final Object data) {
+    final Map<Id, Long> loads = gridRuntime.localLoads();
+    gridRuntime.nodeLoads(localNode.id(), loads);
+    final LoadPlacement<Id> placement = gridRuntime.nextPlacement();
+    if (placement != null) {
+      gridRuntime.placement(placement);
+    }
+    if (client == null) {
+      return;
+    }
+
+    final String name = String.valueOf(localNode.id().value());
+    if (loadPublished) {
+      client.replace(LoadAttributeSet, name, loadsOf(loads));
+    } else {
+      client.add(LoadAttributeSet, name, loadsOf(loads));
+      loadPublished = true;
+    }
+    if (placement != null) {
+      final String encoded = placement.encoded(id -> String.valueOf(id.value()));
+      if (placementPublished) {
+        client.replace(PlacementAttributeSet, PlacementAttribute, encoded);
+      } else {
+        client.add(PlacementAttributeSet, PlacementAttribute, encoded);
+        placementPublished = true;
+      }
+    }
   }
 
   @Override
@@ -145,8 +261,10 @@ public class GridNode extends ClusterApplicationAdapter {
   public void informNodeLeftCluster(final Id nodeId, final boolean isHealthyCluster) {
     logger().debug("GRID: Node left: " + nodeId + " and is healthy: " + isHealthyCluster);
     outbound.informClusterIsHealthy(isHealthyCluster);
+    outbound.nodeLeft(nodeId);
     gridRuntime.hashRing().excludeNode(nodeId);
     applicationMessageHandler.informClusterIsHealthy(isHealthyCluster);
+    inbounds.forEach(inbound -> inbound.nodeLeft(nodeId));
     retryUnAckMessagesOn(nodeId);
   }
 
@@ -177,6 +295,7 @@ public class GridNode extends ClusterApplicationAdapter {
   public void informAttributeAdded(final String attributeSetName, final String attributeName) {
     final Attribute<String> attr = client.attribute(attributeSetName, attributeName);
     logger().debug("GRID: Attribute Set " + attributeSetName + " Attribute Added: " + attributeName + " Value: " + attr.value);
+    informNodeLoad(attributeSetName, attributeName, attr);
   }
 
   @Override
@@ -194,6 +313,7 @@ public class GridNode extends ClusterApplicationAdapter {
   public void informAttributeReplaced(final String attributeSetName, final String attributeName) {
     final Attribute<String> attr = client.attribute(attributeSetName, attributeName);
     logger().debug("GRID: Attribute Set " + attributeSetName + " Attribute Replaced: " + attributeName + " Value: " + attr.value);
+    informNodeLoad(attributeSetName, attributeName, attr);
   }
 
   @Override
@@ -201,10 +321,51 @@ public class GridNode extends ClusterApplicationAdapter {
     if (!isStopped()) {
       logger().debug("GRID: Stopping...");
       gridRuntime.relocateActors();
+      correlationsExpiry.cancel();
+      holderExpiry.cancel();
+      applicationMessageHandler.stop();
+      if (loadPublisher != null) {
+        loadPublisher.cancel();
+      }
       super.stop();
     }
   }
 
+  private void informNodeLoad(final String attributeSetName, final String attributeName, final Attribute<String> attr) {
+    if (attr == null || attr.value == null) {
+      return;
+    }
+    if (LoadAttributeSet.equals(attributeSetName)) {
+      gridRuntime.nodeLoads(Id.of(Short.parseShort(attributeName)), loadsFrom(attr.value));
+    } else if (PlacementAttributeSet.equals(attributeSetName)) {
+      // another node published it first, so this one replaces it once it computes placements
+      placementPublished = true;
+      gridRuntime.placement(LoadPlacement.from(attr.value, id -> Id.of(Short.parseShort(id))));
+    }
+  }
+
+  private static String loadsOf(final Map<Id, Long> loads) {
+    final StringBuilder builder = new StringBuilder();
+    for (final Map.Entry<Id, Long> load : loads.entrySet()) {
+      if (builder.length() > 0) {
+        builder.append(',');
+      }
+      builder.append(load.getKey().value()).append(':').append(load.getValue());
+    }
+    return builder.toString();
+  }
+
+  private static Map<Id, Long> loadsFrom(final String encoded) {
+    final Map<Id, Long> loads = new HashMap<>();
+    for (final String load : encoded.split(",")) {
+      final int colon = load.indexOf(':');
+      if (colon > 0) {
+        loads.put(Id.of(Short.parseShort(load.substring(0, colon))), Long.parseLong(load.substring(colon + 1)));
+      }
+    }
+    return loads;
+  }
+
   /**
    * Retry unacknowledged messages onto a new node (recipient).
    *
@@ -212,19 +373,15 @@ public class GridNode extends ClusterApplicationAdapter {
    */
   @SuppressWarnings("unchecked")
   private void retryUnAckMessagesOn(final Id leftNode) {
-    final Map<UUID, UnAckMessage> retryMessages = gridMessagesCorrelations.entrySet().stream()
-            .filter(entry -> leftNode.equals(entry.getValue().getReceiver()))
-            .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
-
-    retryMessages.keySet()
-            .forEach(gridMessagesCorrelations::remove);
+    final List<UnAckMessage> retryMessages = correlations.removeRetriable(leftNode);
 
-    for (UnAckMessage retryMessage : retryMessages.values()) {
+    for (UnAckMessage retryMessage : retryMessages) {
       GridDeliver<?> gridDeliver = retryMessage.getMessage();
-      final Id newRecipient = gridRuntime.hashRing().nodeOf(gridDeliver.address.idString());
+      final Id newRecipient = gridRuntime.hashRing().nodeOf(gridDeliver.address.idTyped());
 
       if (newRecipient.equals(localNode.id())) {
-        inbound.gridDeliver(newRecipient,
+        credits.dispatched(); // processed by the inbound control like any received delivery
+        inbounds.of(gridDeliver.address).gridDeliver(newRecipient,
                 newRecipient,
                 retryMessage.getReturns(),
                 (Class<Object>) gridDeliver.protocol,
@@ -0,0 +1,503 @@
+// Copyright © 2012-2023 VLINGO LABS. All rights reserved.
+//
+// This Source Code Form is subject to the terms of the
+// Mozilla Public License, v. 2.0. If a copy of the MPL
+// was not distributed with this file, You can obtain
+// one at https://mozilla.org/MPL/2.0/.
+
+package io.vlingo.xoom.lattice.grid;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Grid tuning options, read from the {@code grid.*} keys of the cluster properties
+ * (e.g. {@code xoom-cluster.properties}). Every option has a default, so a properties
+ * file without any {@code grid.*} keys behaves as before.
+ */
+public final class GridProperties {
+  private static final int DefaultBatchMaxMessages = 64;
+  private static final int DefaultBatchMaxBytes = 8192;
+  private static final int DefaultBufferSize = 65536;
+  private static final long DefaultAskTimeout = 30000;
+  private static final long DefaultTimerTick = 100;
+  private static final long DefaultBufferHoldTimeout = 20000;
+  private static final int DefaultOutboundBufferBytes = 4 * 1024 * 1024;
+  private static final int DefaultOutboundSpillSegmentBytes = 64 * 1024 * 1024;
+  private static final int DefaultFlowWindow = 1024;
+  private static final int DefaultFlowPending = 8192;
+  private static final int DefaultInboundQueueCapacity = 4096;
+  private static final int DefaultInboundCacheSize = 4096;
+  private static final int DefaultDefinitionCacheSize = 4096;
+  private static final int DefaultRedirectCacheSize = 4096;
+  private static final long DefaultRedirectTimeToLive = 5000;
+  private static final int DefaultRelocateBatchSize = 256;
+  private static final int DefaultRelocateBatchInflight = 2;
+  private static final int DefaultRelocateChunkBytes = 32 * 1024;
+  private static final String DefaultLaneWeights = "8,4,1";
+  private static final int DefaultLaneApplicationBudget = 64;
+  private static final int DefaultHashRingPoints = 100;
+  private static final int DefaultHashRingTableSize = 65537;
+  private static final double DefaultBoundedLoadEpsilon = 0.25;
+  private static final long DefaultBoundedLoadInterval = 5000;
+  private static final int FrameHeaderReserve = 64;
+
+  private final Function<String, String> lookup;
+  private final int applicationBufferSize;
+
+  public static GridProperties defaults() {
+    return new GridProperties(key -> null, Integer.MAX_VALUE);
+  }
+
+  public static GridProperties from(final io.vlingo.xoom.cluster.model.Properties properties) {
+    return new GridProperties(key -> properties.getString(key, ""), properties.applicationBufferSize());
+  }
+
+  public static GridProperties from(final java.util.Properties properties) {
+    return new GridProperties(properties::getProperty, Integer.MAX_VALUE);
+  }
+
+  private GridProperties(final Function<String, String> lookup, final int applicationBufferSize) {
+    this.lookup = lookup;
+    this.applicationBufferSize = applicationBufferSize;
+  }
+
+  /**
+   * Answers whether outbound messages bound for the same node are coalesced into batch frames.
+   * @return boolean
+   */
+  public boolean outboundBatchEnabled() {
+    return getBoolean("grid.outbound.batch.enabled", false);
+  }
+
+  /**
+   * Answers the maximum number of messages carried by a single batch frame.
+   * @return int
+   */
+  public int outboundBatchMaxMessages() {
+    return Math.max(1, getInteger("grid.outbound.batch.max.messages", DefaultBatchMaxMessages));
+  }
+
+  /**
+   * Answers the maximum payload size of a single batch frame, which never exceeds
+   * the cluster application buffer size ({@code cluster.app.buffer.size}).
+   * @return int
+   */
+  public int outboundBatchMaxBytes() {
+    final int configured = getInteger("grid.outbound.batch.max.bytes", DefaultBatchMaxBytes);
+    return Math.min(configured, bufferSize());
+  }
+
+  /**
+   * Answers the capacity of the pooled buffers that messages are encoded into, which
+   * never exceeds the cluster application buffer size ({@code cluster.app.buffer.size}).
+   * @return int
+   */
+  public int bufferSize() {
+    final int configured = getInteger("grid.buffer.size", DefaultBufferSize);
+    return Math.min(configured, applicationBufferSize - FrameHeaderReserve);
+  }
+
+  /**
+   * Answers whether the pooled encoding buffers are allocated off-heap.
+   * @return boolean
+   */
+  public boolean bufferDirect() {
+    return getBoolean("grid.buffer.direct", false);
+  }
+
+  /**
+   * Answers the milliseconds after which a remote message still waiting for its
+   * answer is dropped and its {@code Returns} fails with a {@code TimeoutException}.
+   * @return long
+   */
+  public long askTimeout() {
+    return Math.max(1, getLong("grid.ask.timeout", DefaultAskTimeout));
+  }
+
+  /**
+   * Answers the resolution, in milliseconds, of the grid timers such as the ask timeout.
+   * @return long
+   */
+  public long timerTick() {
+    return Math.max(1, getLong("grid.timer.tick", DefaultTimerTick));
+  }
+
+  /**
+   * Answers the milliseconds for which a message buffered while the cluster is not
+   * healthy is kept from being garbage collected.
+   * @return long
+   */
+  public long bufferHoldTimeout() {
+    return Math.max(1, getLong("grid.buffer.hold.timeout", DefaultBufferHoldTimeout));
+  }
+
+  /**
+   * Answers the bytes of encoded messages buffered per node while the cluster is not
+   * healthy ({@code grid.outbound.buffer.bytes}), 4 MiB by default.
+   * @return int
+   */
+  public int outboundBufferBytes() {
+    return Math.max(1024, getInteger("grid.outbound.buffer.bytes", DefaultOutboundBufferBytes));
+  }
+
+  /**
+   * Answers what happens to a message for a node whose outbound buffer is full
+   * ({@code grid.outbound.buffer.overflow}): {@code drop-oldest}, the default, discards the
+   * oldest buffered messages; {@code reject} discards the new message and fails its answer,
+   * if any; {@code spill} appends it to memory-mapped files replayed after the buffer.
+   * @return String
+   */
+  public String outboundBufferOverflow() {
+    final String overflow = getString("grid.outbound.buffer.overflow", "drop-oldest");
+    switch (overflow) {
+    case "drop-oldest":
+    case "reject":
+    case "spill":
+      return overflow;
+    default:
+      throw new IllegalArgumentException("Unknown grid.outbound.buffer.overflow: " + overflow);
+    }
+  }
+
+  /**
+   * Answers the directory of the {@code spill} files ({@code grid.outbound.buffer.spill.dir}),
+   * the {@code java.io.tmpdir} by default.
+   * @return String
+   */
+  public String outboundBufferSpillDirectory() {
+    return getString("grid.outbound.buffer.spill.dir", System.getProperty("java.io.tmpdir"));
+  }
+
+  /**
+   * Answers the size of each memory-mapped {@code spill} file ({@code grid.outbound.buffer.spill.segment.bytes}).
+   * @return int
+   */
+  public int outboundBufferSpillSegmentBytes() {
+    return Math.max(4096, getInteger("grid.outbound.buffer.spill.segment.bytes", DefaultOutboundSpillSegmentBytes));
+  }
+
+  /**
+   * Answers whether the grid nodes limit the messages in flight between them with
+   * credits ({@code grid.flow.enabled}). All nodes must use the same setting.
+   * @return boolean
+   */
+  public boolean flowControlEnabled() {
+    return getBoolean("grid.flow.enabled", false);
+  }
+
+  /**
+   * Answers the number of messages a node may send to another before that node grants
+   * it more credits ({@code grid.flow.window}).
+   * @return int
+   */
+  public int flowWindow() {
+    return Math.max(2, getInteger("grid.flow.window", DefaultFlowWindow));
+  }
+
+  /**
+   * Answers the number of messages per node that wait for credits before further
+   * messages are rejected and their {@code Returns} failed ({@code grid.flow.pending}).
+   * @return int
+   */
+  public int flowPending() {
+    return Math.max(0, getInteger("grid.flow.pending", DefaultFlowPending));
+  }
+
+  /**
+   * Answers the number of received messages waiting to be dispatched locally above which
+   * a node withholds credits from all senders ({@code grid.flow.inbound.limit}), four
+   * windows by default.
+   * @return int
+   */
+  public int flowInboundLimit() {
+    return Math.max(1, getInteger("grid.flow.inbound.limit", 4 * flowWindow()));
+  }
+
+  /**
+   * Answers the number of threads that decode and dispatch inbound messages
+   * ({@code grid.inbound.workers}); 0, the default, handles them on the thread that
+   * receives them. Messages are assigned to a worker by the address they are bound for,
+   * which the {@code compact} codec reads without decoding; otherwise by their sender.
+   * There is an inbound control per worker, and the messages of one address are all
+   * dispatched by the same control.
+   * @return int
+   */
+  public int inboundWorkers() {
+    return Math.max(0, getInteger("grid.inbound.workers", 0));
+  }
+
+  /**
+   * Answers the number of inbound messages each worker may have queued before the
+   * receiving thread waits ({@code grid.inbound.queue}).
+   * @return int
+   */
+  public int inboundQueueCapacity() {
+    return Math.max(1, getInteger("grid.inbound.queue", DefaultInboundQueueCapacity));
+  }
+
+  /**
+   * Answers the number of local actors whose resolution by address is cached for inbound
+   * deliveries ({@code grid.inbound.cache.size}); 0 looks each one up again.
+   * @return int
+   */
+  public int inboundCacheSize() {
+    return Math.max(0, getInteger("grid.inbound.cache.size", DefaultInboundCacheSize));
+  }
+
+  /**
+   * Answers the number of actor addresses, per node, whose definition was sent and is
+   * omitted from further deliveries ({@code grid.definition.cache.size}); 0 sends it
+   * with every delivery.
+   * @return int
+   */
+  public int definitionCacheSize() {
+    return Math.max(0, getInteger("grid.definition.cache.size", DefaultDefinitionCacheSize));
+  }
+
+  /**
+   * Answers the number of actor addresses whose deliveries follow a redirect from the node
+   * that forwarded them, instead of this node's ring ({@code grid.redirect.cache.size});
+   * 0 ignores redirects and leaves deliveries to be forwarded.
+   * @return int
+   */
+  public int redirectCacheSize() {
+    return Math.max(0, getInteger("grid.redirect.cache.size", DefaultRedirectCacheSize));
+  }
+
+  /**
+   * Answers the milliseconds a redirect is followed unless the ring changes sooner
+   * ({@code grid.redirect.ttl}).
+   * @return long
+   */
+  public long redirectTimeToLive() {
+    return Math.max(1, getLong("grid.redirect.ttl", DefaultRedirectTimeToLive));
+  }
+
+  /**
+   * Answers the maximum number of actors relocated to a node in one chunk
+   * ({@code grid.relocate.batch.size}); 1 relocates each actor with its own message.
+   * @return int
+   */
+  public int relocateBatchSize() {
+    return Math.max(1, getInteger("grid.relocate.batch.size", DefaultRelocateBatchSize));
+  }
+
+  /**
+   * Answers the number of relocation chunks sent to a node before the first of them
+   * is answered as processed ({@code grid.relocate.batch.inflight}).
+   * @return int
+   */
+  public int relocateBatchInflight() {
+    return Math.max(1, getInteger("grid.relocate.batch.inflight", DefaultRelocateBatchInflight));
+  }
+
+  /**
+   * Answers the number of bytes of each chunk in which a relocation larger than a pooled
+   * buffer ({@code grid.buffer.size}) is sent ({@code grid.relocate.chunk.bytes}).
+   * @return int
+   */
+  public int relocateChunkBytes() {
+    return Math.max(1024, getInteger("grid.relocate.chunk.bytes", DefaultRelocateChunkBytes));
+  }
+
+  /**
+   * Answers whether grid messages are sent and received in priority lanes, answers and
+   * control messages before relocations before application deliveries ({@code grid.lanes.enabled}).
+   * @return boolean
+   */
+  public boolean lanesEnabled() {
+    return getBoolean("grid.lanes.enabled", false);
+  }
+
+  /**
+   * Answers the weights of the control, relocation and application lanes, the number of
+   * messages each drains per round ({@code grid.lanes.weights}, default {@code 8,4,1}).
+   * @return int[]
+   */
+  public int[] laneWeights() {
+    final String weights = getString("grid.lanes.weights", DefaultLaneWeights);
+    final String[] parts = weights.split(",");
+    if (parts.length != 3) {
+      throw new IllegalArgumentException("Invalid grid.lanes.weights: " + weights);
+    }
+    final int[] parsed = new int[parts.length];
+    for (int lane = 0; lane < parts.length; ++lane) {
+      try {
+        parsed[lane] = Integer.parseInt(parts[lane].trim());
+      } catch (NumberFormatException e) {
+        throw new IllegalArgumentException("Invalid grid.lanes.weights: " + weights);
+      }
+      if (parsed[lane] < 1) {
+        throw new IllegalArgumentException("Invalid grid.lanes.weights: " + weights);
+      }
+    }
+    return parsed;
+  }
+
+  /**
+   * Answers the number of application messages sent to a node per turn of the outbound
+   * control, beyond which they wait for the next turn behind the answers and relocations
+   * given meanwhile ({@code grid.lanes.application.budget}).
+   * @return int
+   */
+  public int laneApplicationBudget() {
+    return Math.max(1, getInteger("grid.lanes.application.budget", DefaultLaneApplicationBudget));
+  }
+
+  /**
+   * Answers whether proxy lambdas are sent as {@code RemoteInvocation} method ids and
+   * captured arguments rather than as serialized lambdas ({@code grid.remote.dispatch}).
+   * @return boolean
+   */
+  public boolean remoteDispatch() {
+    return getBoolean("grid.remote.dispatch", false);
+  }
+
+  /**
+   * Answers whether grid messages are encoded by the compact codec ({@code grid.codec = compact})
+   * rather than by FST ({@code grid.codec = fst}, the default). All nodes must use the same codec.
+   * @return boolean
+   */
+  public boolean compactCodec() {
+    final String codec = getString("grid.codec", "fst");
+    switch (codec) {
+    case "fst":
+      return false;
+    case "compact":
+      return true;
+    default:
+      throw new IllegalArgumentException("Unknown grid.codec: " + codec);
+    }
+  }
+
+  /**
+   * Answers the fully qualified names of the classes, usually actor protocols, that the
+   * compact codec encodes as registered ids, in registration order ({@code grid.codec.classes}).
+   * @return {@code List<String>}
+   */
+  public List<String> compactCodecClasses() {
+    return getList("grid.codec.classes", ",");
+  }
+
+  /**
+   * Answers the message representations that the compact codec encodes as registered ids,
+   * in registration order ({@code grid.codec.representations}, separated by {@code ;}).
+   * @return {@code List<String>}
+   */
+  public List<String> compactCodecRepresentations() {
+    return getList("grid.codec.representations", ";");
+  }
+
+  /**
+   * Answers the placement algorithm of the grid's {@code HashRing} ({@code grid.hashring.type}):
+   * {@code murmur}, the default, a ring of Murmur hashed points per node; {@code maglev}, a
+   * Maglev lookup table; {@code rendezvous}, highest random weight; or {@code jump}, jump
+   * consistent hashing. All nodes must use the same algorithm.
+   * @return String
+   */
+  public String hashRingType() {
+    final String type = getString("grid.hashring.type", "murmur");
+    switch (type) {
+    case "murmur":
+    case "maglev":
+    case "rendezvous":
+    case "jump":
+      return type;
+    default:
+      throw new IllegalArgumentException("Unknown grid.hashring.type: " + type);
+    }
+  }
+
+  /**
+   * Answers the number of points per node of the {@code murmur} ring ({@code grid.hashring.points}).
+   * @return int
+   */
+  public int hashRingPoints() {
+    return Math.max(1, getInteger("grid.hashring.points", DefaultHashRingPoints));
+  }
+
+  /**
+   * Answers the size of the lookup table of the {@code maglev} ring, which is rounded up to
+   * a prime ({@code grid.hashring.table.size}).
+   * @return int
+   */
+  public int hashRingTableSize() {
+    return Math.max(2, getInteger("grid.hashring.table.size", DefaultHashRingTableSize));
+  }
+
+  /**
+   * Answers whether the grid's {@code HashRing} spills the ids of overloaded nodes to
+   * other nodes, using the loads that nodes publish through cluster attributes
+   * ({@code grid.hashring.bounded.enabled}).
+   * @return boolean
+   */
+  public boolean hashRingBoundedLoad() {
+    return getBoolean("grid.hashring.bounded.enabled", false);
+  }
+
+  /**
+   * Answers the fraction above the average load at which a node is overloaded
+   * ({@code grid.hashring.bounded.epsilon}).
+   * @return double
+   */
+  public double hashRingBoundedLoadEpsilon() {
+    return Math.max(0, getDouble("grid.hashring.bounded.epsilon", DefaultBoundedLoadEpsilon));
+  }
+
+  /**
+   * Answers the milliseconds between two publications of the local node's load
+   * ({@code grid.hashring.bounded.interval}).
+   * @return long
+   */
+  public long hashRingBoundedLoadInterval() {
+    return Math.max(1, getLong("grid.hashring.bounded.interval", DefaultBoundedLoadInterval));
+  }
+
+  private boolean getBoolean(final String key, final boolean defaultValue) {
+    final String value = valueOf(key);
+    return value == null ? defaultValue : Boolean.parseBoolean(value);
+  }
+
+  private int getInteger(final String key, final int defaultValue) {
+    final String value = valueOf(key);
+    return value == null ? defaultValue : Integer.parseInt(value);
+  }
+
+  private long getLong(final String key, final long defaultValue) {
+    final String value = valueOf(key);
+    return value == null ? defaultValue : Long.parseLong(value);
+  }
+
+  private double getDouble(final String key, final double defaultValue) {
+    final String value = valueOf(key);
+    return value == null ? defaultValue : Double.parseDouble(value);
+  }
+
+  private String getString(final String key, final String defaultValue) {
+    final String value = valueOf(key);
+    return value == null ? defaultValue : value;
+  }
+
+  private List<String> getList(final String key, final String separator) {
+    final String value = valueOf(key);
+    if (value == null) {
+      return Collections.emptyList();
+    }
+    return Arrays.stream(value.split(separator))
+            .map(String::trim)
+            .filter(element -> !element.isEmpty())
+            .collect(Collectors.toList());
+  }
+
+  private String valueOf(final String key) {
+    final String value = lookup.apply(key);
+    if (value == null || value.trim().isEmpty()) {
+      return null;
+    }
+    return value.trim();
+  }
+}
@@ -13,19 +13,28 @@ import io.vlingo.xoom.actors.Stage;
 import io.vlingo.xoom.actors.World;
 import io.vlingo.xoom.lattice.grid.application.GridActorControl;
 import io.vlingo.xoom.lattice.grid.application.QuorumObserver;
+import io.vlingo.xoom.lattice.grid.application.Redirects;
 import io.vlingo.xoom.lattice.grid.hashring.HashRing;
+import io.vlingo.xoom.lattice.grid.hashring.LoadPlacement;
 import io.vlingo.xoom.wire.node.Id;
 import io.vlingo.xoom.wire.node.Node;
 
 import java.util.Collection;
+import java.util.Map;
 
 public interface GridRuntime extends QuorumObserver {
   Actor actorAt(Address address);
   void relocateActors();
   Stage asStage();
   GridNodeBootstrap gridNodeBootstrap();
+  GridProperties gridProperties();
   HashRing<Id> hashRing();
+  Redirects redirects();
   void nodeJoined(final Id newNode);
+  void nodeLoads(final Id node, final Map<Id, Long> loads);
+  Map<Id, Long> localLoads();
+  LoadPlacement<Id> nextPlacement();
+  void placement(final LoadPlacement<Id> placement);
   void informAllLiveNodes(final Collection<Node> liveNodes);
   QuorumObserver quorumObserver();
   void setNodeId(final Id nodeId);
@@ -7,10 +7,14 @@
 
 package io.vlingo.xoom.lattice.grid;
 
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Optional;
-import java.util.UUID;
+import java.util.Map;
+import java.util.Queue;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeoutException;
 import java.util.function.Function;
 
 import io.vlingo.xoom.actors.Actor;
@@ -23,23 +27,53 @@ import io.vlingo.xoom.actors.Mailbox;
 import io.vlingo.xoom.actors.Returns;
 import io.vlingo.xoom.actors.Stage;
 import io.vlingo.xoom.actors.__InternalOnlyAccessor;
+import io.vlingo.xoom.common.Scheduled;
 import io.vlingo.xoom.common.SerializableConsumer;
+import io.vlingo.xoom.lattice.grid.application.CorrelationTable;
 import io.vlingo.xoom.lattice.grid.application.GridActorControl;
+import io.vlingo.xoom.lattice.grid.application.InboundCredits;
 import io.vlingo.xoom.lattice.grid.application.message.Answer;
+import io.vlingo.xoom.lattice.grid.application.message.RemoteInvocation;
 import io.vlingo.xoom.lattice.grid.application.message.UnAckMessage;
 import io.vlingo.xoom.wire.node.Id;
 
-public class InboundGridActorControl extends Actor implements GridActorControl.Inbound {
+public class InboundGridActorControl extends Actor implements GridActorControl.Inbound, Scheduled<InboundGridActorControl.Parking> {
 
   private final GridRuntime gridRuntime;
 
-  private final Function<UUID, UnAckMessage> gridMessagesCorrelation;
-  private final Function<UUID, Returns<?>> actorMessagesCorrelation;
+  private final CorrelationTable correlations;
 
-  public InboundGridActorControl(final GridRuntime gridRuntime, final Function<UUID, UnAckMessage> gridMessagesCorrelation, final Function<UUID, Returns<?>> actorMessagesCorrelation) {
+  private final InboundCredits credits;
+
+  private final Map<Address, Resolution> resolutions; // LRU of the local actors recently delivered to; null when disabled
+
+  private final Map<Address, Parking> parked; // deliveries waiting for the definition of their actor
+
+  private final long parkTimeout; // milliseconds a delivery waits for the definition of its actor
+
+  private final Scheduled<Parking> expiry;
+
+  public InboundGridActorControl(final GridRuntime gridRuntime, final CorrelationTable correlations) {
+    this(gridRuntime, correlations, InboundCredits.disabled());
+  }
+
+  public InboundGridActorControl(final GridRuntime gridRuntime, final CorrelationTable correlations, final InboundCredits credits) {
     this.gridRuntime = gridRuntime;
-    this.gridMessagesCorrelation = gridMessagesCorrelation;
-    this.actorMessagesCorrelation = actorMessagesCorrelation;
+    this.correlations = correlations;
+    this.credits = credits;
+    this.parked = new HashMap<>();
+    this.parkTimeout = gridRuntime.gridProperties().askTimeout();
+    this.expiry = selfAs(Scheduled.class);
+
+    final int cacheSize = gridRuntime.gridProperties().inboundCacheSize();
+    this.resolutions = cacheSize == 0 ? null : new LinkedHashMap<Address, Resolution>(Math.min(cacheSize, 1024), 0.75f, true) {
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      protected boolean removeEldestEntry(final Map.Entry<Address, Resolution> eldest) {
+        return size() > cacheSize;
+      }
+    };
   }
 
   @Override
@@ -47,16 +81,12 @@ public class InboundGridActorControl extends Actor implements GridActorControl.I
   public <T> void answer(final Id receiver, final Id sender, final Answer<T> answer) {
     // same Answer is used for both GridDeliver and ActorDeliver messages
     logger().debug("GRID: Processing application message: Answer");
-    Returns<Object> clientReturns = Optional.ofNullable(gridMessagesCorrelation.apply(answer.correlationId))
-            .map(UnAckMessage::getReturns)
-            .orElse(null);
-    if (clientReturns == null) {
-      clientReturns = (Returns<Object>) actorMessagesCorrelation.apply(answer.correlationId);
-      if (clientReturns == null) {
-        logger().warn("GRID: Answer from {} for Returns with {} didn't match a Returns on this node!", sender, answer.correlationId);
-        return;
-      }
+    final UnAckMessage correlated = correlations.remove(answer.correlationId);
+    if (correlated == null) {
+      logger().warn("GRID: Answer from {} for Returns with {} didn't match a Returns on this node!", sender, answer.correlationId);
+      return;
     }
+    final Returns<Object> clientReturns = correlated.getReturns();
 
     if (answer.error == null) {
       T result = ActorProxyBase.thunk(gridRuntime.asStage(), answer.result);
@@ -90,23 +120,26 @@ public class InboundGridActorControl extends Actor implements GridActorControl.I
           final Class<T> protocol,
           final Address address,
           final Definition.SerializationProxy definition) {
+    try {
+      logger().debug("Processing: Received application message: Start");
 
-    logger().debug("Processing: Received application message: Start");
-
-    final Stage stage = gridRuntime.asStage();
+      final Stage stage = gridRuntime.asStage();
 
-    final Actor actor =
-            __InternalOnlyAccessor.rawLookupOrStart(
-                    stage,
-                    Definition.from(stage, definition, stage.world().defaultLogger()),
-                    address);
+      final Actor actor =
+              __InternalOnlyAccessor.rawLookupOrStart(
+                      stage,
+                      Definition.from(stage, definition, stage.world().defaultLogger()),
+                      address);
 
-    if (GridActorOperations.isSuspendedForRelocation(actor)) {
-      logger().debug("Resuming thunk found at {} with definition='{}'",
-          address,
-          actor.definition());
+      if (GridActorOperations.isSuspendedForRelocation(actor)) {
+        logger().debug("Resuming thunk found at {} with definition='{}'",
+            address,
+            actor.definition());
 
-      GridActorOperations.resumeFromRelocation(actor);
+        GridActorOperations.resumeFromRelocation(actor);
+      }
+    } finally {
+      credits.processed();
     }
   }
 
@@ -120,8 +153,69 @@ public class InboundGridActorControl extends Actor implements GridActorControl.I
           final Definition.SerializationProxy definition,
           final SerializableConsumer<T> consumer,
           final String representation) {
+    try {
+      logger().debug("Processing: Received application message: GridDeliver");
+
+      resolve(consumer);
+
+      final Resolution resolution = resolutionOf(address);
+      if (resolution != null) {
+        resolution.mailbox.send(resolution.actor, protocol, consumer, returns, representation);
+        return;
+      }
+
+      final Actor actor;
+      if (definition == null) {
+        // the sender omits the definition once it was sent to this node
+        actor = parkedAt(address) ? null : gridRuntime.actorAt(address);
+        if (actor == null) {
+          park(sender, address, new Parked(protocol, consumer, returns, representation));
+          return;
+        }
+      } else {
+        final Stage stage = gridRuntime.asStage();
+
+        actor =
+                __InternalOnlyAccessor.actorLookupOrStartThunk(
+                        stage,
+                        Definition.from(stage, definition, stage.world().defaultLogger()),
+                        address);
+
+        unpark(address, actor);
+      }
+
+      __InternalOnlyAccessor.actorMailbox(actor).send(actor, protocol, consumer, returns, representation);
+
+      resumeOnDemand(address, actor);
+
+      remember(address, actor);
+    } finally {
+      credits.processed();
+    }
+  }
+
+  @Override
+  public void relocated(final Returns<?> barrier, final int relocations) {
+    if (barrier != null) {
+      barrier.asCompletes().with(relocations);
+    }
+  }
+
+  @Override
+  public void definitionReceived(final Id sender, final Address address, final Definition.SerializationProxy definition) {
+    logger().debug("Processing: Received application message: DefinitionReply");
 
-    logger().debug("Processing: Received application message: GridDeliver");
+    if (!parkedAt(address)) {
+      return;
+    }
+
+    if (definition == null) {
+      final Queue<Parked> deliveries = parked.remove(address).deliveries;
+      logger().warn("GRID: Definition of {} is unknown to {}; failing {} deliveries", address, sender, deliveries.size());
+      final Exception error = new IllegalStateException("Definition of " + address + " is unknown to " + sender);
+      deliveries.forEach(delivery -> fail(delivery.returns, error));
+      return;
+    }
 
     final Stage stage = gridRuntime.asStage();
 
@@ -131,15 +225,47 @@ public class InboundGridActorControl extends Actor implements GridActorControl.I
                     Definition.from(stage, definition, stage.world().defaultLogger()),
                     address);
 
-    __InternalOnlyAccessor.actorMailbox(actor).send(actor, protocol, consumer, returns, representation);
+    unpark(address, actor);
 
-    if (GridActorOperations.isSuspendedForRelocation(actor)) {
-      // this case is happening when a message is retried on a different node and above actor is created 'on demand'
-      logger().debug("Resuming thunk found at {} with definition='{}'",
-              address,
-              actor.definition());
+    resumeOnDemand(address, actor);
 
-      GridActorOperations.resumeFromRelocation(actor);
+    remember(address, actor);
+  }
+
+  @Override
+  public void nodeLeft(final Id node) {
+    parked.values().removeIf(parking -> {
+      if (!parking.requestedFrom.equals(node)) {
+        return false;
+      }
+      logger().warn("GRID: Node {} left before answering the definition of {}; failing {} deliveries", node, parking.address, parking.deliveries.size());
+      final Exception error = new IllegalStateException("Node " + node + " left before answering the definition of " + parking.address);
+      parking.deliveries.forEach(delivery -> fail(delivery.returns, error));
+      return true;
+    });
+  }
+
+  /**
+   * Fails the deliveries held back for {@code parking} longer than the ask timeout,
+   * and checks again when the next of them is due.
+   */
+  @Override
+  public void intervalSignal(final Scheduled<Parking> scheduled, final Parking parking) {
+    if (parked.get(parking.address) != parking) {
+      return; // delivered, or failed, meanwhile
+    }
+    final long now = System.currentTimeMillis();
+    final Exception error = new TimeoutException("Definition of " + parking.address + " not received in time");
+    Parked delivery;
+    while ((delivery = parking.deliveries.peek()) != null && delivery.parkedAt + parkTimeout <= now) {
+      parking.deliveries.poll();
+      fail(delivery.returns, error);
+    }
+    if (delivery == null) {
+      logger().warn("GRID: Definition of {} not received from {} in time", parking.address, parking.requestedFrom);
+      parked.remove(parking.address);
+    } else {
+      scheduler().scheduleOnce(expiry, parking, 0, delivery.parkedAt + parkTimeout - now);
     }
   }
 
@@ -151,13 +277,19 @@ public class InboundGridActorControl extends Actor implements GridActorControl.I
           Class<T> protocol, Function<Grid, Actor> actorProvider,
           SerializableConsumer<T> consumer,
           String representation) {
-    logger().debug("Processing: Received application message: ActorDeliver");
+    try {
+      logger().debug("Processing: Received application message: ActorDeliver");
 
-    final Grid grid = (Grid) gridRuntime.asStage();
+      resolve(consumer);
 
-    final Actor actor = actorProvider.apply(grid);
+      final Grid grid = (Grid) gridRuntime.asStage();
 
-    __InternalOnlyAccessor.actorMailbox(actor).send(actor, protocol, consumer, returns, representation);
+      final Actor actor = actorProvider.apply(grid);
+
+      __InternalOnlyAccessor.actorMailbox(actor).send(actor, protocol, consumer, returns, representation);
+    } finally {
+      credits.processed();
+    }
   }
 
   @Override
@@ -168,28 +300,133 @@ public class InboundGridActorControl extends Actor implements GridActorControl.I
           final Address address,
           final Object snapshot,
           final List<? extends io.vlingo.xoom.actors.Message> pending) {
+    try {
+      logger().debug("Processing: Received application message: Relocate");
 
-    logger().debug("Processing: Received application message: Relocate");
+      forget(address);
 
-    final Stage stage = gridRuntime.asStage();
+      final Stage stage = gridRuntime.asStage();
 
-    final Actor actor =
-            __InternalOnlyAccessor.actorLookupOrStartThunk(
-                    stage,
-                    Definition.from(stage, definition, stage.world().defaultLogger()),
-                    address);
+      final Actor actor =
+              __InternalOnlyAccessor.actorLookupOrStartThunk(
+                      stage,
+                      Definition.from(stage, definition, stage.world().defaultLogger()),
+                      address);
 
-    GridActorOperations.applyRelocationSnapshot(stage, actor, snapshot);
+      GridActorOperations.applyRelocationSnapshot(stage, actor, snapshot);
 
-    final Mailbox mailbox = __InternalOnlyAccessor.actorMailbox(actor);
+      final Mailbox mailbox = __InternalOnlyAccessor.actorMailbox(actor);
 
-    pending.forEach(pendingMessage -> {
-      final LocalMessage<?> message = (LocalMessage<?>) pendingMessage;
-      message.set(actor, message.protocol(), message.consumer(), message.returns(), message.representation());
-      mailbox.send(message);
-    });
+      pending.forEach(pendingMessage -> {
+        final LocalMessage<?> message = (LocalMessage<?>) pendingMessage;
+        message.set(actor, message.protocol(), message.consumer(), message.returns(), message.representation());
+        mailbox.send(message);
+      });
+
+      unpark(address, actor);
+
+      GridActorOperations.resumeFromRelocation(actor);
+    } finally {
+      credits.processed();
+    }
+  }
+
+  private void resumeOnDemand(final Address address, final Actor actor) {
+    if (GridActorOperations.isSuspendedForRelocation(actor)) {
+      // this case is happening when a message is retried on a different node and above actor is created 'on demand'
+      logger().debug("Resuming thunk found at {} with definition='{}'",
+              address,
+              actor.definition());
+
+      GridActorOperations.resumeFromRelocation(actor);
+    }
+  }
+
+  private boolean parkedAt(final Address address) {
+    return !parked.isEmpty() && parked.containsKey(address);
+  }
+
+  /**
+   * Holds back {@code delivery} until the definition of its actor arrives, which is
+   * requested from {@code sender} by the first delivery held back for {@code address},
+   * or until the ask timeout or the departure of {@code sender} fails it.
+   */
+  private void park(final Id sender, final Address address, final Parked delivery) {
+    final Parking parking = parked.get(address);
+    if (parking != null) {
+      parking.deliveries.add(delivery);
+      return;
+    }
+    final Parking first = new Parking(address, sender);
+    first.deliveries.add(delivery);
+    parked.put(address, first);
+    scheduler().scheduleOnce(expiry, first, 0, parkTimeout);
+
+    logger().debug("GRID: Requesting definition of {} from {}", address, sender);
+    ((Grid) gridRuntime.asStage()).getOutbound().requestDefinition(sender, address);
+  }
+
+  /**
+   * Delivers to {@code actor}, in order, the deliveries held back for {@code address}.
+   */
+  private void unpark(final Address address, final Actor actor) {
+    final Parking parking = parkedAt(address) ? parked.remove(address) : null;
+    if (parking != null) {
+      final Mailbox mailbox = __InternalOnlyAccessor.actorMailbox(actor);
+      parking.deliveries.forEach(delivery ->
+              mailbox.send(actor, delivery.protocol, delivery.consumer, delivery.returns, delivery.representation));
+    }
+  }
 
-    GridActorOperations.resumeFromRelocation(actor);
+  @SuppressWarnings({ "unchecked", "rawtypes" })
+  private void fail(final Returns<?> returns, final Exception error) {
+    if (returns == null) {
+      return;
+    }
+    if (returns.isCompletes()) {
+      returns.asCompletes().failed(error);
+    } else if (returns.isCompletableFuture()) {
+      returns.asCompletableFuture().completeExceptionally(error);
+    } else if (returns.isFuture()) {
+      ((CompletableFuture) returns.asFuture()).completeExceptionally(error);
+    }
+  }
+
+  /**
+   * Answers the cached resolution of the actor at {@code address}, or null when it is
+   * not cached or the actor has since stopped or been suspended for relocation.
+   */
+  private Resolution resolutionOf(final Address address) {
+    if (resolutions == null) {
+      return null;
+    }
+    final Resolution resolution = resolutions.get(address);
+    if (resolution == null) {
+      return null;
+    }
+    if (resolution.actor.isStopped() || GridActorOperations.isSuspendedForRelocation(resolution.actor)) {
+      resolutions.remove(address);
+      return null;
+    }
+    return resolution;
+  }
+
+  private void remember(final Address address, final Actor actor) {
+    if (resolutions != null && !actor.isStopped()) {
+      resolutions.put(address, new Resolution(actor, __InternalOnlyAccessor.actorMailbox(actor)));
+    }
+  }
+
+  private void forget(final Address address) {
+    if (resolutions != null) {
+      resolutions.remove(address);
+    }
+  }
+
+  private void resolve(final SerializableConsumer<?> consumer) {
+    if (consumer instanceof RemoteInvocation) {
+      ((RemoteInvocation<?>) consumer).resolve(); // bind the method handle once, before queuing
+    }
   }
 
   @Override
@@ -197,22 +434,63 @@ public class InboundGridActorControl extends Actor implements GridActorControl.I
     throw new UnsupportedOperationException("informClusterIsHealthy handled in ApplicationMessageHandler");
   }
 
+  private static final class Resolution {
+    final Actor actor;
+    final Mailbox mailbox;
+
+    Resolution(final Actor actor, final Mailbox mailbox) {
+      this.actor = actor;
+      this.mailbox = mailbox;
+    }
+  }
+
+  static final class Parking {
+    final Address address;
+    final Id requestedFrom; // the node asked for the definition
+    final Queue<Parked> deliveries = new ArrayDeque<>();
+
+    Parking(final Address address, final Id requestedFrom) {
+      this.address = address;
+      this.requestedFrom = requestedFrom;
+    }
+  }
+
+  private static final class Parked {
+    final Class<?> protocol;
+    final SerializableConsumer<?> consumer;
+    final Returns<?> returns;
+    final String representation;
+    final long parkedAt;
+
+    Parked(final Class<?> protocol, final SerializableConsumer<?> consumer, final Returns<?> returns, final String representation) {
+      this.protocol = protocol;
+      this.consumer = consumer;
+      this.returns = returns;
+      this.representation = representation;
+      this.parkedAt = System.currentTimeMillis();
+    }
+  }
+
   public static class InboundGridActorControlInstantiator implements ActorInstantiator<InboundGridActorControl> {
     private static final long serialVersionUID = 1494058617174306163L;
 
     private final GridRuntime gridRuntime;
-    private final Function<UUID, UnAckMessage> gridMessagesCorrelation;
-    private final Function<UUID, Returns<?>> actorMessagesCorrelation;
+    private final CorrelationTable correlations;
+    private final InboundCredits credits;
+
+    public InboundGridActorControlInstantiator(final GridRuntime gridRuntime, final CorrelationTable correlations) {
+      this(gridRuntime, correlations, InboundCredits.disabled());
+    }
 
-    public InboundGridActorControlInstantiator(final GridRuntime gridRuntime, final Function<UUID, UnAckMessage> gridMessagesCorrelation, final Function<UUID, Returns<?>> actorMessagesCorrelation) {
+    public InboundGridActorControlInstantiator(final GridRuntime gridRuntime, final CorrelationTable correlations, final InboundCredits credits) {
       this.gridRuntime = gridRuntime;
-      this.gridMessagesCorrelation = gridMessagesCorrelation;
-      this.actorMessagesCorrelation = actorMessagesCorrelation;
+      this.correlations = correlations;
+      this.credits = credits;
     }
 
     @Override
     public InboundGridActorControl instantiate() {
-      return new InboundGridActorControl(gridRuntime, gridMessagesCorrelation, actorMessagesCorrelation);
+      return new InboundGridActorControl(gridRuntime, correlations, credits);
     }
   }
 }
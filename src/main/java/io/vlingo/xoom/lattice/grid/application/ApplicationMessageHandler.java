@@ -15,4 +15,10 @@ public interface ApplicationMessageHandler {
   void handle(final RawMessage message);
 
   void informClusterIsHealthy(boolean isHealthyCluster);
+
+  /**
+   * Releases the resources of this handler, such as its worker threads.
+   */
+  default void stop() {
+  }
 }
@@ -0,0 +1,179 @@
+// Copyright © 2012-2023 VLINGO LABS. All rights reserved.
+//
+// This Source Code Form is subject to the terms of the
+// Mozilla Public License, v. 2.0. If a copy of the MPL
+// was not distributed with this file, You can obtain
+// one at https://mozilla.org/MPL/2.0/.
+
+package io.vlingo.xoom.lattice.grid.application;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.vlingo.xoom.actors.Returns;
+import io.vlingo.xoom.common.Scheduled;
+import io.vlingo.xoom.lattice.grid.application.message.Message;
+import io.vlingo.xoom.lattice.grid.application.message.UnAckMessage;
+import io.vlingo.xoom.lattice.util.TimerWheel;
+import io.vlingo.xoom.wire.node.Id;
+
+/**
+ * The messages sent by this node that wait for an {@code Answer}, keyed by a
+ * sequential correlation id and indexed by recipient node. A message that is
+ * not answered within the timeout is removed and its {@code Returns} fails with
+ * a {@code TimeoutException}. Expiry is driven by {@link #intervalSignal(Scheduled, Object)}
+ * at the timer wheel resolution.
+ */
+public final class CorrelationTable implements Scheduled<Object> {
+  private static final Logger logger = LoggerFactory.getLogger(CorrelationTable.class);
+
+  private final AtomicLong sequence;
+  private final long timeoutMillis;
+  private final LongSupplier clock;
+  private final Map<Long, UnAckMessage> messages;
+  private final Map<Id, Set<Long>> byRecipient;
+  private final TimerWheel<Long> expirations;
+
+  public CorrelationTable(final long timeoutMillis, final long tickMillis) {
+    this(timeoutMillis, tickMillis, System::currentTimeMillis);
+  }
+
+  CorrelationTable(final long timeoutMillis, final long tickMillis, final LongSupplier clock) {
+    // a random start keeps answers meant for a previous incarnation of this node from matching
+    this.sequence = new AtomicLong(ThreadLocalRandom.current().nextInt(Integer.MAX_VALUE));
+    this.timeoutMillis = timeoutMillis;
+    this.clock = clock;
+    this.messages = new ConcurrentHashMap<>();
+    this.byRecipient = new ConcurrentHashMap<>();
+    this.expirations = new TimerWheel<>(tickMillis, (int) Math.min(4096, timeoutMillis / tickMillis + 1), clock.getAsLong());
+  }
+
+  /**
+   * Answers a new correlation id, never {@code Message.NoCorrelationId}.
+   * @return long
+   */
+  public long nextId() {
+    long id;
+    do {
+      id = sequence.incrementAndGet();
+    } while (id == Message.NoCorrelationId);
+    return id;
+  }
+
+  /**
+   * Answers the milliseconds a message waits for its {@code Answer}; what is left of
+   * them when it is sent is its time to live, so the recipient can drop it once no one waits.
+   * @return long
+   */
+  public long timeoutMillis() {
+    return timeoutMillis;
+  }
+
+  public void put(final long correlationId, final UnAckMessage message) {
+    message.setDeadline(clock.getAsLong() + timeoutMillis);
+    messages.put(correlationId, message);
+    byRecipient.computeIfAbsent(message.getReceiver(), recipient -> ConcurrentHashMap.newKeySet()).add(correlationId);
+    expirations.schedule(correlationId, message.getDeadline());
+  }
+
+  /**
+   * Answers the milliseconds left until the message correlated by {@code correlationId}
+   * times out, or 0 when it no longer waits for its {@code Answer}.
+   * @param correlationId the long correlation id of the message
+   * @return long
+   */
+  public long remainingMillis(final long correlationId) {
+    final UnAckMessage message = messages.get(correlationId);
+    return message == null ? 0 : Math.max(0, message.getDeadline() - clock.getAsLong());
+  }
+
+  /**
+   * Answers and removes the message correlated by {@code correlationId}, or null.
+   * @param correlationId the long correlation id of an Answer
+   * @return UnAckMessage
+   */
+  public UnAckMessage remove(final long correlationId) {
+    final UnAckMessage message = messages.remove(correlationId);
+    if (message != null) {
+      final Set<Long> ids = byRecipient.get(message.getReceiver());
+      if (ids != null) {
+        ids.remove(correlationId);
+      }
+    }
+    return message;
+  }
+
+  /**
+   * Answers and removes the retriable messages sent to {@code recipient}, visiting
+   * only that node's unanswered messages.
+   * @param recipient the Id of the node that left
+   * @return {@code List<UnAckMessage>}
+   */
+  public List<UnAckMessage> removeRetriable(final Id recipient) {
+    final Set<Long> ids = byRecipient.get(recipient);
+    if (ids == null || ids.isEmpty()) {
+      return Collections.emptyList();
+    }
+    final List<UnAckMessage> retriable = new ArrayList<>(ids.size());
+    for (final Long id : ids) {
+      final UnAckMessage message = messages.get(id);
+      if (message != null && message.isRetriable() && messages.remove(id, message)) {
+        ids.remove(id);
+        retriable.add(message);
+      }
+    }
+    return retriable;
+  }
+
+  public int size() {
+    return messages.size();
+  }
+
+  @Override
+  public void intervalSignal(final Scheduled<Object> scheduled, final Object data) {
+    expirations.advance(clock.getAsLong(), this::expire);
+  }
+
+  /**
+   * Removes the message correlated by {@code correlationId}, if still waiting, and fails its {@code Returns}.
+   * @param correlationId the long correlation id of the message
+   * @param error the Exception failing the Returns
+   */
+  public void fail(final long correlationId, final Exception error) {
+    final UnAckMessage message = remove(correlationId);
+    if (message != null) {
+      fail(message.getReturns(), error);
+    }
+  }
+
+  private void expire(final Long correlationId) {
+    final UnAckMessage message = remove(correlationId);
+    if (message != null) {
+      logger.debug("Answer for {} to {} timed out", correlationId, message.getReceiver());
+      fail(message.getReturns(), new TimeoutException("No answer from " + message.getReceiver() + " within " + timeoutMillis + " ms"));
+    }
+  }
+
+  @SuppressWarnings({ "unchecked", "rawtypes" })
+  private void fail(final Returns<Object> returns, final Exception error) {
+    if (returns.isCompletes()) {
+      returns.asCompletes().failed(error);
+    } else if (returns.isCompletableFuture()) {
+      returns.asCompletableFuture().completeExceptionally(error);
+    } else if (returns.isFuture()) {
+      ((CompletableFuture) returns.asFuture()).completeExceptionally(error);
+    }
+  }
+}
@@ -67,9 +67,104 @@ public interface GridActorControl {
   void informClusterIsHealthy(boolean isHealthyCluster);
 
   interface Inbound extends GridActorControl {
+    /**
+     * Starts the actor at {@code address} with {@code definitionProxy}, if needed, and delivers
+     * the messages that were held back while its definition was requested from {@code sender};
+     * fails them when {@code definitionProxy} is null.
+     * @param sender the Id of the node that answered the DefinitionRequest
+     * @param address the Address of the actor
+     * @param definitionProxy the Definition.SerializationProxy of the actor, or null when unknown
+     */
+    void definitionReceived(final Id sender, final Address address, final Definition.SerializationProxy definitionProxy);
+
+    /**
+     * Completes {@code barrier} with the number of {@code relocations} of a RelocateBatch,
+     * once the relocations dispatched before it are processed.
+     * @param barrier the Returns answering the RelocateBatch, or null
+     * @param relocations the int number of relocations in the RelocateBatch
+     */
+    void relocated(final Returns<?> barrier, final int relocations);
+
+    /**
+     * Fails the messages held back while the definition of their actor was requested
+     * from {@code node}, which left the cluster.
+     * @param node the Id of the node that left the cluster
+     */
+    void nodeLeft(final Id node);
   }
 
   interface Outbound extends GridActorControl {
     void useStream(final ApplicationOutboundStream outbound);
+
+    /**
+     * Sends all partially filled message batches.
+     */
+    void flush();
+
+    /**
+     * Grants {@code recipient} {@code credits} more messages it may send to this node.
+     * @param recipient the Id of the node receiving the Credit
+     * @param credits the int number of messages granted
+     */
+    void grant(final Id recipient, final int credits);
+
+    /**
+     * Adds {@code credits} to the messages this node may send to {@code sender}, and sends
+     * the messages that were waiting for them.
+     * @param sender the Id of the node that granted the Credit
+     * @param credits the int number of messages granted
+     */
+    void credited(final Id sender, final int credits);
+
+    /**
+     * Asks {@code recipient} for the definition of the actor at {@code address}, which it
+     * omitted from a GridDeliver because it had already sent it to this node.
+     * @param recipient the Id of the node that sent the GridDeliver
+     * @param address the Address of the actor
+     */
+    void requestDefinition(final Id recipient, final Address address);
+
+    /**
+     * Answers {@code sender} with the definition of the actor at {@code address} last sent
+     * to any node, or with none when it is no longer known.
+     * @param sender the Id of the node that sent the DefinitionRequest
+     * @param address the Address of the actor
+     */
+    void definitionRequested(final Id sender, final Address address);
+
+    /**
+     * Tells {@code recipient}, whose delivery for {@code address} this node forwarded,
+     * that {@code owner} is the node to deliver it to.
+     * @param recipient the Id of the node that sent the delivery
+     * @param address the Address of the actor
+     * @param owner the Id of the node the delivery was forwarded to
+     */
+    void redirect(final Id recipient, final Address address, final Id owner);
+
+    /**
+     * Sends the next chunk of relocations waiting for {@code recipient}, which answered
+     * that it processed one.
+     * @param recipient the Id of the node that received the RelocateBatch
+     */
+    void relocationAcknowledged(final Id recipient);
+
+    /**
+     * Sends all relocations, without waiting for the barriers of earlier chunks, as when
+     * this node leaves the grid and cannot wait for them.
+     */
+    void drainRelocations();
+
+    /**
+     * Sends the next chunk of the large relocation being transferred to {@code recipient},
+     * after the messages queued since the previous chunk.
+     * @param recipient the Id of the node receiving the relocation
+     */
+    void transferNext(final Id recipient);
+
+    /**
+     * Releases the partial message batch held for {@code node}, which left the cluster.
+     * @param node the Id of the node that left the cluster
+     */
+    void nodeLeft(final Id node);
   }
 }
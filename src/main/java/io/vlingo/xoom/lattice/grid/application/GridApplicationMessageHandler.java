@@ -12,6 +12,7 @@ import io.vlingo.xoom.actors.LocalMessage;
 import io.vlingo.xoom.actors.Returns;
 import io.vlingo.xoom.common.Completes;
 import io.vlingo.xoom.common.Scheduler;
+import io.vlingo.xoom.lattice.grid.GridProperties;
 import io.vlingo.xoom.lattice.grid.application.message.*;
 import io.vlingo.xoom.lattice.grid.application.message.serialization.JavaObjectDecoder;
 import io.vlingo.xoom.lattice.grid.hashring.HashRing;
@@ -22,6 +23,7 @@ import io.vlingo.xoom.wire.node.Id;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.nio.ByteBuffer;
 import java.util.*;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -31,14 +33,25 @@ public final class GridApplicationMessageHandler implements ApplicationMessageHa
 
   private static final Logger logger = LoggerFactory.getLogger(GridApplicationMessageHandler.class);
 
+  private static final long DefaultAnswerTimeout = 4000; // for an ask without a time to live
+  private static final long NoDeadline = 0L;
+
   private final Id localNode;
   private final AtomicBoolean isClusterHealthy = new AtomicBoolean(false);
   private final HashRing<Id> hashRing;
-  private final GridActorControl.Inbound inbound;
+  private final InboundControls inbounds; // by address, one per pipeline worker
+  private final GridActorControl.Inbound answers; // the inbound control completing answers, in a lane of their own when distinct
   private final GridActorControl.Outbound outbound;
   private final Decoder decoder;
-  private final Visitor visitor;
   private final Scheduler scheduler;
+  private final InboundCredits credits;
+  private final InboundPipeline pipeline; // null when messages are handled on the receiving thread
+  private final boolean lanes;
+  private final RelocationTransfers transfers;
+  private final Redirects redirects;
+  private final boolean redirecting; // whether senders are told where their forwarded deliveries went
+  private final long redirectTimeToLive;
+  private final Map<Redirected, Long> redirected; // when each sender was last told an owner, guarded by itself
 
   private final HardRefHolder holder;
   private final Queue<Runnable> buffer = new WeakQueue<>(); // buffer messages when cluster is not healthy
@@ -59,24 +72,131 @@ public final class GridApplicationMessageHandler implements ApplicationMessageHa
       final Decoder decoder,
       final HardRefHolder holder,
       final Scheduler scheduler) {
+    this(localNode, hashRing, inbound, outbound, decoder, holder, scheduler, InboundCredits.disabled());
+  }
+
+  public GridApplicationMessageHandler(
+      final Id localNode, final HashRing<Id> hashRing,
+      final GridActorControl.Inbound inbound,
+      final GridActorControl.Outbound outbound,
+      final Decoder decoder,
+      final HardRefHolder holder,
+      final Scheduler scheduler,
+      final InboundCredits credits) {
+    this(localNode, hashRing, inbound, outbound, decoder, holder, scheduler, credits, GridProperties.defaults());
+  }
+
+  public GridApplicationMessageHandler(
+      final Id localNode, final HashRing<Id> hashRing,
+      final GridActorControl.Inbound inbound,
+      final GridActorControl.Outbound outbound,
+      final Decoder decoder,
+      final HardRefHolder holder,
+      final Scheduler scheduler,
+      final InboundCredits credits,
+      final GridProperties properties) {
+    this(localNode, hashRing, inbound, inbound, outbound, decoder, holder, scheduler, credits, properties, Redirects.disabled());
+  }
+
+  public GridApplicationMessageHandler(
+      final Id localNode, final HashRing<Id> hashRing,
+      final GridActorControl.Inbound inbound,
+      final GridActorControl.Inbound answers,
+      final GridActorControl.Outbound outbound,
+      final Decoder decoder,
+      final HardRefHolder holder,
+      final Scheduler scheduler,
+      final InboundCredits credits,
+      final GridProperties properties,
+      final Redirects redirects) {
+    this(localNode, hashRing, new InboundControls(inbound), answers, outbound, decoder, holder, scheduler, credits, properties, redirects);
+  }
+
+  public GridApplicationMessageHandler(
+      final Id localNode, final HashRing<Id> hashRing,
+      final InboundControls inbounds,
+      final GridActorControl.Inbound answers,
+      final GridActorControl.Outbound outbound,
+      final Decoder decoder,
+      final HardRefHolder holder,
+      final Scheduler scheduler,
+      final InboundCredits credits,
+      final GridProperties properties,
+      final Redirects redirects) {
 
     this.localNode = localNode;
     this.hashRing = hashRing;
-    this.inbound = inbound;
+    this.inbounds = inbounds;
+    this.answers = answers;
     this.outbound = outbound;
     this.decoder = decoder;
     this.holder = holder;
     this.scheduler = scheduler;
+    this.credits = credits;
+
+    this.transfers = new RelocationTransfers(decoder);
+    this.redirects = redirects;
+    this.redirecting = properties.redirectCacheSize() > 0;
+    this.redirectTimeToLive = properties.redirectTimeToLive();
+    final int redirectedSize = properties.redirectCacheSize();
+    this.redirected = !redirecting ? null : new LinkedHashMap<Redirected, Long>(Math.min(redirectedSize, 1024), 0.75f, true) {
+      private static final long serialVersionUID = 1L;
 
-    this.visitor = new ControlMessageVisitor();
+      @Override
+      protected boolean removeEldestEntry(final Map.Entry<Redirected, Long> eldest) {
+        return size() > redirectedSize;
+      }
+    };
+
+    this.lanes = properties.lanesEnabled();
+    final int[] weights = lanes ? properties.laneWeights() : new int[] { 1, 1, 1 };
+    final int controlWeight = Math.max(1, weights[Lane.Control.ordinal()] / weights[Lane.Application.ordinal()]);
+
+    final int workers = properties.inboundWorkers();
+    this.pipeline = workers == 0 ? null
+        : new InboundPipeline("xoom-grid-inbound-" + localNode.value(), workers, properties.inboundQueueCapacity(), controlWeight, this::handle);
   }
 
   @Override
   public void handle(final RawMessage raw) {
     try {
-      final Message message = decoder.decode(raw.asBinaryMessage());
       final Id sender = Id.of(raw.header().nodeId());
+      final ByteBuffer payload = ByteBuffer.wrap(raw.asBinaryMessage());
+      if (MessageBatch.isBatch(raw)) {
+        MessageBatch.unbatch(payload, entry -> dispatch(sender, entry));
+      } else {
+        dispatch(sender, payload);
+      }
+    } catch (Exception e) {
+      logger.error(String.format("Failed to process message %s", raw), e);
+    }
+  }
+
+  /**
+   * Handles the message in {@code payload} now, or queues it for the pipeline worker of
+   * the address it is bound for, or else of its sender, preserving the order of the
+   * messages to each actor. The worker decodes it and dispatches it to the inbound
+   * control of its address. With lanes enabled, control messages such as answers are
+   * queued in the worker's control lane.
+   */
+  private void dispatch(final Id sender, final ByteBuffer payload) {
+    if (pipeline == null) {
+      handle(sender, payload);
+      return;
+    }
+    pipeline.submit(sender, payload, decoder, lanes);
+  }
+
+  private void handle(final Id sender, final ByteBuffer payload) {
+    try {
+      final Message message = decoder.decode(payload);
+      if (!(message instanceof Answer || message instanceof Credit
+          || message instanceof DefinitionRequest || message instanceof DefinitionReply
+          || message instanceof Redirect)) {
+        credits.received(sender);
+      }
       logger.debug("Buffering message {} from {}", message, sender);
+      final Visitor visitor = new ControlMessageVisitor(System.currentTimeMillis());
       final Runnable runnable = () -> {
         logger.debug("Handling message {} from {}", message, sender);
         message.accept(localNode, sender, visitor);
@@ -85,14 +205,13 @@ public final class GridApplicationMessageHandler implements ApplicationMessageHa
       if (isClusterHealthy.get()) {
         runnable.run(); // incoming messages are dispatched immediately
       } else {
+        if (Objects.nonNull(holder)) {
+          holder.holdOnTo(runnable); // only the weakly buffered messages need a hard reference
+        }
         buffer.offer(runnable); // buffer messages; cluster is not healthy
       }
-
-      if (Objects.nonNull(holder)) {
-        holder.holdOnTo(runnable);
-      }
     } catch (Exception e) {
-      logger.error(String.format("Failed to process message %s", raw), e);
+      logger.error(String.format("Failed to process message from %s", sender), e);
     }
   }
 
@@ -100,10 +219,18 @@ public final class GridApplicationMessageHandler implements ApplicationMessageHa
   public void informClusterIsHealthy(boolean isHealthyCluster) {
     boolean oldValue =  this.isClusterHealthy.getAndSet(isHealthyCluster);
     if (isHealthyCluster && !oldValue) {
+      credits.reset(); // the senders reset their windows too
       disburse();
     }
   }
 
+  @Override
+  public void stop() {
+    if (pipeline != null) {
+      pipeline.stop();
+    }
+  }
+
   private void disburse() {
     if (buffer.size() == 0) return;
     logger.debug("Disbursing {} buffered messages", buffer.size());
@@ -116,30 +243,82 @@ public final class GridApplicationMessageHandler implements ApplicationMessageHa
     } while (next != null);
   }
 
+  /**
+   * Answers whether {@code sender} is to be told that {@code owner} owns {@code address}:
+   * only once per redirect time to live, which is as long as the sender follows it, rather
+   * than for every delivery it forwards here meanwhile. A changed owner is told again.
+   */
+  private boolean isRedirectDue(final Id sender, final Address address, final Id owner, final long now) {
+    final Redirected key = new Redirected(sender, address, owner);
+    synchronized (redirected) {
+      final Long sentAt = redirected.get(key);
+      if (sentAt != null && now - sentAt < redirectTimeToLive) {
+        return false;
+      }
+      redirected.put(key, now);
+      return true;
+    }
+  }
+
+  /**
+   * Answers the milliseconds the answer of a delivery is awaited from {@code now}: until
+   * its {@code deadline}, and at least 1, or a default when it carries no time to live.
+   */
+  static long answerTimeoutOf(final long deadline, final long now) {
+    return deadline == NoDeadline ? DefaultAnswerTimeout : Math.max(1, deadline - now);
+  }
+
+  /**
+   * Visits one received message. A delivery that carries a time to live expires that
+   * long after {@code received}, as measured by this node's clock: it is dropped rather
+   * than dispatched once expired, answering its sender with a {@code TimeoutException},
+   * and otherwise its answer is awaited only until then.
+   */
   final class ControlMessageVisitor implements Visitor {
+    private final long received;
+
+    ControlMessageVisitor(final long received) {
+      this.received = received;
+    }
+
     @Override
     @SuppressWarnings({"rawtypes", "unchecked"})
     public void visit(final Id receiver, final Id sender, final Answer answer) {
-      inbound.answer(receiver, sender, answer);
+      answers.answer(receiver, sender, answer);
     }
 
     @Override
     public <T> void visit(final Id receiver, final Id sender, final GridDeliver<T> gridDeliver) {
       final Id recipient = receiver(receiver, gridDeliver.address);
       if (recipient == receiver) {
-        inbound.gridDeliver(
+        final long deadline = deadlineOf(gridDeliver.timeToLive);
+        if (isExpired(deadline)) {
+          shed(receiver, sender, gridDeliver, gridDeliver.answerCorrelationId);
+          return;
+        }
+        credits.dispatched();
+        inbounds.of(gridDeliver.address).gridDeliver(
             receiver, sender,
-            returnsAnswer(receiver, sender, gridDeliver.answerCorrelationId),
+            returnsAnswer(receiver, sender, gridDeliver.answerCorrelationId, deadline),
             gridDeliver.protocol, gridDeliver.address, gridDeliver.definition, gridDeliver.consumer, gridDeliver.representation);
       } else {
         outbound.forward(recipient, sender, gridDeliver);
+        if (redirecting && !recipient.equals(sender) && isRedirectDue(sender, gridDeliver.address, recipient, received)) {
+          outbound.redirect(sender, gridDeliver.address, recipient); // so the next one takes a single hop
+        }
       }
     }
 
     @Override
     public <T> void visit(Id receiver, Id sender, ActorDeliver<T> actorDeliver) {
-      inbound.actorDeliver(
-              receiver, sender, returnsAnswer(receiver, sender, actorDeliver.answerCorrelationId),
+      final long deadline = deadlineOf(actorDeliver.timeToLive);
+      if (isExpired(deadline)) {
+        shed(receiver, sender, actorDeliver, actorDeliver.answerCorrelationId);
+        return;
+      }
+      credits.dispatched();
+      inbounds.of(sender).actorDeliver(
+              receiver, sender, returnsAnswer(receiver, sender, actorDeliver.answerCorrelationId, deadline),
               actorDeliver.protocol, actorDeliver.actorProvider, actorDeliver.consumer, actorDeliver.representation);
     }
 
@@ -147,14 +326,15 @@ public final class GridApplicationMessageHandler implements ApplicationMessageHa
     public <T> void visit(final Id receiver, final Id sender, final Start<T> start) {
       final Id recipient = receiver(receiver, start.address);
       if (recipient == receiver) {
-        inbound.start(receiver, sender, start.protocol, start.address, start.definition);
+        credits.dispatched();
+        inbounds.of(start.address).start(receiver, sender, start.protocol, start.address, start.definition);
       } else {
         outbound.forward(recipient, sender, start);
       }
     }
 
     private Id receiver(final Id receiver, final Address address) {
-      final Id recipient = hashRing.nodeOf(address.idString());
+      final Id recipient = hashRing.nodeOf(address.idTyped());
       if (recipient == null || recipient.equals(receiver)) {
         return receiver;
       }
@@ -169,25 +349,83 @@ public final class GridApplicationMessageHandler implements ApplicationMessageHa
         final List<LocalMessage> pending = relocate.pending.stream()
             .map(deliver ->
                 new LocalMessage(null, deliver.protocol, deliver.consumer,
-                    returnsAnswer(receiver, sender, deliver.answerCorrelationId), deliver.representation))
+                    returnsAnswer(receiver, sender, deliver.answerCorrelationId, deadlineOf(deliver.timeToLive)), deliver.representation))
             .collect(Collectors.toCollection(ArrayList::new));
-        inbound.relocate(receiver, sender, relocate.definition,
+        credits.dispatched();
+        inbounds.of(relocate.address).relocate(receiver, sender, relocate.definition,
             relocate.address, relocate.snapshot, pending);
       } else {
         outbound.forward(recipient, sender, relocate);
       }
     }
 
-    private Returns<?> returnsAnswer(final Id receiver, final Id sender, final UUID answerCorrelationId) {
-      if (answerCorrelationId == null) {
+    @Override
+    public void visit(final Id receiver, final Id sender, final RelocateBatch batch) {
+      batch.relocations.forEach(relocate -> visit(receiver, sender, relocate));
+      // the relocations are queued on their controls already, ahead of any later message to their actors
+      inbounds.of(sender).relocated(returnsAnswer(receiver, sender, batch.answerCorrelationId, NoDeadline), batch.relocations.size());
+    }
+
+    @Override
+    public void visit(final Id receiver, final Id sender, final RelocateChunk chunk) {
+      final Message relocation = transfers.received(sender, chunk);
+      if (relocation != null) {
+        relocation.accept(receiver, sender, this);
+      }
+    }
+
+    @Override
+    public void visit(final Id receiver, final Id sender, final Credit credit) {
+      outbound.credited(sender, credit.credits);
+    }
+
+    @Override
+    public void visit(final Id receiver, final Id sender, final DefinitionRequest request) {
+      outbound.definitionRequested(sender, request.address);
+    }
+
+    @Override
+    public void visit(final Id receiver, final Id sender, final DefinitionReply reply) {
+      inbounds.of(reply.address).definitionReceived(sender, reply.address, reply.definition);
+    }
+
+    @Override
+    public void visit(final Id receiver, final Id sender, final Redirect redirect) {
+      if (!redirect.owner.equals(receiver)) {
+        redirects.redirected(sender, redirect.address, redirect.owner);
+      }
+    }
+
+    private long deadlineOf(final long timeToLive) {
+      return timeToLive == Message.NoTimeToLive ? NoDeadline : received + timeToLive;
+    }
+
+    private boolean isExpired(final long deadline) {
+      return deadline != NoDeadline && System.currentTimeMillis() >= deadline;
+    }
+
+    /**
+     * Drops an expired delivery, whose sender has given up waiting for it.
+     */
+    private void shed(final Id receiver, final Id sender, final Message message, final long answerCorrelationId) {
+      logger.debug("Dropping expired message {} from {}", message, sender);
+      if (answerCorrelationId != Message.NoCorrelationId) {
+        outbound.answer(sender, receiver, new Answer<Object>(answerCorrelationId, (Throwable) new TimeoutException("Expired before dispatch")));
+      }
+    }
+
+    private Returns<?> returnsAnswer(final Id receiver, final Id sender, final long answerCorrelationId, final long deadline) {
+      if (answerCorrelationId == Message.NoCorrelationId) {
         return null;
       }
 
+      final long timeout = answerTimeoutOf(deadline, System.currentTimeMillis());
+
       final Completes<Object> completes = Completes.using(scheduler);
       completes.andThen(result -> new Answer<>(answerCorrelationId, result))
               .recoverFrom(error -> new Answer<>(answerCorrelationId, error))
               .otherwise(ignored -> new Answer<>(answerCorrelationId, new TimeoutException()))
-              .andThenConsume(4000,
+              .andThenConsume(timeout,
                       answer -> outbound.answer(sender, receiver, answer))
               .andFinally();
 
@@ -195,4 +433,30 @@ public final class GridApplicationMessageHandler implements ApplicationMessageHa
       return Returns.value(completes);
     }
   }
+
+  private static final class Redirected {
+    private final Id sender;
+    private final Address address;
+    private final Id owner;
+
+    Redirected(final Id sender, final Address address, final Id owner) {
+      this.sender = sender;
+      this.address = address;
+      this.owner = owner;
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+      if (!(other instanceof Redirected)) {
+        return false;
+      }
+      final Redirected that = (Redirected) other;
+      return sender.equals(that.sender) && address.equals(that.address) && owner.equals(that.owner);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(sender, address, owner);
+    }
+  }
 }
@@ -0,0 +1,55 @@
+// Copyright © 2012-2023 VLINGO LABS. All rights reserved.
+//
+// This Source Code Form is subject to the terms of the
+// Mozilla Public License, v. 2.0. If a copy of the MPL
+// was not distributed with this file, You can obtain
+// one at https://mozilla.org/MPL/2.0/.
+
+package io.vlingo.xoom.lattice.grid.application;
+
+import java.util.function.Consumer;
+
+import io.vlingo.xoom.actors.Address;
+import io.vlingo.xoom.wire.node.Id;
+
+/**
+ * The inbound controls that dispatch received messages, one per inbound pipeline worker,
+ * each with a mailbox and a resolution cache of its own. All messages for one address
+ * go to the same control, so that they reach its actor in the order the workers hand
+ * them over, while messages for other addresses are dispatched in parallel.
+ */
+public final class InboundControls {
+  private final GridActorControl.Inbound[] controls;
+
+  public InboundControls(final GridActorControl.Inbound... controls) {
+    this.controls = controls;
+  }
+
+  /**
+   * Answers the control of the messages bound for {@code address}.
+   * @param address the Address of the actor
+   * @return GridActorControl.Inbound
+   */
+  public GridActorControl.Inbound of(final Address address) {
+    return controls[Math.floorMod(address.hashCode(), controls.length)];
+  }
+
+  /**
+   * Answers the control of the messages from {@code sender} bound for no address.
+   * @param sender the Id of the sending node
+   * @return GridActorControl.Inbound
+   */
+  public GridActorControl.Inbound of(final Id sender) {
+    return controls[Math.floorMod(sender.value(), controls.length)];
+  }
+
+  public void forEach(final Consumer<GridActorControl.Inbound> consumer) {
+    for (final GridActorControl.Inbound control : controls) {
+      consumer.accept(control);
+    }
+  }
+
+  public int size() {
+    return controls.length;
+  }
+}
@@ -0,0 +1,113 @@
+// Copyright © 2012-2023 VLINGO LABS. All rights reserved.
+//
+// This Source Code Form is subject to the terms of the
+// Mozilla Public License, v. 2.0. If a copy of the MPL
+// was not distributed with this file, You can obtain
+// one at https://mozilla.org/MPL/2.0/.
+
+package io.vlingo.xoom.lattice.grid.application;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+import io.vlingo.xoom.wire.node.Id;
+
+/**
+ * The receiving side of the grid's credit-based flow control. Every message received
+ * from a node, other than an {@code Answer} or a {@code Credit}, is owed back to it as a
+ * credit, granted in chunks of half the sender's window. While more than {@code limit}
+ * messages are dispatched to the {@code InboundGridActorControl} but not yet processed,
+ * grants are withheld, and resume once that depth has fallen to half the limit, so the
+ * senders stall instead of this node's inbound mailbox growing without bound.
+ */
+public final class InboundCredits {
+  private static final InboundCredits Disabled = new InboundCredits(false, 1, 0, (sender, credits) -> { });
+
+  private final boolean enabled;
+  private final int threshold;
+  private final int limit;
+  private final BiConsumer<Id, Integer> grant;
+  private final Map<Id, AtomicInteger> owed;
+  private final AtomicInteger depth;
+  private final AtomicBoolean withheld;
+
+  public static InboundCredits disabled() {
+    return Disabled;
+  }
+
+  /**
+   * Constructs the credits of a node.
+   * @param window the int number of messages a sender may have unanswered by credits
+   * @param limit the int inbound depth above which credits are withheld
+   * @param grant the {@code BiConsumer<Id, Integer>} sending a {@code Credit} to a node
+   */
+  public InboundCredits(final int window, final int limit, final BiConsumer<Id, Integer> grant) {
+    this(true, window, limit, grant);
+  }
+
+  private InboundCredits(final boolean enabled, final int window, final int limit, final BiConsumer<Id, Integer> grant) {
+    this.enabled = enabled;
+    this.threshold = Math.max(1, window / 2);
+    this.limit = limit;
+    this.grant = grant;
+    this.owed = new ConcurrentHashMap<>();
+    this.depth = new AtomicInteger();
+    this.withheld = new AtomicBoolean(false);
+  }
+
+  /**
+   * Records a credit consuming message received from {@code sender}.
+   * @param sender the Id of the node that sent the message
+   */
+  public void received(final Id sender) {
+    if (!enabled) {
+      return;
+    }
+    final AtomicInteger count = owed.computeIfAbsent(sender, id -> new AtomicInteger());
+    if (count.incrementAndGet() >= threshold && !withheld.get()) {
+      grant(sender, count);
+    }
+  }
+
+  /**
+   * Records a message dispatched to the {@code InboundGridActorControl}.
+   */
+  public void dispatched() {
+    if (enabled && depth.incrementAndGet() > limit) {
+      withheld.set(true);
+    }
+  }
+
+  /**
+   * Records a message processed by the {@code InboundGridActorControl}.
+   */
+  public void processed() {
+    if (enabled && depth.decrementAndGet() <= limit / 2 && withheld.compareAndSet(true, false)) {
+      owed.forEach(this::grant);
+    }
+  }
+
+  /**
+   * Forgets the credits owed to every sender, as when the cluster becomes healthy again
+   * and each sender restores its full window.
+   */
+  public void reset() {
+    if (enabled) {
+      owed.values().forEach(count -> count.set(0));
+    }
+  }
+
+  int depth() {
+    return depth.get();
+  }
+
+  private void grant(final Id sender, final AtomicInteger count) {
+    final int credits = count.getAndSet(0);
+    if (credits > 0) {
+      grant.accept(sender, credits);
+    }
+  }
+}
@@ -0,0 +1,210 @@
+// Copyright © 2012-2023 VLINGO LABS. All rights reserved.
+//
+// This Source Code Form is subject to the terms of the
+// Mozilla Public License, v. 2.0. If a copy of the MPL
+// was not distributed with this file, You can obtain
+// one at https://mozilla.org/MPL/2.0/.
+
+package io.vlingo.xoom.lattice.grid.application;
+
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.function.BiConsumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.vlingo.xoom.lattice.grid.application.message.Decoder;
+import io.vlingo.xoom.lattice.grid.application.message.Lane;
+import io.vlingo.xoom.wire.node.Id;
+
+/**
+ * Hands encoded inbound messages to a fixed set of worker threads that decode and
+ * dispatch them. Each message goes to the worker chosen by its {@code stripe}, so all
+ * messages of the same stripe are handled in the order they were submitted. Each worker
+ * has a bounded queue, and the submitting thread waits while that queue is full.
+ * Messages of the {@code Lane.Control} lane, such as answers, have a queue of their own
+ * in each worker, which takes up to {@code controlWeight} of them for each other message.
+ * <p>
+ * A relocation that is not bound for a single address, such as a {@code RelocateBatch},
+ * is a barrier in the messages of its sender: it is queued once every earlier message of
+ * that sender is handled, and it and every later message of that sender go to the worker
+ * of the sender, until all of them are handled. A delivery sent after a relocation thus
+ * never reaches its actor before the relocation does.
+ */
+final class InboundPipeline {
+  private static final Logger logger = LoggerFactory.getLogger(InboundPipeline.class);
+
+  private final Worker[] workers;
+  private final Map<Id, Sender> senders = new ConcurrentHashMap<>();
+
+  /**
+   * Constructs and starts the pipeline.
+   * @param name the String prefix of the worker thread names
+   * @param workers the int number of worker threads
+   * @param capacity the int number of messages each worker may have queued
+   * @param handler the {@code BiConsumer<Id, ByteBuffer>} decoding and dispatching a message from a sender
+   */
+  InboundPipeline(final String name, final int workers, final int capacity, final BiConsumer<Id, ByteBuffer> handler) {
+    this(name, workers, capacity, 1, handler);
+  }
+
+  /**
+   * Constructs and starts the pipeline.
+   * @param name the String prefix of the worker thread names
+   * @param workers the int number of worker threads
+   * @param capacity the int number of messages each worker may have queued in each lane
+   * @param controlWeight the int number of control messages taken for each other message
+   * @param handler the {@code BiConsumer<Id, ByteBuffer>} decoding and dispatching a message from a sender
+   */
+  InboundPipeline(final String name, final int workers, final int capacity, final int controlWeight, final BiConsumer<Id, ByteBuffer> handler) {
+    this.workers = new Worker[workers];
+    for (int index = 0; index < workers; ++index) {
+      this.workers[index] = new Worker(name + "-" + index, capacity, controlWeight, handler);
+      this.workers[index].start();
+    }
+  }
+
+  /**
+   * Queues {@code payload} from {@code sender} for the worker of {@code stripe}. The
+   * payload must not be modified afterwards.
+   */
+  void submit(final Id sender, final ByteBuffer payload, final int stripe) {
+    submit(sender, payload, stripe, Lane.Application);
+  }
+
+  /**
+   * Queues {@code payload} from {@code sender} in its {@code lane} for the worker of
+   * {@code stripe}. The payload must not be modified afterwards.
+   */
+  void submit(final Id sender, final ByteBuffer payload, final int stripe, final Lane lane) {
+    submit(sender, payload, stripe, lane, false);
+  }
+
+  /**
+   * Queues {@code payload} from {@code sender} for the worker of the address it is bound
+   * for, or else of its sender, in its lane when {@code lanes} is true. A relocation of
+   * no single address is a barrier. The payload must not be modified afterwards.
+   */
+  void submit(final Id sender, final ByteBuffer payload, final Decoder decoder, final boolean lanes) {
+    final int addressHash = decoder.addressHash(payload);
+    final boolean striped = addressHash != Decoder.UnknownAddressHash;
+    submit(sender, payload, striped ? addressHash : sender.value(),
+        lanes ? decoder.lane(payload) : Lane.Application, !striped && decoder.isUnaddressedRelocation(payload));
+  }
+
+  private void submit(final Id sender, final ByteBuffer payload, final int stripe, final Lane lane, final boolean barrier) {
+    final Sender order = senders.computeIfAbsent(sender, id -> new Sender());
+    final int target;
+    try {
+      synchronized (order) {
+        if (barrier && !order.pinned) {
+          while (order.outstanding > 0) {
+            order.wait(); // the earlier messages, on any worker, are handled first
+          }
+          order.pinned = true;
+        }
+        target = order.pinned ? sender.value() : stripe;
+        ++order.outstanding;
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      logger.warn("Interrupted while ordering a message from {}; dropped", sender);
+      return;
+    }
+    final Worker worker = workers[Math.floorMod(target, workers.length)];
+    try {
+      (lane == Lane.Control ? worker.control : worker.queue).put(new Inbound(sender, payload, order));
+      worker.ready.release();
+    } catch (InterruptedException e) {
+      order.handled();
+      Thread.currentThread().interrupt();
+      logger.warn("Interrupted while queuing a message from {}; dropped", sender);
+    }
+  }
+
+  void stop() {
+    for (final Worker worker : workers) {
+      worker.interrupt();
+    }
+  }
+
+  private static final class Inbound {
+    final Id sender;
+    final ByteBuffer payload;
+    final Sender order;
+
+    Inbound(final Id sender, final ByteBuffer payload, final Sender order) {
+      this.sender = sender;
+      this.payload = payload;
+      this.order = order;
+    }
+  }
+
+  /**
+   * The messages of one sender queued but not yet handled, and whether they are pinned
+   * to the worker of the sender by a barrier.
+   */
+  private static final class Sender {
+    private int outstanding; // guarded by this
+    private boolean pinned;  // guarded by this
+
+    synchronized void handled() {
+      if (--outstanding == 0) {
+        pinned = false;
+        notifyAll();
+      }
+    }
+  }
+
+  private static final class Worker extends Thread {
+    final BlockingQueue<Inbound> control;
+    final BlockingQueue<Inbound> queue;
+    final Semaphore ready; // one permit per message queued in either lane
+    private final int controlWeight;
+    private final BiConsumer<Id, ByteBuffer> handler;
+
+    Worker(final String name, final int capacity, final int controlWeight, final BiConsumer<Id, ByteBuffer> handler) {
+      super(name);
+      this.control = new ArrayBlockingQueue<>(capacity);
+      this.queue = new ArrayBlockingQueue<>(capacity);
+      this.ready = new Semaphore(0);
+      this.controlWeight = controlWeight;
+      this.handler = handler;
+      setDaemon(true);
+    }
+
+    @Override
+    public void run() {
+      int controlTaken = 0;
+      while (!isInterrupted()) {
+        try {
+          ready.acquire();
+        } catch (InterruptedException e) {
+          return;
+        }
+        Inbound next = controlTaken < controlWeight ? control.poll() : null;
+        if (next != null) {
+          ++controlTaken;
+        } else {
+          controlTaken = 0;
+          next = queue.poll();
+          if (next == null) {
+            next = control.poll(); // the permit was for a control message
+          }
+        }
+        try {
+          handler.accept(next.sender, next.payload);
+        } catch (Exception e) {
+          logger.error("Failed to process message from " + next.sender, e);
+        } finally {
+          next.order.handled();
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,130 @@
+// Copyright © 2012-2023 VLINGO LABS. All rights reserved.
+//
+// This Source Code Form is subject to the terms of the
+// Mozilla Public License, v. 2.0. If a copy of the MPL
+// was not distributed with this file, You can obtain
+// one at https://mozilla.org/MPL/2.0/.
+
+package io.vlingo.xoom.lattice.grid.application;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.function.Consumer;
+
+import io.vlingo.xoom.lattice.grid.application.message.Encoder;
+import io.vlingo.xoom.lattice.grid.application.message.Message;
+import io.vlingo.xoom.wire.message.RawMessage;
+import io.vlingo.xoom.wire.node.Id;
+
+/**
+ * Coalesces encoded grid messages bound for the same node into a single
+ * {@code RawMessage} frame. A batch frame is marked by its header type and
+ * its payload is a sequence of {@code [int length][bytes]} entries. Messages
+ * are encoded straight into the batch buffer, and unbatched into slices of
+ * the received payload, so neither side copies an individual message.
+ */
+final class MessageBatch {
+  static final int SingleType = -1;
+  static final int BatchType = 1;
+
+  private static final int LengthBytes = Integer.BYTES;
+
+  private final ByteBuffer buffer;
+  private final int maxMessages;
+  private int messages;
+
+  static boolean isBatch(final RawMessage raw) {
+    return raw.header().type() == BatchType;
+  }
+
+  static RawMessage single(final Id sender, final ByteBuffer payload) {
+    final RawMessage raw = RawMessage.from(sender.value(), SingleType, payload.remaining());
+    raw.putRemaining(payload);
+    return raw;
+  }
+
+  static void unbatch(final ByteBuffer payload, final Consumer<ByteBuffer> consumer) {
+    while (payload.remaining() >= LengthBytes) {
+      final int length = payload.getInt();
+      final int next = payload.position() + length;
+      final ByteBuffer entry = payload.duplicate();
+      entry.limit(next);
+      consumer.accept(entry);
+      payload.position(next);
+    }
+  }
+
+  /**
+   * Constructs a batch over {@code buffer}, usually taken from a pool, using at most
+   * {@code maxBytes} of it.
+   */
+  MessageBatch(final ByteBuffer buffer, final int maxBytes, final int maxMessages) {
+    this.buffer = buffer;
+    this.buffer.clear();
+    this.buffer.limit(Math.min(maxBytes, buffer.capacity()));
+    this.maxMessages = maxMessages;
+    this.messages = 0;
+  }
+
+  /**
+   * Answers whether {@code message} was encoded into this batch; when it does
+   * not fit the batch is left unchanged.
+   */
+  boolean append(final Encoder encoder, final Message message) {
+    if (isFull() || buffer.remaining() <= LengthBytes) {
+      return false;
+    }
+
+    final int start = buffer.position();
+    try {
+      buffer.position(start + LengthBytes);
+      encoder.encode(message, buffer);
+    } catch (final BufferOverflowException e) {
+      buffer.position(start);
+      return false;
+    }
+    buffer.putInt(start, buffer.position() - start - LengthBytes);
+    ++messages;
+    return true;
+  }
+
+  /**
+   * Answers whether the already encoded message in {@code encoded} was copied into
+   * this batch; when it does not fit the batch is left unchanged.
+   */
+  boolean append(final ByteBuffer encoded) {
+    if (isFull() || buffer.remaining() < LengthBytes + encoded.remaining()) {
+      return false;
+    }
+    buffer.putInt(encoded.remaining());
+    buffer.put(encoded.duplicate());
+    ++messages;
+    return true;
+  }
+
+  /**
+   * Answers the buffer of this batch, to be returned to its pool once the batch is discarded.
+   */
+  ByteBuffer buffer() {
+    return buffer;
+  }
+
+  boolean isEmpty() {
+    return messages == 0;
+  }
+
+  boolean isFull() {
+    return messages >= maxMessages;
+  }
+
+  RawMessage drain(final Id sender) {
+    final int limit = buffer.limit();
+    buffer.flip();
+    final RawMessage raw = RawMessage.from(sender.value(), BatchType, buffer.remaining());
+    raw.putRemaining(buffer);
+    buffer.clear();
+    buffer.limit(limit);
+    messages = 0;
+    return raw;
+  }
+}
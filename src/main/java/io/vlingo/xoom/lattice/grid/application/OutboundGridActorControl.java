@@ -7,18 +7,26 @@
 
 package io.vlingo.xoom.lattice.grid.application;
 
+import java.nio.BufferOverflowException;
 import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Queue;
-import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.function.BiConsumer;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import io.vlingo.xoom.cluster.model.node.Registry;
 import io.vlingo.xoom.lattice.grid.Grid;
+import io.vlingo.xoom.lattice.grid.GridProperties;
 import io.vlingo.xoom.lattice.grid.application.message.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -27,38 +35,81 @@ import io.vlingo.xoom.actors.Actor;
 import io.vlingo.xoom.actors.ActorInstantiator;
 import io.vlingo.xoom.actors.Address;
 import io.vlingo.xoom.actors.Definition;
+import io.vlingo.xoom.actors.LocalMessage;
 import io.vlingo.xoom.actors.Returns;
+import io.vlingo.xoom.common.Completes;
 import io.vlingo.xoom.common.SerializableConsumer;
-import io.vlingo.xoom.lattice.grid.application.message.serialization.FSTEncoder;
+import io.vlingo.xoom.common.pool.ElasticResourcePool;
+import io.vlingo.xoom.common.pool.ResourcePool;
+import io.vlingo.xoom.lattice.util.ByteBufferFactory;
 import io.vlingo.xoom.lattice.util.OutBuffers;
 import io.vlingo.xoom.wire.fdx.outbound.ApplicationOutboundStream;
-import io.vlingo.xoom.wire.message.RawMessage;
 import io.vlingo.xoom.wire.node.Id;
 
 public class OutboundGridActorControl extends Actor implements GridActorControl.Outbound {
 
   private static final Logger logger = LoggerFactory.getLogger(OutboundGridActorControl.class);
+  private static final ByteBuffer HeldFrame = ByteBuffer.allocate(0); // buffered in place of an ask held as is
+  private static final long ControlTag = -1L; // tags a buffered control frame, replayed without credits
 
   private final Id localNodeId;
   private final Registry registry;
   private ApplicationOutboundStream stream;
   private final Encoder encoder;
-  private final BiConsumer<UUID, UnAckMessage> gridMessagesCorrelationConsumer;
-  private final BiConsumer<UUID, Returns<?>> actorMessagesCorrelationConsumer;
+  private final CorrelationTable correlations; // sent messages waiting for an answer
 
   private final OutBuffers outBuffers; // buffer messages for unhealthy nodes
+  private final Map<Long, Message> bufferedAsks; // asks held in outBuffers by answer correlation id, timed when disbursed
   private final AtomicBoolean isHealthyCluster;
 
+  private final ResourcePool<ByteBuffer, Void> bufferPool; // messages are encoded straight into pooled buffers
+  private final int bufferSize; // capacity of the pooled buffers
+  private final boolean remoteDispatch;
+  private final boolean batching;
+  private final int batchMaxBytes;
+  private final int batchMaxMessages;
+  private final Map<Id, MessageBatch> batches; // per node, flushed by size, count or end of mailbox turn
+  private final GridActorControl.Outbound self;
+  private boolean flushScheduled;
+
+  private final boolean flowControl;
+  private final int flowWindow;
+  private final int flowPending;
+  private final Map<Id, SendWindow> windows; // per node, credits left and messages waiting for credits
+
+  private final int definitionCacheSize;
+  private final Map<Id, Map<Address, Definition.SerializationProxy>> definitions; // per node, LRU of the definitions sent
+
+  private final int relocateBatchSize;
+  private final int relocateBatchInflight;
+  private final Map<Id, Relocations> relocations; // per node, relocations being chunked and chunks waiting to be sent
+
+  private final int relocateChunkBytes;
+  private final Map<Id, Queue<Transfer>> transfers; // per node, relocations too large for a buffer, sent one at a time
+
+  private final int[] laneWeights; // null when messages are sent in the order they are given
+  private final int laneApplicationBudget; // application messages sent per node per turn
+  private final Map<Id, OutboundLanes> lanes; // per node, messages waiting in their priority lane for a flush turn
 
   public OutboundGridActorControl(
           final Id localNodeId,
           final Registry registry,
           final Encoder encoder,
-          final BiConsumer<UUID, UnAckMessage> gridMessagesCorrelationConsumer,
-          final BiConsumer<UUID, Returns<?>> actorMessagesCorrelationConsumer,
+          final CorrelationTable correlations,
           final OutBuffers outBuffers) {
 
-    this(localNodeId, registry, null, encoder, gridMessagesCorrelationConsumer, actorMessagesCorrelationConsumer, outBuffers);
+    this(localNodeId, registry, null, encoder, correlations, outBuffers);
+  }
+
+  public OutboundGridActorControl(
+          final Id localNodeId,
+          final Registry registry,
+          final Encoder encoder,
+          final CorrelationTable correlations,
+          final OutBuffers outBuffers,
+          final GridProperties properties) {
+
+    this(localNodeId, registry, null, encoder, correlations, outBuffers, properties);
   }
 
   public OutboundGridActorControl(
@@ -66,43 +117,375 @@ public class OutboundGridActorControl extends Actor implements GridActorControl.
           final Registry registry,
           final ApplicationOutboundStream stream,
           final Encoder encoder,
-          final BiConsumer<UUID, UnAckMessage> gridMessagesCorrelationConsumer,
-          final BiConsumer<UUID, Returns<?>> actorMessagesCorrelationConsumer,
+          final CorrelationTable correlations,
           final OutBuffers outBuffers) {
 
+    this(localNodeId, registry, stream, encoder, correlations, outBuffers, GridProperties.defaults());
+  }
+
+  public OutboundGridActorControl(
+          final Id localNodeId,
+          final Registry registry,
+          final ApplicationOutboundStream stream,
+          final Encoder encoder,
+          final CorrelationTable correlations,
+          final OutBuffers outBuffers,
+          final GridProperties properties) {
+
     this.localNodeId = localNodeId;
     this.registry = registry;
     this.stream = stream;
     this.encoder = encoder;
-    this.gridMessagesCorrelationConsumer = gridMessagesCorrelationConsumer;
-    this.actorMessagesCorrelationConsumer = actorMessagesCorrelationConsumer;
+    this.correlations = correlations;
     this.outBuffers = outBuffers;
+    this.bufferedAsks = new HashMap<>();
     this.isHealthyCluster = new AtomicBoolean(false);
+    this.bufferPool = new ElasticResourcePool<>(ElasticResourcePool.Config.of(2),
+            new ByteBufferFactory(properties.bufferSize(), properties.bufferDirect()));
+    this.bufferSize = properties.bufferSize();
+    this.remoteDispatch = properties.remoteDispatch();
+    this.batching = properties.outboundBatchEnabled();
+    this.batchMaxBytes = properties.outboundBatchMaxBytes();
+    this.batchMaxMessages = properties.outboundBatchMaxMessages();
+    this.batches = new HashMap<>();
+    this.self = selfAs(GridActorControl.Outbound.class);
+    this.flushScheduled = false;
+    this.flowControl = properties.flowControlEnabled();
+    this.flowWindow = properties.flowWindow();
+    this.flowPending = properties.flowPending();
+    this.windows = new HashMap<>();
+    this.definitionCacheSize = properties.definitionCacheSize();
+    this.definitions = new HashMap<>();
+    this.relocateBatchSize = properties.relocateBatchSize();
+    this.relocateBatchInflight = properties.relocateBatchInflight();
+    this.relocations = new HashMap<>();
+    this.relocateChunkBytes = properties.relocateChunkBytes();
+    this.transfers = new HashMap<>();
+    this.laneWeights = properties.lanesEnabled() ? properties.laneWeights() : null;
+    this.laneApplicationBudget = properties.laneApplicationBudget();
+    this.lanes = new HashMap<>();
   }
 
   @Override
   public void informClusterIsHealthy(boolean isHealthyCluster) {
-    this.isHealthyCluster.set(isHealthyCluster);
+    final boolean wasHealthyCluster = this.isHealthyCluster.getAndSet(isHealthyCluster);
+    if (isHealthyCluster && !wasHealthyCluster) {
+      // credits in flight to or from a node that was unreachable may be lost
+      windows.forEach((id, window) -> window.credits = flowWindow);
+      new ArrayList<>(outBuffers.framedNodes()).forEach(this::disburse);
+      new ArrayList<>(windows.keySet()).forEach(id -> credited(id, 0));
+      // a node may have restarted, and lost the definitions, while it was unreachable
+      definitions.clear();
+    }
   }
 
-  private void send(final Id recipient, final Message message) {
-    final Runnable sendFunction = () -> {
-      logger.debug("Sending message {} to {}", message, recipient);
-      byte[] payload = encoder.encode(message);
-      RawMessage raw = RawMessage.from(
-              localNodeId.value(), -1, payload.length);
-      raw.putRemaining(ByteBuffer.wrap(payload));
-      stream.sendTo(raw, registry.getNode(recipient));
-    };
+  @Override
+  public void grant(final Id recipient, final int credits) {
+    send(recipient, new Credit(credits));
+  }
 
+  @Override
+  public void credited(final Id sender, final int credits) {
+    final SendWindow window = windows.get(sender);
+    if (window == null) {
+      return;
+    }
+    // a grant of credits owed from before a reset to flowWindow may overlap it
+    window.credits = Math.min(flowWindow, window.credits + credits);
+    if (!isHealthyCluster.get()) {
+      return;
+    }
+    replay(sender); // the buffered frames are older than the messages waiting
+    while (window.credits > 0 && !window.waiting.isEmpty() && outBuffers.frames(sender) == 0) {
+      --window.credits;
+      transmit(sender, window.waiting.poll());
+    }
+  }
+
+  @Override
+  public void requestDefinition(final Id recipient, final Address address) {
+    send(recipient, new DefinitionRequest(address));
+  }
+
+  @Override
+  public void definitionRequested(final Id sender, final Address address) {
+    Definition.SerializationProxy definition = null;
+    final Map<Address, Definition.SerializationProxy> sent = definitions.get(sender);
+    if (sent != null) {
+      definition = sent.get(address);
+    }
+    if (definition == null) {
+      // a GridDeliver forwarded by the node it was sent to
+      for (final Map<Address, Definition.SerializationProxy> other : definitions.values()) {
+        if ((definition = other.get(address)) != null) {
+          break;
+        }
+      }
+    }
+    send(sender, new DefinitionReply(address, definition));
+  }
+
+  @Override
+  public void redirect(final Id recipient, final Address address, final Id owner) {
+    send(recipient, new Redirect(address, owner));
+  }
+
+  private void send(final Id recipient, final Message message) {
     if (isHealthyCluster.get()) {
-      sendFunction.run(); // send the message immediately, node is healthy
+      if (!flowControl || admit(recipient, message)) {
+        transmit(recipient, message); // send the message immediately, node is healthy
+      }
     } else {
       logger.debug("Buffering message {} to {}", message, recipient);
-      outBuffers.enqueue(recipient, sendFunction); // enqueue the message, node is unhealthy
+      buffer(recipient, message); // buffer the encoded message, node is unhealthy
+    }
+  }
+
+  private void transmit(final Id recipient, final Message message) {
+    if (laneWeights != null) {
+      final OutboundLanes waiting = lanes.computeIfAbsent(recipient, id -> new OutboundLanes(laneWeights, laneApplicationBudget));
+      if (!waiting.admit(message)) {
+        waiting.add(message);
+        flushLater(); // drained by lane weight after the messages already in this mailbox
+        return;
+      }
+    }
+    sendNow(recipient, message);
+  }
+
+  private void sendNow(final Id recipient, final Message message) {
+    final Message timed = timed(message);
+    if (timed == null) {
+      if (flowControl) {
+        credited(recipient, 1); // the credit it took is not spent
+      }
+      return;
+    }
+    logger.debug("Sending message {} to {}", timed, recipient);
+    definitionSent(recipient, timed);
+    if (batching) {
+      batch(recipient, timed);
+    } else {
+      sendSingle(recipient, timed);
     }
   }
 
+  /**
+   * Answers {@code message} carrying the milliseconds left until its answer times out,
+   * which excludes the time it waited on this node, or null when it is shed as no one
+   * waits for its answer any longer.
+   */
+  private Message timed(final Message message) {
+    final long answerCorrelationId = timedCorrelationIdOf(message);
+    if (answerCorrelationId == Message.NoCorrelationId) {
+      return message;
+    }
+    final long remaining = correlations.remainingMillis(answerCorrelationId);
+    if (remaining <= 0) {
+      logger.debug("Shedding expired message {}", message);
+      correlations.fail(answerCorrelationId, new TimeoutException("Expired before sent"));
+      return null;
+    }
+    return message instanceof GridDeliver
+            ? ((GridDeliver<?>) message).withTimeToLive(remaining)
+            : ((ActorDeliver<?>) message).withTimeToLive(remaining);
+  }
+
+  /**
+   * Answers the correlation id of the answer to {@code message} when it carries a time
+   * to live, or {@code Message.NoCorrelationId}.
+   */
+  private static long timedCorrelationIdOf(final Message message) {
+    if (message instanceof GridDeliver && ((GridDeliver<?>) message).timeToLive != Message.NoTimeToLive) {
+      return ((GridDeliver<?>) message).answerCorrelationId;
+    } else if (message instanceof ActorDeliver && ((ActorDeliver<?>) message).timeToLive != Message.NoTimeToLive) {
+      return ((ActorDeliver<?>) message).answerCorrelationId;
+    }
+    return Message.NoCorrelationId;
+  }
+
+  /**
+   * Answers whether {@code message} may be sent now; otherwise it waits for credits,
+   * or is rejected when {@code flowPending} messages are already waiting.
+   */
+  private boolean admit(final Id recipient, final Message message) {
+    if (isControl(message)) {
+      return true; // never held back, or two saturated nodes would wait on each other
+    }
+    final SendWindow window = windows.computeIfAbsent(recipient, id -> new SendWindow(flowWindow));
+    if (window.credits > 0 && window.waiting.isEmpty() && outBuffers.frames(recipient) == 0) {
+      --window.credits;
+      return true;
+    }
+    if (window.waiting.size() < flowPending) {
+      window.waiting.add(message);
+    } else {
+      reject(recipient, message, "Node " + recipient + " is saturated");
+    }
+    return false;
+  }
+
+  private static boolean isControl(final Message message) {
+    return message instanceof Answer || message instanceof Credit
+            || message instanceof DefinitionRequest || message instanceof DefinitionReply
+            || message instanceof Redirect;
+  }
+
+  private void buffer(final Id recipient, final Message message) {
+    final long timedCorrelationId = timedCorrelationIdOf(message);
+    if (timedCorrelationId != Message.NoCorrelationId) {
+      // held in place of its frame and timed when disbursed, so that it carries the time left then
+      if (outBuffers.enqueue(recipient, HeldFrame, timedCorrelationId, true, this::dropped)) {
+        bufferedAsks.put(timedCorrelationId, message);
+      } else {
+        reject(recipient, message, "Outbound buffer to " + recipient + " is full");
+      }
+      return;
+    }
+    // a relocation is never dropped, as the actors it moves exist nowhere else
+    final boolean droppable = Lane.of(message) != Lane.Relocation;
+    final ByteBuffer buffer = bufferPool.acquire();
+    try {
+      final long tag = isControl(message) ? ControlTag : answerCorrelationIdOf(message);
+      if (!outBuffers.enqueue(recipient, encode(message, buffer), tag, droppable, this::dropped)) {
+        reject(recipient, message, "Outbound buffer to " + recipient + " is full");
+      }
+    } finally {
+      bufferPool.release(buffer);
+    }
+  }
+
+  /**
+   * Fails the answer awaited by a buffered frame dropped to make room for newer ones.
+   */
+  private void dropped(final long answerCorrelationId) {
+    if (answerCorrelationId != Message.NoCorrelationId && answerCorrelationId != ControlTag) {
+      bufferedAsks.remove(answerCorrelationId);
+      correlations.fail(answerCorrelationId, new RejectedExecutionException("Dropped from a full outbound buffer"));
+    }
+  }
+
+  private static long answerCorrelationIdOf(final Message message) {
+    if (message instanceof GridDeliver) {
+      return ((GridDeliver<?>) message).answerCorrelationId;
+    } else if (message instanceof ActorDeliver) {
+      return ((ActorDeliver<?>) message).answerCorrelationId;
+    }
+    return Message.NoCorrelationId;
+  }
+
+  private void reject(final Id recipient, final Message message, final String reason) {
+    logger.warn("{}; rejected message {}", reason, message);
+    final RejectedExecutionException error = new RejectedExecutionException(reason);
+    if (message instanceof GridDeliver) {
+      correlations.fail(((GridDeliver<?>) message).answerCorrelationId, error);
+    } else if (message instanceof ActorDeliver) {
+      correlations.fail(((ActorDeliver<?>) message).answerCorrelationId, error);
+    } else if (message instanceof Relocate) {
+      ((Relocate) message).pending.forEach(deliver -> correlations.fail(deliver.answerCorrelationId, error));
+    } else if (message instanceof RelocateBatch) {
+      final RelocateBatch batch = (RelocateBatch) message;
+      batch.relocations.forEach(relocate -> relocate.pending.forEach(deliver -> correlations.fail(deliver.answerCorrelationId, error)));
+      correlations.fail(batch.answerCorrelationId, error);
+    } else if (message instanceof RelocateChunk) {
+      abortTransfer(recipient, ((RelocateChunk) message).transferId, error);
+    }
+  }
+
+  private void sendEncoded(final Id recipient, final ByteBuffer encoded) {
+    if (batching) {
+      final MessageBatch batch = batches.computeIfAbsent(recipient,
+              id -> new MessageBatch(bufferPool.acquire(), batchMaxBytes, batchMaxMessages));
+      if (batch.append(encoded)) {
+        if (batch.isFull()) {
+          flush(recipient, batch);
+        }
+        return;
+      }
+      flush(recipient, batch);
+      if (batch.append(encoded)) {
+        return;
+      }
+    }
+    stream.sendTo(MessageBatch.single(localNodeId, encoded), registry.getNode(recipient));
+  }
+
+  private void sendSingle(final Id recipient, final Message message) {
+    final ByteBuffer buffer = bufferPool.acquire();
+    try {
+      stream.sendTo(MessageBatch.single(localNodeId, encode(message, buffer)), registry.getNode(recipient));
+    } finally {
+      bufferPool.release(buffer);
+    }
+  }
+
+  private ByteBuffer encode(final Message message, final ByteBuffer buffer) {
+    try {
+      encoder.encode(message, buffer);
+      buffer.flip();
+      return buffer;
+    } catch (final BufferOverflowException e) {
+      return ByteBuffer.wrap(encoder.encode(message)); // larger than a pooled buffer
+    }
+  }
+
+  private void batch(final Id recipient, final Message message) {
+    final MessageBatch batch = batches.computeIfAbsent(recipient,
+            id -> new MessageBatch(bufferPool.acquire(), batchMaxBytes, batchMaxMessages));
+    if (!batch.append(encoder, message)) {
+      flush(recipient, batch);
+      if (!batch.append(encoder, message)) {
+        // larger than a whole batch; preserve ordering by sending it right after the flushed one
+        sendSingle(recipient, message);
+        return;
+      }
+    }
+
+    if (batch.isFull()) {
+      flush(recipient, batch);
+    } else {
+      flushLater();
+    }
+  }
+
+  private void flushLater() {
+    if (!flushScheduled) {
+      // flush after the messages already in this mailbox are batched
+      flushScheduled = true;
+      self.flush();
+    }
+  }
+
+  private void drainLanes() {
+    boolean waiting = false;
+    for (final Map.Entry<Id, OutboundLanes> recipientLanes : lanes.entrySet()) {
+      recipientLanes.getValue().drain(message -> sendNow(recipientLanes.getKey(), message));
+      waiting |= !recipientLanes.getValue().isEmpty();
+    }
+    if (waiting) {
+      flushLater(); // the application messages beyond the budget wait for the next turn
+    }
+  }
+
+  private void flush(final Id recipient, final MessageBatch batch) {
+    if (!batch.isEmpty()) {
+      stream.sendTo(batch.drain(localNodeId), registry.getNode(recipient));
+    }
+  }
+
+  @Override
+  public void flush() {
+    flushScheduled = false;
+    relocations.forEach((recipient, chunks) -> {
+      if (!chunks.filling.isEmpty()) {
+        chunks.seal();
+        sendRelocations(recipient, chunks, relocateBatchInflight);
+      }
+    });
+    drainLanes();
+    batches.forEach(this::flush);
+  }
+
   @Override
   public <T> void start(
           final Id recipient,
@@ -125,15 +508,58 @@ public class OutboundGridActorControl extends Actor implements GridActorControl.
           final SerializableConsumer<T> consumer,
           final String representation) {
 
-    final GridDeliver<T> gridDeliver;
-    if (returns == null) {
-      gridDeliver = new GridDeliver<>(protocol, address, definitionProxy, consumer, representation);
+    final long answerCorrelationId = returns == null ? Message.NoCorrelationId : correlations.nextId();
+    final long timeToLive = returns == null ? Message.NoTimeToLive : correlations.timeoutMillis();
+    final SerializableConsumer<T> dispatch = dispatchOf(consumer);
+    final GridDeliver<T> gridDeliver = new GridDeliver<>(protocol, address, definitionProxy, dispatch, answerCorrelationId, representation, timeToLive);
+    if (returns != null) {
+      // a retry keeps the definition, the next node may not have it
+      correlations.put(answerCorrelationId, new UnAckMessage(recipient, returns, gridDeliver));
+    }
+
+    if (definitionOnce(recipient, address, definitionProxy) == null) {
+      send(recipient, new GridDeliver<>(protocol, address, null, dispatch, answerCorrelationId, representation, timeToLive));
     } else {
-      final UUID answerCorrelationId = UUID.randomUUID();
-      gridDeliver = new GridDeliver<>(protocol, address, definitionProxy, consumer, answerCorrelationId, representation);
-      gridMessagesCorrelationConsumer.accept(answerCorrelationId, new UnAckMessage(recipient, returns, gridDeliver));
+      send(recipient, gridDeliver);
     }
-    send(recipient, gridDeliver);
+  }
+
+  /**
+   * Answers {@code definitionProxy} until it was sent to {@code recipient} for
+   * {@code address}, and null while {@code recipient} is known to have it already.
+   */
+  private Definition.SerializationProxy definitionOnce(
+          final Id recipient,
+          final Address address,
+          final Definition.SerializationProxy definitionProxy) {
+
+    if (definitionCacheSize == 0 || definitionProxy == null) {
+      return definitionProxy;
+    }
+    final Map<Address, Definition.SerializationProxy> sent = definitions.get(recipient);
+    return sent != null && sent.get(address) != null ? null : definitionProxy;
+  }
+
+  /**
+   * Records the definition carried by {@code message}, if any, as known to {@code recipient};
+   * only once it is sent, as a rejected or dropped message never reaches {@code recipient}.
+   */
+  private void definitionSent(final Id recipient, final Message message) {
+    if (definitionCacheSize == 0 || !(message instanceof GridDeliver)) {
+      return;
+    }
+    final GridDeliver<?> gridDeliver = (GridDeliver<?>) message;
+    if (gridDeliver.definition == null) {
+      return;
+    }
+    definitions.computeIfAbsent(recipient, id -> new LinkedHashMap<Address, Definition.SerializationProxy>(16, 0.75f, true) {
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      protected boolean removeEldestEntry(final Map.Entry<Address, Definition.SerializationProxy> eldest) {
+        return size() > definitionCacheSize;
+      }
+    }).put(gridDeliver.address, gridDeliver.definition);
   }
 
   @Override
@@ -147,11 +573,11 @@ public class OutboundGridActorControl extends Actor implements GridActorControl.
           String representation) {
     final ActorDeliver<T> actorDeliver;
     if (returns == null) {
-      actorDeliver = new ActorDeliver<>(protocol, actorProvider, consumer, representation);
+      actorDeliver = new ActorDeliver<>(protocol, actorProvider, dispatchOf(consumer), representation);
     } else {
-      final UUID answerCorrelationId = UUID.randomUUID();
-      actorDeliver = new ActorDeliver<>(protocol, actorProvider, consumer, representation, answerCorrelationId);
-      actorMessagesCorrelationConsumer.accept(answerCorrelationId, returns);
+      final long answerCorrelationId = correlations.nextId();
+      actorDeliver = new ActorDeliver<>(protocol, actorProvider, dispatchOf(consumer), representation, answerCorrelationId, correlations.timeoutMillis());
+      correlations.put(answerCorrelationId, new UnAckMessage(recipient, returns, null));
     }
 
     send(recipient, actorDeliver);
@@ -164,7 +590,16 @@ public class OutboundGridActorControl extends Actor implements GridActorControl.
 
   @Override
   public void forward(final Id receiver, final Id sender, final Message message) {
-    send(receiver, new Forward(sender, message));
+    final Forward forward = new Forward(sender, message);
+    if (message instanceof Relocate) {
+      // reassembled from chunks, and sent on in chunks, with its original sender
+      final byte[] encoded = encodedIfLarge(forward);
+      if (encoded != null) {
+        transfer(receiver, new Transfer(correlations.nextId(), (Relocate) message, encoded));
+        return;
+      }
+    }
+    send(receiver, forward);
   }
 
   @Override
@@ -178,10 +613,168 @@ public class OutboundGridActorControl extends Actor implements GridActorControl.
     final List<GridDeliver<?>> messages =
             pending
               .stream()
-              .map(GridDeliver.from(gridMessagesCorrelationConsumer, receiver))
+              .map(message -> gridDeliverOf(receiver, (LocalMessage<?>) message))
               .collect(Collectors.toList());
 
-    send(receiver, new Relocate(address, definitionProxy, snapshot, messages));
+    final Relocate relocate = new Relocate(address, definitionProxy, snapshot, messages);
+    final byte[] encoded = encodedIfLarge(relocate);
+    if (encoded != null) {
+      transfer(receiver, new Transfer(correlations.nextId(), relocate, encoded));
+      return;
+    }
+    if (relocateBatchSize == 1) {
+      send(receiver, relocate);
+      return;
+    }
+
+    final Relocations chunks = relocations.computeIfAbsent(receiver, id -> new Relocations());
+    chunks.filling.add(relocate);
+    if (chunks.filling.size() == relocateBatchSize) {
+      chunks.seal();
+      sendRelocations(receiver, chunks, relocateBatchInflight);
+    } else {
+      flushLater(); // a partial chunk is sealed after the relocations already in this mailbox
+    }
+  }
+
+  @Override
+  public void relocationAcknowledged(final Id recipient) {
+    final Relocations chunks = relocations.get(recipient);
+    if (chunks == null) {
+      return;
+    }
+    chunks.inflight = Math.max(0, chunks.inflight - 1);
+    sendRelocations(recipient, chunks, relocateBatchInflight);
+    if (chunks.isIdle()) {
+      relocations.remove(recipient);
+    }
+  }
+
+  @Override
+  public void transferNext(final Id recipient) {
+    final Queue<Transfer> queue = transfers.get(recipient);
+    if (queue == null || queue.isEmpty()) {
+      return;
+    }
+    final Transfer transfer = queue.peek();
+    send(recipient, transfer.nextChunk(relocateChunkBytes));
+    if (transfer.isDone()) {
+      queue.remove(transfer);
+    }
+    if (queue.isEmpty()) {
+      transfers.remove(recipient);
+    } else {
+      self.transferNext(recipient); // lets the messages queued meanwhile go first
+    }
+  }
+
+  /**
+   * Answers {@code relocation} encoded when it does not fit a pooled buffer, or else null;
+   * encoded once, as the same bytes are sent in chunks.
+   */
+  private byte[] encodedIfLarge(final Message relocation) {
+    final byte[] encoded = encoder.encode(relocation);
+    return encoded.length > bufferSize ? encoded : null;
+  }
+
+  private void transfer(final Id recipient, final Transfer transfer) {
+    logger.debug("Transferring {} in chunks of {} bytes to {}", transfer, relocateChunkBytes, recipient);
+    final Queue<Transfer> queue = transfers.computeIfAbsent(recipient, id -> new ArrayDeque<>());
+    queue.add(transfer);
+    if (queue.size() == 1) {
+      transferNext(recipient);
+    }
+  }
+
+  private void abortTransfer(final Id recipient, final long transferId, final Exception error) {
+    final Queue<Transfer> queue = transfers.get(recipient);
+    if (queue != null) {
+      queue.removeIf(transfer -> {
+        if (transfer.id != transferId) {
+          return false;
+        }
+        transfer.relocate.pending.forEach(deliver -> correlations.fail(deliver.answerCorrelationId, error));
+        return true;
+      });
+    }
+  }
+
+  @Override
+  public void drainRelocations() {
+    relocations.forEach((recipient, chunks) -> {
+      if (!chunks.filling.isEmpty()) {
+        chunks.seal();
+      }
+      sendRelocations(recipient, chunks, Integer.MAX_VALUE);
+    });
+    transfers.forEach((recipient, queue) -> {
+      Transfer transfer;
+      while ((transfer = queue.peek()) != null) {
+        while (!transfer.isDone() && queue.peek() == transfer) { // until sent whole, or aborted
+          send(recipient, transfer.nextChunk(relocateChunkBytes));
+        }
+        queue.remove(transfer);
+      }
+    });
+    transfers.clear();
+    drainLanes();
+    batches.forEach(this::flush);
+  }
+
+  /**
+   * Sends the sealed chunks of relocations to {@code recipient} while fewer than
+   * {@code inflight} of them wait for their barrier, the {@code Answer} sent once the
+   * recipient has processed a whole chunk. A chunk that is rejected or not answered
+   * in time releases its barrier as well.
+   */
+  private void sendRelocations(final Id recipient, final Relocations chunks, final int inflight) {
+    while (chunks.inflight < inflight && !chunks.sealed.isEmpty()) {
+      ++chunks.inflight;
+      final long answerCorrelationId = correlations.nextId();
+      correlations.put(answerCorrelationId, new UnAckMessage(recipient, Returns.value(barrierOf(recipient)), null));
+      send(recipient, new RelocateBatch(chunks.sealed.poll(), answerCorrelationId));
+    }
+  }
+
+  private Completes<Object> barrierOf(final Id recipient) {
+    final Completes<Object> barrier = Completes.using(scheduler());
+    barrier.andThen(relocated -> recipient)
+            .recoverFrom(error -> recipient)
+            .andThenConsume(self::relocationAcknowledged)
+            .andFinally();
+    return barrier;
+  }
+
+  private <T> SerializableConsumer<T> dispatchOf(final SerializableConsumer<T> consumer) {
+    return remoteDispatch ? RemoteInvocation.from(consumer) : consumer;
+  }
+
+  @SuppressWarnings({ "unchecked", "rawtypes" })
+  private GridDeliver<?> gridDeliverOf(final Id receiver, final LocalMessage<?> message) {
+    final long answerCorrelationId = message.returns() == null ? Message.NoCorrelationId : correlations.nextId();
+
+    final GridDeliver gridDeliver = new GridDeliver(
+            message.protocol(),
+            message.actor().address(),
+            Definition.SerializationProxy.from(message.actor().definition()),
+            dispatchOf(message.consumer()),
+            answerCorrelationId,
+            message.representation(),
+            answerCorrelationId == Message.NoCorrelationId ? Message.NoTimeToLive : correlations.timeoutMillis());
+
+    if (answerCorrelationId != Message.NoCorrelationId) {
+      correlations.put(answerCorrelationId, new UnAckMessage(receiver, message.returns(), gridDeliver));
+    }
+
+    return gridDeliver;
+  }
+
+  @Override
+  public void nodeLeft(final Id node) {
+    final MessageBatch batch = batches.remove(node);
+    if (batch != null) {
+      bufferPool.release(batch.buffer()); // its asks are retried on the new owners
+    }
   }
 
   @Override
@@ -190,19 +783,116 @@ public class OutboundGridActorControl extends Actor implements GridActorControl.
   }
 
   private void disburse(final Id id) {
-    final Queue<Runnable> buffer = outBuffers.queue(id);
-    if (buffer.size() == 0) {
+    if (registry.getNode(id) == null) {
+      logger.debug("Discarding {} buffered messages to departed node {}", outBuffers.frames(id), id);
+      outBuffers.drain(id, (frame, answerCorrelationId) -> bufferedAsks.remove(answerCorrelationId));
+      nodeLeft(id);
       return;
     }
 
-    logger.debug("Disbursing {} buffered messages to node {}", buffer.size(), id);
-    Runnable next;
-    do {
-      next = buffer.poll();
-      if (next != null) {
-        next.run();
+    logger.debug("Disbursing {} buffered messages to node {}", outBuffers.frames(id), id);
+    replay(id);
+  }
+
+  /**
+   * Sends the frames buffered for {@code id}, oldest first. Under flow control each
+   * one but a control frame spends a credit, and those left wait in the buffer for
+   * the credits granted later.
+   */
+  private void replay(final Id id) {
+    if (outBuffers.frames(id) == 0) {
+      return;
+    }
+    final SendWindow window = flowControl ? windows.computeIfAbsent(id, node -> new SendWindow(flowWindow)) : null;
+    outBuffers.drainWhile(id, (frame, tag) -> {
+      if (window == null || tag == ControlTag) {
+        replayed(id, frame, tag);
+      } else if (window.credits == 0) {
+        return false;
+      } else if (replayed(id, frame, tag)) {
+        --window.credits;
       }
-    } while (next != null);
+      return true;
+    });
+    final MessageBatch batch = batches.get(id);
+    if (batch != null) {
+      flush(id, batch);
+    }
+  }
+
+  /**
+   * Answers whether the buffered {@code frame} was sent to {@code id}, or the ask held
+   * in its place, which is shed when its answer is no longer awaited.
+   */
+  private boolean replayed(final Id id, final ByteBuffer frame, final long tag) {
+    final Message ask = bufferedAsks.remove(tag);
+    if (ask == null) {
+      sendEncoded(id, frame);
+      return true;
+    }
+    final Message timed = timed(ask);
+    if (timed == null) {
+      return false;
+    }
+    definitionSent(id, timed);
+    if (batching) {
+      batch(id, timed);
+    } else {
+      sendSingle(id, timed);
+    }
+    return true;
+  }
+
+  private static final class Transfer {
+    final long id;
+    final Relocate relocate;
+    final byte[] encoded;
+    int offset;
+
+    Transfer(final long id, final Relocate relocate, final byte[] encoded) {
+      this.id = id;
+      this.relocate = relocate;
+      this.encoded = encoded;
+    }
+
+    RelocateChunk nextChunk(final int chunkBytes) {
+      final int start = offset;
+      offset = Math.min(encoded.length, start + chunkBytes);
+      return new RelocateChunk(id, encoded.length, start, Arrays.copyOfRange(encoded, start, offset));
+    }
+
+    boolean isDone() {
+      return offset == encoded.length;
+    }
+
+    @Override
+    public String toString() {
+      return String.format("Transfer(id='%d', address='%s', bytes='%d')", id, relocate.address, encoded.length);
+    }
+  }
+
+  private static final class Relocations {
+    final Queue<List<Relocate>> sealed = new ArrayDeque<>();
+    List<Relocate> filling = new ArrayList<>();
+    int inflight;
+
+    void seal() {
+      sealed.add(filling);
+      filling = new ArrayList<>();
+    }
+
+    boolean isIdle() {
+      return inflight == 0 && sealed.isEmpty() && filling.isEmpty();
+    }
+  }
+
+  private static final class SendWindow {
+    final Queue<Message> waiting = new ArrayDeque<>();
+    int credits;
+
+    SendWindow(final int credits) {
+      this.credits = credits;
+    }
   }
 
   public static class OutboundGridActorControlInstantiator implements ActorInstantiator<OutboundGridActorControl> {
@@ -210,29 +900,38 @@ public class OutboundGridActorControl extends Actor implements GridActorControl.
 
     private final Id id;
     private final Registry registry;
-    private final FSTEncoder fstEncoder;
-    private final BiConsumer<UUID, UnAckMessage> gridMessagesCorrelationConsumer;
-    private final BiConsumer<UUID, Returns<?>> actorMessagesCorrelationConsumer;
+    private final Encoder encoder;
+    private final CorrelationTable correlations;
     private final OutBuffers outBuffers;
+    private final GridProperties properties;
 
     public OutboundGridActorControlInstantiator(
             final Id id,
             final Registry registry,
-            final FSTEncoder fstEncoder,
-            final BiConsumer<UUID, UnAckMessage> gridMessagesCorrelationConsumer,
-            final BiConsumer<UUID, Returns<?>> actorMessagesCorrelationConsumer,
+            final Encoder encoder,
+            final CorrelationTable correlations,
             final OutBuffers outBuffers) {
+      this(id, registry, encoder, correlations, outBuffers, GridProperties.defaults());
+    }
+
+    public OutboundGridActorControlInstantiator(
+            final Id id,
+            final Registry registry,
+            final Encoder encoder,
+            final CorrelationTable correlations,
+            final OutBuffers outBuffers,
+            final GridProperties properties) {
       this.id = id;
       this.registry = registry;
-      this.fstEncoder = fstEncoder;
-      this.gridMessagesCorrelationConsumer = gridMessagesCorrelationConsumer;
-      this.actorMessagesCorrelationConsumer = actorMessagesCorrelationConsumer;
+      this.encoder = encoder;
+      this.correlations = correlations;
       this.outBuffers = outBuffers;
+      this.properties = properties;
     }
 
     @Override
     public OutboundGridActorControl instantiate() {
-      return new OutboundGridActorControl(id, registry, fstEncoder, gridMessagesCorrelationConsumer, actorMessagesCorrelationConsumer, outBuffers);
+      return new OutboundGridActorControl(id, registry, encoder, correlations, outBuffers, properties);
     }
   }
 }
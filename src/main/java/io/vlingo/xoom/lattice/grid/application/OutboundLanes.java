@@ -0,0 +1,135 @@
+// Copyright © 2012-2023 VLINGO LABS. All rights reserved.
+//
+// This Source Code Form is subject to the terms of the
+// Mozilla Public License, v. 2.0. If a copy of the MPL
+// was not distributed with this file, You can obtain
+// one at https://mozilla.org/MPL/2.0/.
+
+package io.vlingo.xoom.lattice.grid.application;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.function.Consumer;
+
+import io.vlingo.xoom.lattice.grid.application.message.Lane;
+import io.vlingo.xoom.lattice.grid.application.message.Message;
+
+/**
+ * The messages to one node waiting in their priority {@code Lane}, drained by weighted
+ * round robin: each round takes up to the weight of each lane from it, highest priority
+ * first, so that no lane is starved while the others are favored.
+ * <p>
+ * An application message never overtakes a relocation frame queued before it, which
+ * may carry the actor it is delivered to; as a {@code RelocateChunk} does not tell its
+ * actor, those relocation frames are taken first whatever their address.
+ * <p>
+ * At most {@code applicationBudget} application messages are taken per turn, that is
+ * between two drains, so that the rest wait for the next turn behind the messages
+ * of higher priority given meanwhile.
+ */
+final class OutboundLanes {
+  private final int applicationBudget;
+  private int applicationTaken;
+  private final int[] weights;
+  private final Queue<Message>[] queues;
+  private final Queue<Long> relocationsBefore; // per application message, relocation frames added before it
+  private long relocationsAdded;
+  private long relocationsTaken;
+  private int size;
+
+  OutboundLanes(final int[] weights) {
+    this(weights, Integer.MAX_VALUE);
+  }
+
+  @SuppressWarnings("unchecked")
+  OutboundLanes(final int[] weights, final int applicationBudget) {
+    this.weights = weights;
+    this.applicationBudget = applicationBudget;
+    this.queues = new Queue[Lane.values().length];
+    for (int lane = 0; lane < queues.length; ++lane) {
+      queues[lane] = new ArrayDeque<>();
+    }
+    this.relocationsBefore = new ArrayDeque<>();
+  }
+
+  /**
+   * Answers whether {@code message} may be sent right away instead of being added: a
+   * control message always may, any other only while nothing waits, and an application
+   * message only while the budget of this turn lasts.
+   * @param message the Message to send
+   * @return boolean
+   */
+  boolean admit(final Message message) {
+    final Lane lane = Lane.of(message);
+    if (lane == Lane.Control) {
+      return true;
+    }
+    if (size > 0) {
+      return false;
+    }
+    if (lane == Lane.Application) {
+      if (applicationTaken >= applicationBudget) {
+        return false;
+      }
+      ++applicationTaken;
+    }
+    return true;
+  }
+
+  void add(final Message message) {
+    final Lane lane = Lane.of(message);
+    queues[lane.ordinal()].add(message);
+    if (lane == Lane.Relocation) {
+      ++relocationsAdded;
+    } else if (lane == Lane.Application) {
+      relocationsBefore.add(relocationsAdded);
+    }
+    ++size;
+  }
+
+  boolean isEmpty() {
+    return size == 0;
+  }
+
+  int size() {
+    return size;
+  }
+
+  /**
+   * Starts a turn and hands the waiting messages to {@code consumer} in weighted round
+   * robin order, all but the application messages beyond the budget of the turn.
+   * @param consumer the {@code Consumer<Message>} sending each message
+   */
+  void drain(final Consumer<Message> consumer) {
+    applicationTaken = 0;
+    final Lane[] lanes = Lane.values();
+    final int application = Lane.Application.ordinal();
+    boolean taking = true;
+    while (size > 0 && taking) {
+      taking = false;
+      for (int lane = 0; lane < queues.length; ++lane) {
+        final Queue<Message> queue = queues[lane];
+        for (int taken = 0; taken < weights[lane] && !queue.isEmpty(); ++taken) {
+          if (lane == application && applicationTaken++ >= applicationBudget) {
+            break;
+          }
+          take(lanes[lane], consumer);
+          taking = true;
+        }
+      }
+    }
+  }
+
+  private void take(final Lane lane, final Consumer<Message> consumer) {
+    if (lane == Lane.Application) {
+      final long before = relocationsBefore.poll();
+      while (relocationsTaken < before) {
+        take(Lane.Relocation, consumer);
+      }
+    } else if (lane == Lane.Relocation) {
+      ++relocationsTaken;
+    }
+    --size;
+    consumer.accept(queues[lane.ordinal()].poll());
+  }
+}
@@ -0,0 +1,119 @@
+// Copyright © 2012-2023 VLINGO LABS. All rights reserved.
+//
+// This Source Code Form is subject to the terms of the
+// Mozilla Public License, v. 2.0. If a copy of the MPL
+// was not distributed with this file, You can obtain
+// one at https://mozilla.org/MPL/2.0/.
+
+package io.vlingo.xoom.lattice.grid.application;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+import io.vlingo.xoom.actors.Address;
+import io.vlingo.xoom.lattice.grid.hashring.HashRing;
+import io.vlingo.xoom.wire.node.Id;
+
+/**
+ * The owners of actor addresses as told by the nodes that forwarded deliveries for them,
+ * because the ring of this node is stale. A {@code Redirect} is taken only from the node
+ * this ring assigns the address to, and only while this ring is unchanged and for at most
+ * {@code timeToLive} milliseconds, so that once this node's own view of the members catches
+ * up its ring is trusted again. At most {@code capacity} addresses are redirected at once.
+ */
+public final class Redirects {
+  private static final Redirects Disabled = new Redirects(null, 0, 0, System::currentTimeMillis);
+
+  private final HashRing<Id> hashRing;
+  private final long timeToLive;
+  private final int capacity;
+  private final LongSupplier clock;
+  private final Map<Address, Owner> owners;
+
+  public static Redirects disabled() {
+    return Disabled;
+  }
+
+  /**
+   * Constructs the redirects of a node.
+   * @param hashRing the {@code HashRing<Id>} of this node
+   * @param timeToLive the long milliseconds a redirect is followed
+   * @param capacity the int maximum number of redirected addresses, 0 to ignore redirects
+   */
+  public Redirects(final HashRing<Id> hashRing, final long timeToLive, final int capacity) {
+    this(hashRing, timeToLive, capacity, System::currentTimeMillis);
+  }
+
+  Redirects(final HashRing<Id> hashRing, final long timeToLive, final int capacity, final LongSupplier clock) {
+    this.hashRing = hashRing;
+    this.timeToLive = timeToLive;
+    this.capacity = capacity;
+    this.clock = clock;
+    this.owners = new ConcurrentHashMap<>();
+  }
+
+  /**
+   * Records that {@code sender} forwarded a delivery for {@code address} to {@code owner},
+   * unless this ring does not assign {@code address} to {@code sender}, as when it changed
+   * since the delivery was sent.
+   * @param sender the Id of the node that sent the {@code Redirect}
+   * @param address the Address of the actor
+   * @param owner the Id of the node owning the actor, as assigned by the ring of {@code sender}
+   */
+  public void redirected(final Id sender, final Address address, final Id owner) {
+    if (capacity == 0) {
+      return;
+    }
+    final long epoch = hashRing.epoch(); // read before nodeOf, so a concurrent change invalidates the redirect
+    if (!sender.equals(hashRing.nodeOf(address.idTyped()))) {
+      return;
+    }
+    final long now = clock.getAsLong();
+    if (owners.size() >= capacity && !owners.containsKey(address)) {
+      owners.values().removeIf(stale -> !stale.isValid(epoch, now));
+      if (owners.size() >= capacity) {
+        return;
+      }
+    }
+    owners.put(address, new Owner(owner, epoch, now + timeToLive));
+  }
+
+  /**
+   * Answers the node {@code address} was redirected to while the ring is at {@code epoch},
+   * or else null to use the ring.
+   * @param address the Address of the actor
+   * @param epoch the long epoch of the ring
+   * @return Id
+   */
+  public Id ownerOf(final Address address, final long epoch) {
+    if (owners.isEmpty()) {
+      return null;
+    }
+    final Owner owner = owners.get(address);
+    if (owner == null) {
+      return null;
+    }
+    if (!owner.isValid(epoch, clock.getAsLong())) {
+      owners.remove(address, owner);
+      return null;
+    }
+    return owner.node;
+  }
+
+  private static final class Owner {
+    final Id node;
+    final long epoch;
+    final long expiresAt;
+
+    Owner(final Id node, final long epoch, final long expiresAt) {
+      this.node = node;
+      this.epoch = epoch;
+      this.expiresAt = expiresAt;
+    }
+
+    boolean isValid(final long epoch, final long now) {
+      return this.epoch == epoch && now < expiresAt;
+    }
+  }
+}
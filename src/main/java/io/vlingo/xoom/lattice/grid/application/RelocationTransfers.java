@@ -0,0 +1,81 @@
+// Copyright © 2012-2023 VLINGO LABS. All rights reserved.
+//
+// This Source Code Form is subject to the terms of the
+// Mozilla Public License, v. 2.0. If a copy of the MPL
+// was not distributed with this file, You can obtain
+// one at https://mozilla.org/MPL/2.0/.
+
+package io.vlingo.xoom.lattice.grid.application;
+
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.vlingo.xoom.lattice.grid.application.message.Decoder;
+import io.vlingo.xoom.lattice.grid.application.message.Message;
+import io.vlingo.xoom.lattice.grid.application.message.RelocateChunk;
+import io.vlingo.xoom.wire.node.Id;
+
+/**
+ * Reassembles the chunks of the relocations that were too large to be sent whole. A node
+ * sends one such transfer at a time, in order, so at most one is assembled per sender, and
+ * the first chunk of a transfer replaces the rest of one its sender abandoned.
+ */
+final class RelocationTransfers {
+  private static final Logger logger = LoggerFactory.getLogger(RelocationTransfers.class);
+
+  private final Decoder decoder;
+  private final Map<Id, Assembly> assemblies;
+
+  RelocationTransfers(final Decoder decoder) {
+    this.decoder = decoder;
+    this.assemblies = new ConcurrentHashMap<>();
+  }
+
+  /**
+   * Answers the decoded message once {@code chunk} completes its transfer, or else null.
+   * @param sender the Id of the node that sent the chunk
+   * @param chunk the RelocateChunk received
+   * @return Message
+   */
+  Message received(final Id sender, final RelocateChunk chunk) {
+    final Assembly assembly;
+    if (chunk.offset == 0) {
+      assembly = new Assembly(chunk.transferId, new byte[chunk.totalBytes]);
+      assemblies.put(sender, assembly);
+    } else {
+      assembly = assemblies.get(sender);
+      if (assembly == null || assembly.transferId != chunk.transferId || assembly.received != chunk.offset) {
+        logger.warn("Dropping out of order chunk {} from {}", chunk, sender);
+        assemblies.remove(sender);
+        return null;
+      }
+    }
+
+    System.arraycopy(chunk.bytes, 0, assembly.bytes, chunk.offset, chunk.bytes.length);
+    assembly.received += chunk.bytes.length;
+    if (!chunk.isLast()) {
+      return null;
+    }
+    assemblies.remove(sender);
+    return decoder.decode(ByteBuffer.wrap(assembly.bytes));
+  }
+
+  int size() {
+    return assemblies.size();
+  }
+
+  private static final class Assembly {
+    final long transferId;
+    final byte[] bytes;
+    int received;
+
+    Assembly(final long transferId, final byte[] bytes) {
+      this.transferId = transferId;
+      this.bytes = bytes;
+    }
+  }
+}
@@ -13,7 +13,6 @@ import io.vlingo.xoom.lattice.grid.Grid;
 import io.vlingo.xoom.wire.node.Id;
 
 import java.io.Serializable;
-import java.util.UUID;
 import java.util.function.Function;
 
 public class ActorDeliver<T> implements Serializable, Message {
@@ -23,18 +22,33 @@ public class ActorDeliver<T> implements Serializable, Message {
   public final Function<Grid, Actor> actorProvider;
   public final SerializableConsumer<T> consumer;
   public final String representation;
-  public final UUID answerCorrelationId;
+  public final long answerCorrelationId;
+  public final long timeToLive; // milliseconds the sender waits for the answer, counted from receipt
 
   public ActorDeliver(Class<T> protocol, Function<Grid, Actor> actorProvider, SerializableConsumer<T> consumer, String representation) {
-    this(protocol, actorProvider, consumer, representation, null);
+    this(protocol, actorProvider, consumer, representation, NoCorrelationId);
   }
 
-  public ActorDeliver(Class<T> protocol, Function<Grid, Actor> actorProvider, SerializableConsumer<T> consumer, String representation, UUID answerCorrelationId) {
+  public ActorDeliver(Class<T> protocol, Function<Grid, Actor> actorProvider, SerializableConsumer<T> consumer, String representation, long answerCorrelationId) {
+    this(protocol, actorProvider, consumer, representation, answerCorrelationId, NoTimeToLive);
+  }
+
+  public ActorDeliver(Class<T> protocol, Function<Grid, Actor> actorProvider, SerializableConsumer<T> consumer, String representation, long answerCorrelationId, long timeToLive) {
     this.protocol = protocol;
     this.actorProvider = actorProvider;
     this.consumer = consumer;
     this.representation = representation;
     this.answerCorrelationId = answerCorrelationId;
+    this.timeToLive = timeToLive;
+  }
+
+  /**
+   * Answers this delivery carrying {@code timeToLive}, the milliseconds left to answer it.
+   * @param timeToLive the long milliseconds the sender still waits for the answer
+   * @return {@code ActorDeliver<T>}
+   */
+  public ActorDeliver<T> withTimeToLive(final long timeToLive) {
+    return new ActorDeliver<>(protocol, actorProvider, consumer, representation, answerCorrelationId, timeToLive);
   }
 
   @Override
@@ -8,26 +8,25 @@
 package io.vlingo.xoom.lattice.grid.application.message;
 
 import java.io.Serializable;
-import java.util.UUID;
 
 import io.vlingo.xoom.wire.node.Id;
 
 public class Answer<T> implements Serializable, Message {
   private static final long serialVersionUID = -2796142731077588067L;
 
-  public final UUID correlationId;
+  public final long correlationId;
   public final T result;
   public final Throwable error;
 
-  public Answer(final UUID correlationId, final T result) {
+  public Answer(final long correlationId, final T result) {
     this(correlationId, result, null);
   }
 
-  public Answer(final UUID correlationId, final Throwable error) {
+  public Answer(final long correlationId, final Throwable error) {
     this(correlationId, null, error);
   }
 
-  private Answer(final UUID correlationId, final T result, final Throwable error) {
+  private Answer(final long correlationId, final T result, final Throwable error) {
     this.correlationId = correlationId;
     this.result = result;
     this.error = error;
@@ -42,7 +41,7 @@ public class Answer<T> implements Serializable, Message {
   @Override
   public String toString() {
     return String.format(
-        "Answer(correlationId='%s', result='%s', error='%s')",
+        "Answer(correlationId='%d', result='%s', error='%s')",
         correlationId, result, error);
   }
 }
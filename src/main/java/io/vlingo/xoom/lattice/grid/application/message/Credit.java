@@ -0,0 +1,34 @@
+// Copyright © 2012-2023 VLINGO LABS. All rights reserved.
+//
+// This Source Code Form is subject to the terms of the
+// Mozilla Public License, v. 2.0. If a copy of the MPL
+// was not distributed with this file, You can obtain
+// one at https://mozilla.org/MPL/2.0/.
+
+package io.vlingo.xoom.lattice.grid.application.message;
+
+import io.vlingo.xoom.wire.node.Id;
+
+/**
+ * Grants the receiving node {@code credits} more messages it may send to the sender,
+ * once the sender has processed as many of its messages.
+ */
+public class Credit implements Message {
+  private static final long serialVersionUID = -3815043126917740268L;
+
+  public final int credits;
+
+  public Credit(final int credits) {
+    this.credits = credits;
+  }
+
+  @Override
+  public void accept(Id receiver, Id sender, Visitor visitor) {
+    visitor.visit(receiver, sender, this);
+  }
+
+  @Override
+  public String toString() {
+    return String.format("Credit(credits='%d')", credits);
+  }
+}
@@ -7,6 +7,58 @@
 
 package io.vlingo.xoom.lattice.grid.application.message;
 
+import java.nio.ByteBuffer;
+
 public interface Decoder {
+  int UnknownAddressHash = 0;
+
   Message decode(byte[] bytes);
+
+  /**
+   * Decodes a message from the remaining bytes of {@code buffer}, which is
+   * consumed up to its limit.
+   * @param buffer the ByteBuffer holding exactly one encoded message
+   * @return Message
+   */
+  default Message decode(final ByteBuffer buffer) {
+    final byte[] bytes = new byte[buffer.remaining()];
+    buffer.get(bytes);
+    return decode(bytes);
+  }
+
+  /**
+   * Answers a hash of the id of the address the encoded message in {@code buffer} is
+   * bound for, read without decoding the message and without moving the buffer's
+   * position, or {@code UnknownAddressHash} when the message has no such address or
+   * this decoder cannot find it cheaply. A message bound for the same address always
+   * answers the same hash.
+   * @param buffer the ByteBuffer holding exactly one encoded message
+   * @return int
+   */
+  default int addressHash(final ByteBuffer buffer) {
+    return UnknownAddressHash;
+  }
+
+  /**
+   * Answers whether the encoded message in {@code buffer} relocates actors without being
+   * bound for the single address {@code addressHash} answers, such as a {@code RelocateBatch},
+   * read without decoding the message and without moving the buffer's position, or false
+   * when this decoder cannot find it cheaply, as it then answers no address hash either.
+   * @param buffer the ByteBuffer holding exactly one encoded message
+   * @return boolean
+   */
+  default boolean isUnaddressedRelocation(final ByteBuffer buffer) {
+    return false;
+  }
+
+  /**
+   * Answers the {@code Lane} of the encoded message in {@code buffer}, read without
+   * decoding the message and without moving the buffer's position, or {@code Lane.Application}
+   * when this decoder cannot find it cheaply.
+   * @param buffer the ByteBuffer holding exactly one encoded message
+   * @return Lane
+   */
+  default Lane lane(final ByteBuffer buffer) {
+    return Lane.Application;
+  }
 }
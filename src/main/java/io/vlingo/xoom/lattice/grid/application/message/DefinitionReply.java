@@ -0,0 +1,38 @@
+// Copyright © 2012-2023 VLINGO LABS. All rights reserved.
+//
+// This Source Code Form is subject to the terms of the
+// Mozilla Public License, v. 2.0. If a copy of the MPL
+// was not distributed with this file, You can obtain
+// one at https://mozilla.org/MPL/2.0/.
+
+package io.vlingo.xoom.lattice.grid.application.message;
+
+import io.vlingo.xoom.actors.Address;
+import io.vlingo.xoom.actors.Definition;
+import io.vlingo.xoom.wire.node.Id;
+
+/**
+ * Answers a {@code DefinitionRequest} with the actor {@code Definition} of {@code address},
+ * or with a null {@code definition} when the sender no longer knows it.
+ */
+public class DefinitionReply implements Message {
+  private static final long serialVersionUID = -2296703717427613560L;
+
+  public final Address address;
+  public final Definition.SerializationProxy definition;
+
+  public DefinitionReply(final Address address, final Definition.SerializationProxy definition) {
+    this.address = address;
+    this.definition = definition;
+  }
+
+  @Override
+  public void accept(Id receiver, Id sender, Visitor visitor) {
+    visitor.visit(receiver, sender, this);
+  }
+
+  @Override
+  public String toString() {
+    return String.format("DefinitionReply(address='%s', definitionProxy='%s')", address, definition);
+  }
+}
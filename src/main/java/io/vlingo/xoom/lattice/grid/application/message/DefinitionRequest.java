@@ -0,0 +1,35 @@
+// Copyright © 2012-2023 VLINGO LABS. All rights reserved.
+//
+// This Source Code Form is subject to the terms of the
+// Mozilla Public License, v. 2.0. If a copy of the MPL
+// was not distributed with this file, You can obtain
+// one at https://mozilla.org/MPL/2.0/.
+
+package io.vlingo.xoom.lattice.grid.application.message;
+
+import io.vlingo.xoom.actors.Address;
+import io.vlingo.xoom.wire.node.Id;
+
+/**
+ * Asks the receiving node for the actor {@code Definition} of {@code address}, which
+ * its {@code GridDeliver} messages omitted after the first one.
+ */
+public class DefinitionRequest implements Message {
+  private static final long serialVersionUID = 4118263529630517283L;
+
+  public final Address address;
+
+  public DefinitionRequest(final Address address) {
+    this.address = address;
+  }
+
+  @Override
+  public void accept(Id receiver, Id sender, Visitor visitor) {
+    visitor.visit(receiver, sender, this);
+  }
+
+  @Override
+  public String toString() {
+    return String.format("DefinitionRequest(address='%s')", address);
+  }
+}
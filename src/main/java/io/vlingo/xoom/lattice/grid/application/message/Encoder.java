@@ -7,6 +7,19 @@
 
 package io.vlingo.xoom.lattice.grid.application.message;
 
+import java.nio.ByteBuffer;
+
 public interface Encoder {
   byte[] encode(Message message);
+
+  /**
+   * Encodes {@code message} into {@code buffer} starting at its position, and
+   * advances the position past the encoded bytes.
+   * @param message the Message to encode
+   * @param buffer the ByteBuffer receiving the encoded bytes
+   * @throws java.nio.BufferOverflowException if the encoded message does not fit in the remaining buffer
+   */
+  default void encode(final Message message, final ByteBuffer buffer) {
+    buffer.put(encode(message));
+  }
 }
@@ -0,0 +1,39 @@
+// Copyright © 2012-2023 VLINGO LABS. All rights reserved.
+//
+// This Source Code Form is subject to the terms of the
+// Mozilla Public License, v. 2.0. If a copy of the MPL
+// was not distributed with this file, You can obtain
+// one at https://mozilla.org/MPL/2.0/.
+
+package io.vlingo.xoom.lattice.grid.application.message;
+
+/**
+ * The priority lanes of grid traffic, from highest to lowest: answers and other control
+ * messages, relocations, and application deliveries. Messages of the same lane keep
+ * their order; a lane of higher priority is drained with more weight, so answers do not
+ * queue behind a backlog of tells.
+ */
+public enum Lane {
+  Control, Relocation, Application;
+
+  /**
+   * Answers the Lane of {@code message}, which for a {@code Forward} is that of the
+   * message it encloses.
+   * @param message the Message
+   * @return Lane
+   */
+  public static Lane of(final Message message) {
+    if (message instanceof Forward) {
+      return of(((Forward) message).message);
+    }
+    if (message instanceof Answer || message instanceof Credit || message instanceof Start
+        || message instanceof DefinitionRequest || message instanceof DefinitionReply
+        || message instanceof Redirect) {
+      return Control;
+    }
+    if (message instanceof Relocate || message instanceof RelocateBatch || message instanceof RelocateChunk) {
+      return Relocation;
+    }
+    return Application;
+  }
+}
@@ -12,5 +12,8 @@ import java.io.Serializable;
 import io.vlingo.xoom.wire.node.Id;
 
 public interface Message extends Serializable {
+  long NoCorrelationId = 0L;
+  long NoTimeToLive = 0L;
+
   void accept(Id receiver, Id sender, Visitor visitor);
 }
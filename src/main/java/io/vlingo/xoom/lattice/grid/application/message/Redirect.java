@@ -0,0 +1,38 @@
+// Copyright © 2012-2023 VLINGO LABS. All rights reserved.
+//
+// This Source Code Form is subject to the terms of the
+// Mozilla Public License, v. 2.0. If a copy of the MPL
+// was not distributed with this file, You can obtain
+// one at https://mozilla.org/MPL/2.0/.
+
+package io.vlingo.xoom.lattice.grid.application.message;
+
+import io.vlingo.xoom.actors.Address;
+import io.vlingo.xoom.wire.node.Id;
+
+/**
+ * Tells the sender of a delivery that the receiving node forwarded it to {@code owner},
+ * the node its ring assigns {@code address} to, so that the sender may deliver there
+ * directly until its own ring catches up.
+ */
+public class Redirect implements Message {
+  private static final long serialVersionUID = 6310892736525193716L;
+
+  public final Address address;
+  public final Id owner;
+
+  public Redirect(final Address address, final Id owner) {
+    this.address = address;
+    this.owner = owner;
+  }
+
+  @Override
+  public void accept(Id receiver, Id sender, Visitor visitor) {
+    visitor.visit(receiver, sender, this);
+  }
+
+  @Override
+  public String toString() {
+    return String.format("Redirect(address='%s', owner='%s')", address, owner);
+  }
+}
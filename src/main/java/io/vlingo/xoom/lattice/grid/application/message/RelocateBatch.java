@@ -0,0 +1,38 @@
+// Copyright © 2012-2023 VLINGO LABS. All rights reserved.
+//
+// This Source Code Form is subject to the terms of the
+// Mozilla Public License, v. 2.0. If a copy of the MPL
+// was not distributed with this file, You can obtain
+// one at https://mozilla.org/MPL/2.0/.
+
+package io.vlingo.xoom.lattice.grid.application.message;
+
+import java.util.List;
+
+import io.vlingo.xoom.wire.node.Id;
+
+/**
+ * A chunk of {@code Relocate} messages to one node, answered once the receiver has
+ * processed all of them so that the sender may send its next chunk.
+ */
+public class RelocateBatch implements Message {
+  private static final long serialVersionUID = -6046920245436370512L;
+
+  public final List<Relocate> relocations;
+  public final long answerCorrelationId;
+
+  public RelocateBatch(final List<Relocate> relocations, final long answerCorrelationId) {
+    this.relocations = relocations;
+    this.answerCorrelationId = answerCorrelationId;
+  }
+
+  @Override
+  public void accept(Id receiver, Id sender, Visitor visitor) {
+    visitor.visit(receiver, sender, this);
+  }
+
+  @Override
+  public String toString() {
+    return String.format("RelocateBatch(relocations='%d', answerCorrelationId='%d')", relocations.size(), answerCorrelationId);
+  }
+}
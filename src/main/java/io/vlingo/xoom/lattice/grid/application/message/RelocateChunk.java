@@ -0,0 +1,46 @@
+// Copyright © 2012-2023 VLINGO LABS. All rights reserved.
+//
+// This Source Code Form is subject to the terms of the
+// Mozilla Public License, v. 2.0. If a copy of the MPL
+// was not distributed with this file, You can obtain
+// one at https://mozilla.org/MPL/2.0/.
+
+package io.vlingo.xoom.lattice.grid.application.message;
+
+import io.vlingo.xoom.wire.node.Id;
+
+/**
+ * One of the ordered chunks of an encoded {@code Relocate} too large to be sent whole,
+ * at {@code offset} of its {@code totalBytes}; the receiver decodes the {@code Relocate}
+ * once all chunks of the transfer have arrived.
+ */
+public class RelocateChunk implements Message {
+  private static final long serialVersionUID = 2718594377031656648L;
+
+  public final long transferId;
+  public final int totalBytes;
+  public final int offset;
+  public final byte[] bytes;
+
+  public RelocateChunk(final long transferId, final int totalBytes, final int offset, final byte[] bytes) {
+    this.transferId = transferId;
+    this.totalBytes = totalBytes;
+    this.offset = offset;
+    this.bytes = bytes;
+  }
+
+  public boolean isLast() {
+    return offset + bytes.length == totalBytes;
+  }
+
+  @Override
+  public void accept(Id receiver, Id sender, Visitor visitor) {
+    visitor.visit(receiver, sender, this);
+  }
+
+  @Override
+  public String toString() {
+    return String.format("RelocateChunk(transferId='%d', totalBytes='%d', offset='%d', bytes='%d')",
+        transferId, totalBytes, offset, bytes.length);
+  }
+}
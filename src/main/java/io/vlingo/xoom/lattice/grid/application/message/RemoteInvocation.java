@@ -0,0 +1,201 @@
+// Copyright © 2012-2023 VLINGO LABS. All rights reserved.
+//
+// This Source Code Form is subject to the terms of the
+// Mozilla Public License, v. 2.0. If a copy of the MPL
+// was not distributed with this file, You can obtain
+// one at https://mozilla.org/MPL/2.0/.
+
+package io.vlingo.xoom.lattice.grid.application.message;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandleInfo;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.invoke.SerializedLambda;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import io.vlingo.xoom.common.SerializableConsumer;
+
+/**
+ * A {@code SerializableConsumer} sent in place of a proxy lambda, carrying only
+ * the class that declares the lambda, the id of its implementation method in
+ * that class's method table, and the captured arguments. The method table of
+ * a class lists its static synthetic lambda methods in name and signature
+ * order, which is the same on every node that runs the same proxy class, so
+ * the receiver resolves the invocation to a cached {@code MethodHandle}
+ * instead of deserializing a lambda.
+ *
+ * @param <T> the protocol type the consumer is applied to
+ */
+public final class RemoteInvocation<T> implements SerializableConsumer<T> {
+  private static final long serialVersionUID = -3271905447532071651L;
+
+  private static final Map<Class<?>, Method> writeReplaceMethods = new ConcurrentHashMap<>();
+  private static final Map<Class<?>, MethodTable> methodTables = new ConcurrentHashMap<>();
+
+  public final Class<?> declaringClass;
+  public final int methodId;
+  public final Object[] arguments;
+
+  private transient MethodHandle invoker;
+
+  /**
+   * Answers {@code consumer} as a {@code RemoteInvocation}, or {@code consumer}
+   * itself when it is not a lambda implemented by a static method of the class
+   * capturing it.
+   * @param consumer the SerializableConsumer to convert
+   * @param <T> the protocol type
+   * @return {@code SerializableConsumer<T>}
+   */
+  public static <T> SerializableConsumer<T> from(final SerializableConsumer<T> consumer) {
+    if (consumer == null || consumer instanceof RemoteInvocation) {
+      return consumer;
+    }
+
+    final SerializedLambda lambda = serializedLambdaOf(consumer);
+    if (lambda == null ||
+        lambda.getImplMethodKind() != MethodHandleInfo.REF_invokeStatic ||
+        !lambda.getImplClass().equals(lambda.getCapturingClass())) {
+      return consumer;
+    }
+
+    final Class<?> declaringClass = declaringClassOf(consumer, lambda);
+    if (declaringClass == null) {
+      return consumer;
+    }
+
+    final int methodId = methodTableOf(declaringClass).idOf(lambda.getImplMethodName(), lambda.getImplMethodSignature());
+    if (methodId < 0) {
+      return consumer;
+    }
+
+    final Object[] arguments = new Object[lambda.getCapturedArgCount()];
+    for (int index = 0; index < arguments.length; ++index) {
+      arguments[index] = lambda.getCapturedArg(index);
+    }
+
+    return new RemoteInvocation<>(declaringClass, methodId, arguments);
+  }
+
+  public RemoteInvocation(final Class<?> declaringClass, final int methodId, final Object[] arguments) {
+    this.declaringClass = declaringClass;
+    this.methodId = methodId;
+    this.arguments = arguments;
+  }
+
+  /**
+   * Binds this invocation to its implementation method, failing fast if the
+   * method table of the declaring class does not match the sender's.
+   * @return {@code RemoteInvocation<T>}
+   */
+  public RemoteInvocation<T> resolve() {
+    if (invoker == null) {
+      invoker = methodTableOf(declaringClass).invoker(methodId, arguments.length + 1);
+    }
+    return this;
+  }
+
+  @Override
+  public void accept(final T actor) {
+    final Object[] all = Arrays.copyOf(arguments, arguments.length + 1);
+    all[arguments.length] = actor;
+    try {
+      resolve().invoker.invoke(all);
+    } catch (RuntimeException | Error e) {
+      throw e;
+    } catch (Throwable t) {
+      throw new IllegalStateException("Remote invocation failed: " + this, t);
+    }
+  }
+
+  @Override
+  public String toString() {
+    return String.format("RemoteInvocation(declaringClass='%s', methodId='%d', arguments='%d')",
+        declaringClass.getName(), methodId, arguments.length);
+  }
+
+  private static SerializedLambda serializedLambdaOf(final Object consumer) {
+    final Method writeReplace = writeReplaceMethods.computeIfAbsent(consumer.getClass(), type -> {
+      try {
+        final Method method = type.getDeclaredMethod("writeReplace");
+        method.setAccessible(true);
+        return method;
+      } catch (Exception e) {
+        return null;
+      }
+    });
+
+    if (writeReplace == null) {
+      return null;
+    }
+
+    try {
+      final Object replacement = writeReplace.invoke(consumer);
+      return replacement instanceof SerializedLambda ? (SerializedLambda) replacement : null;
+    } catch (Exception e) {
+      return null;
+    }
+  }
+
+  private static Class<?> declaringClassOf(final Object consumer, final SerializedLambda lambda) {
+    try {
+      return Class.forName(lambda.getImplClass().replace('/', '.'), false, consumer.getClass().getClassLoader());
+    } catch (ClassNotFoundException e) {
+      return null;
+    }
+  }
+
+  private static MethodTable methodTableOf(final Class<?> declaringClass) {
+    return methodTables.computeIfAbsent(declaringClass, MethodTable::new);
+  }
+
+  private static final class MethodTable {
+    private final Method[] methods;
+    private final MethodHandle[] invokers;
+
+    MethodTable(final Class<?> declaringClass) {
+      this.methods = Arrays.stream(declaringClass.getDeclaredMethods())
+              .filter(method -> method.isSynthetic() && Modifier.isStatic(method.getModifiers()) && method.getName().startsWith("lambda$"))
+              .sorted(Comparator.comparing(Method::getName).thenComparing(MethodTable::signatureOf))
+              .toArray(Method[]::new);
+      this.invokers = new MethodHandle[methods.length];
+    }
+
+    int idOf(final String name, final String signature) {
+      for (int id = 0; id < methods.length; ++id) {
+        if (methods[id].getName().equals(name) && signatureOf(methods[id]).equals(signature)) {
+          return id;
+        }
+      }
+      return -1;
+    }
+
+    MethodHandle invoker(final int id, final int argumentCount) {
+      if (id < 0 || id >= methods.length || methods[id].getParameterCount() != argumentCount) {
+        throw new IllegalStateException("Unknown remote invocation method " + id + " of " + methods.length);
+      }
+      MethodHandle invoker = invokers[id];
+      if (invoker == null) {
+        try {
+          final Method method = methods[id];
+          method.setAccessible(true);
+          final MethodHandle handle = MethodHandles.lookup().unreflect(method);
+          invoker = handle.asType(handle.type().generic()).asSpreader(Object[].class, argumentCount);
+        } catch (IllegalAccessException e) {
+          throw new IllegalStateException("Cannot access remote invocation method " + methods[id], e);
+        }
+        invokers[id] = invoker;
+      }
+      return invoker;
+    }
+
+    private static String signatureOf(final Method method) {
+      return MethodType.methodType(method.getReturnType(), method.getParameterTypes()).toMethodDescriptorString();
+    }
+  }
+}
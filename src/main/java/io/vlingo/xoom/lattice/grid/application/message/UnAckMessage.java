@@ -12,11 +12,13 @@ import io.vlingo.xoom.wire.node.Id;
 
 /**
  * This class represents an unacknowledged message which has been sent to recipient.
+ * The message is null for deliveries that cannot be retried on another node.
  */
 public class UnAckMessage {
     private final Id receiver;
     private final Returns<?> returns;
     private final GridDeliver<?> message;
+    private volatile long deadline; // when its Answer is no longer waited for, once put in a CorrelationTable
 
     public UnAckMessage(Id receiver, Returns<?> returns, GridDeliver<?> message) {
         this.receiver = receiver;
@@ -36,4 +38,16 @@ public class UnAckMessage {
     public GridDeliver<?> getMessage() {
         return message;
     }
+
+    public long getDeadline() {
+        return deadline;
+    }
+
+    public void setDeadline(final long deadline) {
+        this.deadline = deadline;
+    }
+
+    public boolean isRetriable() {
+        return message != null;
+    }
 }
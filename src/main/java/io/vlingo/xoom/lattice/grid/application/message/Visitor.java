@@ -15,6 +15,12 @@ public interface Visitor {
   <T> void visit(Id receiver, Id sender, ActorDeliver<T> actorDeliver);
   <T> void visit(Id receiver, Id sender, Start<T> start);
   void visit(Id receiver, Id sender, Relocate relocate);
+  void visit(Id receiver, Id sender, RelocateBatch batch);
+  void visit(Id receiver, Id sender, RelocateChunk chunk);
+  void visit(Id receiver, Id sender, Credit credit);
+  void visit(Id receiver, Id sender, DefinitionRequest request);
+  void visit(Id receiver, Id sender, DefinitionReply reply);
+  void visit(Id receiver, Id sender, Redirect redirect);
   default void visit(Id receiver, Id sender, Forward forward) {
     forward.message.accept(receiver, forward.originalSender, this);
   }
@@ -0,0 +1,33 @@
+// Copyright © 2012-2023 VLINGO LABS. All rights reserved.
+//
+// This Source Code Form is subject to the terms of the
+// Mozilla Public License, v. 2.0. If a copy of the MPL
+// was not distributed with this file, You can obtain
+// one at https://mozilla.org/MPL/2.0/.
+
+package io.vlingo.xoom.lattice.grid.application.message.serialization;
+
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * An {@code OutputStream} writing straight into a {@code ByteBuffer}; writes beyond
+ * the buffer limit throw {@code BufferOverflowException}.
+ */
+public final class ByteBufferOutputStream extends OutputStream {
+  private final ByteBuffer buffer;
+
+  public ByteBufferOutputStream(final ByteBuffer buffer) {
+    this.buffer = buffer;
+  }
+
+  @Override
+  public void write(final int b) {
+    buffer.put((byte) b);
+  }
+
+  @Override
+  public void write(final byte[] bytes, final int offset, final int length) {
+    buffer.put(bytes, offset, length);
+  }
+}
@@ -0,0 +1,346 @@
+// Copyright © 2012-2023 VLINGO LABS. All rights reserved.
+//
+// This Source Code Form is subject to the terms of the
+// Mozilla Public License, v. 2.0. If a copy of the MPL
+// was not distributed with this file, You can obtain
+// one at https://mozilla.org/MPL/2.0/.
+
+package io.vlingo.xoom.lattice.grid.application.message.serialization;
+
+import static io.vlingo.xoom.lattice.grid.application.message.serialization.CompactEncoder.*;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+
+import org.nustaq.serialization.FSTConfiguration;
+
+import io.vlingo.xoom.actors.Actor;
+import io.vlingo.xoom.actors.Address;
+import io.vlingo.xoom.actors.Definition;
+import io.vlingo.xoom.common.SerializableConsumer;
+import io.vlingo.xoom.lattice.grid.Grid;
+import io.vlingo.xoom.lattice.grid.GridAddress;
+import io.vlingo.xoom.lattice.grid.application.message.ActorDeliver;
+import io.vlingo.xoom.lattice.grid.application.message.Answer;
+import io.vlingo.xoom.lattice.grid.application.message.Credit;
+import io.vlingo.xoom.lattice.grid.application.message.DefinitionReply;
+import io.vlingo.xoom.lattice.grid.application.message.DefinitionRequest;
+import io.vlingo.xoom.lattice.grid.application.message.Decoder;
+import io.vlingo.xoom.lattice.grid.application.message.Forward;
+import io.vlingo.xoom.lattice.grid.application.message.GridDeliver;
+import io.vlingo.xoom.lattice.grid.application.message.Lane;
+import io.vlingo.xoom.lattice.grid.application.message.Message;
+import io.vlingo.xoom.lattice.grid.application.message.Redirect;
+import io.vlingo.xoom.lattice.grid.application.message.Relocate;
+import io.vlingo.xoom.lattice.grid.application.message.RelocateBatch;
+import io.vlingo.xoom.lattice.grid.application.message.RelocateChunk;
+import io.vlingo.xoom.lattice.grid.application.message.RemoteInvocation;
+import io.vlingo.xoom.lattice.grid.application.message.Start;
+import io.vlingo.xoom.wire.node.Id;
+
+/**
+ * Decodes grid messages encoded by {@link CompactEncoder}, which must use an
+ * equally registered {@link CompactDictionary}.
+ */
+public class CompactDecoder implements Decoder {
+  private final CompactDictionary dictionary;
+  private final FSTConfiguration conf;
+
+  public CompactDecoder(final CompactDictionary dictionary, final FSTConfiguration conf) {
+    this.dictionary = dictionary;
+    this.conf = conf;
+  }
+
+  @Override
+  public Message decode(final byte[] bytes) {
+    return decode(ByteBuffer.wrap(bytes));
+  }
+
+  @Override
+  @SuppressWarnings({ "rawtypes", "unchecked" })
+  public Message decode(final ByteBuffer buffer) {
+    final byte type = buffer.get();
+    switch (type) {
+    case GridDeliverType:
+      return readGridDeliver(buffer);
+    case AnswerType: {
+      final long correlationId = readVarLong(buffer);
+      final Object result = readObject(buffer);
+      final Throwable error = (Throwable) readObject(buffer);
+      return error == null ? new Answer<Object>(correlationId, result) : new Answer<Object>(correlationId, error);
+    }
+    case ForwardType: {
+      final Id originalSender = Id.of(buffer.getShort());
+      return new Forward(originalSender, decode(buffer));
+    }
+    case StartType:
+      return new Start(readClass(buffer), readAddress(buffer), (Definition.SerializationProxy) readObject(buffer));
+    case RelocateType:
+      return readRelocate(buffer);
+    case RelocateBatchType: {
+      final long answerCorrelationId = readVarLong(buffer);
+      final int count = readVarInt(buffer);
+      final List<Relocate> relocations = new ArrayList<>(count);
+      for (int index = 0; index < count; ++index) {
+        relocations.add(readRelocate(buffer));
+      }
+      return new RelocateBatch(relocations, answerCorrelationId);
+    }
+    case RelocateChunkType: {
+      final long transferId = readVarLong(buffer);
+      final int totalBytes = readVarInt(buffer);
+      final int offset = readVarInt(buffer);
+      final byte[] bytes = new byte[readVarInt(buffer)];
+      buffer.get(bytes);
+      return new RelocateChunk(transferId, totalBytes, offset, bytes);
+    }
+    case ActorDeliverType:
+      return new ActorDeliver(
+              readClass(buffer),
+              (Function<Grid, Actor>) readObject(buffer),
+              (SerializableConsumer) readObject(buffer),
+              readRepresentation(buffer),
+              readVarLong(buffer),
+              readVarLong(buffer));
+    case CreditType:
+      return new Credit(readVarInt(buffer));
+    case DefinitionRequestType:
+      return new DefinitionRequest(readAddress(buffer));
+    case DefinitionReplyType:
+      return new DefinitionReply(readAddress(buffer), (Definition.SerializationProxy) readObject(buffer));
+    case RedirectType:
+      return new Redirect(readAddress(buffer), Id.of(buffer.getShort()));
+    case OtherType:
+      return (Message) readObject(buffer);
+    default:
+      throw new IllegalArgumentException("decode failed; unknown message type: " + type);
+    }
+  }
+
+  /**
+   * Answers the {@code Lane} of the message type, also when forwarded.
+   */
+  @Override
+  public Lane lane(final ByteBuffer buffer) {
+    byte type;
+    try {
+      int index = buffer.position();
+      type = buffer.get(index);
+      while (type == ForwardType) {
+        index += 3; // type and original sender
+        type = buffer.get(index);
+      }
+    } catch (RuntimeException e) {
+      return Lane.Application; // malformed; decode reports it
+    }
+    switch (type) {
+    case AnswerType:
+    case StartType:
+    case CreditType:
+    case DefinitionRequestType:
+    case DefinitionReplyType:
+    case RedirectType:
+      return Lane.Control;
+    case RelocateType:
+    case RelocateBatchType:
+    case RelocateChunkType:
+      return Lane.Relocation;
+    default:
+      return Lane.Application;
+    }
+  }
+
+  /**
+   * Answers the hash of the {@code GridAddress} id of a {@code GridDeliver}, {@code Start},
+   * {@code Relocate} or {@code DefinitionReply}, also when forwarded, skipping only the
+   * protocol class before it.
+   */
+  @Override
+  public int addressHash(final ByteBuffer buffer) {
+    final ByteBuffer peek = buffer.duplicate();
+    try {
+      byte type = peek.get();
+      while (type == ForwardType) {
+        peek.getShort(); // original sender
+        type = peek.get();
+      }
+      switch (type) {
+      case GridDeliverType:
+      case StartType:
+        skipClass(peek);
+        return addressHashAt(peek);
+      case RelocateType:
+      case DefinitionReplyType:
+        return addressHashAt(peek);
+      default:
+        return UnknownAddressHash;
+      }
+    } catch (RuntimeException e) {
+      return UnknownAddressHash; // malformed; decode reports it
+    }
+  }
+
+  /**
+   * Answers whether the message is a {@code RelocateBatch} or {@code RelocateChunk}, also when forwarded.
+   */
+  @Override
+  public boolean isUnaddressedRelocation(final ByteBuffer buffer) {
+    final ByteBuffer peek = buffer.duplicate();
+    try {
+      byte type = peek.get();
+      while (type == ForwardType) {
+        peek.getShort(); // original sender
+        type = peek.get();
+      }
+      return type == RelocateBatchType || type == RelocateChunkType;
+    } catch (RuntimeException e) {
+      return false; // malformed; decode reports it
+    }
+  }
+
+  private int addressHashAt(final ByteBuffer buffer) {
+    if (buffer.get() != UUIDGridAddress) {
+      return UnknownAddressHash;
+    }
+    final long bits = buffer.getLong() ^ buffer.getLong();
+    final int hash = (int) (bits ^ (bits >>> 32));
+    return hash == UnknownAddressHash ? 1 : hash;
+  }
+
+  private void skipClass(final ByteBuffer buffer) {
+    if (readVarInt(buffer) == LiteralReference) {
+      final int length = readVarInt(buffer);
+      buffer.position(buffer.position() + length);
+    }
+  }
+
+  @SuppressWarnings({ "rawtypes", "unchecked" })
+  private Relocate readRelocate(final ByteBuffer buffer) {
+    final Address address = readAddress(buffer);
+    final Definition.SerializationProxy definition = (Definition.SerializationProxy) readObject(buffer);
+    final Object snapshot = readObject(buffer);
+    final int count = readVarInt(buffer);
+    final List<GridDeliver<?>> pending = new ArrayList<>(count);
+    for (int index = 0; index < count; ++index) {
+      pending.add(readGridDeliver(buffer));
+    }
+    return new Relocate(address, definition, snapshot, pending);
+  }
+
+  private GridDeliver<?> readGridDeliver(final ByteBuffer buffer) {
+    return new GridDeliver(
+            readClass(buffer),
+            readAddress(buffer),
+            (Definition.SerializationProxy) readObject(buffer),
+            (SerializableConsumer) readObject(buffer),
+            readVarLong(buffer),
+            readRepresentation(buffer),
+            readVarLong(buffer));
+  }
+
+  private Class<?> readClass(final ByteBuffer buffer) {
+    final int reference = readVarInt(buffer);
+    if (reference == NullReference) {
+      return null;
+    } else if (reference == LiteralReference) {
+      return dictionary.classNamed(readString(buffer));
+    }
+    return dictionary.classOf(reference - FirstRegisteredReference);
+  }
+
+  private String readRepresentation(final ByteBuffer buffer) {
+    final int reference = readVarInt(buffer);
+    if (reference == NullReference) {
+      return null;
+    } else if (reference == LiteralReference) {
+      return readString(buffer);
+    }
+    return dictionary.stringOf(reference - FirstRegisteredReference);
+  }
+
+  private Address readAddress(final ByteBuffer buffer) {
+    final byte kind = buffer.get();
+    switch (kind) {
+    case NullAddress:
+      return null;
+    case UUIDGridAddress: {
+      final UUID id = new UUID(buffer.getLong(), buffer.getLong());
+      return GridAddress.from(id, readNullableString(buffer));
+    }
+    case OtherAddress:
+      return (Address) readObject(buffer);
+    default:
+      throw new IllegalArgumentException("decode failed; unknown address kind: " + kind);
+    }
+  }
+
+  private Object readObject(final ByteBuffer buffer) {
+    final int kind = readVarInt(buffer);
+    switch (kind) {
+    case NullObject:
+      return null;
+    case StringObject:
+      return readString(buffer);
+    case InvocationObject: {
+      final Class<?> declaringClass = readClass(buffer);
+      final int methodId = readVarInt(buffer);
+      final Object[] arguments = new Object[readVarInt(buffer)];
+      for (int index = 0; index < arguments.length; ++index) {
+        arguments[index] = readObject(buffer);
+      }
+      return new RemoteInvocation<>(declaringClass, methodId, arguments);
+    }
+    case EncodedObject: {
+      final int length = readVarInt(buffer);
+      final ByteBuffer encoded = buffer.duplicate();
+      encoded.limit(buffer.position() + length);
+      buffer.position(buffer.position() + length);
+      try {
+        return conf.getObjectInput(new ByteBufferInputStream(encoded)).readObject();
+      } catch (Exception e) {
+        throw new IllegalArgumentException("decode failed", e);
+      }
+    }
+    default:
+      throw new IllegalArgumentException("decode failed; unknown object kind: " + kind);
+    }
+  }
+
+  private String readNullableString(final ByteBuffer buffer) {
+    return readVarInt(buffer) == NullReference ? null : readString(buffer);
+  }
+
+  private String readString(final ByteBuffer buffer) {
+    final int length = readVarInt(buffer);
+    final String value;
+    if (buffer.hasArray()) {
+      value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+      buffer.position(buffer.position() + length);
+    } else {
+      final byte[] bytes = new byte[length];
+      buffer.get(bytes);
+      value = new String(bytes, StandardCharsets.UTF_8);
+    }
+    return value;
+  }
+
+  private int readVarInt(final ByteBuffer buffer) {
+    return (int) readVarLong(buffer);
+  }
+
+  private long readVarLong(final ByteBuffer buffer) {
+    long value = 0;
+    int shift = 0;
+    byte next;
+    do {
+      next = buffer.get();
+      value |= (long) (next & 0x7F) << shift;
+      shift += 7;
+    } while ((next & 0x80) != 0);
+    return value;
+  }
+}
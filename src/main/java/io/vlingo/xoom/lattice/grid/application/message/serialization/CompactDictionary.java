@@ -0,0 +1,94 @@
+// Copyright © 2012-2023 VLINGO LABS. All rights reserved.
+//
+// This Source Code Form is subject to the terms of the
+// Mozilla Public License, v. 2.0. If a copy of the MPL
+// was not distributed with this file, You can obtain
+// one at https://mozilla.org/MPL/2.0/.
+
+package io.vlingo.xoom.lattice.grid.application.message.serialization;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The classes and strings that {@link CompactEncoder} writes as small ids
+ * instead of names. Ids are assigned in registration order, so every node of
+ * the grid must register the same classes and strings in the same order, and
+ * before any message is encoded or decoded. Unregistered classes and strings
+ * are still encoded, by name.
+ */
+public final class CompactDictionary {
+  private final ClassLoader classLoader;
+  private final List<String> classNames = new ArrayList<>();
+  private final Map<String, Integer> classIds = new HashMap<>();
+  private final List<String> strings = new ArrayList<>();
+  private final Map<String, Integer> stringIds = new HashMap<>();
+  private final Map<String, Class<?>> resolved = new ConcurrentHashMap<>();
+
+  public CompactDictionary(final ClassLoader classLoader) {
+    this.classLoader = classLoader;
+  }
+
+  public CompactDictionary registerClass(final Class<?>... classes) {
+    for (final Class<?> type : classes) {
+      registerClassName(type.getName());
+    }
+    return this;
+  }
+
+  /**
+   * Registers classes by name, which need not be loadable until a message
+   * referencing them is decoded (e.g. runtime generated proxies).
+   */
+  public CompactDictionary registerClassName(final String... names) {
+    for (final String name : names) {
+      if (!classIds.containsKey(name)) {
+        classIds.put(name, classNames.size());
+        classNames.add(name);
+      }
+    }
+    return this;
+  }
+
+  public CompactDictionary registerString(final String... values) {
+    for (final String value : values) {
+      if (!stringIds.containsKey(value)) {
+        stringIds.put(value, strings.size());
+        strings.add(value);
+      }
+    }
+    return this;
+  }
+
+  int classId(final Class<?> type) {
+    return classIds.getOrDefault(type.getName(), -1);
+  }
+
+  Class<?> classOf(final int id) {
+    return classNamed(classNames.get(id));
+  }
+
+  Class<?> classNamed(final String name) {
+    Class<?> type = resolved.get(name);
+    if (type == null) {
+      try {
+        type = Class.forName(name, false, classLoader);
+      } catch (ClassNotFoundException e) {
+        throw new IllegalArgumentException("decode failed; unknown class: " + name, e);
+      }
+      resolved.put(name, type);
+    }
+    return type;
+  }
+
+  int stringId(final String value) {
+    return stringIds.getOrDefault(value, -1);
+  }
+
+  String stringOf(final int id) {
+    return strings.get(id);
+  }
+}
@@ -0,0 +1,294 @@
+// Copyright © 2012-2023 VLINGO LABS. All rights reserved.
+//
+// This Source Code Form is subject to the terms of the
+// Mozilla Public License, v. 2.0. If a copy of the MPL
+// was not distributed with this file, You can obtain
+// one at https://mozilla.org/MPL/2.0/.
+
+package io.vlingo.xoom.lattice.grid.application.message.serialization;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.UUID;
+
+import org.nustaq.serialization.FSTConfiguration;
+
+import io.vlingo.xoom.actors.Address;
+import io.vlingo.xoom.lattice.grid.GridAddress;
+import io.vlingo.xoom.lattice.grid.application.message.ActorDeliver;
+import io.vlingo.xoom.lattice.grid.application.message.Answer;
+import io.vlingo.xoom.lattice.grid.application.message.Credit;
+import io.vlingo.xoom.lattice.grid.application.message.DefinitionReply;
+import io.vlingo.xoom.lattice.grid.application.message.DefinitionRequest;
+import io.vlingo.xoom.lattice.grid.application.message.Encoder;
+import io.vlingo.xoom.lattice.grid.application.message.Forward;
+import io.vlingo.xoom.lattice.grid.application.message.GridDeliver;
+import io.vlingo.xoom.lattice.grid.application.message.Message;
+import io.vlingo.xoom.lattice.grid.application.message.Redirect;
+import io.vlingo.xoom.lattice.grid.application.message.Relocate;
+import io.vlingo.xoom.lattice.grid.application.message.RelocateBatch;
+import io.vlingo.xoom.lattice.grid.application.message.RelocateChunk;
+import io.vlingo.xoom.lattice.grid.application.message.RemoteInvocation;
+import io.vlingo.xoom.lattice.grid.application.message.Start;
+
+/**
+ * Encodes grid messages field by field: a message type byte, varint lengths and
+ * ids, {@link CompactDictionary} ids for protocol classes and representations,
+ * and {@code GridAddress} as its raw UUID and name. A {@link RemoteInvocation}
+ * consumer is written as its method id and arguments. Fields that are arbitrary
+ * object graphs (lambdas, definitions, snapshots, results) are nested as FST
+ * encoded bytes. Decoded by {@link CompactDecoder}.
+ */
+public class CompactEncoder implements Encoder {
+  static final byte OtherType = 0;
+  static final byte AnswerType = 1;
+  static final byte GridDeliverType = 2;
+  static final byte StartType = 3;
+  static final byte RelocateType = 4;
+  static final byte ForwardType = 5;
+  static final byte ActorDeliverType = 6;
+  static final byte CreditType = 7;
+  static final byte DefinitionRequestType = 8;
+  static final byte DefinitionReplyType = 9;
+  static final byte RelocateBatchType = 10;
+  static final byte RelocateChunkType = 11;
+  static final byte RedirectType = 12;
+
+  static final int NullReference = 0;
+  static final int LiteralReference = 1;
+  static final int FirstRegisteredReference = 2;
+
+  static final byte NullAddress = 0;
+  static final byte UUIDGridAddress = 1;
+  static final byte OtherAddress = 2;
+
+  static final int NullObject = 0;
+  static final int StringObject = 1;
+  static final int EncodedObject = 2;
+  static final int InvocationObject = 3;
+
+  private static final int InitialCapacity = 512;
+
+  private final CompactDictionary dictionary;
+  private final FSTConfiguration conf;
+
+  public CompactEncoder(final CompactDictionary dictionary, final FSTConfiguration conf) {
+    this.dictionary = dictionary;
+    this.conf = conf;
+  }
+
+  @Override
+  public byte[] encode(final Message message) {
+    int capacity = InitialCapacity;
+    while (true) {
+      final ByteBuffer buffer = ByteBuffer.allocate(capacity);
+      try {
+        encode(message, buffer);
+        return Arrays.copyOf(buffer.array(), buffer.position());
+      } catch (BufferOverflowException e) {
+        capacity *= 2;
+      }
+    }
+  }
+
+  @Override
+  public void encode(final Message message, final ByteBuffer buffer) {
+    if (message instanceof GridDeliver) {
+      buffer.put(GridDeliverType);
+      writeGridDeliver((GridDeliver<?>) message, buffer);
+    } else if (message instanceof Answer) {
+      final Answer<?> answer = (Answer<?>) message;
+      buffer.put(AnswerType);
+      writeVarLong(answer.correlationId, buffer);
+      writeObject(answer.result, buffer);
+      writeObject(answer.error, buffer);
+    } else if (message instanceof Forward) {
+      final Forward forward = (Forward) message;
+      buffer.put(ForwardType);
+      buffer.putShort(forward.originalSender.value());
+      encode(forward.message, buffer);
+    } else if (message instanceof Start) {
+      final Start<?> start = (Start<?>) message;
+      buffer.put(StartType);
+      writeClass(start.protocol, buffer);
+      writeAddress(start.address, buffer);
+      writeObject(start.definition, buffer);
+    } else if (message instanceof Relocate) {
+      buffer.put(RelocateType);
+      writeRelocate((Relocate) message, buffer);
+    } else if (message instanceof RelocateBatch) {
+      final RelocateBatch batch = (RelocateBatch) message;
+      buffer.put(RelocateBatchType);
+      writeVarLong(batch.answerCorrelationId, buffer);
+      writeVarInt(batch.relocations.size(), buffer);
+      for (final Relocate relocate : batch.relocations) {
+        writeRelocate(relocate, buffer);
+      }
+    } else if (message instanceof RelocateChunk) {
+      final RelocateChunk chunk = (RelocateChunk) message;
+      buffer.put(RelocateChunkType);
+      writeVarLong(chunk.transferId, buffer);
+      writeVarInt(chunk.totalBytes, buffer);
+      writeVarInt(chunk.offset, buffer);
+      writeVarInt(chunk.bytes.length, buffer);
+      buffer.put(chunk.bytes);
+    } else if (message instanceof ActorDeliver) {
+      final ActorDeliver<?> actorDeliver = (ActorDeliver<?>) message;
+      buffer.put(ActorDeliverType);
+      writeClass(actorDeliver.protocol, buffer);
+      writeObject(actorDeliver.actorProvider, buffer);
+      writeObject(actorDeliver.consumer, buffer);
+      writeRepresentation(actorDeliver.representation, buffer);
+      writeVarLong(actorDeliver.answerCorrelationId, buffer);
+      writeVarLong(actorDeliver.timeToLive, buffer);
+    } else if (message instanceof Credit) {
+      buffer.put(CreditType);
+      writeVarInt(((Credit) message).credits, buffer);
+    } else if (message instanceof DefinitionRequest) {
+      buffer.put(DefinitionRequestType);
+      writeAddress(((DefinitionRequest) message).address, buffer);
+    } else if (message instanceof DefinitionReply) {
+      final DefinitionReply reply = (DefinitionReply) message;
+      buffer.put(DefinitionReplyType);
+      writeAddress(reply.address, buffer);
+      writeObject(reply.definition, buffer);
+    } else if (message instanceof Redirect) {
+      final Redirect redirect = (Redirect) message;
+      buffer.put(RedirectType);
+      writeAddress(redirect.address, buffer);
+      buffer.putShort(redirect.owner.value());
+    } else {
+      buffer.put(OtherType);
+      writeObject(message, buffer);
+    }
+  }
+
+  private void writeRelocate(final Relocate relocate, final ByteBuffer buffer) {
+    writeAddress(relocate.address, buffer);
+    writeObject(relocate.definition, buffer);
+    writeObject(relocate.snapshot, buffer);
+    writeVarInt(relocate.pending.size(), buffer);
+    for (final GridDeliver<?> pending : relocate.pending) {
+      writeGridDeliver(pending, buffer);
+    }
+  }
+
+  private void writeGridDeliver(final GridDeliver<?> gridDeliver, final ByteBuffer buffer) {
+    writeClass(gridDeliver.protocol, buffer);
+    writeAddress(gridDeliver.address, buffer);
+    writeObject(gridDeliver.definition, buffer);
+    writeObject(gridDeliver.consumer, buffer);
+    writeVarLong(gridDeliver.answerCorrelationId, buffer);
+    writeRepresentation(gridDeliver.representation, buffer);
+    writeVarLong(gridDeliver.timeToLive, buffer);
+  }
+
+  private void writeClass(final Class<?> type, final ByteBuffer buffer) {
+    if (type == null) {
+      writeVarInt(NullReference, buffer);
+      return;
+    }
+    final int id = dictionary.classId(type);
+    if (id < 0) {
+      writeVarInt(LiteralReference, buffer);
+      writeString(type.getName(), buffer);
+    } else {
+      writeVarInt(FirstRegisteredReference + id, buffer);
+    }
+  }
+
+  private void writeRepresentation(final String representation, final ByteBuffer buffer) {
+    if (representation == null) {
+      writeVarInt(NullReference, buffer);
+      return;
+    }
+    final int id = dictionary.stringId(representation);
+    if (id < 0) {
+      writeVarInt(LiteralReference, buffer);
+      writeString(representation, buffer);
+    } else {
+      writeVarInt(FirstRegisteredReference + id, buffer);
+    }
+  }
+
+  private void writeAddress(final Address address, final ByteBuffer buffer) {
+    if (address == null) {
+      buffer.put(NullAddress);
+    } else if (address instanceof GridAddress) {
+      final UUID id = address.idTyped();
+      buffer.put(UUIDGridAddress);
+      buffer.putLong(id.getMostSignificantBits());
+      buffer.putLong(id.getLeastSignificantBits());
+      writeNullableString(address.name(), buffer);
+    } else {
+      buffer.put(OtherAddress);
+      writeObject(address, buffer);
+    }
+  }
+
+  private void writeObject(final Object object, final ByteBuffer buffer) {
+    if (object == null) {
+      writeVarInt(NullObject, buffer);
+    } else if (object instanceof String) {
+      writeVarInt(StringObject, buffer);
+      writeString((String) object, buffer);
+    } else if (object instanceof RemoteInvocation) {
+      final RemoteInvocation<?> invocation = (RemoteInvocation<?>) object;
+      writeVarInt(InvocationObject, buffer);
+      writeClass(invocation.declaringClass, buffer);
+      writeVarInt(invocation.methodId, buffer);
+      writeVarInt(invocation.arguments.length, buffer);
+      for (final Object argument : invocation.arguments) {
+        writeObject(argument, buffer);
+      }
+    } else {
+      final int[] length = new int[1];
+      final byte[] encoded = conf.asSharedByteArray(object, length);
+      writeVarInt(EncodedObject, buffer);
+      writeVarInt(length[0], buffer);
+      buffer.put(encoded, 0, length[0]);
+    }
+  }
+
+  private void writeNullableString(final String value, final ByteBuffer buffer) {
+    if (value == null) {
+      writeVarInt(NullReference, buffer);
+    } else {
+      writeVarInt(LiteralReference, buffer);
+      writeString(value, buffer);
+    }
+  }
+
+  private void writeString(final String value, final ByteBuffer buffer) {
+    final int length = value.length();
+    int index = 0;
+    while (index < length && value.charAt(index) < 0x80) {
+      ++index;
+    }
+    if (index == length) { // ASCII, one byte per char without an intermediate array
+      writeVarInt(length, buffer);
+      for (index = 0; index < length; ++index) {
+        buffer.put((byte) value.charAt(index));
+      }
+    } else {
+      final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+      writeVarInt(bytes.length, buffer);
+      buffer.put(bytes);
+    }
+  }
+
+  private void writeVarInt(final int value, final ByteBuffer buffer) {
+    writeVarLong(value & 0xFFFFFFFFL, buffer);
+  }
+
+  private void writeVarLong(final long value, final ByteBuffer buffer) {
+    long remaining = value;
+    while ((remaining & ~0x7FL) != 0) {
+      buffer.put((byte) ((remaining & 0x7F) | 0x80));
+      remaining >>>= 7;
+    }
+    buffer.put((byte) remaining);
+  }
+}
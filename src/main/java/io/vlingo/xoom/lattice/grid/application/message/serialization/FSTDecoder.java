@@ -1,5 +1,7 @@
 package io.vlingo.xoom.lattice.grid.application.message.serialization;
 
+import java.nio.ByteBuffer;
+
 import org.nustaq.serialization.FSTConfiguration;
 
 import io.vlingo.xoom.lattice.grid.application.message.Decoder;
@@ -17,4 +19,13 @@ public class FSTDecoder implements Decoder {
   public Message decode(byte[] bytes) {
     return (Message)conf.asObject(bytes);
   }
+
+  @Override
+  public Message decode(ByteBuffer buffer) {
+    try {
+      return (Message)conf.getObjectInput(new ByteBufferInputStream(buffer)).readObject();
+    } catch (Exception e) {
+      throw new IllegalArgumentException("decode failed", e);
+    }
+  }
 }
@@ -1,5 +1,7 @@
 package io.vlingo.xoom.lattice.grid.application.message.serialization;
 
+import java.nio.ByteBuffer;
+
 import org.nustaq.serialization.FSTConfiguration;
 
 import io.vlingo.xoom.lattice.grid.application.message.Encoder;
@@ -17,4 +19,11 @@ public class FSTEncoder implements Encoder {
   public byte[] encode(Message message) {
     return conf.asByteArray(message);
   }
+
+  @Override
+  public void encode(Message message, ByteBuffer buffer) {
+    final int[] length = new int[1];
+    final byte[] shared = conf.asSharedByteArray(message, length); // reused by FST, no copy
+    buffer.put(shared, 0, length[0]);
+  }
 }
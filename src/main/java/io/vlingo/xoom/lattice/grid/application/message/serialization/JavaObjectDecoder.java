@@ -3,6 +3,7 @@ package io.vlingo.xoom.lattice.grid.application.message.serialization;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.ObjectInputStream;
+import java.nio.ByteBuffer;
 
 import io.vlingo.xoom.lattice.grid.application.message.Decoder;
 import io.vlingo.xoom.lattice.grid.application.message.Message;
@@ -18,4 +19,13 @@ public final class JavaObjectDecoder implements Decoder {
       throw new IllegalArgumentException("decode failed", e);
     }
   }
+
+  @Override
+  public Message decode(ByteBuffer buffer) {
+    try (ObjectInputStream in = new ObjectInputStream(new ByteBufferInputStream(buffer))) {
+      return (Message) in.readObject();
+    } catch (IOException | ClassNotFoundException e) {
+      throw new IllegalArgumentException("decode failed", e);
+    }
+  }
 }
@@ -3,6 +3,7 @@ package io.vlingo.xoom.lattice.grid.application.message.serialization;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
 
 import io.vlingo.xoom.lattice.grid.application.message.Encoder;
 import io.vlingo.xoom.lattice.grid.application.message.Message;
@@ -20,4 +21,14 @@ public final class JavaObjectEncoder implements Encoder {
       throw new RuntimeException("encode failed", e);
     }
   }
+
+  @Override
+  public void encode(Message message, ByteBuffer buffer) {
+    try (ObjectOutputStream out = new ObjectOutputStream(new ByteBufferOutputStream(buffer))) {
+      out.writeObject(message);
+      out.flush();
+    } catch (IOException e) {
+      throw new RuntimeException("encode failed", e);
+    }
+  }
 }
@@ -0,0 +1,286 @@
+// Copyright © 2012-2023 VLINGO LABS. All rights reserved.
+//
+// This Source Code Form is subject to the terms of the
+// Mozilla Public License, v. 2.0. If a copy of the MPL
+// was not distributed with this file, You can obtain
+// one at https://mozilla.org/MPL/2.0/.
+
+package io.vlingo.xoom.lattice.grid.hashring;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Consistent hashing with bounded loads over any {@code HashRing}. Every node reports
+ * how many live ids it holds by the node the ring assigns them to, their natural
+ * load, and one node turns the sum of those reports into a {@code LoadPlacement} that
+ * every node installs. A node whose natural load exceeds the capacity
+ * {@code ceil((1 + epsilon) * average)} spills just the excess fraction of its ids,
+ * and each spilled id goes to the node ranking highest for it by rendezvous hashing
+ * weighted by headroom among the nodes that spill nothing. The ids of a node move back
+ * only once what it keeps falls below {@code (1 + epsilon / 2) * average}, so that
+ * loads hovering around the capacity do not move ids back and forth.
+ * <p>
+ * Natural loads do not depend on the placement, so a placement never feeds back into
+ * the loads it is computed from; and while no node spills, {@code nodeOf} is exactly
+ * that of the ring. The {@code epoch()} advances only when the membership or the
+ * installed placement changes, so a load report does not invalidate cached owners.
+ *
+ * @param <T> the type of the node identifiers
+ */
+public class BoundedLoadHashRing<T> implements HashRing<T> {
+  private static final int DefaultSeed = 31;
+  private static final long SpillSalt = 0x9e3779b97f4a7c15L;
+
+  private final double epsilon;
+  private final Map<T, Map<T, Long>> reports;
+  private final HashRing<T> ring;
+  private final int seed;
+  private LoadPlacement<T> placement;
+  private volatile Snapshot snapshot;
+
+  @SuppressWarnings("unchecked")
+  public BoundedLoadHashRing(final HashRing<T> ring, final double epsilon) {
+    this(ring, epsilon, new HashMap<>(), (LoadPlacement<T>) LoadPlacement.Initial, new Snapshot(NodeArrays.Empty, new int[0], new double[0], new long[0], false, 0));
+  }
+
+  private BoundedLoadHashRing(final HashRing<T> ring, final double epsilon, final Map<T, Map<T, Long>> reports, final LoadPlacement<T> placement, final Snapshot snapshot) {
+    this.ring = ring;
+    this.epsilon = epsilon;
+    this.reports = reports;
+    this.placement = placement;
+    this.seed = DefaultSeed;
+    this.snapshot = snapshot;
+  }
+
+  @Override
+  public void dump() {
+    final Snapshot current = snapshot;
+    System.out.println("BOUNDED LOAD EPSILON: " + epsilon + " EPOCH: " + current.epoch + " " + placement);
+    ring.dump();
+  }
+
+  @Override
+  public synchronized HashRing<T> excludeNode(final T nodeIdentifier) {
+    ring.excludeNode(nodeIdentifier);
+    reports.remove(nodeIdentifier);
+    publish(NodeArrays.excluding(snapshot.nodes, nodeIdentifier), placement);
+    return this;
+  }
+
+  @Override
+  public synchronized HashRing<T> includeNode(final T nodeIdentifier) {
+    ring.includeNode(nodeIdentifier);
+    publish(NodeArrays.including(snapshot.nodes, nodeIdentifier), placement);
+    return this;
+  }
+
+  /**
+   * Answers the node the ring assigns {@code id} to, regardless of loads; the node
+   * by which a holder of {@code id} reports it in its natural loads.
+   * @param id the Object id
+   * @return T
+   */
+  public T naturalNodeOf(final Object id) {
+    return ring.nodeOf(id);
+  }
+
+  /**
+   * Records the natural loads last reported by {@code reporter}, the number of live
+   * ids it holds by the {@code naturalNodeOf(id)}.
+   * @param reporter the T identifier of the reporting node
+   * @param naturalLoads the {@code Map<T, Long>} of id counts by natural node
+   * @return {@code BoundedLoadHashRing<T>}
+   */
+  public synchronized BoundedLoadHashRing<T> report(final T reporter, final Map<T, Long> naturalLoads) {
+    reports.put(reporter, naturalLoads);
+    return this;
+  }
+
+  /**
+   * Answers the placement that follows the installed one for the reported loads, or
+   * null when it would not change it or when a node has not reported yet, so that a
+   * node starting up does not see its peers as idle.
+   * @return {@code LoadPlacement<T>}
+   */
+  @SuppressWarnings("unchecked")
+  public synchronized LoadPlacement<T> nextPlacement() {
+    final Object[] nodes = snapshot.nodes;
+    if (nodes.length == 0) {
+      return null;
+    }
+
+    final long[] loads = new long[nodes.length];
+    long total = 0;
+    for (final Object reporter : nodes) {
+      final Map<T, Long> report = reports.get(reporter);
+      if (report == null) {
+        return null;
+      }
+      for (final Map.Entry<T, Long> load : report.entrySet()) {
+        final int index = NodeArrays.indexOf(nodes, load.getKey());
+        if (index >= 0) {
+          loads[index] += Math.max(0, load.getValue());
+          total += Math.max(0, load.getValue());
+        }
+      }
+    }
+
+    final double average = (double) total / nodes.length;
+    final long capacity = (long) Math.ceil((1 + epsilon) * average);
+    final double returning = (1 + epsilon / 2) * average;
+
+    final Map<T, Double> spills = new HashMap<>();
+    boolean changed = false;
+    double spilled = 0;
+    for (int index = 0; index < nodes.length; ++index) {
+      final double previous = placement.spillOf((T) nodes[index]);
+      final double kept = loads[index] * (1 - previous);
+      final double spill;
+      if (kept > capacity) {
+        spill = 1 - (double) capacity / loads[index];
+      } else if (previous > 0 && kept < returning) {
+        spill = loads[index] == 0 ? 0 : Math.max(0, 1 - returning / loads[index]);
+      } else {
+        spill = previous;
+      }
+      if (spill > 0) {
+        spills.put((T) nodes[index], spill);
+        spilled += loads[index] * spill;
+      }
+      changed |= spill != previous;
+    }
+
+    if (!changed && spilled > 0) {
+      // a receiver whose own load grew may no longer take its share of the spilled ids
+      long headroom = 0;
+      for (final Object node : nodes) {
+        headroom += placement.headroomOf((T) node);
+      }
+      for (int index = 0; headroom > 0 && index < nodes.length && !changed; ++index) {
+        final long receiving = placement.headroomOf((T) nodes[index]);
+        changed = receiving > 0 && loads[index] + spilled * receiving / headroom > capacity;
+      }
+    }
+    if (!changed) {
+      return null;
+    }
+
+    final Map<T, Long> headrooms = new HashMap<>();
+    for (int index = 0; spilled > 0 && index < nodes.length; ++index) {
+      if (!spills.containsKey(nodes[index]) && loads[index] < capacity) {
+        headrooms.put((T) nodes[index], capacity - loads[index]);
+      }
+    }
+    return new LoadPlacement<>(placement.version() + 1, capacity, spills, headrooms);
+  }
+
+  /**
+   * Installs {@code next} when it is newer than the installed placement.
+   * @param next the {@code LoadPlacement<T>} to install
+   * @return boolean true when {@code next} was installed
+   */
+  public synchronized boolean place(final LoadPlacement<T> next) {
+    if (next.version() <= placement.version()) {
+      return false;
+    }
+    placement = next;
+    publish(snapshot.nodes, next);
+    return true;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public T nodeOf(final Object id) {
+    final Snapshot current = snapshot;
+    final T node = ring.nodeOf(id);
+    if (!current.anySpill || node == null) {
+      return node;
+    }
+    final int index = NodeArrays.indexOf(current.nodes, node);
+    if (index < 0 || current.spills[index] == 0) {
+      return node;
+    }
+
+    final long idHash = MurmurHash.hash32(id, seed) & 0xffffffffL;
+    if (unit(MurmurHash.fmix(idHash ^ SpillSalt)) >= current.spills[index]) {
+      return node;
+    }
+
+    int highest = -1;
+    double highestScore = 0;
+    for (int candidate = 0; candidate < current.nodes.length; ++candidate) {
+      if (current.headrooms[candidate] > 0) {
+        final double draw = unit(MurmurHash.fmix(((long) current.hashes[candidate] << 32) | idHash));
+        final double score = -current.headrooms[candidate] / Math.log(draw);
+        if (highest < 0 || score > highestScore) {
+          highestScore = score;
+          highest = candidate;
+        }
+      }
+    }
+    return highest < 0 ? node : (T) current.nodes[highest];
+  }
+
+  @Override
+  public synchronized HashRing<T> copy() {
+    return new BoundedLoadHashRing<>(ring.copy(), epsilon, new HashMap<>(reports), placement, snapshot);
+  }
+
+  @Override
+  public long epoch() {
+    return snapshot.epoch;
+  }
+
+  @SuppressWarnings("unchecked")
+  private void publish(final Object[] nodes, final LoadPlacement<T> placement) {
+    final Snapshot current = snapshot;
+
+    final double[] spills = new double[nodes.length];
+    final long[] headrooms = new long[nodes.length];
+    boolean anySpill = false;
+    for (int index = 0; index < nodes.length; ++index) {
+      spills[index] = placement.spillOf((T) nodes[index]);
+      headrooms[index] = placement.headroomOf((T) nodes[index]);
+      anySpill |= spills[index] > 0;
+    }
+
+    if (nodes == current.nodes && Arrays.equals(spills, current.spills) && Arrays.equals(headrooms, current.headrooms)) {
+      return;
+    }
+
+    final int[] hashes = nodes == current.nodes ? current.hashes : new int[nodes.length];
+    if (hashes != current.hashes) {
+      for (int index = 0; index < nodes.length; ++index) {
+        hashes[index] = MurmurHash.hash32(nodes[index], seed);
+      }
+    }
+    snapshot = new Snapshot(nodes, hashes, spills, headrooms, anySpill, current.epoch + 1);
+  }
+
+  /**
+   * Answers the 53 high bits of {@code hash} as a fraction strictly between 0 and 1.
+   */
+  private static double unit(final long hash) {
+    return ((hash >>> 11) + 0.5) * 0x1.0p-53;
+  }
+
+  private static final class Snapshot {
+    final Object[] nodes;
+    final int[] hashes;
+    final double[] spills;
+    final long[] headrooms;
+    final boolean anySpill;
+    final long epoch;
+
+    Snapshot(final Object[] nodes, final int[] hashes, final double[] spills, final long[] headrooms, final boolean anySpill, final long epoch) {
+      this.nodes = nodes;
+      this.hashes = hashes;
+      this.spills = spills;
+      this.headrooms = headrooms;
+      this.anySpill = anySpill;
+      this.epoch = epoch;
+    }
+  }
+}
@@ -7,7 +7,11 @@
 
 package io.vlingo.xoom.lattice.grid.hashring;
 
+import java.util.function.Function;
+
 public interface HashRing<T> {
+  long Unversioned = -1L;
+
   void dump();
   HashRing<T> excludeNode(final T nodeIdentifier);
   HashRing<T> includeNode(final T nodeIdentifier);
@@ -15,4 +19,33 @@ public interface HashRing<T> {
   default HashRing<T> copy() {
     throw new UnsupportedOperationException("override in your implementation to support cloning");
   }
+
+  /**
+   * Answers a number that changes after every change of this ring's nodes, so that
+   * a {@code nodeOf} result may be reused while it is unchanged; or {@code Unversioned}
+   * when this ring does not track its changes.
+   * @return long
+   */
+  default long epoch() {
+    return Unversioned;
+  }
+
+  /**
+   * Answers a function of an id to the node this ring assigns it to, when {@code previous}
+   * assigned it to {@code from} and this ring assigns it elsewhere, or else to null. A ring
+   * that can compute the ranges of ids moved between {@code previous} and itself does so
+   * once, so that the function hashes each id once instead of looking it up on both rings.
+   * @param previous the {@code HashRing<T>} before the change of nodes, such as a {@code copy()}
+   * @param from the T node the ids are moved away from
+   * @return {@code Function<Object, T>}
+   */
+  default Function<Object, T> reassignment(final HashRing<T> previous, final T from) {
+    return id -> {
+      if (!from.equals(previous.nodeOf(id))) {
+        return null;
+      }
+      final T to = nodeOf(id);
+      return from.equals(to) ? null : to;
+    };
+  }
 }
@@ -0,0 +1,112 @@
+// Copyright © 2012-2023 VLINGO LABS. All rights reserved.
+//
+// This Source Code Form is subject to the terms of the
+// Mozilla Public License, v. 2.0. If a copy of the MPL
+// was not distributed with this file, You can obtain
+// one at https://mozilla.org/MPL/2.0/.
+
+package io.vlingo.xoom.lattice.grid.hashring;
+
+/**
+ * A jump consistent hash {@code HashRing} (Lamping and Veach): an id hashes to one of
+ * n buckets in O(log n) time with no memory beyond the node list, and the buckets
+ * are balanced evenly. Bucket i is the i-th node ordered by name, so all nodes agree
+ * on the buckets whatever the order in which they learned of the members.
+ * <p>
+ * Jump hashing moves only the ids that must move when a node is added or removed at
+ * the end of the ordering; removing any other node shifts the buckets after it, and
+ * moves more ids than a ring would. It suits grids whose membership mostly grows.
+ * <p>
+ * The nodes are an immutable snapshot published through a volatile reference, so
+ * readers never lock and {@code copy()} shares the snapshot.
+ *
+ * @param <T> the type of the node identifiers
+ */
+public class JumpHashRing<T> implements HashRing<T> {
+  private static final int DefaultSeed = 31;
+
+  private final int seed;
+  private volatile Snapshot snapshot;
+
+  public JumpHashRing() {
+    this(DefaultSeed);
+  }
+
+  public JumpHashRing(final int seed) {
+    this(seed, new Snapshot(NodeArrays.Empty, 0));
+  }
+
+  private JumpHashRing(final int seed, final Snapshot snapshot) {
+    this.seed = seed;
+    this.snapshot = snapshot;
+  }
+
+  @Override
+  public void dump() {
+    final Snapshot current = snapshot;
+    System.out.println("NODES: " + current.nodes.length + " EPOCH: " + current.epoch);
+    for (final Object node : current.nodes) {
+      System.out.println("NODE: " + node);
+    }
+  }
+
+  @Override
+  public synchronized HashRing<T> excludeNode(final T nodeIdentifier) {
+    publish(NodeArrays.excluding(snapshot.nodes, nodeIdentifier));
+    return this;
+  }
+
+  @Override
+  public synchronized HashRing<T> includeNode(final T nodeIdentifier) {
+    publish(NodeArrays.including(snapshot.nodes, nodeIdentifier));
+    return this;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public T nodeOf(final Object id) {
+    final Object[] nodes = snapshot.nodes;
+    if (nodes.length == 0) {
+      return null;
+    }
+    return (T) nodes[bucketOf(MurmurHash.hash32(id, seed) & 0xffffffffL, nodes.length)];
+  }
+
+  @Override
+  public HashRing<T> copy() {
+    return new JumpHashRing<>(seed, snapshot);
+  }
+
+  @Override
+  public long epoch() {
+    return snapshot.epoch;
+  }
+
+  static int bucketOf(long key, final int buckets) {
+    long bucket = -1;
+    long next = 0;
+    while (next < buckets) {
+      bucket = next;
+      key = key * 2862933555777941757L + 1;
+      next = (long) ((bucket + 1) * ((double) (1L << 31) / (double) ((key >>> 33) + 1)));
+    }
+    return (int) bucket;
+  }
+
+  private void publish(final Object[] nodes) {
+    final Snapshot current = snapshot;
+    if (nodes != current.nodes) {
+      snapshot = new Snapshot(nodes, current.epoch + 1);
+    }
+  }
+
+  private static final class Snapshot {
+    final Object[] nodes;
+    final long epoch;
+
+    Snapshot(final Object[] nodes, final long epoch) {
+      this.nodes = nodes;
+      this.epoch = epoch;
+    }
+  }
+}
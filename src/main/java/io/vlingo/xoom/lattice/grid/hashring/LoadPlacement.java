@@ -0,0 +1,134 @@
+// Copyright © 2012-2023 VLINGO LABS. All rights reserved.
+//
+// This Source Code Form is subject to the terms of the
+// Mozilla Public License, v. 2.0. If a copy of the MPL
+// was not distributed with this file, You can obtain
+// one at https://mozilla.org/MPL/2.0/.
+
+package io.vlingo.xoom.lattice.grid.hashring;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * A versioned placement of a {@code BoundedLoadHashRing}: the capacity of every node,
+ * the fraction of the ids the ring assigns to a node that spill off it, and the
+ * headroom by which the nodes that spill nothing receive those ids. One node computes
+ * it from the loads reported by all nodes and every node installs the same one, so
+ * that all of them place every id the same way.
+ *
+ * @param <T> the type of the node identifiers
+ */
+public final class LoadPlacement<T> {
+  static final LoadPlacement<?> Initial = new LoadPlacement<>(0, 0, Collections.emptyMap(), Collections.emptyMap());
+
+  private final long capacity;
+  private final Map<T, Long> headrooms;
+  private final Map<T, Double> spills;
+  private final long version;
+
+  /**
+   * Answers the {@code LoadPlacement<T>} of its {@code encoded(...)} form.
+   * @param encoded the String form of the placement
+   * @param decoder the {@code Function<String, T>} of a node identifier's form
+   * @param <T> the type of the node identifiers
+   * @return {@code LoadPlacement<T>}
+   */
+  public static <T> LoadPlacement<T> from(final String encoded, final Function<String, T> decoder) {
+    final String[] parts = encoded.split(";", -1);
+    final Map<T, Double> spills = new HashMap<>();
+    final Map<T, Long> headrooms = new HashMap<>();
+    if (!parts[2].isEmpty()) {
+      for (final String entry : parts[2].split(",")) {
+        final String[] fields = entry.split(":");
+        final T node = decoder.apply(fields[0]);
+        final double spill = Double.parseDouble(fields[1]);
+        final long headroom = Long.parseLong(fields[2]);
+        if (spill > 0) {
+          spills.put(node, spill);
+        }
+        if (headroom > 0) {
+          headrooms.put(node, headroom);
+        }
+      }
+    }
+    return new LoadPlacement<>(Long.parseLong(parts[0]), Long.parseLong(parts[1]), spills, headrooms);
+  }
+
+  LoadPlacement(final long version, final long capacity, final Map<T, Double> spills, final Map<T, Long> headrooms) {
+    this.version = version;
+    this.capacity = capacity;
+    this.spills = spills;
+    this.headrooms = headrooms;
+  }
+
+  /**
+   * Answers the number of ids above which a node is overloaded.
+   * @return long
+   */
+  public long capacity() {
+    return capacity;
+  }
+
+  /**
+   * Answers the number of spilled ids that {@code node} may still receive, or 0 when
+   * it receives none.
+   * @param node the T identifier of the node
+   * @return long
+   */
+  public long headroomOf(final T node) {
+    final Long headroom = headrooms.get(node);
+    return headroom == null ? 0 : headroom;
+  }
+
+  /**
+   * Answers the fraction of the ids assigned to {@code node} by the ring that spill
+   * to other nodes, or 0 when it keeps all of them.
+   * @param node the T identifier of the node
+   * @return double
+   */
+  public double spillOf(final T node) {
+    final Double spill = spills.get(node);
+    return spill == null ? 0 : spill;
+  }
+
+  /**
+   * Answers the version of this placement; a node installs only a placement newer
+   * than the one it holds.
+   * @return long
+   */
+  public long version() {
+    return version;
+  }
+
+  /**
+   * Answers the String form of this placement, which {@code from(...)} decodes.
+   * @param encoder the {@code Function<T, String>} of a node identifier, free of ':', ',' and ';'
+   * @return String
+   */
+  public String encoded(final Function<T, String> encoder) {
+    final Map<String, String> entries = new TreeMap<>();
+    for (final T node : spills.keySet()) {
+      entries.put(encoder.apply(node), spillOf(node) + ":" + headroomOf(node));
+    }
+    for (final T node : headrooms.keySet()) {
+      entries.put(encoder.apply(node), spillOf(node) + ":" + headroomOf(node));
+    }
+    final StringBuilder builder = new StringBuilder().append(version).append(';').append(capacity).append(';');
+    for (final Map.Entry<String, String> entry : entries.entrySet()) {
+      if (builder.charAt(builder.length() - 1) != ';') {
+        builder.append(',');
+      }
+      builder.append(entry.getKey()).append(':').append(entry.getValue());
+    }
+    return builder.toString();
+  }
+
+  @Override
+  public String toString() {
+    return "LoadPlacement[version=" + version + " capacity=" + capacity + " spills=" + spills + " headrooms=" + headrooms + "]";
+  }
+}
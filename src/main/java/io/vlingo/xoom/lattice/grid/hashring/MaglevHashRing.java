@@ -0,0 +1,171 @@
+// Copyright © 2012-2023 VLINGO LABS. All rights reserved.
+//
+// This Source Code Form is subject to the terms of the
+// Mozilla Public License, v. 2.0. If a copy of the MPL
+// was not distributed with this file, You can obtain
+// one at https://mozilla.org/MPL/2.0/.
+
+package io.vlingo.xoom.lattice.grid.hashring;
+
+import java.util.Arrays;
+
+/**
+ * A Maglev {@code HashRing} (Eisenbud et al.): every node fills the slots of a lookup
+ * table of prime size in the order of its own permutation, taking turns, until the
+ * table is full. Each node owns within one slot of an equal share of the table, and
+ * {@code nodeOf} is a single hash and array read. When a node leaves, the ids of the
+ * remaining nodes mostly stay put, but a few may move; a larger table moves fewer.
+ * <p>
+ * Nodes are ordered by name and the table is rebuilt on every change into an
+ * immutable snapshot published through a volatile reference, so readers never lock
+ * and {@code copy()} shares the snapshot.
+ *
+ * @param <T> the type of the node identifiers
+ */
+public class MaglevHashRing<T> implements HashRing<T> {
+  public static final int DefaultTableSize = 65537;
+
+  private static final int DefaultSeed = 31;
+  private static final int SkipSeed = 0x2545f491;
+
+  private final int seed;
+  private final int tableSize;
+  private volatile Snapshot snapshot;
+
+  public MaglevHashRing() {
+    this(DefaultTableSize);
+  }
+
+  /**
+   * Constructs a ring whose lookup table has the smallest prime size not less than
+   * {@code tableSize}, which should be well above a hundred times the number of nodes.
+   */
+  public MaglevHashRing(final int tableSize) {
+    this(primeNotLessThan(tableSize), DefaultSeed, new Snapshot(NodeArrays.Empty, null, 0));
+  }
+
+  private MaglevHashRing(final int tableSize, final int seed, final Snapshot snapshot) {
+    this.tableSize = tableSize;
+    this.seed = seed;
+    this.snapshot = snapshot;
+  }
+
+  @Override
+  public void dump() {
+    final Snapshot current = snapshot;
+    System.out.println("NODES: " + current.nodes.length + " TABLE: " + tableSize + " EPOCH: " + current.epoch);
+    final int[] slots = new int[current.nodes.length];
+    if (current.table != null) {
+      for (final int node : current.table) {
+        ++slots[node];
+      }
+    }
+    for (int index = 0; index < current.nodes.length; ++index) {
+      System.out.println("NODE: " + current.nodes[index] + " SLOTS: " + slots[index]);
+    }
+  }
+
+  @Override
+  public synchronized HashRing<T> excludeNode(final T nodeIdentifier) {
+    publish(NodeArrays.excluding(snapshot.nodes, nodeIdentifier));
+    return this;
+  }
+
+  @Override
+  public synchronized HashRing<T> includeNode(final T nodeIdentifier) {
+    publish(NodeArrays.including(snapshot.nodes, nodeIdentifier));
+    return this;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public T nodeOf(final Object id) {
+    final Snapshot current = snapshot;
+    if (current.table == null) {
+      return null;
+    }
+    final int slot = (int) ((MurmurHash.hash32(id, seed) & 0xffffffffL) % tableSize);
+    return (T) current.nodes[current.table[slot]];
+  }
+
+  @Override
+  public HashRing<T> copy() {
+    return new MaglevHashRing<>(tableSize, seed, snapshot);
+  }
+
+  @Override
+  public long epoch() {
+    return snapshot.epoch;
+  }
+
+  private void publish(final Object[] nodes) {
+    final Snapshot current = snapshot;
+    if (nodes != current.nodes) {
+      snapshot = new Snapshot(nodes, nodes.length == 0 ? null : populate(nodes), current.epoch + 1);
+    }
+  }
+
+  private int[] populate(final Object[] nodes) {
+    final int count = nodes.length;
+    final long[] offsets = new long[count];
+    final long[] skips = new long[count];
+    for (int index = 0; index < count; ++index) {
+      offsets[index] = (MurmurHash.hash32(nodes[index], seed) & 0xffffffffL) % tableSize;
+      skips[index] = (MurmurHash.hash32(nodes[index], SkipSeed) & 0xffffffffL) % (tableSize - 1) + 1;
+    }
+
+    final int[] table = new int[tableSize];
+    Arrays.fill(table, -1);
+    final long[] next = new long[count];
+    int filled = 0;
+    while (true) {
+      for (int index = 0; index < count; ++index) {
+        int slot = (int) ((offsets[index] + next[index] * skips[index]) % tableSize);
+        while (table[slot] >= 0) {
+          ++next[index];
+          slot = (int) ((offsets[index] + next[index] * skips[index]) % tableSize);
+        }
+        table[slot] = index;
+        ++next[index];
+        if (++filled == tableSize) {
+          return table;
+        }
+      }
+    }
+  }
+
+  private static int primeNotLessThan(final int size) {
+    int candidate = Math.max(size, 2);
+    while (!isPrime(candidate)) {
+      ++candidate;
+    }
+    return candidate;
+  }
+
+  private static boolean isPrime(final int candidate) {
+    if (candidate < 4) {
+      return candidate > 1;
+    }
+    if (candidate % 2 == 0) {
+      return false;
+    }
+    for (int divisor = 3; (long) divisor * divisor <= candidate; divisor += 2) {
+      if (candidate % divisor == 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static final class Snapshot {
+    final Object[] nodes;
+    final int[] table;
+    final long epoch;
+
+    Snapshot(final Object[] nodes, final int[] table, final long epoch) {
+      this.nodes = nodes;
+      this.table = table;
+      this.epoch = epoch;
+    }
+  }
+}
@@ -7,7 +7,6 @@
 
 package io.vlingo.xoom.lattice.grid.hashring;
 
-import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.Comparator;
 import java.util.function.BiFunction;
@@ -15,7 +14,6 @@ import java.util.function.BiFunction;
 public class MurmurArrayHashRing<T> implements HashRing<T> {
   private static final int DefaultSeed = 31;
 
-  private final ByteBuffer buffer;
   private final BiFunction<Integer, T, HashedNodePoint<T>> factory;
   private HashedNodePoint<T>[] hashedNodePoints;
   private final int pointsPerNode;
@@ -30,7 +28,6 @@ public class MurmurArrayHashRing<T> implements HashRing<T> {
     this.pointsPerNode = pointsPerNode;
     this.factory = factory;
     this.seed = seed;
-    this.buffer = ByteBuffer.allocate(64);
     this.hashedNodePoints = new HashedNodePoint[0];
   }
 
@@ -93,9 +90,7 @@ public class MurmurArrayHashRing<T> implements HashRing<T> {
   }
 
   private int hashed(final Object id) {
-    buffer.clear();
-    buffer.put(id.toString().getBytes());
-    return MurmurHash.hash32(buffer, 0, buffer.position(), seed);
+    return MurmurHash.hash32(id, seed);
   }
 
   private HashedNodePoint<T> hashedNodePointOf(final Object id) {
@@ -18,12 +18,15 @@
 
 // Obtained from:
 // https://github.com/apache/cassandra/blob/trunk/src/java/org/apache/cassandra/utils/MurmurHash.java
+//
+// Additions: the hash32(Object), hash32(CharSequence), and hash32(UUID) variants below hash32(ByteBuffer).
 // 
 // The following is the only line of code modified and was replaced with a different package name.
 //package org.apache.cassandra.utils;
 package io.vlingo.xoom.lattice.grid.hashring;
 
 import java.nio.ByteBuffer;
+import java.util.UUID;
 
 /**
  * This is a very fast, non-cryptographic hash suitable for general hash-based
@@ -96,6 +99,144 @@ public class MurmurHash
         return h;
     }
 
+    private static final byte[] HexDigits = { '0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'a', 'b', 'c', 'd', 'e', 'f' };
+    private static final int UUIDLength = 36;
+
+    /**
+     * Answers the hash32() of the bytes of {@code id.toString()}, without creating the
+     * String when {@code id} is a {@code UUID} or a {@code CharSequence}.
+     */
+    public static int hash32(Object id, int seed)
+    {
+        if (id instanceof UUID)
+        {
+            return hash32((UUID) id, seed);
+        }
+        if (id instanceof CharSequence)
+        {
+            return hash32((CharSequence) id, seed);
+        }
+        return hash32(id.toString(), seed);
+    }
+
+    /**
+     * Answers the hash32() of the bytes of {@code chars}, reading ASCII characters in place
+     * and falling back to {@code toString().getBytes()} for any other.
+     */
+    public static int hash32(CharSequence chars, int seed)
+    {
+        int length = chars.length();
+        for (int i = 0; i < length; i++)
+        {
+            if (chars.charAt(i) >= 0x80)
+            {
+                byte[] bytes = chars.toString().getBytes();
+                return hash32(ByteBuffer.wrap(bytes), 0, bytes.length, seed);
+            }
+        }
+
+        int m = 0x5bd1e995;
+        int r = 24;
+
+        int h = seed ^ length;
+
+        int len_4 = length >> 2;
+
+        for (int i = 0; i < len_4; i++)
+        {
+            int i_4 = i << 2;
+            int k = (byte) chars.charAt(i_4 + 3);
+            k = k << 8;
+            k = k | (chars.charAt(i_4 + 2) & 0xff);
+            k = k << 8;
+            k = k | (chars.charAt(i_4 + 1) & 0xff);
+            k = k << 8;
+            k = k | (chars.charAt(i_4 + 0) & 0xff);
+            k *= m;
+            k ^= k >>> r;
+            k *= m;
+            h *= m;
+            h ^= k;
+        }
+
+        int len_m = len_4 << 2;
+        int left = length - len_m;
+
+        if (left != 0)
+        {
+            if (left >= 3)
+            {
+                h ^= (int) (byte) chars.charAt(length - 3) << 16;
+            }
+            if (left >= 2)
+            {
+                h ^= (int) (byte) chars.charAt(length - 2) << 8;
+            }
+            if (left >= 1)
+            {
+                h ^= (int) (byte) chars.charAt(length - 1);
+            }
+
+            h *= m;
+        }
+
+        h ^= h >>> 13;
+        h *= m;
+        h ^= h >>> 15;
+
+        return h;
+    }
+
+    /**
+     * Answers the hash32() of the bytes of {@code id.toString()}, producing the
+     * canonical 36 characters from the two longs of {@code id} as they are hashed.
+     */
+    public static int hash32(UUID id, int seed)
+    {
+        long msb = id.getMostSignificantBits();
+        long lsb = id.getLeastSignificantBits();
+
+        int m = 0x5bd1e995;
+        int r = 24;
+
+        int h = seed ^ UUIDLength;
+
+        // 36 is a multiple of 4, so there is no tail
+        for (int i_4 = 0; i_4 < UUIDLength; i_4 += 4)
+        {
+            int k = uuidByte(msb, lsb, i_4 + 3);
+            k = k << 8;
+            k = k | uuidByte(msb, lsb, i_4 + 2);
+            k = k << 8;
+            k = k | uuidByte(msb, lsb, i_4 + 1);
+            k = k << 8;
+            k = k | uuidByte(msb, lsb, i_4 + 0);
+            k *= m;
+            k ^= k >>> r;
+            k *= m;
+            h *= m;
+            h ^= k;
+        }
+
+        h ^= h >>> 13;
+        h *= m;
+        h ^= h >>> 15;
+
+        return h;
+    }
+
+    // the byte at index of xxxxxxxx-xxxx-xxxx-xxxx-xxxxxxxxxxxx
+    private static int uuidByte(long msb, long lsb, int index)
+    {
+        if (index == 8 || index == 13 || index == 18 || index == 23)
+        {
+            return '-';
+        }
+        int digit = index - (index > 23 ? 4 : index > 18 ? 3 : index > 13 ? 2 : index > 8 ? 1 : 0);
+        long bits = digit < 16 ? msb >>> ((15 - digit) << 2) : lsb >>> ((31 - digit) << 2);
+        return HexDigits[(int) bits & 0xf];
+    }
+
     public static long hash2_64(ByteBuffer key, int offset, int length, long seed)
     {
         long m64 = 0xc6a4a7935bd1e995L;
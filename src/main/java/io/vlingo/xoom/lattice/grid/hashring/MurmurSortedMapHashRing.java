@@ -7,14 +7,9 @@
 
 package io.vlingo.xoom.lattice.grid.hashring;
 
-import java.nio.ByteBuffer;
 import java.util.SortedMap;
 import java.util.TreeMap;
 
-import io.vlingo.xoom.common.pool.ElasticResourcePool;
-import io.vlingo.xoom.common.pool.ResourceFactory;
-import io.vlingo.xoom.common.pool.ResourcePool;
-
 public class MurmurSortedMapHashRing<T> implements HashRing<T> {
 
   private static final int DefaultSeed = 31;
@@ -22,35 +17,6 @@ public class MurmurSortedMapHashRing<T> implements HashRing<T> {
   private final int pointsPerNode;
   private final int seed;
 
-  private final ResourcePool<ByteBuffer, Void> byteBufferPool =
-      new ElasticResourcePool<>(ElasticResourcePool.Config.of(10),
-          new ResourceFactory<ByteBuffer, Void>() {
-            @Override
-            public Class<ByteBuffer> type() {
-              return ByteBuffer.class;
-            }
-
-            @Override
-            public ByteBuffer create(Void aVoid) {
-              return ByteBuffer.allocate(36);
-            }
-
-            @Override
-            public Void defaultArguments() {
-              return null;
-            }
-
-            @Override
-            public ByteBuffer reset(ByteBuffer byteBuffer, Void aVoid) {
-              byteBuffer.clear();
-              return byteBuffer;
-            }
-
-            @Override
-            public void destroy(ByteBuffer byteBuffer) {
-            }
-          });
-
   private final SortedMap<Integer, T> ring;
 
   public MurmurSortedMapHashRing(final int pointsPerNode) {
@@ -88,16 +54,7 @@ public class MurmurSortedMapHashRing<T> implements HashRing<T> {
   }
 
   private int hashed(final Object id) {
-    final ByteBuffer buffer = byteBufferPool.acquire();
-    final int hash;
-    try {
-      buffer.put(id.toString().getBytes());
-      hash = MurmurHash.hash32(buffer, 0, buffer.position(), seed);
-    }
-    finally {
-      byteBufferPool.release(buffer);
-    }
-    return hash;
+    return MurmurHash.hash32(id, seed);
   }
 
   @Override
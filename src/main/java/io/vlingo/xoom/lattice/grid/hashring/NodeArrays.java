@@ -0,0 +1,60 @@
+// Copyright © 2012-2023 VLINGO LABS. All rights reserved.
+//
+// This Source Code Form is subject to the terms of the
+// Mozilla Public License, v. 2.0. If a copy of the MPL
+// was not distributed with this file, You can obtain
+// one at https://mozilla.org/MPL/2.0/.
+
+package io.vlingo.xoom.lattice.grid.hashring;
+
+import java.util.Arrays;
+
+/**
+ * Copy-on-write arrays of node identifiers ordered by their {@code toString()}, so
+ * that every node of a cluster orders the same members the same way whatever the
+ * order in which it learned of them.
+ */
+final class NodeArrays {
+  static final Object[] Empty = new Object[0];
+
+  /**
+   * Answers a copy of {@code nodes} that also holds {@code node}, or {@code nodes}
+   * itself when it already does.
+   */
+  static Object[] including(final Object[] nodes, final Object node) {
+    final int index = indexOf(nodes, node);
+    if (index >= 0) {
+      return nodes;
+    }
+    final int at = -(index + 1);
+    final Object[] including = new Object[nodes.length + 1];
+    System.arraycopy(nodes, 0, including, 0, at);
+    including[at] = node;
+    System.arraycopy(nodes, at, including, at + 1, nodes.length - at);
+    return including;
+  }
+
+  /**
+   * Answers a copy of {@code nodes} without {@code node}, or {@code nodes} itself
+   * when it does not hold it.
+   */
+  static Object[] excluding(final Object[] nodes, final Object node) {
+    final int index = indexOf(nodes, node);
+    if (index < 0) {
+      return nodes;
+    }
+    final Object[] excluding = new Object[nodes.length - 1];
+    System.arraycopy(nodes, 0, excluding, 0, index);
+    System.arraycopy(nodes, index + 1, excluding, index, nodes.length - index - 1);
+    return excluding;
+  }
+
+  /**
+   * Answers the index of {@code node} in {@code nodes}, or a negative number when absent.
+   */
+  static int indexOf(final Object[] nodes, final Object node) {
+    return Arrays.binarySearch(nodes, node, (one, other) -> one.toString().compareTo(other.toString()));
+  }
+
+  private NodeArrays() { }
+}
@@ -0,0 +1,114 @@
+// Copyright © 2012-2023 VLINGO LABS. All rights reserved.
+//
+// This Source Code Form is subject to the terms of the
+// Mozilla Public License, v. 2.0. If a copy of the MPL
+// was not distributed with this file, You can obtain
+// one at https://mozilla.org/MPL/2.0/.
+
+package io.vlingo.xoom.lattice.grid.hashring;
+
+/**
+ * A rendezvous (highest random weight) {@code HashRing}: an id belongs to the node
+ * whose hash combined with the id's hash scores highest. It needs no virtual points,
+ * balances evenly with few nodes, and when a node leaves only the ids it owned move.
+ * {@code nodeOf} is O(n) in the number of nodes, which is small for a grid.
+ * <p>
+ * The nodes and their hashes are an immutable snapshot published through a volatile
+ * reference, so readers never lock and {@code copy()} shares the snapshot.
+ *
+ * @param <T> the type of the node identifiers
+ */
+public class RendezvousHashRing<T> implements HashRing<T> {
+  private static final int DefaultSeed = 31;
+
+  private final int seed;
+  private volatile Snapshot snapshot;
+
+  public RendezvousHashRing() {
+    this(DefaultSeed);
+  }
+
+  public RendezvousHashRing(final int seed) {
+    this(seed, new Snapshot(NodeArrays.Empty, new int[0], 0));
+  }
+
+  private RendezvousHashRing(final int seed, final Snapshot snapshot) {
+    this.seed = seed;
+    this.snapshot = snapshot;
+  }
+
+  @Override
+  public void dump() {
+    final Snapshot current = snapshot;
+    System.out.println("NODES: " + current.nodes.length + " EPOCH: " + current.epoch);
+    for (final Object node : current.nodes) {
+      System.out.println("NODE: " + node);
+    }
+  }
+
+  @Override
+  public synchronized HashRing<T> excludeNode(final T nodeIdentifier) {
+    publish(NodeArrays.excluding(snapshot.nodes, nodeIdentifier));
+    return this;
+  }
+
+  @Override
+  public synchronized HashRing<T> includeNode(final T nodeIdentifier) {
+    publish(NodeArrays.including(snapshot.nodes, nodeIdentifier));
+    return this;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public T nodeOf(final Object id) {
+    final Snapshot current = snapshot;
+    if (current.nodes.length == 0) {
+      return null;
+    }
+    final long idHash = MurmurHash.hash32(id, seed) & 0xffffffffL;
+    int highest = 0;
+    long highestWeight = Long.MIN_VALUE;
+    for (int index = 0; index < current.hashes.length; ++index) {
+      final long weight = MurmurHash.fmix(((long) current.hashes[index] << 32) | idHash);
+      if (weight > highestWeight) {
+        highestWeight = weight;
+        highest = index;
+      }
+    }
+    return (T) current.nodes[highest];
+  }
+
+  @Override
+  public HashRing<T> copy() {
+    return new RendezvousHashRing<>(seed, snapshot);
+  }
+
+  @Override
+  public long epoch() {
+    return snapshot.epoch;
+  }
+
+  private void publish(final Object[] nodes) {
+    final Snapshot current = snapshot;
+    if (nodes == current.nodes) {
+      return;
+    }
+    final int[] hashes = new int[nodes.length];
+    for (int index = 0; index < nodes.length; ++index) {
+      hashes[index] = MurmurHash.hash32(nodes[index], seed);
+    }
+    snapshot = new Snapshot(nodes, hashes, current.epoch + 1);
+  }
+
+  private static final class Snapshot {
+    final Object[] nodes;
+    final int[] hashes;
+    final long epoch;
+
+    Snapshot(final Object[] nodes, final int[] hashes, final long epoch) {
+      this.nodes = nodes;
+      this.hashes = hashes;
+      this.epoch = epoch;
+    }
+  }
+}
@@ -0,0 +1,267 @@
+// Copyright © 2012-2023 VLINGO LABS. All rights reserved.
+//
+// This Source Code Form is subject to the terms of the
+// Mozilla Public License, v. 2.0. If a copy of the MPL
+// was not distributed with this file, You can obtain
+// one at https://mozilla.org/MPL/2.0/.
+
+package io.vlingo.xoom.lattice.grid.hashring;
+
+import java.util.Arrays;
+import java.util.function.Function;
+
+/**
+ * A Murmur hash ring that places node points exactly as {@code MurmurSortedMapHashRing}
+ * does, but publishes them as an immutable snapshot of a sorted {@code int[]} of point
+ * hashes and a parallel array of nodes through a single volatile reference. Readers
+ * never lock and never see a ring in the middle of a change; {@code includeNode} and
+ * {@code excludeNode} build a new snapshot and publish it, and {@code copy()} shares
+ * the current snapshot. The {@code reassignment} from a previous snapshot is computed
+ * as the hash ranges whose owner changed, by merging the points of both snapshots.
+ *
+ * @param <T> the type of the node identifiers
+ */
+public class SnapshotHashRing<T> implements HashRing<T> {
+  private static final int DefaultSeed = 31;
+
+  private final int pointsPerNode;
+  private final int seed;
+  private volatile Snapshot snapshot;
+
+  public SnapshotHashRing(final int pointsPerNode) {
+    this(pointsPerNode, DefaultSeed);
+  }
+
+  public SnapshotHashRing(final int pointsPerNode, final int seed) {
+    this(pointsPerNode, seed, Snapshot.Empty);
+  }
+
+  private SnapshotHashRing(final int pointsPerNode, final int seed, final Snapshot snapshot) {
+    this.pointsPerNode = pointsPerNode;
+    this.seed = seed;
+    this.snapshot = snapshot;
+  }
+
+  @Override
+  public void dump() {
+    final Snapshot current = snapshot;
+    System.out.println("NODES: " + current.hashes.length + " EPOCH: " + current.epoch);
+    for (int index = 0; index < current.hashes.length; ++index) {
+      System.out.println("NODE: " + current.nodes[index] + " HASH: " + current.hashes[index]);
+    }
+  }
+
+  @Override
+  public synchronized HashRing<T> excludeNode(final T nodeIdentifier) {
+    final Snapshot current = snapshot;
+    final int[] hashes = new int[current.hashes.length];
+    final Object[] nodes = new Object[current.nodes.length];
+    int length = 0;
+    for (int index = 0; index < current.hashes.length; ++index) {
+      if (!current.nodes[index].equals(nodeIdentifier)) {
+        hashes[length] = current.hashes[index];
+        nodes[length++] = current.nodes[index];
+      }
+    }
+    if (length < current.hashes.length) {
+      snapshot = new Snapshot(Arrays.copyOf(hashes, length), Arrays.copyOf(nodes, length), current.epoch + 1);
+    }
+    return this;
+  }
+
+  @Override
+  public synchronized HashRing<T> includeNode(final T nodeIdentifier) {
+    final Snapshot current = snapshot;
+    if (current.contains(nodeIdentifier)) {
+      return this;
+    }
+
+    final String name = nodeIdentifier.toString();
+    final int[] included = new int[pointsPerNode];
+    for (int point = 0; point < pointsPerNode; ++point) {
+      included[point] = hashed(name + point);
+    }
+    Arrays.sort(included);
+
+    final int length = current.hashes.length + included.length;
+    final int[] hashes = new int[length];
+    final Object[] nodes = new Object[length];
+    int existing = 0;
+    int added = 0;
+    for (int index = 0; index < length; ++index) {
+      if (added == included.length ||
+          (existing < current.hashes.length && precedes(current.hashes[existing], current.nodes[existing], included[added], nodeIdentifier))) {
+        hashes[index] = current.hashes[existing];
+        nodes[index] = current.nodes[existing++];
+      } else {
+        hashes[index] = included[added++];
+        nodes[index] = nodeIdentifier;
+      }
+    }
+    snapshot = new Snapshot(hashes, nodes, current.epoch + 1);
+    return this;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public T nodeOf(final Object id) {
+    final Snapshot current = snapshot;
+    if (current.hashes.length == 0) {
+      return null;
+    }
+    return (T) current.ownerOf(hashed(id));
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public Function<Object, T> reassignment(final HashRing<T> previous, final T from) {
+    if (!(previous instanceof SnapshotHashRing) || ((SnapshotHashRing<T>) previous).seed != seed) {
+      return HashRing.super.reassignment(previous, from);
+    }
+    final Moves moves = new Moves(((SnapshotHashRing<T>) previous).snapshot, snapshot, from);
+    if (moves.isEmpty()) {
+      return id -> null;
+    }
+    return id -> (T) moves.nodeOf(hashed(id));
+  }
+
+  @Override
+  public HashRing<T> copy() {
+    return new SnapshotHashRing<>(pointsPerNode, seed, snapshot);
+  }
+
+  @Override
+  public long epoch() {
+    return snapshot.epoch;
+  }
+
+  private int hashed(final Object id) {
+    return MurmurHash.hash32(id, seed);
+  }
+
+  /*
+   * Orders points by hash, and points of equal hash by node name, so that every
+   * node builds the same ring whatever the order in which it learned of the nodes.
+   */
+  private static boolean precedes(final int hash, final Object node, final int otherHash, final Object otherNode) {
+    return hash != otherHash ? hash < otherHash : node.toString().compareTo(otherNode.toString()) <= 0;
+  }
+
+  private static final class Snapshot {
+    static final Snapshot Empty = new Snapshot(new int[0], new Object[0], 0);
+
+    final int[] hashes;
+    final Object[] nodes;
+    final long epoch;
+
+    Snapshot(final int[] hashes, final Object[] nodes, final long epoch) {
+      this.hashes = hashes;
+      this.nodes = nodes;
+      this.epoch = epoch;
+    }
+
+    /*
+     * Answers the node of the first point at or after hash, wrapping around to the
+     * first point; requires at least one point.
+     */
+    Object ownerOf(final int hash) {
+      // lower bound with a single data-dependent update per step
+      int low = 0;
+      int remaining = hashes.length;
+      while (remaining > 1) {
+        final int half = remaining >>> 1;
+        low = hashes[low + half] < hash ? low + half : low;
+        remaining -= half;
+      }
+      if (hashes[low] < hash) {
+        ++low;
+      }
+      return nodes[low == hashes.length ? 0 : low];
+    }
+
+    boolean contains(final Object nodeIdentifier) {
+      for (final Object node : nodes) {
+        if (node.equals(nodeIdentifier)) {
+          return true;
+        }
+      }
+      return false;
+    }
+  }
+
+  /*
+   * The hash ranges that a previous snapshot assigned to a node and a current one assigns
+   * to another, as sorted, disjoint and inclusive [low, high] ranges with their new node.
+   * Between two consecutive points of either snapshot each snapshot has a single owner, so
+   * the ranges are found by walking the merged points once.
+   */
+  private static final class Moves {
+    private long[] lows = new long[16];
+    private long[] highs = new long[16];
+    private Object[] nodes = new Object[16];
+    private int length;
+
+    Moves(final Snapshot previous, final Snapshot current, final Object from) {
+      if (previous.hashes.length == 0 || current.hashes.length == 0) {
+        return;
+      }
+      long low = Integer.MIN_VALUE;
+      int inPrevious = 0;
+      int inCurrent = 0;
+      while (inPrevious < previous.hashes.length || inCurrent < current.hashes.length) {
+        final int point;
+        if (inCurrent == current.hashes.length
+            || (inPrevious < previous.hashes.length && previous.hashes[inPrevious] <= current.hashes[inCurrent])) {
+          point = previous.hashes[inPrevious];
+        } else {
+          point = current.hashes[inCurrent];
+        }
+        while (inPrevious < previous.hashes.length && previous.hashes[inPrevious] == point) ++inPrevious;
+        while (inCurrent < current.hashes.length && current.hashes[inCurrent] == point) ++inCurrent;
+
+        add(low, point, from, previous.ownerOf(point), current.ownerOf(point));
+        low = (long) point + 1;
+      }
+      // past the last point both snapshots wrap around to their first one
+      add(low, Integer.MAX_VALUE, from, previous.nodes[0], current.nodes[0]);
+    }
+
+    boolean isEmpty() {
+      return length == 0;
+    }
+
+    Object nodeOf(final int hash) {
+      int low = 0;
+      int high = length - 1;
+      while (low <= high) {
+        final int middle = (low + high) >>> 1;
+        if (highs[middle] < hash) {
+          low = middle + 1;
+        } else if (lows[middle] > hash) {
+          high = middle - 1;
+        } else {
+          return nodes[middle];
+        }
+      }
+      return null;
+    }
+
+    private void add(final long low, final long high, final Object from, final Object previousOwner, final Object currentOwner) {
+      if (low > high || !from.equals(previousOwner) || from.equals(currentOwner)) {
+        return;
+      }
+      if (length > 0 && highs[length - 1] + 1 == low && nodes[length - 1].equals(currentOwner)) {
+        highs[length - 1] = high; // adjacent to the last range and moved to the same node
+        return;
+      }
+      if (length == lows.length) {
+        lows = Arrays.copyOf(lows, length * 2);
+        highs = Arrays.copyOf(highs, length * 2);
+        nodes = Arrays.copyOf(nodes, length * 2);
+      }
+      lows[length] = low;
+      highs[length] = high;
+      nodes[length++] = currentOwner;
+    }
+  }
+}
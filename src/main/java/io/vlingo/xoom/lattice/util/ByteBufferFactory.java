@@ -0,0 +1,51 @@
+// Copyright © 2012-2023 VLINGO LABS. All rights reserved.
+//
+// This Source Code Form is subject to the terms of the
+// Mozilla Public License, v. 2.0. If a copy of the MPL
+// was not distributed with this file, You can obtain
+// one at https://mozilla.org/MPL/2.0/.
+
+package io.vlingo.xoom.lattice.util;
+
+import java.nio.ByteBuffer;
+
+import io.vlingo.xoom.common.pool.ResourceFactory;
+
+/**
+ * Creates fixed capacity, optionally direct, {@code ByteBuffer} instances for a
+ * {@code ResourcePool}; released buffers are cleared for reuse.
+ */
+public final class ByteBufferFactory implements ResourceFactory<ByteBuffer, Void> {
+  private final int capacity;
+  private final boolean direct;
+
+  public ByteBufferFactory(final int capacity, final boolean direct) {
+    this.capacity = capacity;
+    this.direct = direct;
+  }
+
+  @Override
+  public Class<ByteBuffer> type() {
+    return ByteBuffer.class;
+  }
+
+  @Override
+  public ByteBuffer create(final Void arguments) {
+    return direct ? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity);
+  }
+
+  @Override
+  public Void defaultArguments() {
+    return null;
+  }
+
+  @Override
+  public ByteBuffer reset(final ByteBuffer buffer, final Void arguments) {
+    buffer.clear();
+    return buffer;
+  }
+
+  @Override
+  public void destroy(final ByteBuffer buffer) {
+  }
+}
@@ -0,0 +1,183 @@
+// Copyright © 2012-2023 VLINGO LABS. All rights reserved.
+//
+// This Source Code Form is subject to the terms of the
+// Mozilla Public License, v. 2.0. If a copy of the MPL
+// was not distributed with this file, You can obtain
+// one at https://mozilla.org/MPL/2.0/.
+
+package io.vlingo.xoom.lattice.util;
+
+import java.nio.ByteBuffer;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+
+/**
+ * A bounded ring of encoded frames, each stored as {@code [int length][byte pinned][long tag][bytes]}
+ * in one byte array that frames wrap around. A pinned frame is never dropped. Not thread-safe.
+ */
+final class FrameRing {
+  private static final int LengthBytes = Integer.BYTES;
+  private static final int HeaderBytes = LengthBytes + 1 + Long.BYTES;
+
+  private final byte[] bytes;
+  private final ByteBuffer header = ByteBuffer.allocate(HeaderBytes);
+  private long head;
+  private long tail;
+  private int frames;
+  private ByteBuffer scratch;
+
+  FrameRing(final int capacity) {
+    this.bytes = new byte[capacity];
+  }
+
+  /**
+   * Answers whether a frame of {@code length} bytes fits in an empty ring.
+   */
+  boolean fits(final int length) {
+    return HeaderBytes + (long) length <= bytes.length;
+  }
+
+  /**
+   * Answers whether the remaining bytes of {@code frame} were appended with no tag.
+   */
+  boolean offer(final ByteBuffer frame) {
+    return offer(frame, OutBuffers.NoTag);
+  }
+
+  /**
+   * Answers whether the remaining bytes of {@code frame} were appended along with
+   * {@code tag}; when there is no room the ring is left unchanged. The frame's
+   * position is not moved.
+   */
+  boolean offer(final ByteBuffer frame, final long tag) {
+    return offer(frame, tag, false);
+  }
+
+  /**
+   * Answers whether the remaining bytes of {@code frame} were appended along with
+   * {@code tag}, as by {@code offer(frame, tag)}, and never to be dropped when
+   * {@code pinned}.
+   */
+  boolean offer(final ByteBuffer frame, final long tag, final boolean pinned) {
+    final int size = frame.remaining();
+    if (HeaderBytes + (long) size > bytes.length - (tail - head)) {
+      return false;
+    }
+    header.clear();
+    header.putInt(size).put((byte) (pinned ? 1 : 0)).putLong(tag).flip();
+    write(tail, header);
+    write(tail + HeaderBytes, frame.duplicate());
+    tail += HeaderBytes + size;
+    ++frames;
+    return true;
+  }
+
+  /**
+   * Answers whether the oldest frame was dropped.
+   */
+  boolean dropOldest() {
+    return dropOldest(tag -> { });
+  }
+
+  /**
+   * Answers whether the oldest frame was dropped, passing its tag to {@code dropped};
+   * it is not when it is pinned.
+   */
+  boolean dropOldest(final LongConsumer dropped) {
+    if (frames == 0 || bytes[index(head + LengthBytes)] != 0) {
+      return false;
+    }
+    dropped.accept(tagAt(head));
+    head += HeaderBytes + lengthAt(head);
+    --frames;
+    return true;
+  }
+
+  /**
+   * Passes every frame, oldest first, to {@code consumer} and empties the ring.
+   * The buffer passed is only valid during the call.
+   */
+  void drain(final Consumer<ByteBuffer> consumer) {
+    drain((frame, tag) -> consumer.accept(frame));
+  }
+
+  /**
+   * Passes every frame and its tag, oldest first, to {@code consumer} and empties
+   * the ring. The buffer passed is only valid during the call.
+   */
+  void drain(final OutBuffers.FrameConsumer consumer) {
+    drainWhile((frame, tag) -> {
+      consumer.accept(frame, tag);
+      return true;
+    });
+  }
+
+  /**
+   * Answers whether the ring was emptied by passing every frame and its tag, oldest
+   * first, to {@code taker} until it declines one, which stays in the ring along with
+   * the frames behind it. The buffer passed is only valid during the call.
+   */
+  boolean drainWhile(final OutBuffers.FrameTaker taker) {
+    while (frames > 0) {
+      final int size = lengthAt(head);
+      final long tag = tagAt(head);
+      final int start = index(head + HeaderBytes);
+      final ByteBuffer frame = start + size <= bytes.length ? ByteBuffer.wrap(bytes, start, size) : copy(start, size);
+      if (!taker.take(frame, tag)) {
+        return false;
+      }
+      head += HeaderBytes + size;
+      --frames;
+    }
+    head = tail = 0;
+    return true;
+  }
+
+  int frames() {
+    return frames;
+  }
+
+  boolean isEmpty() {
+    return frames == 0;
+  }
+
+  private ByteBuffer copy(final int start, final int size) {
+    if (scratch == null || scratch.capacity() < size) {
+      scratch = ByteBuffer.allocate(size);
+    }
+    final int first = bytes.length - start;
+    scratch.clear();
+    scratch.put(bytes, start, first);
+    scratch.put(bytes, 0, size - first);
+    scratch.flip();
+    return scratch;
+  }
+
+  private int lengthAt(final long position) {
+    int size = 0;
+    for (int offset = 0; offset < LengthBytes; ++offset) {
+      size = (size << 8) | (bytes[index(position + offset)] & 0xFF);
+    }
+    return size;
+  }
+
+  private long tagAt(final long position) {
+    long tag = 0;
+    for (int offset = LengthBytes + 1; offset < HeaderBytes; ++offset) {
+      tag = (tag << 8) | (bytes[index(position + offset)] & 0xFF);
+    }
+    return tag;
+  }
+
+  private void write(final long position, final ByteBuffer source) {
+    final int start = index(position);
+    final int size = source.remaining();
+    final int first = Math.min(size, bytes.length - start);
+    source.get(bytes, start, first);
+    source.get(bytes, 0, size - first);
+  }
+
+  private int index(final long position) {
+    return (int) (position % bytes.length);
+  }
+}
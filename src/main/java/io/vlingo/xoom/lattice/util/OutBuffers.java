@@ -7,29 +7,89 @@
 
 package io.vlingo.xoom.lattice.util;
 
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.LinkedList;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Queue;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
 import java.util.function.Supplier;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import io.vlingo.xoom.wire.node.Id;
 
+/**
+ * Buffers outbound messages per destination node while the cluster is not healthy,
+ * either as tasks in weakly held queues or as already encoded frames in a bounded
+ * ring per node. Each frame carries a tag, such as the correlation id of the answer
+ * it waits for, that is drained along with it. When a node's ring is full a frame
+ * is handled by the {@link Overflow} policy. Frames are buffered and drained by a
+ * single actor.
+ */
 public final class OutBuffers {
+  public enum Overflow { Reject, DropOldest, Spill };
+
+  /**
+   * Receives a drained frame along with its tag.
+   */
+  @FunctionalInterface
+  public interface FrameConsumer {
+    void accept(final ByteBuffer frame, final long tag);
+  }
+
+  /**
+   * Takes a drained frame along with its tag, or declines it.
+   */
+  @FunctionalInterface
+  public interface FrameTaker {
+    /**
+     * Answers whether the frame was taken; when it is not, it and the frames buffered
+     * after it stay buffered.
+     */
+    boolean take(final ByteBuffer frame, final long tag);
+  }
+
+  public static final long NoTag = 0L;
+
+  public static final int DefaultFrameCapacity = 4 * 1024 * 1024;
+  public static final int DefaultSpillSegmentBytes = 64 * 1024 * 1024;
+
+  private static final Logger logger = LoggerFactory.getLogger(OutBuffers.class);
 
   private static Queue<Runnable> EMPTY = new LinkedList<>();
 
 
   private final Supplier<Queue<Runnable>> queueInitializer;
   private final Map<Id, Queue<Runnable>> buffers;
+  private final Map<Id, Frames> frames;
 
   private final HardRefHolder holder;
 
+  private final int frameCapacity;
+  private final Overflow overflow;
+  private final Path spillDirectory;
+  private final int spillSegmentBytes;
+
   public OutBuffers(final HardRefHolder holder) {
     this(WeakQueue::new, holder);
   }
 
+  public OutBuffers(final HardRefHolder holder,
+                    final int frameCapacity,
+                    final Overflow overflow,
+                    final Path spillDirectory,
+                    final int spillSegmentBytes) {
+    this(WeakQueue::new, holder, 5, .85F, frameCapacity, overflow, spillDirectory, spillSegmentBytes);
+  }
+
   public OutBuffers(final Supplier<Queue<Runnable>> queueInitializer,
                     final HardRefHolder holder) {
     this(queueInitializer, holder, 5, .85F);
@@ -39,9 +99,26 @@ public final class OutBuffers {
                     final HardRefHolder holder,
                     final int size,
                     final float loadFactor) {
+    this(queueInitializer, holder, size, loadFactor, DefaultFrameCapacity, Overflow.DropOldest,
+        Paths.get(System.getProperty("java.io.tmpdir")), DefaultSpillSegmentBytes);
+  }
+
+  public OutBuffers(final Supplier<Queue<Runnable>> queueInitializer,
+                    final HardRefHolder holder,
+                    final int size,
+                    final float loadFactor,
+                    final int frameCapacity,
+                    final Overflow overflow,
+                    final Path spillDirectory,
+                    final int spillSegmentBytes) {
     this.queueInitializer = queueInitializer;
     this.holder = holder;
     this.buffers = new ConcurrentHashMap<>(size, loadFactor);
+    this.frames = new ConcurrentHashMap<>(size, loadFactor);
+    this.frameCapacity = frameCapacity;
+    this.overflow = overflow;
+    this.spillDirectory = spillDirectory;
+    this.spillSegmentBytes = spillSegmentBytes;
   }
 
 
@@ -58,4 +135,184 @@ public final class OutBuffers {
   public Queue<Runnable> queue(final Id id) {
     return buffers.getOrDefault(id, EMPTY);
   }
+
+  /**
+   * Answers whether the remaining bytes of the encoded {@code frame} were buffered for
+   * {@code id}; the frame is copied, so its buffer may be reused. A frame is rejected when
+   * the ring is full under {@code Overflow.Reject}, when dropping the oldest frames does
+   * not make room for it under {@code Overflow.DropOldest}, or when it cannot be spilled.
+   * @param id the Id of the destination node
+   * @param frame the ByteBuffer holding the encoded message
+   * @return boolean
+   */
+  public boolean enqueue(final Id id, final ByteBuffer frame) {
+    return enqueue(id, frame, NoTag);
+  }
+
+  /**
+   * Answers whether the remaining bytes of the encoded {@code frame} were buffered for
+   * {@code id} along with {@code tag}, as by {@code enqueue(id, frame)}.
+   * @param id the Id of the destination node
+   * @param frame the ByteBuffer holding the encoded message
+   * @param tag the long passed along with the frame when it is drained
+   * @return boolean
+   */
+  public boolean enqueue(final Id id, final ByteBuffer frame, final long tag) {
+    return enqueue(id, frame, tag, true, dropped -> { });
+  }
+
+  /**
+   * Answers whether the remaining bytes of the encoded {@code frame} were buffered for
+   * {@code id} along with {@code tag}, as by {@code enqueue(id, frame, tag)}. Under
+   * {@code Overflow.DropOldest} the tag of each frame dropped to make room is passed to
+   * {@code dropped}; a frame that is not {@code droppable} is never dropped, and it is
+   * spilled instead when the ring has no room for it.
+   * @param id the Id of the destination node
+   * @param frame the ByteBuffer holding the encoded message
+   * @param tag the long passed along with the frame when it is drained or dropped
+   * @param droppable the boolean indicating whether the frame may be dropped
+   * @param dropped the {@code LongConsumer} receiving the tags of the frames dropped
+   * @return boolean
+   */
+  public boolean enqueue(final Id id, final ByteBuffer frame, final long tag, final boolean droppable, final LongConsumer dropped) {
+    return frames.computeIfAbsent(id, Frames::new).offer(frame, tag, droppable, dropped);
+  }
+
+  /**
+   * Passes the frames buffered for {@code id}, in the order they were buffered, to
+   * {@code consumer} and releases their memory and spill files. The buffer passed is
+   * only valid during the call.
+   * @param id the Id of the destination node
+   * @param consumer the {@code Consumer<ByteBuffer>} receiving each frame
+   */
+  public void drain(final Id id, final Consumer<ByteBuffer> consumer) {
+    drain(id, (frame, tag) -> consumer.accept(frame));
+  }
+
+  /**
+   * Passes the frames buffered for {@code id} along with their tags, as by
+   * {@code drain(id, consumer)}.
+   * @param id the Id of the destination node
+   * @param consumer the {@code FrameConsumer} receiving each frame and its tag
+   */
+  public void drain(final Id id, final FrameConsumer consumer) {
+    drainWhile(id, (frame, tag) -> {
+      consumer.accept(frame, tag);
+      return true;
+    });
+  }
+
+  /**
+   * Answers whether every frame buffered for {@code id} was drained, passing each one
+   * along with its tag, in the order they were buffered, to {@code taker} until it
+   * declines one. The frames from the one declined on stay buffered for a later drain.
+   * The buffer passed is only valid during the call.
+   * @param id the Id of the destination node
+   * @param taker the {@code FrameTaker} taking each frame and its tag
+   * @return boolean
+   */
+  public boolean drainWhile(final Id id, final FrameTaker taker) {
+    final Frames buffered = frames.get(id);
+    if (buffered == null) {
+      return true;
+    }
+    if (!buffered.drainWhile(taker)) {
+      return false;
+    }
+    frames.remove(id);
+    return true;
+  }
+
+  /**
+   * Discards the frames buffered for {@code id}.
+   * @param id the Id of the destination node
+   */
+  public void discard(final Id id) {
+    final Frames buffered = frames.remove(id);
+    if (buffered != null) {
+      buffered.discard();
+    }
+  }
+
+  /**
+   * Answers the nodes with buffered frames.
+   * @return {@code Set<Id>}
+   */
+  public Set<Id> framedNodes() {
+    return frames.keySet();
+  }
+
+  public int frames(final Id id) {
+    final Frames buffered = frames.get(id);
+    return buffered == null ? 0 : buffered.size();
+  }
+
+  private final class Frames {
+    private final Id id;
+    private final FrameRing ring;
+    private SpillFile spill;
+    private long dropped;
+
+    Frames(final Id id) {
+      this.id = id;
+      this.ring = new FrameRing(frameCapacity);
+    }
+
+    boolean offer(final ByteBuffer frame, final long tag, final boolean droppable, final LongConsumer onDropped) {
+      if (spill != null && !spill.isEmpty()) {
+        return spill(frame, tag); // behind the frames already spilled
+      }
+      if (ring.offer(frame, tag, !droppable)) {
+        return true;
+      }
+      switch (overflow) {
+      case DropOldest:
+        if (ring.fits(frame.remaining())) {
+          while (ring.dropOldest(onDropped)) {
+            ++dropped;
+            if (ring.offer(frame, tag, !droppable)) {
+              return true;
+            }
+          }
+        }
+        // no room is made by dropping the frames that may be dropped
+        return !droppable && spill(frame, tag);
+      case Spill:
+        return spill(frame, tag);
+      default:
+        return false;
+      }
+    }
+
+    private boolean spill(final ByteBuffer frame, final long tag) {
+      try {
+        if (spill == null) {
+          spill = new SpillFile(spillDirectory, "xoom-grid-" + id.value() + "-", spillSegmentBytes);
+        }
+        spill.append(frame, tag);
+        return true;
+      } catch (UncheckedIOException e) {
+        logger.error("Cannot spill a frame for node " + id, e);
+        return false;
+      }
+    }
+
+    boolean drainWhile(final FrameTaker taker) {
+      if (dropped > 0) {
+        logger.warn("Dropped the {} oldest frames buffered for node {}", dropped, id);
+        dropped = 0;
+      }
+      return ring.drainWhile(taker) && (spill == null || spill.drainWhile(taker));
+    }
+
+    void discard() {
+      if (spill != null) {
+        spill.close();
+      }
+    }
+
+    int size() {
+      return ring.frames() + (spill == null ? 0 : spill.frames());
+    }
+  }
 }
@@ -0,0 +1,139 @@
+// Copyright © 2012-2023 VLINGO LABS. All rights reserved.
+//
+// This Source Code Form is subject to the terms of the
+// Mozilla Public License, v. 2.0. If a copy of the MPL
+// was not distributed with this file, You can obtain
+// one at https://mozilla.org/MPL/2.0/.
+
+package io.vlingo.xoom.lattice.util;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Encoded frames appended to a sequence of memory-mapped segment files, each frame
+ * stored as {@code [int length][long tag][bytes]}, and replayed in order. A segment file is
+ * deleted once replayed. Not thread-safe.
+ */
+final class SpillFile {
+  private static final int HeaderBytes = Integer.BYTES + Long.BYTES;
+
+  private final Path directory;
+  private final String prefix;
+  private final int segmentBytes;
+  private final Deque<Segment> segments;
+  private int frames;
+
+  SpillFile(final Path directory, final String prefix, final int segmentBytes) {
+    this.directory = directory;
+    this.prefix = prefix;
+    this.segmentBytes = segmentBytes;
+    this.segments = new ArrayDeque<>();
+  }
+
+  /**
+   * Appends the remaining bytes of {@code frame} along with {@code tag}, without
+   * moving its position.
+   * @throws UncheckedIOException when a segment file cannot be created or mapped
+   */
+  void append(final ByteBuffer frame, final long tag) {
+    final int size = frame.remaining();
+    Segment segment = segments.peekLast();
+    if (segment == null || segment.buffer.remaining() < HeaderBytes + size) {
+      segment = new Segment(Math.max(segmentBytes, HeaderBytes + size));
+      segments.addLast(segment);
+    }
+    segment.buffer.putInt(size);
+    segment.buffer.putLong(tag);
+    segment.buffer.put(frame.duplicate());
+    ++frames;
+  }
+
+  /**
+   * Answers whether every frame was replayed by passing each frame and its tag, oldest
+   * first, to {@code taker} until it declines one, which is replayed again next time.
+   * A segment file is deleted once all of its frames are taken. The buffer passed is
+   * only valid during the call.
+   */
+  boolean drainWhile(final OutBuffers.FrameTaker taker) {
+    Segment segment;
+    while ((segment = segments.peekFirst()) != null) {
+      final ByteBuffer written = segment.buffer.duplicate();
+      written.limit(segment.buffer.position());
+      written.position(segment.replayed);
+      while (written.remaining() >= HeaderBytes) {
+        final int start = written.position();
+        final int size = written.getInt();
+        final long tag = written.getLong();
+        final ByteBuffer frame = written.slice();
+        frame.limit(size);
+        if (!taker.take(frame, tag)) {
+          segment.replayed = start;
+          return false;
+        }
+        written.position(written.position() + size);
+        --frames;
+      }
+      segments.pollFirst().delete();
+    }
+    frames = 0;
+    return true;
+  }
+
+  /**
+   * Deletes the segment files without replaying them.
+   */
+  void close() {
+    Segment segment;
+    while ((segment = segments.pollFirst()) != null) {
+      segment.delete();
+    }
+    frames = 0;
+  }
+
+  int frames() {
+    return frames;
+  }
+
+  boolean isEmpty() {
+    return frames == 0;
+  }
+
+  private final class Segment {
+    final Path path;
+    final MappedByteBuffer buffer;
+    int replayed; // position of the first frame not yet taken
+
+    Segment(final int size) {
+      Path created = null;
+      try {
+        created = Files.createTempFile(directory, prefix, ".spill");
+        try (final FileChannel channel = FileChannel.open(created, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+          this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size); // the mapping outlives the channel
+        }
+      } catch (IOException e) {
+        if (created != null) {
+          created.toFile().delete();
+        }
+        throw new UncheckedIOException("Cannot map a spill segment in " + directory, e);
+      }
+      this.path = created;
+    }
+
+    void delete() {
+      try {
+        Files.deleteIfExists(path);
+      } catch (IOException e) {
+        path.toFile().deleteOnExit(); // still mapped on some platforms
+      }
+    }
+  }
+}
@@ -0,0 +1,105 @@
+// Copyright © 2012-2023 VLINGO LABS. All rights reserved.
+//
+// This Source Code Form is subject to the terms of the
+// Mozilla Public License, v. 2.0. If a copy of the MPL
+// was not distributed with this file, You can obtain
+// one at https://mozilla.org/MPL/2.0/.
+
+package io.vlingo.xoom.lattice.util;
+
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+
+/**
+ * A hashed timer wheel of {@code tickMillis} resolution. Any thread may schedule
+ * an element at O(1) cost; a single thread, usually driven by a {@code Scheduler},
+ * calls {@link #advance(long, Consumer)} to expire the elements whose deadline
+ * has passed. Elements are never cancelled; an owner that is done with an
+ * element earlier simply ignores its expiry.
+ *
+ * @param <T> the type of the scheduled elements
+ */
+public final class TimerWheel<T> {
+  private final long tickMillis;
+  private final Queue<Timeout<T>>[] buckets;
+  private final int mask;
+  private volatile long currentTick;
+
+  /**
+   * Constructs a wheel of at least {@code size} buckets, rounded up to a power of
+   * two, so that timeouts of up to {@code size * tickMillis} are visited once.
+   * @param tickMillis the long resolution of the wheel in milliseconds
+   * @param size the int minimum number of buckets
+   * @param nowMillis the long current time in milliseconds
+   */
+  @SuppressWarnings("unchecked")
+  public TimerWheel(final long tickMillis, final int size, final long nowMillis) {
+    final int buckets = Integer.highestOneBit(Math.max(1, size - 1)) << 1;
+    this.tickMillis = tickMillis;
+    this.buckets = new Queue[buckets];
+    for (int index = 0; index < buckets; ++index) {
+      this.buckets[index] = new ConcurrentLinkedQueue<>();
+    }
+    this.mask = buckets - 1;
+    this.currentTick = nowMillis / tickMillis;
+  }
+
+  /**
+   * Schedules {@code element} to expire at {@code deadlineMillis}, or on the next tick
+   * when that has passed. May be called concurrently with {@link #advance(long, Consumer)}.
+   * @param element the T to expire
+   * @param deadlineMillis the long time in milliseconds it expires at
+   */
+  public void schedule(final T element, final long deadlineMillis) {
+    long deadlineTick = Math.max(currentTick + 1, (deadlineMillis + tickMillis - 1) / tickMillis);
+    while (true) {
+      final Timeout<T> timeout = new Timeout<>(element, deadlineTick);
+      final Queue<Timeout<T>> bucket = buckets[(int) (deadlineTick & mask)];
+      bucket.offer(timeout);
+      final long tick = currentTick;
+      // advance may have swept the bucket before the offer; then, unless it expired the
+      // element after all, the element would wait a whole turn, so it takes the next tick
+      if (tick < deadlineTick || !bucket.remove(timeout)) {
+        return;
+      }
+      deadlineTick = tick + 1;
+    }
+  }
+
+  /**
+   * Expires every element whose deadline is at or before {@code nowMillis}.
+   * Must not be called concurrently.
+   * @param nowMillis the long current time in milliseconds
+   * @param expired the {@code Consumer<T>} receiving each expired element
+   */
+  public void advance(final long nowMillis, final Consumer<T> expired) {
+    final long targetTick = nowMillis / tickMillis;
+    long tick = currentTick;
+    final long lastTick = Math.min(targetTick, tick + buckets.length); // one turn visits every bucket
+    while (tick < lastTick) {
+      ++tick;
+      currentTick = tick;
+      final Iterator<Timeout<T>> timeouts = buckets[(int) (tick & mask)].iterator();
+      while (timeouts.hasNext()) {
+        final Timeout<T> timeout = timeouts.next();
+        if (timeout.deadlineTick <= targetTick) {
+          timeouts.remove();
+          expired.accept(timeout.element);
+        }
+      }
+    }
+    currentTick = Math.max(currentTick, targetTick);
+  }
+
+  private static final class Timeout<T> {
+    final T element;
+    final long deadlineTick;
+
+    Timeout(final T element, final long deadlineTick) {
+      this.element = element;
+      this.deadlineTick = deadlineTick;
+    }
+  }
+}
@@ -1,232 +1,274 @@
 package io.vlingo.xoom.lattice.util;
 
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
 import java.lang.ref.WeakReference;
-import java.util.ArrayList;
+import java.util.AbstractQueue;
 import java.util.Collection;
 import java.util.Iterator;
-import java.util.LinkedList;
+import java.util.NoSuchElementException;
 import java.util.Objects;
-import java.util.Optional;
-import java.util.Queue;
-import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.function.Supplier;
-import java.util.stream.Collectors;
-
-public class WeakQueue<T> implements Queue<T> {
-
-  private final AtomicBoolean idle;
-
-  private Queue<WeakReference<T>> delegate;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A FIFO {@code Queue} that holds its elements weakly, so an element that is not
+ * referenced elsewhere is garbage collected and silently skipped.
+ * <p>
+ * Elements are linked in a multi-producer, single-consumer list: {@code offer} is
+ * lock-free and may be called from any thread, while the consuming operations
+ * ({@code poll}, {@code peek}, {@code remove(Object)}) are serialized by a consumer
+ * lock that is uncontended when, as in the grid buffers, one thread drains the queue.
+ * Collected elements are reported through a {@code ReferenceQueue} and accounted for
+ * incrementally, so {@code size} is O(1) and no operation scans the whole queue to
+ * expunge them; their emptied links are dropped as the consumer passes them.
+ *
+ * @param <T> the type of the elements
+ */
+public class WeakQueue<T> extends AbstractQueue<T> {
+
+  private final ReferenceQueue<T> collected;
+  private final AtomicInteger size;
+  private final AtomicReference<Node<T>> tail;
+  private final ReentrantLock consumer;
+
+  private Node<T> head; // guarded by consumer; its element is already taken
 
 
   public WeakQueue() {
-    this(new LinkedList<>());
+    this.collected = new ReferenceQueue<>();
+    this.size = new AtomicInteger();
+    this.head = new Node<>(null, null);
+    this.tail = new AtomicReference<>(head);
+    this.consumer = new ReentrantLock();
   }
 
-  private WeakQueue(Queue<WeakReference<T>> delegate) {
-    this.idle = new AtomicBoolean(true);
-    this.delegate = delegate;
-  }
-
-
-  private Queue<WeakReference<T>> getDelegate() {
-    expungeStaleEntries();
-    return delegate;
-  }
-
-  private void expungeStaleEntries() {
-    delegate.removeIf(weak ->
-        Objects.isNull(weak.get()));
-  }
-
-  private <A> A atomic(Supplier<A> supplier) {
-    try {
-      while (idle.compareAndSet(true, false)) ;
-      return supplier.get();
-    } finally {
-      idle.set(true);
-    }
-  }
-  
-  private T expungeStaleEntryOnSupply(Supplier<WeakReference<T>> supplier) {
-    return Optional.ofNullable(supplier.get())
-        .map(w ->
-            Optional.ofNullable(w.get())
-                .orElseGet(() ->
-                    expungeStaleEntryOnSupply(supplier)))
-        .orElse(null);
-  }
 
   // Queue methods
 
   @Override
-  public boolean add(T t) {
-    Objects.requireNonNull(t, "Null entries not allowed");
-    return atomic(() -> getDelegate().add(
-        new WeakReference<>(t)));
-  }
-
-  @Override
-  public boolean offer(T t) {
+  public boolean offer(final T t) {
     Objects.requireNonNull(t, "Null entries not allowed");
-    return atomic(() -> getDelegate().offer(
-        new WeakReference<>(t)));
-  }
-
-  @Override
-  public T remove() {
-    return atomic(() ->
-        expungeStaleEntryOnSupply(getDelegate()::remove));
+    expungeStaleEntries();
+    final Node<T> node = new Node<>(t, collected);
+    size.incrementAndGet();
+    final Node<T> previous = tail.getAndSet(node);
+    previous.next = node;
+    return true;
   }
 
   @Override
   public T poll() {
-    return atomic(() ->
-        expungeStaleEntryOnSupply(delegate::poll));
-  }
-
-  @Override
-  public T element() {
-    return atomic(() ->
-        expungeStaleEntryOnSupply(delegate::element));
+    consumer.lock();
+    try {
+      Node<T> next;
+      while ((next = head.next) != null) {
+        head = next;
+        final T element = next.get();
+        if (element != null && next.take()) {
+          size.decrementAndGet();
+          next.clear();
+          return element;
+        }
+        if (next.take()) {
+          size.decrementAndGet(); // collected, but not yet reported
+        }
+      }
+      return null;
+    } finally {
+      consumer.unlock();
+    }
   }
 
   @Override
   public T peek() {
-    return atomic(() ->
-        expungeStaleEntryOnSupply(getDelegate()::peek));
+    consumer.lock();
+    try {
+      trimTakenEntries();
+      for (Node<T> node = head.next; node != null; node = node.next) {
+        final T element = node.get();
+        if (element != null && node.isLive()) {
+          return element;
+        }
+      }
+      return null;
+    } finally {
+      consumer.unlock();
+    }
   }
 
   // Collection methods
 
   @Override
   public int size() {
-    return atomic(() -> getDelegate().size());
+    expungeStaleEntries();
+    return Math.max(0, size.get());
   }
 
   @Override
   public boolean isEmpty() {
-    return atomic(() -> getDelegate().isEmpty());
+    return size() == 0;
   }
 
   @Override
-  public boolean contains(Object o) {
-    return atomic(() -> getDelegate().stream()
-        .map(WeakReference::get)
-        .anyMatch(e -> Objects.nonNull(e) && e.equals(o)));
+  public boolean addAll(final Collection<? extends T> c) {
+    c.forEach(Objects::requireNonNull);
+    return super.addAll(c);
   }
 
   @Override
-  public Iterator<T> iterator() {
-    return new ExpungingIterator(delegate.iterator());
+  public boolean remove(final Object o) {
+    if (o == null) {
+      return false;
+    }
+    consumer.lock();
+    try {
+      for (Node<T> node = head.next; node != null; node = node.next) {
+        if (o.equals(node.get()) && node.take()) {
+          size.decrementAndGet();
+          node.clear();
+          trimTakenEntries();
+          return true;
+        }
+      }
+      return false;
+    } finally {
+      consumer.unlock();
+    }
   }
 
   @Override
-  public Object[] toArray() {
-    return atomic(() -> getDelegate().stream()
-        .map(WeakReference::get)
-        .filter(Objects::nonNull)
-        .toArray());
+  public void clear() {
+    while (poll() != null) ;
   }
 
+  /**
+   * Answers a weakly consistent iterator over the elements not yet collected,
+   * in FIFO order.
+   * @return {@code Iterator<T>}
+   */
   @Override
-  public <A> A[] toArray(A[] a) {
-    return atomic(() -> getDelegate().stream()
-        .map(WeakReference::get)
-        .filter(Objects::nonNull)
-        .collect(Collectors.toCollection(ArrayList::new))
-        .toArray(a));
+  public Iterator<T> iterator() {
+    consumer.lock();
+    try {
+      return new LiveIterator(head.next);
+    } finally {
+      consumer.unlock();
+    }
   }
 
-  @Override
-  public boolean remove(Object o) {
-    return atomic(() -> {
-      this.delegate = getDelegate().stream()
-          .filter(w -> !o.equals(w.get()))
-          .collect(Collectors.toCollection(LinkedList::new));
-      return delegate.remove(o);
-    });
-  }
+  // Expunging
 
-  @Override
-  public boolean containsAll(Collection<?> c) {
-    // TODO unwrap
-    return delegate.containsAll(c);
+  @SuppressWarnings("unchecked")
+  private void expungeStaleEntries() {
+    boolean expunged = false;
+    Reference<? extends T> reference;
+    while ((reference = collected.poll()) != null) {
+      if (((Node<T>) reference).take()) {
+        size.decrementAndGet();
+      }
+      expunged = true;
+    }
+    if (expunged && consumer.tryLock()) {
+      try {
+        trimTakenEntries();
+      } finally {
+        consumer.unlock();
+      }
+    }
   }
 
-  public boolean addAll(Collection<? extends T> c) {
-    c.forEach(Objects::requireNonNull);
-    return atomic(() -> getDelegate().addAll(c.stream()
-        .map(t -> new WeakReference<T>(t))
-        .collect(Collectors.toCollection(ArrayList::new))
-    ));
+  /**
+   * Drops the taken and collected links at the head. Requires the consumer lock.
+   */
+  private void trimTakenEntries() {
+    Node<T> next;
+    while ((next = head.next) != null && (!next.isLive() || next.get() == null)) {
+      if (next.take()) {
+        size.decrementAndGet();
+      }
+      head = next;
+    }
   }
 
-  @Override
-  public boolean removeAll(Collection<?> c) {
-    // TODO unwrap
-    return delegate.removeAll(c);
-  }
+  // Link
 
-  @Override
-  public boolean retainAll(Collection<?> c) {
-    // TODO unwrap
-    return delegate.retainAll(c);
-  }
+  private static final class Node<T> extends WeakReference<T> {
+    @SuppressWarnings("rawtypes")
+    private static final AtomicIntegerFieldUpdater<Node> Taken =
+        AtomicIntegerFieldUpdater.newUpdater(Node.class, "taken");
 
-  @Override
-  public void clear() {
-    // TODO sync
-    delegate.clear();
-  }
+    volatile Node<T> next;
+    private volatile int taken;
 
-  @Override
-  public boolean equals(Object o) {
-    // TODO sync? identity?
-    return delegate.equals(o);
-  }
+    Node(final T element, final ReferenceQueue<? super T> queue) {
+      super(element, queue);
+    }
 
-  @Override
-  public int hashCode() {
-    // TODO sync? identity?
-    return delegate.hashCode();
+    boolean isLive() {
+      return taken == 0;
+    }
+
+    /**
+     * Answers whether this call took the element, which it does only once,
+     * whether by the consumer, by removal or on collection.
+     * @return boolean
+     */
+    boolean take() {
+      return taken == 0 && Taken.compareAndSet(this, 0, 1);
+    }
   }
 
   // Iterator
 
-  private class ExpungingIterator implements Iterator<T> {
-
-    private final Iterator<WeakReference<T>> iterator;
+  private class LiveIterator implements Iterator<T> {
 
-    private T next;
+    private Node<T> node;
+    private Node<T> nextNode;
+    private T nextElement;
+    private Node<T> lastNode;
 
-    private ExpungingIterator(Iterator<WeakReference<T>> iterator) {
-      this.iterator = iterator;
-    }
-
-    private WeakReference<T> iterate() {
-      if (iterator.hasNext()) {
-        return iterator.next();
-      }
-      else {
-        return null;
-      }
+    private LiveIterator(final Node<T> first) {
+      this.node = first;
     }
 
     @Override
     public boolean hasNext() {
-      next = expungeStaleEntryOnSupply(this::iterate);
-      return next != null;
+      while (nextElement == null && node != null) {
+        final T element = node.get();
+        if (element != null && node.isLive()) {
+          nextNode = node;
+          nextElement = element;
+        }
+        node = node.next;
+      }
+      return nextElement != null;
     }
 
     @Override
     public T next() {
-      return next;
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      final T element = nextElement;
+      lastNode = nextNode;
+      nextElement = null;
+      nextNode = null;
+      return element;
     }
 
     @Override
     public void remove() {
-      iterator.remove();
+      if (lastNode == null) {
+        throw new IllegalStateException();
+      }
+      if (lastNode.take()) {
+        size.decrementAndGet();
+        lastNode.clear();
+      }
+      lastNode = null;
     }
   }
 }
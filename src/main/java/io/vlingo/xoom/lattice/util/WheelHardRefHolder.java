@@ -0,0 +1,83 @@
+// Copyright © 2012-2023 VLINGO LABS. All rights reserved.
+//
+// This Source Code Form is subject to the terms of the
+// Mozilla Public License, v. 2.0. If a copy of the MPL
+// was not distributed with this file, You can obtain
+// one at https://mozilla.org/MPL/2.0/.
+
+package io.vlingo.xoom.lattice.util;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.LongSupplier;
+
+import io.vlingo.xoom.common.Scheduled;
+
+/**
+ * Holds hard references for at least {@code timeoutMillis} in a hashed wheel of
+ * {@code tickMillis} buckets. Any thread may {@link #holdOnTo(Object)} directly, at
+ * the cost of one lock-free queue insert; a {@code Scheduler} drives
+ * {@link #intervalSignal(Scheduled, Object)} every tick to release all references of
+ * each expired bucket at once. No per-reference deadline is kept, so a reference is
+ * held between {@code timeoutMillis} and {@code timeoutMillis + tickMillis}.
+ */
+public final class WheelHardRefHolder implements HardRefHolder, Scheduled<Object> {
+  private final long tickMillis;
+  private final long timeoutTicks;
+  private final LongSupplier clock;
+  private final Queue<Object>[] buckets;
+  private final int mask;
+  private long sweptTick;
+
+  public WheelHardRefHolder(final long timeoutMillis, final long tickMillis) {
+    this(timeoutMillis, tickMillis, System::currentTimeMillis);
+  }
+
+  @SuppressWarnings("unchecked")
+  WheelHardRefHolder(final long timeoutMillis, final long tickMillis, final LongSupplier clock) {
+    this.tickMillis = tickMillis;
+    this.timeoutTicks = (timeoutMillis + tickMillis - 1) / tickMillis;
+    this.clock = clock;
+    // two spare buckets keep the bucket being filled apart from the one being swept
+    final int size = Integer.highestOneBit((int) (timeoutTicks + 1)) << 1;
+    this.buckets = new Queue[size];
+    for (int index = 0; index < size; ++index) {
+      this.buckets[index] = new ConcurrentLinkedQueue<>();
+    }
+    this.mask = size - 1;
+    this.sweptTick = clock.getAsLong() / tickMillis;
+  }
+
+  @Override
+  public void holdOnTo(final Object object) {
+    final long tick = clock.getAsLong() / tickMillis;
+    buckets[(int) ((tick + timeoutTicks + 1) & mask)].offer(object);
+  }
+
+  /**
+   * Releases the references of every bucket whose timeout has passed.
+   * Must not be called concurrently.
+   */
+  @Override
+  public void intervalSignal(final Scheduled<Object> scheduled, final Object data) {
+    final long tick = clock.getAsLong() / tickMillis;
+    final long lastTick = Math.min(tick, sweptTick + buckets.length); // one turn visits every bucket
+    while (sweptTick < lastTick) {
+      ++sweptTick;
+      buckets[(int) (sweptTick & mask)].clear();
+    }
+    sweptTick = Math.max(sweptTick, tick);
+  }
+
+  /**
+   * Answers the number of references held, in O(buckets + references); for tests and monitoring.
+   * @return int
+   */
+  public int size() {
+    int size = 0;
+    for (final Queue<Object> bucket : buckets) {
+      size += bucket.size();
+    }
+    return size;
+  }
+}
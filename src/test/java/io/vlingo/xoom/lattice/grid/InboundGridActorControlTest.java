@@ -0,0 +1,414 @@
+// Copyright © 2012-2023 VLINGO LABS. All rights reserved.
+//
+// This Source Code Form is subject to the terms of the
+// Mozilla Public License, v. 2.0. If a copy of the MPL
+// was not distributed with this file, You can obtain
+// one at https://mozilla.org/MPL/2.0/.
+
+package io.vlingo.xoom.lattice.grid;
+
+import java.lang.reflect.Proxy;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import io.vlingo.xoom.actors.Actor;
+import io.vlingo.xoom.actors.Address;
+import io.vlingo.xoom.actors.Configuration;
+import io.vlingo.xoom.actors.Definition;
+import io.vlingo.xoom.actors.Returns;
+import io.vlingo.xoom.actors.Stage;
+import io.vlingo.xoom.actors.Stoppable;
+import io.vlingo.xoom.actors.World;
+import io.vlingo.xoom.actors.plugin.logging.slf4j.Slf4jLoggerPlugin;
+import io.vlingo.xoom.actors.testkit.AccessSafely;
+import io.vlingo.xoom.actors.testkit.TestWorld;
+import io.vlingo.xoom.cluster.StaticClusterConfiguration;
+import io.vlingo.xoom.lattice.grid.InboundGridActorControl.InboundGridActorControlInstantiator;
+import io.vlingo.xoom.lattice.grid.application.CorrelationTable;
+import io.vlingo.xoom.lattice.grid.application.GridActorControl;
+import io.vlingo.xoom.lattice.grid.application.QuorumObserver;
+import io.vlingo.xoom.lattice.grid.application.Redirects;
+import io.vlingo.xoom.lattice.grid.application.message.Answer;
+import io.vlingo.xoom.lattice.grid.application.message.UnAckMessage;
+import io.vlingo.xoom.lattice.grid.hashring.HashRing;
+import io.vlingo.xoom.lattice.grid.hashring.LoadPlacement;
+import io.vlingo.xoom.wire.node.Id;
+import io.vlingo.xoom.wire.node.Node;
+
+public class InboundGridActorControlTest {
+  private static final Id Sender = Id.of(2);
+
+  private Grid grid;
+  private CorrelationTable correlations;
+  private GridActorControl.Inbound inbound;
+  private List<Address> requested; // the addresses whose definition was requested from Sender
+  private CountingGridRuntime runtime;
+  private World world;
+  private TestWorld testWorld;
+
+  @Test
+  public void testThatRepeatedDeliveriesSkipTheDefinition() throws Exception {
+    final Address address = grid.addressFactory().unique();
+    final AccessSafely access = countingAccess(3);
+    final Definition.SerializationProxy definition = definitionOf(access);
+
+    deliver(address, definition);
+    deliver(address, definition);
+    deliver(address, definition);
+
+    Assert.assertEquals(3, (int) access.readFrom("count"));
+    processed();
+    Assert.assertEquals(1, runtime.stages.get());
+  }
+
+  @Test
+  public void testThatAStoppedActorIsResolvedAgain() throws Exception {
+    final Address address = grid.addressFactory().unique();
+    final AccessSafely access = countingAccess(1);
+    final Definition.SerializationProxy definition = definitionOf(access);
+
+    deliver(address, definition);
+    Assert.assertEquals(1, (int) access.readFrom("count"));
+    processed();
+
+    final Actor stopped = grid.actorAt(address);
+    inbound.gridDeliver(Id.of(1), Sender, null, Counter.class, address, definition, Counter::stop, "stop()");
+    for (int wait = 0; !stopped.isStopped() && wait < 200; ++wait) {
+      Thread.sleep(10);
+    }
+    Assert.assertTrue(stopped.isStopped());
+
+    deliver(address, definition);
+    processed();
+    Assert.assertEquals(2, runtime.stages.get());
+  }
+
+  @Test
+  public void testThatAnActorSuspendedForRelocationIsResolvedAgain() throws Exception {
+    final Address address = grid.addressFactory().unique();
+    final AccessSafely access = countingAccess(2);
+    final Definition.SerializationProxy definition = definitionOf(access);
+
+    deliver(address, definition);
+    processed();
+
+    GridActorOperations.suspendForRelocation(grid.actorAt(address));
+
+    deliver(address, definition);
+    processed();
+    Assert.assertEquals(2, runtime.stages.get());
+    Assert.assertEquals(2, (int) access.readFrom("count")); // resumed on demand
+  }
+
+  @Test
+  public void testThatARelocatedActorIsResolvedAgain() throws Exception {
+    final Address address = grid.addressFactory().unique();
+    final AccessSafely access = countingAccess(2);
+    final Definition.SerializationProxy definition = definitionOf(access);
+
+    deliver(address, definition);
+    processed();
+
+    inbound.relocate(Id.of(1), Sender, definition, address, null, Collections.emptyList());
+    deliver(address, definition);
+    processed();
+
+    Assert.assertEquals(3, runtime.stages.get()); // the first delivery, the relocation and the delivery after it
+    Assert.assertEquals(2, (int) access.readFrom("count"));
+  }
+
+  @Test
+  public void testThatAMissingDefinitionIsRequestedOnce() throws Exception {
+    final Address address = grid.addressFactory().unique();
+    final AccessSafely access = countingAccess(2);
+
+    deliver(address, null);
+    deliver(address, null);
+    processed();
+
+    Assert.assertEquals(Collections.singletonList(address), requested);
+    Assert.assertNull(grid.actorAt(address));
+
+    inbound.definitionReceived(Sender, address, definitionOf(access));
+
+    Assert.assertEquals(2, (int) access.readFrom("count")); // both unparked
+    Assert.assertEquals(1, requested.size());
+  }
+
+  @Test
+  public void testThatADeliveryWithTheDefinitionUnparks() throws Exception {
+    final Address address = grid.addressFactory().unique();
+    final AccessSafely access = countingAccess(2);
+
+    deliver(address, null);
+    deliver(address, definitionOf(access));
+
+    Assert.assertEquals(2, (int) access.readFrom("count"));
+    processed();
+    Assert.assertEquals(1, requested.size());
+  }
+
+  @Test
+  public void testThatAParkedDeliveryExpires() throws Exception {
+    final Properties properties = new Properties();
+    properties.setProperty("grid.ask.timeout", "100");
+    inbound = inboundOf(GridProperties.from(properties));
+    final Address address = grid.addressFactory().unique();
+    final CompletableFuture<Object> answer = new CompletableFuture<>();
+
+    inbound.gridDeliver(Id.of(1), Sender, Returns.value(answer), Counter.class, address, null, Counter::count, "count()");
+
+    Assert.assertTrue(failureOf(answer) instanceof TimeoutException);
+
+    inbound.definitionReceived(Sender, address, definitionOf(countingAccess(1)));
+    processed();
+    Assert.assertNull(grid.actorAt(address)); // nothing left to deliver
+  }
+
+  @Test
+  public void testThatParkedDeliveriesFailWhenTheRequestedNodeLeaves() throws Exception {
+    final Address address = grid.addressFactory().unique();
+    final CompletableFuture<Object> answer = new CompletableFuture<>();
+
+    inbound.gridDeliver(Id.of(1), Sender, Returns.value(answer), Counter.class, address, null, Counter::count, "count()");
+    inbound.nodeLeft(Id.of(3));
+    processed();
+    Assert.assertFalse(answer.isDone());
+
+    inbound.nodeLeft(Sender);
+
+    Assert.assertTrue(failureOf(answer) instanceof IllegalStateException);
+  }
+
+  @Before
+  public void setUp() throws Exception {
+    Configuration configuration =
+            Configuration
+              .define()
+              .with(Slf4jLoggerPlugin
+                      .Slf4jLoggerPluginConfiguration
+                      .define()
+                      .defaultLogger()
+                      .name("xoom-actors"));
+
+    testWorld = TestWorld.start("test", configuration);
+    world = testWorld.world();
+
+    StaticClusterConfiguration staticConfiguration = StaticClusterConfiguration.oneNode();
+
+    grid = Grid.start(world, staticConfiguration.properties, staticConfiguration.propertiesOf(0));
+    grid.quorumAchieved();
+
+    requested = new CopyOnWriteArrayList<>();
+    grid.setOutbound((GridActorControl.Outbound) Proxy.newProxyInstance(
+            GridActorControl.Outbound.class.getClassLoader(),
+            new Class<?>[] { GridActorControl.Outbound.class },
+            (proxy, method, args) -> {
+              if (method.getName().equals("requestDefinition") && Sender.equals(args[0])) {
+                requested.add((Address) args[1]);
+              }
+              return null;
+            }));
+
+    inbound = inboundOf(grid.gridProperties());
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    testWorld.terminate();
+  }
+
+  private GridActorControl.Inbound inboundOf(final GridProperties properties) {
+    runtime = new CountingGridRuntime(grid, properties);
+    correlations = new CorrelationTable(30000, 100);
+    return world.stage().actorFor(
+            GridActorControl.Inbound.class,
+            InboundGridActorControl.class,
+            new InboundGridActorControlInstantiator(runtime, correlations));
+  }
+
+  private void deliver(final Address address, final Definition.SerializationProxy definition) {
+    inbound.gridDeliver(Id.of(1), Sender, null, Counter.class, address, definition, Counter::count, "count()");
+  }
+
+  /**
+   * Waits until {@code inbound} has processed the messages sent to it before.
+   */
+  private void processed() throws Exception {
+    final long correlationId = correlations.nextId();
+    final CompletableFuture<Object> barrier = new CompletableFuture<>();
+    correlations.put(correlationId, new UnAckMessage(Sender, Returns.value(barrier), null));
+    // answered with an error, which completes the barrier without resolving the stage
+    inbound.answer(Id.of(1), Sender, new Answer<>(correlationId, (Throwable) new IllegalStateException("processed")));
+    Assert.assertNotNull(barrier.handle((result, error) -> error).get(5, TimeUnit.SECONDS));
+  }
+
+  private static Throwable failureOf(final CompletableFuture<Object> answer) throws Exception {
+    try {
+      answer.get(5, TimeUnit.SECONDS);
+      throw new AssertionError("Expected a failed answer");
+    } catch (final ExecutionException e) {
+      return e.getCause();
+    }
+  }
+
+  private static AccessSafely countingAccess(final int times) {
+    final AtomicInteger count = new AtomicInteger(0);
+    final AccessSafely access = AccessSafely.afterCompleting(times);
+    access.writingWith("count", (Integer increment) -> count.addAndGet(increment));
+    access.readingWith("count", count::get);
+    return access;
+  }
+
+  private static Definition.SerializationProxy definitionOf(final AccessSafely access) {
+    return Definition.SerializationProxy.from(Definition.has(CounterActor.class, Definition.parameters(access)));
+  }
+
+  public interface Counter extends Stoppable {
+    void count();
+  }
+
+  public static class CounterActor extends Actor implements Counter {
+    private final AccessSafely access;
+
+    public CounterActor(final AccessSafely access) {
+      this.access = access;
+    }
+
+    @Override
+    public void count() {
+      access.writeUsing("count", 1);
+    }
+  }
+
+  /**
+   * A GridRuntime of {@code grid}, with {@code properties}, counting the times its stage
+   * is asked for, which the inbound control does whenever it resolves the definition of
+   * an actor or requests it.
+   */
+  private static class CountingGridRuntime implements GridRuntime {
+    final AtomicInteger stages = new AtomicInteger(0);
+    private final Grid grid;
+    private final GridProperties properties;
+
+    CountingGridRuntime(final Grid grid, final GridProperties properties) {
+      this.grid = grid;
+      this.properties = properties;
+    }
+
+    @Override
+    public Actor actorAt(final Address address) {
+      return grid.actorAt(address);
+    }
+
+    @Override
+    public Stage asStage() {
+      stages.incrementAndGet();
+      return grid;
+    }
+
+    @Override
+    public void relocateActors() {
+      grid.relocateActors();
+    }
+
+    @Override
+    public GridNodeBootstrap gridNodeBootstrap() {
+      return grid.gridNodeBootstrap();
+    }
+
+    @Override
+    public GridProperties gridProperties() {
+      return properties;
+    }
+
+    @Override
+    public HashRing<Id> hashRing() {
+      return grid.hashRing();
+    }
+
+    @Override
+    public Redirects redirects() {
+      return grid.redirects();
+    }
+
+    @Override
+    public void nodeJoined(final Id newNode) {
+      grid.nodeJoined(newNode);
+    }
+
+    @Override
+    public void nodeLoads(final Id node, final Map<Id, Long> loads) {
+      grid.nodeLoads(node, loads);
+    }
+
+    @Override
+    public Map<Id, Long> localLoads() {
+      return grid.localLoads();
+    }
+
+    @Override
+    public LoadPlacement<Id> nextPlacement() {
+      return grid.nextPlacement();
+    }
+
+    @Override
+    public void placement(final LoadPlacement<Id> placement) {
+      grid.placement(placement);
+    }
+
+    @Override
+    public void informAllLiveNodes(final Collection<Node> liveNodes) {
+      grid.informAllLiveNodes(liveNodes);
+    }
+
+    @Override
+    public QuorumObserver quorumObserver() {
+      return grid.quorumObserver();
+    }
+
+    @Override
+    public void setNodeId(final Id nodeId) {
+      grid.setNodeId(nodeId);
+    }
+
+    @Override
+    public void setOutbound(final GridActorControl.Outbound outbound) {
+      grid.setOutbound(outbound);
+    }
+
+    @Override
+    public World world() {
+      return grid.world();
+    }
+
+    @Override
+    public ClassLoader worldClassLoader() {
+      return grid.worldClassLoader();
+    }
+
+    @Override
+    public void quorumAchieved() {
+      grid.quorumAchieved();
+    }
+
+    @Override
+    public void quorumLost() {
+      grid.quorumLost();
+    }
+  }
+}
@@ -0,0 +1,123 @@
+// Copyright © 2012-2023 VLINGO LABS. All rights reserved.
+//
+// This Source Code Form is subject to the terms of the
+// Mozilla Public License, v. 2.0. If a copy of the MPL
+// was not distributed with this file, You can obtain
+// one at https://mozilla.org/MPL/2.0/.
+
+package io.vlingo.xoom.lattice.grid.application;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+
+import io.vlingo.xoom.actors.Returns;
+import io.vlingo.xoom.lattice.grid.application.message.GridDeliver;
+import io.vlingo.xoom.lattice.grid.application.message.Message;
+import io.vlingo.xoom.lattice.grid.application.message.UnAckMessage;
+import io.vlingo.xoom.wire.node.Id;
+
+public class CorrelationTableTest {
+  private final AtomicLong now = new AtomicLong(0);
+  private final CorrelationTable table = new CorrelationTable(1000, 100, now::get);
+
+  @Test
+  public void testThatIdsAreUniqueAndNeverNone() {
+    final long first = table.nextId();
+    final long second = table.nextId();
+    assertNotEquals(first, second);
+    assertNotEquals(Message.NoCorrelationId, first);
+    assertNotEquals(Message.NoCorrelationId, second);
+  }
+
+  @Test
+  public void testThatAnsweredMessageIsRemoved() {
+    final long id = table.nextId();
+    final UnAckMessage message = unAck(Id.of(2), new CompletableFuture<>(), true);
+    table.put(id, message);
+
+    assertSame(message, table.remove(id));
+    assertNull(table.remove(id));
+    assertEquals(0, table.size());
+  }
+
+  @Test
+  public void testThatUnansweredMessageTimesOut() {
+    final CompletableFuture<Object> future = new CompletableFuture<>();
+    final long id = table.nextId();
+    table.put(id, unAck(Id.of(2), future, true));
+
+    now.set(900);
+    table.intervalSignal(null, null);
+    assertFalse(future.isDone());
+
+    now.set(1100);
+    table.intervalSignal(null, null);
+    assertTrue(future.isCompletedExceptionally());
+    assertNull(table.remove(id));
+    try {
+      future.get();
+    } catch (InterruptedException | ExecutionException e) {
+      assertTrue(e.getCause() instanceof TimeoutException);
+    }
+  }
+
+  @Test
+  public void testThatRemainingTimeCountsFromThePut() {
+    now.set(200);
+    final long id = table.nextId();
+    table.put(id, unAck(Id.of(2), new CompletableFuture<>(), true));
+
+    now.set(500);
+    assertEquals(700, table.remainingMillis(id));
+
+    now.set(1300);
+    assertEquals(0, table.remainingMillis(id));
+
+    table.remove(id);
+    now.set(500);
+    assertEquals(0, table.remainingMillis(id)); // no longer waiting
+  }
+
+  @Test
+  public void testThatAnsweredMessageDoesNotTimeOut() {
+    final CompletableFuture<Object> future = new CompletableFuture<>();
+    final long id = table.nextId();
+    table.put(id, unAck(Id.of(2), future, true));
+    table.remove(id);
+
+    now.set(5000);
+    table.intervalSignal(null, null);
+    assertFalse(future.isDone());
+  }
+
+  @Test
+  public void testThatRetriableMessagesAreRemovedPerRecipient() {
+    table.put(table.nextId(), unAck(Id.of(2), new CompletableFuture<>(), true));
+    table.put(table.nextId(), unAck(Id.of(2), new CompletableFuture<>(), false));
+    table.put(table.nextId(), unAck(Id.of(3), new CompletableFuture<>(), true));
+
+    final List<UnAckMessage> retriable = table.removeRetriable(Id.of(2));
+    assertEquals(1, retriable.size());
+    assertEquals(Id.of(2), retriable.get(0).getReceiver());
+    assertEquals(2, table.size());
+    assertTrue(table.removeRetriable(Id.of(2)).isEmpty());
+    assertTrue(table.removeRetriable(Id.of(4)).isEmpty());
+  }
+
+  private UnAckMessage unAck(final Id recipient, final CompletableFuture<Object> future, final boolean retriable) {
+    final GridDeliver<Runnable> message = retriable ? new GridDeliver<>(Runnable.class, null, null, null, "run()") : null;
+    return new UnAckMessage(recipient, Returns.value(future), message);
+  }
+}
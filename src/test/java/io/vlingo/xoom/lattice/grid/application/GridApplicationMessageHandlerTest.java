@@ -0,0 +1,169 @@
+// Copyright © 2012-2023 VLINGO LABS. All rights reserved.
+//
+// This Source Code Form is subject to the terms of the
+// Mozilla Public License, v. 2.0. If a copy of the MPL
+// was not distributed with this file, You can obtain
+// one at https://mozilla.org/MPL/2.0/.
+
+package io.vlingo.xoom.lattice.grid.application;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BiConsumer;
+
+import org.junit.Test;
+import org.nustaq.serialization.FSTConfiguration;
+
+import io.vlingo.xoom.actors.Address;
+import io.vlingo.xoom.common.Scheduler;
+import io.vlingo.xoom.lattice.grid.GridAddress;
+import io.vlingo.xoom.lattice.grid.GridProperties;
+import io.vlingo.xoom.lattice.grid.application.message.Answer;
+import io.vlingo.xoom.lattice.grid.application.message.GridDeliver;
+import io.vlingo.xoom.lattice.grid.application.message.Message;
+import io.vlingo.xoom.lattice.grid.application.message.serialization.CompactDecoder;
+import io.vlingo.xoom.lattice.grid.application.message.serialization.CompactDictionary;
+import io.vlingo.xoom.lattice.grid.application.message.serialization.CompactEncoder;
+import io.vlingo.xoom.lattice.grid.hashring.HashRing;
+import io.vlingo.xoom.lattice.grid.hashring.RendezvousHashRing;
+import io.vlingo.xoom.wire.node.Id;
+
+public class GridApplicationMessageHandlerTest {
+  private static final Id Local = Id.of(1);
+  private static final Id Sender = Id.of(2);
+
+  private final FSTConfiguration conf = FSTConfiguration.createDefaultConfiguration();
+  private final CompactDictionary dictionary = new CompactDictionary(getClass().getClassLoader());
+  private final CompactEncoder encoder = new CompactEncoder(dictionary, conf);
+
+  private final List<String> dispatched = new CopyOnWriteArrayList<>(); // the inbound control methods called
+  private final List<Object[]> sent = new CopyOnWriteArrayList<>(); // the outbound control method names and arguments
+
+  @Test
+  public void testThatAnExpiredDeliveryIsAnsweredAndNotDispatched() throws Exception {
+    final GridApplicationMessageHandler handler = handlerOf(new RendezvousHashRing<>(), new Properties());
+    final Address address = GridAddress.from(UUID.randomUUID(), "expiring");
+
+    handler.handle(MessageBatch.single(Sender, frameOf(
+            new GridDeliver<>(Runnable.class, address, null, null, 7L, "run()", 1))));
+    Thread.sleep(20); // waits unhealthy, beyond its time to live
+    handler.informClusterIsHealthy(true);
+
+    assertTrue(dispatched.isEmpty());
+    assertEquals(1, sent.size());
+    assertEquals("answer", sent.get(0)[0]);
+    final Answer<?> answer = (Answer<?>) sent.get(0)[3];
+    assertEquals(7L, answer.correlationId);
+    assertTrue(answer.error instanceof TimeoutException);
+  }
+
+  @Test
+  public void testThatForwardedDeliveriesRedirectTheSenderOnce() {
+    final Id owner = Id.of(3);
+    final HashRing<Id> hashRing = new RendezvousHashRing<Id>().includeNode(Local).includeNode(owner);
+    final GridApplicationMessageHandler handler = handlerOf(hashRing, new Properties());
+    handler.informClusterIsHealthy(true);
+
+    Address address;
+    do {
+      address = GridAddress.from(UUID.randomUUID(), "forwarded");
+    } while (!owner.equals(hashRing.nodeOf(address.idTyped())));
+
+    final int deliveries = 5;
+    for (int delivery = 0; delivery < deliveries; ++delivery) {
+      handler.handle(MessageBatch.single(Sender, frameOf(
+              new GridDeliver<>(Runnable.class, address, null, null, "run()"))));
+    }
+
+    assertTrue(dispatched.isEmpty());
+    assertEquals(deliveries, count("forward"));
+    assertEquals(1, count("redirect"));
+    final Object[] redirect = sent.stream().filter(call -> call[0].equals("redirect")).findFirst().get();
+    assertEquals(Sender, redirect[1]);
+    assertEquals(address, redirect[2]);
+    assertEquals(owner, redirect[3]);
+  }
+
+  @Test
+  public void testThatDeliveriesOfOneAddressGoToOneInboundControl() {
+    final Map<Address, Set<Integer>> controlsOf = new ConcurrentHashMap<>();
+    final GridActorControl.Inbound[] controls = new GridActorControl.Inbound[4];
+    for (int index = 0; index < controls.length; ++index) {
+      final int control = index;
+      controls[index] = recording(GridActorControl.Inbound.class, (name, args) ->
+              controlsOf.computeIfAbsent((Address) args[4], address -> ConcurrentHashMap.newKeySet()).add(control));
+    }
+    final GridApplicationMessageHandler handler = new GridApplicationMessageHandler(Local, new RendezvousHashRing<>(),
+            new InboundControls(controls), controls[0], recording(GridActorControl.Outbound.class, (name, args) -> { }),
+            new CompactDecoder(dictionary, conf), null, new Scheduler(), InboundCredits.disabled(),
+            GridProperties.defaults(), Redirects.disabled());
+    handler.informClusterIsHealthy(true);
+
+    for (int addresses = 0; addresses < 32; ++addresses) {
+      final Address address = GridAddress.from(UUID.randomUUID(), "striped");
+      for (int delivery = 0; delivery < 3; ++delivery) {
+        handler.handle(MessageBatch.single(Sender, frameOf(
+                new GridDeliver<>(Runnable.class, address, null, null, "run()"))));
+      }
+    }
+
+    assertEquals(32, controlsOf.size());
+    controlsOf.values().forEach(used -> assertEquals(1, used.size()));
+    assertTrue(controlsOf.values().stream().flatMap(Set::stream).distinct().count() > 1);
+  }
+
+  @Test
+  public void testThatTheAnswerTimeoutIsDerivedFromTheDeadline() {
+    assertEquals(300, GridApplicationMessageHandler.answerTimeoutOf(1300, 1000));
+    assertEquals(1, GridApplicationMessageHandler.answerTimeoutOf(900, 1000)); // awaited briefly once due
+    assertEquals(4000, GridApplicationMessageHandler.answerTimeoutOf(0, 1000)); // without a time to live
+  }
+
+  private GridApplicationMessageHandler handlerOf(final HashRing<Id> hashRing, final Properties properties) {
+    final GridActorControl.Inbound inbound = recording(GridActorControl.Inbound.class,
+            (name, args) -> dispatched.add(name));
+    final GridActorControl.Outbound outbound = recording(GridActorControl.Outbound.class,
+            (name, args) -> sent.add(withName(name, args)));
+
+    return new GridApplicationMessageHandler(Local, hashRing, inbound, inbound, outbound,
+            new CompactDecoder(dictionary, conf), null, new Scheduler(), InboundCredits.disabled(),
+            GridProperties.from(properties), Redirects.disabled());
+  }
+
+  private long count(final String name) {
+    return sent.stream().filter(call -> call[0].equals(name)).count();
+  }
+
+  private ByteBuffer frameOf(final Message message) {
+    final ByteBuffer buffer = ByteBuffer.allocate(4096);
+    encoder.encode(message, buffer);
+    buffer.flip();
+    return buffer;
+  }
+
+  private static Object[] withName(final String name, final Object[] args) {
+    final Object[] named = new Object[args.length + 1];
+    named[0] = name;
+    System.arraycopy(args, 0, named, 1, args.length);
+    return named;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <T> T recording(final Class<T> protocol, final BiConsumer<String, Object[]> calls) {
+    return (T) Proxy.newProxyInstance(protocol.getClassLoader(), new Class<?>[] { protocol }, (proxy, method, args) -> {
+      calls.accept(method.getName(), args == null ? new Object[0] : args);
+      return null;
+    });
+  }
+}
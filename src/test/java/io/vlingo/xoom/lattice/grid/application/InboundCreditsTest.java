@@ -0,0 +1,89 @@
+// Copyright © 2012-2023 VLINGO LABS. All rights reserved.
+//
+// This Source Code Form is subject to the terms of the
+// Mozilla Public License, v. 2.0. If a copy of the MPL
+// was not distributed with this file, You can obtain
+// one at https://mozilla.org/MPL/2.0/.
+
+package io.vlingo.xoom.lattice.grid.application;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import io.vlingo.xoom.wire.node.Id;
+
+public class InboundCreditsTest {
+  private static final Id First = Id.of(1);
+  private static final Id Second = Id.of(2);
+
+  private final List<String> grants = new ArrayList<>();
+
+  @Test
+  public void testThatCreditsAreGrantedInHalfWindows() {
+    final InboundCredits credits = new InboundCredits(8, 100, this::granted);
+    for (int count = 0; count < 10; ++count) {
+      credits.received(First);
+    }
+    assertEquals(Arrays.asList("1:4", "1:4"), grants);
+  }
+
+  @Test
+  public void testThatCreditsAreWithheldWhileInboundIsDeep() {
+    final InboundCredits credits = new InboundCredits(4, 4, this::granted);
+    for (int count = 0; count < 5; ++count) {
+      credits.dispatched();
+    }
+    for (int count = 0; count < 3; ++count) {
+      credits.received(First);
+    }
+    credits.received(Second);
+    assertTrue(grants.isEmpty());
+
+    credits.processed();
+    credits.processed();
+    assertTrue(grants.isEmpty());
+
+    credits.processed();
+    assertEquals(2, credits.depth());
+    assertEquals(2, grants.size());
+    assertTrue(grants.contains("1:3"));
+    assertTrue(grants.contains("2:1"));
+
+    credits.received(First);
+    credits.received(First);
+    assertEquals("1:2", grants.get(2));
+  }
+
+  @Test
+  public void testThatResetForgetsOwedCredits() {
+    final InboundCredits credits = new InboundCredits(8, 100, this::granted);
+    for (int count = 0; count < 3; ++count) {
+      credits.received(First);
+    }
+    credits.reset();
+    for (int count = 0; count < 4; ++count) {
+      credits.received(First);
+    }
+    assertEquals(Arrays.asList("1:4"), grants);
+  }
+
+  @Test
+  public void testThatDisabledCreditsGrantNothing() {
+    final InboundCredits credits = InboundCredits.disabled();
+    for (int count = 0; count < 10; ++count) {
+      credits.dispatched();
+      credits.received(First);
+    }
+    assertEquals(0, credits.depth());
+  }
+
+  private void granted(final Id sender, final int credits) {
+    grants.add(sender.value() + ":" + credits);
+  }
+}
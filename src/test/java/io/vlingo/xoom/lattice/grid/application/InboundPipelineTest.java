@@ -0,0 +1,186 @@
+// Copyright © 2012-2023 VLINGO LABS. All rights reserved.
+//
+// This Source Code Form is subject to the terms of the
+// Mozilla Public License, v. 2.0. If a copy of the MPL
+// was not distributed with this file, You can obtain
+// one at https://mozilla.org/MPL/2.0/.
+
+package io.vlingo.xoom.lattice.grid.application;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.nustaq.serialization.FSTConfiguration;
+
+import io.vlingo.xoom.actors.Address;
+import io.vlingo.xoom.lattice.grid.GridAddress;
+import io.vlingo.xoom.lattice.grid.application.message.Decoder;
+import io.vlingo.xoom.lattice.grid.application.message.GridDeliver;
+import io.vlingo.xoom.lattice.grid.application.message.Lane;
+import io.vlingo.xoom.lattice.grid.application.message.Message;
+import io.vlingo.xoom.lattice.grid.application.message.Relocate;
+import io.vlingo.xoom.lattice.grid.application.message.RelocateBatch;
+import io.vlingo.xoom.lattice.grid.application.message.serialization.CompactDecoder;
+import io.vlingo.xoom.lattice.grid.application.message.serialization.CompactDictionary;
+import io.vlingo.xoom.lattice.grid.application.message.serialization.CompactEncoder;
+import io.vlingo.xoom.wire.node.Id;
+
+public class InboundPipelineTest {
+  private static final Id Sender = Id.of(1);
+
+  @Test
+  public void testThatEachStripeIsHandledInOrder() throws InterruptedException {
+    final int stripes = 16;
+    final int perStripe = 1000;
+    final CountDownLatch handled = new CountDownLatch(stripes * perStripe);
+    final Map<Integer, List<Integer>> byStripe = new ConcurrentHashMap<>();
+    final Set<String> threads = ConcurrentHashMap.newKeySet();
+
+    final InboundPipeline pipeline = new InboundPipeline("test-inbound", 4, 64, (sender, payload) -> {
+      byStripe.computeIfAbsent(payload.getInt(0), stripe -> new CopyOnWriteArrayList<>()).add(payload.getInt(4));
+      threads.add(Thread.currentThread().getName());
+      handled.countDown();
+    });
+
+    for (int sequence = 0; sequence < perStripe; ++sequence) {
+      for (int stripe = 0; stripe < stripes; ++stripe) {
+        final ByteBuffer payload = ByteBuffer.allocate(8).putInt(stripe).putInt(sequence);
+        payload.flip();
+        pipeline.submit(Sender, payload, stripe);
+      }
+    }
+
+    assertTrue(handled.await(10, TimeUnit.SECONDS));
+    pipeline.stop();
+
+    assertEquals(stripes, byStripe.size());
+    for (final List<Integer> sequences : byStripe.values()) {
+      assertEquals(perStripe, sequences.size());
+      for (int sequence = 0; sequence < perStripe; ++sequence) {
+        assertEquals(sequence, (int) sequences.get(sequence));
+      }
+    }
+    assertEquals(4, threads.size());
+  }
+
+  @Test
+  public void testThatFailuresDoNotStopTheWorker() throws InterruptedException {
+    final CountDownLatch handled = new CountDownLatch(2);
+    final InboundPipeline pipeline = new InboundPipeline("test-inbound", 1, 4, (sender, payload) -> {
+      handled.countDown();
+      throw new IllegalStateException("malformed");
+    });
+    pipeline.submit(Sender, ByteBuffer.allocate(1), -7);
+    pipeline.submit(Sender, ByteBuffer.allocate(1), 7);
+
+    assertTrue(handled.await(10, TimeUnit.SECONDS));
+    pipeline.stop();
+  }
+
+  @Test
+  public void testThatControlMessagesAreTakenByWeight() throws InterruptedException {
+    final CountDownLatch started = new CountDownLatch(1);
+    final CountDownLatch blocked = new CountDownLatch(1);
+    final CountDownLatch handled = new CountDownLatch(9);
+    final List<Integer> order = new CopyOnWriteArrayList<>();
+    final InboundPipeline pipeline = new InboundPipeline("test-inbound", 1, 16, 2, (sender, payload) -> {
+      started.countDown();
+      try {
+        blocked.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      order.add(payload.getInt(0));
+      handled.countDown();
+    });
+
+    pipeline.submit(Sender, payloadOf(0), 1);
+    assertTrue(started.await(10, TimeUnit.SECONDS)); // the worker waits in the first message
+    for (int message = 1; message <= 4; ++message) {
+      pipeline.submit(Sender, payloadOf(message), 1, Lane.Application);
+    }
+    for (int message = 11; message <= 14; ++message) {
+      pipeline.submit(Sender, payloadOf(message), 1, Lane.Control);
+    }
+    blocked.countDown();
+
+    assertTrue(handled.await(10, TimeUnit.SECONDS));
+    pipeline.stop();
+
+    assertEquals(Arrays.asList(0, 11, 12, 1, 13, 14, 2, 3, 4), order);
+  }
+
+  @Test
+  public void testThatDeliveriesAfterARelocateBatchKeepTheirOrder() throws InterruptedException {
+    final int workers = 4;
+    final FSTConfiguration conf = FSTConfiguration.createDefaultConfiguration();
+    final CompactDictionary dictionary = new CompactDictionary(getClass().getClassLoader());
+    final CompactEncoder encoder = new CompactEncoder(dictionary, conf);
+    final Decoder decoder = new CompactDecoder(dictionary, conf);
+
+    // an address whose deliveries are striped to another worker than the sender's
+    Address address;
+    do {
+      address = GridAddress.from(UUID.randomUUID(), "relocated");
+    } while (Math.floorMod(decoder.addressHash(frameOf(encoder, deliveryOf(address, 0))), workers)
+        == Math.floorMod(Sender.value(), workers));
+
+    final CountDownLatch handled = new CountDownLatch(5);
+    final List<String> order = new CopyOnWriteArrayList<>();
+    final InboundPipeline pipeline = new InboundPipeline("test-inbound", workers, 16, (sender, payload) -> {
+      final Message message = decoder.decode(payload);
+      if (message instanceof RelocateBatch) {
+        try {
+          Thread.sleep(200); // a delivery handled by another worker would overtake it
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        order.add("batch");
+      } else {
+        order.add("deliver-" + ((GridDeliver<?>) message).answerCorrelationId);
+      }
+      handled.countDown();
+    });
+
+    pipeline.submit(Sender, frameOf(encoder, deliveryOf(address, 1)), decoder, false);
+    pipeline.submit(Sender, frameOf(encoder, new RelocateBatch(Arrays.asList(
+        new Relocate(address, null, "snapshot", Arrays.asList())), 9L)), decoder, false);
+    pipeline.submit(Sender, frameOf(encoder, deliveryOf(address, 2)), decoder, false);
+    pipeline.submit(Sender, frameOf(encoder, deliveryOf(address, 3)), decoder, false);
+    pipeline.submit(Sender, frameOf(encoder, deliveryOf(address, 4)), decoder, true);
+
+    assertTrue(handled.await(10, TimeUnit.SECONDS));
+    pipeline.stop();
+
+    assertEquals(Arrays.asList("deliver-1", "batch", "deliver-2", "deliver-3", "deliver-4"), order);
+  }
+
+  private GridDeliver<Runnable> deliveryOf(final Address address, final long sequence) {
+    return new GridDeliver<>(Runnable.class, address, null, null, sequence, "run()");
+  }
+
+  private ByteBuffer frameOf(final CompactEncoder encoder, final Message message) {
+    final ByteBuffer buffer = ByteBuffer.allocate(4096);
+    encoder.encode(message, buffer);
+    buffer.flip();
+    return buffer;
+  }
+
+  private ByteBuffer payloadOf(final int message) {
+    final ByteBuffer payload = ByteBuffer.allocate(4).putInt(message);
+    payload.flip();
+    return payload;
+  }
+}
@@ -0,0 +1,110 @@
+// Copyright © 2012-2023 VLINGO LABS. All rights reserved.
+//
+// This Source Code Form is subject to the terms of the
+// Mozilla Public License, v. 2.0. If a copy of the MPL
+// was not distributed with this file, You can obtain
+// one at https://mozilla.org/MPL/2.0/.
+
+package io.vlingo.xoom.lattice.grid.application;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import io.vlingo.xoom.lattice.grid.application.message.Answer;
+import io.vlingo.xoom.lattice.grid.application.message.Decoder;
+import io.vlingo.xoom.lattice.grid.application.message.Encoder;
+import io.vlingo.xoom.lattice.grid.application.message.Forward;
+import io.vlingo.xoom.lattice.grid.application.message.Message;
+import io.vlingo.xoom.lattice.grid.application.message.serialization.JavaObjectDecoder;
+import io.vlingo.xoom.lattice.grid.application.message.serialization.JavaObjectEncoder;
+import io.vlingo.xoom.wire.message.RawMessage;
+import io.vlingo.xoom.wire.node.Id;
+
+public class MessageBatchTest {
+  private static final Id Sender = Id.of(1);
+
+  private final Encoder encoder = new JavaObjectEncoder();
+  private final Decoder decoder = new JavaObjectDecoder();
+
+  @Test
+  public void testThatBatchedMessagesUnbatchInOrder() {
+    final MessageBatch batch = new MessageBatch(ByteBuffer.allocate(4096), 4096, 10);
+    final Message[] messages = { forward(1), forward(2), forward(3) };
+    for (final Message message : messages) {
+      assertTrue(batch.append(encoder, message));
+    }
+
+    final RawMessage raw = batch.drain(Sender);
+    assertTrue(MessageBatch.isBatch(raw));
+    assertTrue(batch.isEmpty());
+
+    final List<Message> unbatched = new ArrayList<>();
+    MessageBatch.unbatch(ByteBuffer.wrap(raw.asBinaryMessage()), entry -> unbatched.add(decoder.decode(entry)));
+
+    assertEquals(messages.length, unbatched.size());
+    for (int index = 0; index < messages.length; ++index) {
+      assertEquals(((Forward) messages[index]).originalSender, ((Forward) unbatched.get(index)).originalSender);
+    }
+  }
+
+  @Test
+  public void testThatEncodedMessagesBatchLikeMessages() {
+    final ByteBuffer encoded = ByteBuffer.wrap(encoder.encode(forward(7)));
+    final MessageBatch batch = new MessageBatch(ByteBuffer.allocate(4096), 4096, 10);
+    assertTrue(batch.append(encoded));
+    assertTrue(batch.append(encoder, forward(8)));
+    assertEquals(0, encoded.position());
+
+    final List<Message> unbatched = new ArrayList<>();
+    MessageBatch.unbatch(ByteBuffer.wrap(batch.drain(Sender).asBinaryMessage()), entry -> unbatched.add(decoder.decode(entry)));
+    assertEquals(2, unbatched.size());
+    assertEquals(((Forward) forward(7)).originalSender, ((Forward) unbatched.get(0)).originalSender);
+
+    final MessageBatch small = new MessageBatch(ByteBuffer.allocate(4096), encoded.remaining() + 2, 10);
+    assertFalse(small.append(encoded));
+    assertTrue(small.isEmpty());
+  }
+
+  @Test
+  public void testThatBatchIsBoundedByCount() {
+    final MessageBatch batch = new MessageBatch(ByteBuffer.allocate(4096), 4096, 2);
+    assertTrue(batch.append(encoder, forward(1)));
+    assertTrue(batch.append(encoder, forward(2)));
+    assertTrue(batch.isFull());
+    assertFalse(batch.append(encoder, forward(3)));
+  }
+
+  @Test
+  public void testThatOverflowLeavesBatchUnchanged() {
+    final MessageBatch batch = new MessageBatch(ByteBuffer.allocate(4096), 4096, 10);
+    assertTrue(batch.append(encoder, forward(1)));
+    final int size = batch.drain(Sender).asBinaryMessage().length;
+
+    final MessageBatch bounded = new MessageBatch(ByteBuffer.allocate(4096), size + size / 2, 10);
+    assertTrue(bounded.append(encoder, forward(1)));
+    assertFalse(bounded.append(encoder, forward(2)));
+
+    final List<Message> unbatched = new ArrayList<>();
+    MessageBatch.unbatch(ByteBuffer.wrap(bounded.drain(Sender).asBinaryMessage()), entry -> unbatched.add(decoder.decode(entry)));
+    assertEquals(1, unbatched.size());
+  }
+
+  @Test
+  public void testThatSingleIsNotBatch() {
+    final byte[] encoded = encoder.encode(forward(5));
+    final RawMessage raw = MessageBatch.single(Sender, ByteBuffer.wrap(encoded));
+    assertFalse(MessageBatch.isBatch(raw));
+    assertEquals(5, ((Forward) decoder.decode(raw.asBinaryMessage())).originalSender.value());
+  }
+
+  private Message forward(final int sender) {
+    return new Forward(Id.of(sender), new Answer<>(sender, "answer"));
+  }
+}
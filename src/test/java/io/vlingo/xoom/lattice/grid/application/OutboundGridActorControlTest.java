@@ -0,0 +1,481 @@
+// Copyright © 2012-2023 VLINGO LABS. All rights reserved.
+//
+// This Source Code Form is subject to the terms of the
+// Mozilla Public License, v. 2.0. If a copy of the MPL
+// was not distributed with this file, You can obtain
+// one at https://mozilla.org/MPL/2.0/.
+
+package io.vlingo.xoom.lattice.grid.application;
+
+import java.lang.reflect.Proxy;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import io.vlingo.xoom.actors.Actor;
+import io.vlingo.xoom.actors.Address;
+import io.vlingo.xoom.actors.Configuration;
+import io.vlingo.xoom.actors.Definition;
+import io.vlingo.xoom.actors.NoProtocol;
+import io.vlingo.xoom.actors.Returns;
+import io.vlingo.xoom.actors.World;
+import io.vlingo.xoom.actors.plugin.logging.slf4j.Slf4jLoggerPlugin;
+import io.vlingo.xoom.actors.testkit.AccessSafely;
+import io.vlingo.xoom.actors.testkit.TestWorld;
+import io.vlingo.xoom.cluster.model.node.Registry;
+import io.vlingo.xoom.lattice.grid.GridAddress;
+import io.vlingo.xoom.lattice.grid.GridProperties;
+import io.vlingo.xoom.lattice.grid.application.OutboundGridActorControl.OutboundGridActorControlInstantiator;
+import io.vlingo.xoom.lattice.grid.application.message.Answer;
+import io.vlingo.xoom.lattice.grid.application.message.Encoder;
+import io.vlingo.xoom.lattice.grid.application.message.Forward;
+import io.vlingo.xoom.lattice.grid.application.message.GridDeliver;
+import io.vlingo.xoom.lattice.grid.application.message.Message;
+import io.vlingo.xoom.lattice.grid.application.message.Relocate;
+import io.vlingo.xoom.lattice.grid.application.message.RelocateBatch;
+import io.vlingo.xoom.lattice.grid.application.message.RelocateChunk;
+import io.vlingo.xoom.lattice.util.OutBuffers;
+import io.vlingo.xoom.wire.fdx.outbound.ApplicationOutboundStream;
+import io.vlingo.xoom.wire.node.Id;
+import io.vlingo.xoom.wire.node.Node;
+
+public class OutboundGridActorControlTest {
+  private static final Id Local = Id.of(1);
+  private static final Id Remote = Id.of(2);
+  private static final int LargeRelocation = 2048; // bytes a Relocate is encoded into
+
+  private final Definition.SerializationProxy definition =
+          Definition.SerializationProxy.from(Definition.has(NoopActor.class, Definition.NoParameters));
+
+  private World world;
+  private TestWorld testWorld;
+
+  @Test
+  public void testThatADefinitionIsSentOncePerAddress() {
+    final AccessSafely access = encodedAccess(3);
+    final GridActorControl.Outbound outbound = outboundOf(GridProperties.defaults(), access);
+    final Address first = GridAddress.from(UUID.randomUUID(), "first");
+    final Address second = GridAddress.from(UUID.randomUUID(), "second");
+
+    deliver(outbound, first);
+    deliver(outbound, first);
+    deliver(outbound, second);
+
+    final List<GridDeliver<?>> encoded = access.readFrom("encoded");
+    Assert.assertEquals(3, encoded.size());
+    Assert.assertNotNull(encoded.get(0).definition);
+    Assert.assertNull(encoded.get(1).definition); // omitted, the recipient has it
+    Assert.assertNotNull(encoded.get(2).definition);
+  }
+
+  @Test
+  public void testThatARejectedDefinitionIsSentAgain() {
+    final Properties properties = new Properties();
+    properties.setProperty("grid.flow.enabled", "true");
+    properties.setProperty("grid.flow.window", "2");
+    properties.setProperty("grid.flow.pending", "0");
+    final AccessSafely access = encodedAccess(3);
+    final GridActorControl.Outbound outbound = outboundOf(GridProperties.from(properties), access);
+    final Address saturating = GridAddress.from(UUID.randomUUID(), "saturating");
+    final Address rejected = GridAddress.from(UUID.randomUUID(), "rejected");
+
+    deliver(outbound, saturating);
+    deliver(outbound, saturating);
+    deliver(outbound, rejected); // no credits left, nor room to wait for them
+    outbound.credited(Remote, 1);
+    deliver(outbound, rejected);
+
+    final List<GridDeliver<?>> encoded = access.readFrom("encoded");
+    Assert.assertEquals(3, encoded.size());
+    Assert.assertEquals(rejected, encoded.get(2).address);
+    Assert.assertNotNull(encoded.get(2).definition); // never received by the recipient
+  }
+
+  @Test
+  public void testThatALargeRelocationIsEncodedOnce() {
+    final Properties properties = new Properties();
+    properties.setProperty("grid.buffer.size", "1024");
+    properties.setProperty("grid.relocate.chunk.bytes", "1024");
+    final AccessSafely access = encodedAccess(3);
+    final GridActorControl.Outbound outbound = outboundOf(GridProperties.from(properties), access);
+    final Address address = GridAddress.from(UUID.randomUUID(), "relocated");
+
+    outbound.relocate(Remote, Local, definition, address, "snapshot", Collections.emptyList());
+
+    final List<Message> encoded = access.readFrom("encoded");
+    Assert.assertTrue(encoded.get(0) instanceof Relocate);
+    Assert.assertTrue(encoded.get(1) instanceof RelocateChunk);
+    Assert.assertTrue(encoded.get(2) instanceof RelocateChunk);
+  }
+
+  @Test
+  public void testThatAForwardedLargeRelocationIsSentInChunks() {
+    final Properties properties = new Properties();
+    properties.setProperty("grid.buffer.size", "1024");
+    properties.setProperty("grid.relocate.chunk.bytes", "1024");
+    final AccessSafely access = encodedAccess(3);
+    final GridActorControl.Outbound outbound = outboundOf(GridProperties.from(properties), access);
+    final Address address = GridAddress.from(UUID.randomUUID(), "forwarded");
+    final Relocate relocate = new Relocate(address, definition, "snapshot", Collections.emptyList());
+
+    outbound.forward(Remote, Id.of(3), relocate);
+
+    final List<Message> encoded = access.readFrom("encoded");
+    Assert.assertSame(relocate, ((Forward) encoded.get(0)).message); // keeps its original sender
+    Assert.assertTrue(encoded.get(1) instanceof RelocateChunk);
+    Assert.assertTrue(encoded.get(2) instanceof RelocateChunk);
+  }
+
+  @Test
+  public void testThatRelocationsAreBatchedAndAPartialBatchIsSealed() {
+    final Properties properties = new Properties();
+    properties.setProperty("grid.relocate.batch.size", "3");
+    properties.setProperty("grid.relocate.batch.inflight", "2");
+    final AccessSafely access = encodedAccess(6);
+    final GridActorControl.Outbound outbound = outboundOf(GridProperties.from(properties), access);
+
+    for (int relocations = 0; relocations < 4; ++relocations) {
+      relocate(outbound, "batched-" + relocations);
+    }
+
+    final List<Message> encoded = access.readFrom("encoded");
+    Assert.assertEquals(3, ((RelocateBatch) encoded.get(3)).relocations.size());
+    Assert.assertEquals(1, ((RelocateBatch) encoded.get(5)).relocations.size()); // sealed when the mailbox is flushed
+  }
+
+  @Test
+  public void testThatRelocationBatchesInFlightAreLimitedUntilTheirBarrierTimesOut() throws Exception {
+    final Properties properties = new Properties();
+    properties.setProperty("grid.relocate.batch.size", "2");
+    properties.setProperty("grid.relocate.batch.inflight", "1");
+    final AtomicLong now = new AtomicLong(0);
+    final CorrelationTable correlations = new CorrelationTable(1000, 100, now::get);
+    final AccessSafely access = encodedAccess(9);
+    final GridActorControl.Outbound outbound = outboundOf(GridProperties.from(properties), correlations, access);
+    final Answer<String> answer = new Answer<>(1L, "answered");
+
+    for (int relocations = 0; relocations < 6; ++relocations) {
+      relocate(outbound, "limited-" + relocations);
+    }
+    outbound.answer(Remote, Local, answer);
+    for (int wait = 0; correlations.size() < 1 && wait < 500; ++wait) {
+      Thread.sleep(10); // until the first batch waits for its barrier
+    }
+    now.set(1500);
+    correlations.intervalSignal(null, null);
+
+    final List<Message> encoded = access.readFrom("encoded");
+    Assert.assertTrue(encoded.get(2) instanceof RelocateBatch);
+    Assert.assertSame(answer, encoded.get(7)); // the two sealed batches wait for the one in flight
+    Assert.assertEquals(2, ((RelocateBatch) encoded.get(8)).relocations.size());
+  }
+
+  @Test
+  public void testThatARejectedRelocationBatchReleasesItsBarrier() {
+    final Properties properties = new Properties();
+    properties.setProperty("grid.relocate.batch.size", "2");
+    properties.setProperty("grid.relocate.batch.inflight", "1");
+    final AccessSafely access = encodedAccess(6);
+    final OutBuffers full = new OutBuffers(object -> { }, 8, OutBuffers.Overflow.Reject,
+            Paths.get(System.getProperty("java.io.tmpdir")), OutBuffers.DefaultSpillSegmentBytes);
+    final GridActorControl.Outbound outbound = outboundOf(GridProperties.from(properties), new CorrelationTable(30000, 100), message -> {
+      access.writeUsing("encoded", message);
+      return new byte[] { 0 };
+    }, full);
+
+    outbound.informClusterIsHealthy(false);
+    for (int relocations = 0; relocations < 4; ++relocations) {
+      relocate(outbound, "rejected-" + relocations);
+    }
+
+    final List<Message> encoded = access.readFrom("encoded");
+    Assert.assertTrue(encoded.get(2) instanceof RelocateBatch); // rejected by the full buffer
+    Assert.assertTrue(encoded.get(5) instanceof RelocateBatch);
+  }
+
+  @Test
+  public void testThatDrainingRelocationsSendsBeyondTheInflightLimit() {
+    final Properties properties = new Properties();
+    properties.setProperty("grid.relocate.batch.size", "3");
+    properties.setProperty("grid.relocate.batch.inflight", "1");
+    final AccessSafely access = encodedAccess(6);
+    final GridActorControl.Outbound outbound = outboundOf(GridProperties.from(properties), access);
+
+    for (int relocations = 0; relocations < 4; ++relocations) {
+      relocate(outbound, "drained-" + relocations);
+    }
+    outbound.drainRelocations();
+
+    final List<Message> encoded = access.readFrom("encoded");
+    Assert.assertEquals(3, ((RelocateBatch) encoded.get(3)).relocations.size());
+    Assert.assertEquals(1, ((RelocateBatch) encoded.get(5)).relocations.size());
+  }
+
+  @Test
+  public void testThatTheTimeToLiveExcludesTheTimeWaitedAndExpiredAsksAreShed() throws Exception {
+    final Properties properties = new Properties();
+    properties.setProperty("grid.flow.enabled", "true");
+    properties.setProperty("grid.flow.window", "2");
+    final AtomicLong now = new AtomicLong(0);
+    final CorrelationTable correlations = new CorrelationTable(1000, 100, now::get);
+    final AccessSafely access = encodedAccess(3);
+    final GridActorControl.Outbound outbound = outboundOf(GridProperties.from(properties), correlations, access);
+    final Address address = GridAddress.from(UUID.randomUUID(), "asked");
+    final CompletableFuture<Object> expiring = new CompletableFuture<>();
+
+    deliver(outbound, address);
+    deliver(outbound, address); // no credits left
+    outbound.gridDeliver(Remote, Local, Returns.value(new CompletableFuture<>()), Runnable.class, address, null, Runnable::run, "run()");
+    outbound.gridDeliver(Remote, Local, Returns.value(expiring), Runnable.class, address, null, Runnable::run, "run()");
+    for (int wait = 0; correlations.size() < 2 && wait < 500; ++wait) {
+      Thread.sleep(10); // until both asks wait for credits
+    }
+    now.set(400);
+    outbound.credited(Remote, 1);
+
+    final List<GridDeliver<?>> encoded = access.readFrom("encoded");
+    Assert.assertEquals(600, encoded.get(2).timeToLive); // waited 400 of 1000 for credits
+
+    now.set(1000);
+    outbound.credited(Remote, 1);
+
+    try {
+      expiring.get(5, TimeUnit.SECONDS);
+      Assert.fail("Expected the expired ask to be shed");
+    } catch (final ExecutionException e) {
+      Assert.assertTrue(e.getCause() instanceof TimeoutException);
+    }
+    Assert.assertEquals(3, encoded.size());
+  }
+
+  @Test
+  public void testThatABufferedAskCarriesTheTimeLeftWhenDisbursed() throws Exception {
+    final AtomicLong now = new AtomicLong(0);
+    final CorrelationTable correlations = new CorrelationTable(1000, 100, now::get);
+    final AccessSafely access = encodedAccess(1);
+    final GridActorControl.Outbound outbound = outboundOf(GridProperties.defaults(), correlations, access);
+    final Address address = GridAddress.from(UUID.randomUUID(), "buffered");
+    final CompletableFuture<Object> expiring = new CompletableFuture<>();
+
+    outbound.informClusterIsHealthy(false);
+    outbound.gridDeliver(Remote, Local, Returns.value(expiring), Runnable.class, address, null, Runnable::run, "run()");
+    for (int wait = 0; correlations.size() < 1 && wait < 500; ++wait) {
+      Thread.sleep(10);
+    }
+    now.set(600);
+    outbound.gridDeliver(Remote, Local, Returns.value(new CompletableFuture<>()), Runnable.class, address, null, Runnable::run, "run()");
+    for (int wait = 0; correlations.size() < 2 && wait < 500; ++wait) {
+      Thread.sleep(10); // until both asks are buffered
+    }
+    now.set(1200);
+    outbound.informClusterIsHealthy(true);
+
+    try {
+      expiring.get(5, TimeUnit.SECONDS);
+      Assert.fail("Expected the ask expired while buffered to be shed");
+    } catch (final ExecutionException e) {
+      Assert.assertTrue(e.getCause() instanceof TimeoutException);
+    }
+    final List<GridDeliver<?>> encoded = access.readFrom("encoded");
+    Assert.assertEquals(1, encoded.size());
+    Assert.assertEquals(400, encoded.get(0).timeToLive); // buffered 600 of 1000
+  }
+
+  @Test
+  public void testThatAnAnswerOvertakesASaturatedApplicationLane() {
+    final Properties properties = new Properties();
+    properties.setProperty("grid.lanes.enabled", "true");
+    properties.setProperty("grid.lanes.application.budget", "2");
+    final AccessSafely access = encodedAccess(6);
+    final CountDownLatch released = new CountDownLatch(1);
+    final GridActorControl.Outbound outbound = outboundOf(GridProperties.from(properties), new CorrelationTable(30000, 100), message -> {
+      try {
+        released.await(5, TimeUnit.SECONDS); // until all the messages below wait in the mailbox
+      } catch (final InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      access.writeUsing("encoded", message);
+      return new byte[] { 0 };
+    });
+    final Address address = GridAddress.from(UUID.randomUUID(), "saturated");
+    final Answer<String> answer = new Answer<>(1L, "answered");
+
+    for (int deliveries = 0; deliveries < 5; ++deliveries) {
+      deliver(outbound, address);
+    }
+    outbound.answer(Remote, Local, answer);
+    released.countDown();
+
+    final List<Message> encoded = access.readFrom("encoded");
+    Assert.assertEquals(6, encoded.size());
+    Assert.assertTrue(encoded.get(0) instanceof GridDeliver);
+    Assert.assertTrue(encoded.get(1) instanceof GridDeliver);
+    Assert.assertSame(answer, encoded.get(2)); // the other deliveries wait for the next turn
+    Assert.assertTrue(encoded.get(3) instanceof GridDeliver);
+    Assert.assertTrue(encoded.get(5) instanceof GridDeliver);
+  }
+
+  @Test
+  public void testThatDisbursedFramesSpendCredits() {
+    final Properties properties = new Properties();
+    properties.setProperty("grid.flow.enabled", "true");
+    properties.setProperty("grid.flow.window", "2");
+    final List<String> events = new CopyOnWriteArrayList<>();
+    final AccessSafely access = AccessSafely.afterCompleting(12);
+    access.writingWith("events", (String event) -> events.add(event));
+    access.readingWith("events", () -> events);
+    final GridActorControl.Outbound outbound = outboundOf(GridProperties.from(properties), new CorrelationTable(30000, 100), message -> {
+      access.writeUsing("events", message.getClass().getSimpleName());
+      return new byte[] { 0 };
+    });
+    final Address address = GridAddress.from(UUID.randomUUID(), "disbursed");
+
+    outbound.informClusterIsHealthy(false);
+    for (int deliveries = 0; deliveries < 4; ++deliveries) {
+      deliver(outbound, address);
+    }
+    outbound.useStream(recording(access));
+    outbound.informClusterIsHealthy(true);
+    deliver(outbound, address); // waits behind the buffered frames
+    outbound.answer(Remote, Local, new Answer<>(1L, "answered"));
+    outbound.credited(Remote, 2);
+    outbound.credited(Remote, 1);
+
+    Assert.assertEquals(Arrays.asList(
+            "GridDeliver", "GridDeliver", "GridDeliver", "GridDeliver",
+            "sent", "sent",             // two buffered frames within the window
+            "Answer", "sent",           // a control message needs no credits
+            "sent", "sent",             // the other two buffered frames
+            "GridDeliver", "sent"),     // then the one that waited behind them
+            access.readFrom("events"));
+  }
+
+  @Before
+  public void setUp() {
+    Configuration configuration =
+            Configuration
+              .define()
+              .with(Slf4jLoggerPlugin
+                      .Slf4jLoggerPluginConfiguration
+                      .define()
+                      .defaultLogger()
+                      .name("xoom-actors"));
+
+    testWorld = TestWorld.start("test", configuration);
+    world = testWorld.world();
+  }
+
+  @After
+  public void tearDown() {
+    testWorld.terminate();
+  }
+
+  private void deliver(final GridActorControl.Outbound outbound, final Address address) {
+    outbound.gridDeliver(Remote, Local, null, Runnable.class, address, definition, Runnable::run, "run()");
+  }
+
+  private void relocate(final GridActorControl.Outbound outbound, final String name) {
+    outbound.relocate(Remote, Local, definition, GridAddress.from(UUID.randomUUID(), name), "snapshot", Collections.emptyList());
+  }
+
+  /**
+   * Answers a healthy outbound control whose stream discards the messages it is given
+   * once they are encoded, and {@code access} collects, in order, the messages encoded.
+   */
+  private GridActorControl.Outbound outboundOf(final GridProperties properties, final AccessSafely access) {
+    return outboundOf(properties, new CorrelationTable(30000, 100), access);
+  }
+
+  private GridActorControl.Outbound outboundOf(
+          final GridProperties properties,
+          final CorrelationTable correlations,
+          final AccessSafely access) {
+
+    return outboundOf(properties, correlations, message -> {
+      access.writeUsing("encoded", message);
+      final boolean relocation = message instanceof Relocate
+              || message instanceof Forward && ((Forward) message).message instanceof Relocate;
+      return relocation ? new byte[LargeRelocation] : new byte[] { 0 };
+    });
+  }
+
+  private GridActorControl.Outbound outboundOf(
+          final GridProperties properties,
+          final CorrelationTable correlations,
+          final Encoder encoder) {
+
+    return outboundOf(properties, correlations, encoder, new OutBuffers(object -> { }));
+  }
+
+  private GridActorControl.Outbound outboundOf(
+          final GridProperties properties,
+          final CorrelationTable correlations,
+          final Encoder encoder,
+          final OutBuffers outBuffers) {
+
+    final GridActorControl.Outbound outbound = world.stage().actorFor(
+            GridActorControl.Outbound.class,
+            OutboundGridActorControl.class,
+            new OutboundGridActorControlInstantiator(
+                    Local,
+                    registering(),
+                    encoder,
+                    correlations,
+                    outBuffers,
+                    properties));
+
+    outbound.useStream(discarding(ApplicationOutboundStream.class));
+    outbound.informClusterIsHealthy(true);
+    return outbound;
+  }
+
+  private static AccessSafely encodedAccess(final int times) {
+    final List<Message> encoded = new CopyOnWriteArrayList<>();
+    final AccessSafely access = AccessSafely.afterCompleting(times);
+    access.writingWith("encoded", (Message message) -> encoded.add(message));
+    access.readingWith("encoded", () -> encoded);
+    return access;
+  }
+
+  /**
+   * Answers a registry that knows every node, so that buffered messages are disbursed.
+   */
+  private static Registry registering() {
+    return (Registry) Proxy.newProxyInstance(Registry.class.getClassLoader(), new Class<?>[] { Registry.class },
+            (proxy, method, args) -> method.getName().equals("getNode") ? Node.NO_NODE : null);
+  }
+
+  private static ApplicationOutboundStream recording(final AccessSafely access) {
+    return (ApplicationOutboundStream) Proxy.newProxyInstance(ApplicationOutboundStream.class.getClassLoader(),
+            new Class<?>[] { ApplicationOutboundStream.class },
+            (proxy, method, args) -> {
+              if (method.getName().equals("sendTo")) {
+                access.writeUsing("events", "sent");
+              }
+              return null;
+            });
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <T> T discarding(final Class<T> protocol) {
+    return (T) Proxy.newProxyInstance(protocol.getClassLoader(), new Class<?>[] { protocol }, (proxy, method, args) -> null);
+  }
+
+  public static class NoopActor extends Actor implements NoProtocol {
+  }
+}
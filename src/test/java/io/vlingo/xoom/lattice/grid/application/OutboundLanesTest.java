@@ -0,0 +1,124 @@
+// Copyright © 2012-2023 VLINGO LABS. All rights reserved.
+//
+// This Source Code Form is subject to the terms of the
+// Mozilla Public License, v. 2.0. If a copy of the MPL
+// was not distributed with this file, You can obtain
+// one at https://mozilla.org/MPL/2.0/.
+
+package io.vlingo.xoom.lattice.grid.application;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.Test;
+
+import io.vlingo.xoom.actors.Address;
+import io.vlingo.xoom.lattice.grid.GridAddress;
+import io.vlingo.xoom.lattice.grid.application.message.Answer;
+import io.vlingo.xoom.lattice.grid.application.message.Forward;
+import io.vlingo.xoom.lattice.grid.application.message.GridDeliver;
+import io.vlingo.xoom.lattice.grid.application.message.Lane;
+import io.vlingo.xoom.lattice.grid.application.message.Message;
+import io.vlingo.xoom.lattice.grid.application.message.Relocate;
+import io.vlingo.xoom.lattice.grid.application.message.Start;
+import io.vlingo.xoom.wire.node.Id;
+
+public class OutboundLanesTest {
+  private final Address address = GridAddress.from(UUID.randomUUID(), "actor");
+
+  @Test
+  public void testThatMessagesAreInTheirLanes() {
+    assertEquals(Lane.Control, Lane.of(new Answer<>(1L, "result")));
+    assertEquals(Lane.Control, Lane.of(new Start<>(Runnable.class, address, null)));
+    assertEquals(Lane.Relocation, Lane.of(relocate()));
+    assertEquals(Lane.Application, Lane.of(deliver()));
+    assertEquals(Lane.Control, Lane.of(new Forward(Id.of(2), new Start<>(Runnable.class, address, null))));
+  }
+
+  @Test
+  public void testThatLanesAreDrainedByWeight() {
+    final OutboundLanes lanes = new OutboundLanes(new int[] { 2, 1, 1 });
+    final List<Message> sent = new ArrayList<>();
+    final List<Message> delivers = Arrays.asList(deliver(), deliver(), deliver());
+    final List<Message> answers = Arrays.asList(new Answer<>(1L, "1"), new Answer<>(2L, "2"), new Answer<>(3L, "3"));
+    final Message relocate = relocate();
+
+    delivers.forEach(lanes::add);
+    lanes.add(relocate);
+    answers.forEach(lanes::add);
+    assertEquals(7, lanes.size());
+
+    lanes.drain(sent::add);
+
+    assertEquals(Arrays.asList(
+            answers.get(0), answers.get(1), relocate, delivers.get(0),
+            answers.get(2), delivers.get(1),
+            delivers.get(2)), sent);
+    assertTrue(lanes.isEmpty());
+  }
+
+  @Test
+  public void testThatDeliveriesDoNotOvertakeEarlierRelocations() {
+    final OutboundLanes lanes = new OutboundLanes(new int[] { 1, 1, 3 });
+    final List<Message> sent = new ArrayList<>();
+    final Message before = deliver();
+    final Message first = relocate();
+    final Message second = relocate();
+    final Message after = deliver();
+    final Message last = deliver();
+
+    lanes.add(before);
+    lanes.add(first);
+    lanes.add(second);
+    lanes.add(after);
+    lanes.add(last);
+
+    lanes.drain(sent::add);
+
+    assertEquals(Arrays.asList(first, before, second, after, last), sent);
+    assertTrue(lanes.isEmpty());
+  }
+
+  @Test
+  public void testThatApplicationMessagesBeyondTheBudgetWaitForTheNextTurn() {
+    final OutboundLanes lanes = new OutboundLanes(new int[] { 8, 4, 1 }, 2);
+    final List<Message> sent = new ArrayList<>();
+    final List<Message> delivers = Arrays.asList(deliver(), deliver(), deliver(), deliver(), deliver());
+    final Message answer = new Answer<>(1L, "1");
+
+    for (final Message deliver : delivers) {
+      if (lanes.admit(deliver)) {
+        sent.add(deliver);
+      } else {
+        lanes.add(deliver);
+      }
+    }
+    assertEquals(delivers.subList(0, 2), sent);
+    assertEquals(3, lanes.size());
+
+    lanes.drain(sent::add);
+    assertEquals(delivers.subList(0, 4), sent);
+
+    assertTrue(lanes.admit(answer)); // not behind the saturated application lane
+    sent.add(answer);
+    lanes.drain(sent::add);
+
+    assertEquals(Arrays.asList(
+            delivers.get(0), delivers.get(1), delivers.get(2), delivers.get(3),
+            answer, delivers.get(4)), sent);
+    assertTrue(lanes.isEmpty());
+  }
+
+  private Message deliver() {
+    return new GridDeliver<>(Runnable.class, address, null, null, "run()");
+  }
+
+  private Message relocate() {
+    return new Relocate(address, null, null, Arrays.asList());
+  }
+}
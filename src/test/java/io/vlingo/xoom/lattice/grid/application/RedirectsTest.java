@@ -0,0 +1,97 @@
+// Copyright © 2012-2023 VLINGO LABS. All rights reserved.
+//
+// This Source Code Form is subject to the terms of the
+// Mozilla Public License, v. 2.0. If a copy of the MPL
+// was not distributed with this file, You can obtain
+// one at https://mozilla.org/MPL/2.0/.
+
+package io.vlingo.xoom.lattice.grid.application;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+
+import io.vlingo.xoom.actors.Address;
+import io.vlingo.xoom.lattice.grid.GridAddress;
+import io.vlingo.xoom.lattice.grid.hashring.HashRing;
+import io.vlingo.xoom.lattice.grid.hashring.SnapshotHashRing;
+import io.vlingo.xoom.wire.node.Id;
+
+public class RedirectsTest {
+  private final AtomicLong clock = new AtomicLong(1000);
+  private final HashRing<Id> hashRing = new SnapshotHashRing<Id>(100)
+          .includeNode(Id.of(1))
+          .includeNode(Id.of(2))
+          .includeNode(Id.of(3));
+  private final Address address = GridAddress.from(UUID.randomUUID(), "actor");
+
+  @Test
+  public void testThatRedirectFromOwnerIsFollowedUntilItExpires() {
+    final Redirects redirects = new Redirects(hashRing, 500, 16, clock::get);
+    final Id owner = hashRing.nodeOf(address.idTyped());
+    final Id elsewhere = other(owner);
+
+    redirects.redirected(owner, address, elsewhere);
+    assertEquals(elsewhere, redirects.ownerOf(address, hashRing.epoch()));
+
+    clock.addAndGet(499);
+    assertEquals(elsewhere, redirects.ownerOf(address, hashRing.epoch()));
+
+    clock.addAndGet(1);
+    assertNull(redirects.ownerOf(address, hashRing.epoch()));
+  }
+
+  @Test
+  public void testThatRedirectFromOtherThanOwnerIsIgnored() {
+    final Redirects redirects = new Redirects(hashRing, 500, 16, clock::get);
+    final Id owner = hashRing.nodeOf(address.idTyped());
+
+    redirects.redirected(other(owner), address, other(owner));
+    assertNull(redirects.ownerOf(address, hashRing.epoch()));
+  }
+
+  @Test
+  public void testThatRingChangeDropsRedirect() {
+    final Redirects redirects = new Redirects(hashRing, 500, 16, clock::get);
+    final Id owner = hashRing.nodeOf(address.idTyped());
+
+    redirects.redirected(owner, address, other(owner));
+    hashRing.includeNode(Id.of(4));
+    assertNull(redirects.ownerOf(address, hashRing.epoch()));
+  }
+
+  @Test
+  public void testThatCapacityBoundsValidRedirects() {
+    final Redirects redirects = new Redirects(hashRing, 500, 1, clock::get);
+    final Address second = GridAddress.from(UUID.randomUUID(), "second");
+    final Id owner = hashRing.nodeOf(address.idTyped());
+    final Id secondOwner = hashRing.nodeOf(second.idTyped());
+
+    redirects.redirected(owner, address, other(owner));
+    redirects.redirected(secondOwner, second, other(secondOwner));
+    assertEquals(other(owner), redirects.ownerOf(address, hashRing.epoch()));
+    assertNull(redirects.ownerOf(second, hashRing.epoch()));
+
+    clock.addAndGet(500);
+    redirects.redirected(secondOwner, second, other(secondOwner));
+    assertEquals(other(secondOwner), redirects.ownerOf(second, hashRing.epoch()));
+  }
+
+  @Test
+  public void testThatDisabledRedirectsAreIgnored() {
+    final Redirects redirects = new Redirects(hashRing, 500, 0, clock::get);
+    final Id owner = hashRing.nodeOf(address.idTyped());
+
+    redirects.redirected(owner, address, other(owner));
+    assertNull(redirects.ownerOf(address, hashRing.epoch()));
+    assertNull(Redirects.disabled().ownerOf(address, hashRing.epoch()));
+  }
+
+  private Id other(final Id node) {
+    return node.equals(Id.of(1)) ? Id.of(2) : Id.of(1);
+  }
+}
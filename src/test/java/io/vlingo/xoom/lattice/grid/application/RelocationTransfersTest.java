@@ -0,0 +1,89 @@
+// Copyright © 2012-2023 VLINGO LABS. All rights reserved.
+//
+// This Source Code Form is subject to the terms of the
+// Mozilla Public License, v. 2.0. If a copy of the MPL
+// was not distributed with this file, You can obtain
+// one at https://mozilla.org/MPL/2.0/.
+
+package io.vlingo.xoom.lattice.grid.application;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.Test;
+
+import io.vlingo.xoom.actors.Address;
+import io.vlingo.xoom.lattice.grid.GridAddress;
+import io.vlingo.xoom.lattice.grid.application.message.Message;
+import io.vlingo.xoom.lattice.grid.application.message.Relocate;
+import io.vlingo.xoom.lattice.grid.application.message.RelocateChunk;
+import io.vlingo.xoom.lattice.grid.application.message.serialization.JavaObjectDecoder;
+import io.vlingo.xoom.lattice.grid.application.message.serialization.JavaObjectEncoder;
+import io.vlingo.xoom.wire.node.Id;
+
+public class RelocationTransfersTest {
+  private static final Id Sender = Id.of(1);
+
+  private final Address address = GridAddress.from(UUID.randomUUID(), "large");
+  private final String snapshot = String.join("", Collections.nCopies(10000, "snapshot-"));
+
+  @Test
+  public void testThatChunksAreReassembled() {
+    final RelocationTransfers transfers = new RelocationTransfers(new JavaObjectDecoder());
+    final List<RelocateChunk> chunks = chunksOf(1L, 4096);
+
+    for (final RelocateChunk chunk : chunks.subList(0, chunks.size() - 1)) {
+      assertNull(transfers.received(Sender, chunk));
+    }
+    final Relocate relocate = (Relocate) transfers.received(Sender, chunks.get(chunks.size() - 1));
+
+    assertEquals(address, relocate.address);
+    assertEquals(snapshot, relocate.snapshot);
+    assertEquals(0, transfers.size());
+  }
+
+  @Test
+  public void testThatAnOutOfOrderChunkDropsTheTransfer() {
+    final RelocationTransfers transfers = new RelocationTransfers(new JavaObjectDecoder());
+    final List<RelocateChunk> chunks = chunksOf(1L, 4096);
+
+    assertNull(transfers.received(Sender, chunks.get(0)));
+    assertNull(transfers.received(Sender, chunks.get(2)));
+    assertEquals(0, transfers.size());
+
+    for (final RelocateChunk chunk : chunks.subList(3, chunks.size())) {
+      assertNull(transfers.received(Sender, chunk));
+    }
+  }
+
+  @Test
+  public void testThatANewTransferReplacesAnAbandonedOne() {
+    final RelocationTransfers transfers = new RelocationTransfers(new JavaObjectDecoder());
+    final List<RelocateChunk> abandoned = chunksOf(1L, 4096);
+    assertNull(transfers.received(Sender, abandoned.get(0)));
+    assertNull(transfers.received(Sender, abandoned.get(1)));
+
+    Message relocated = null;
+    for (final RelocateChunk chunk : chunksOf(2L, 8192)) {
+      relocated = transfers.received(Sender, chunk);
+    }
+    assertEquals(address, ((Relocate) relocated).address);
+    assertEquals(0, transfers.size());
+  }
+
+  private List<RelocateChunk> chunksOf(final long transferId, final int chunkBytes) {
+    final byte[] encoded = new JavaObjectEncoder().encode(new Relocate(address, null, snapshot, Arrays.asList()));
+    final List<RelocateChunk> chunks = new ArrayList<>();
+    for (int offset = 0; offset < encoded.length; offset += chunkBytes) {
+      chunks.add(new RelocateChunk(transferId, encoded.length, offset,
+              Arrays.copyOfRange(encoded, offset, Math.min(encoded.length, offset + chunkBytes))));
+    }
+    return chunks;
+  }
+}
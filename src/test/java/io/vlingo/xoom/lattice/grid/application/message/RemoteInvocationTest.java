@@ -0,0 +1,96 @@
+// Copyright © 2012-2023 VLINGO LABS. All rights reserved.
+//
+// This Source Code Form is subject to the terms of the
+// Mozilla Public License, v. 2.0. If a copy of the MPL
+// was not distributed with this file, You can obtain
+// one at https://mozilla.org/MPL/2.0/.
+
+package io.vlingo.xoom.lattice.grid.application.message;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import io.vlingo.xoom.common.SerializableConsumer;
+
+public class RemoteInvocationTest {
+  private final List<String> received = new ArrayList<>();
+
+  @Test
+  public void testThatStaticLambdaBecomesRemoteInvocation() throws Exception {
+    final SerializableConsumer<Counter> dispatched = RemoteInvocation.from(add(3, "three"));
+    assertTrue(dispatched instanceof RemoteInvocation);
+
+    final SerializableConsumer<Counter> received = roundTrip(dispatched);
+    received.accept(this::record);
+
+    assertEquals(1, this.received.size());
+    assertEquals("three:3", this.received.get(0));
+  }
+
+  @Test
+  public void testThatResolvedInvocationIsReusable() throws Exception {
+    final RemoteInvocation<Counter> invocation = roundTrip((RemoteInvocation<Counter>) RemoteInvocation.from(add(1, "one"))).resolve();
+    invocation.accept(this::record);
+    invocation.accept(this::record);
+    assertEquals(2, received.size());
+  }
+
+  @Test
+  public void testThatDistinctLambdasHaveDistinctMethodIds() {
+    final RemoteInvocation<Counter> add = (RemoteInvocation<Counter>) RemoteInvocation.from(add(1, "one"));
+    final RemoteInvocation<Counter> reset = (RemoteInvocation<Counter>) RemoteInvocation.from(reset());
+    assertTrue(add.methodId != reset.methodId);
+    assertEquals(2, add.arguments.length);
+    assertEquals(0, reset.arguments.length);
+  }
+
+  @Test
+  public void testThatInstanceCapturingLambdaIsUnchanged() {
+    final SerializableConsumer<Counter> capturing = counter -> counter.add(received.size(), "size");
+    assertSame(capturing, RemoteInvocation.from(capturing));
+  }
+
+  @Test
+  public void testThatMethodReferenceIsUnchanged() {
+    final SerializableConsumer<Counter> reference = Counter::reset;
+    assertSame(reference, RemoteInvocation.from(reference));
+  }
+
+  private static SerializableConsumer<Counter> add(final int amount, final String label) {
+    return counter -> counter.add(amount, label);
+  }
+
+  private static SerializableConsumer<Counter> reset() {
+    return counter -> counter.add(0, "reset");
+  }
+
+  private void record(final int amount, final String label) {
+    received.add(label + ":" + amount);
+  }
+
+  @SuppressWarnings("unchecked")
+  private <C> C roundTrip(final C consumer) throws Exception {
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+      out.writeObject(consumer);
+    }
+    try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+      return (C) in.readObject();
+    }
+  }
+
+  public interface Counter {
+    void add(int amount, String label);
+    default void reset() { add(0, "reset"); }
+  }
+}
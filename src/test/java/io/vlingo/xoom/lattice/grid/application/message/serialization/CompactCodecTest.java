@@ -0,0 +1,249 @@
+// Copyright © 2012-2023 VLINGO LABS. All rights reserved.
+//
+// This Source Code Form is subject to the terms of the
+// Mozilla Public License, v. 2.0. If a copy of the MPL
+// was not distributed with this file, You can obtain
+// one at https://mozilla.org/MPL/2.0/.
+
+package io.vlingo.xoom.lattice.grid.application.message.serialization;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.UUID;
+
+import org.junit.Test;
+import org.nustaq.serialization.FSTConfiguration;
+
+import io.vlingo.xoom.actors.Address;
+import io.vlingo.xoom.common.SerializableConsumer;
+import io.vlingo.xoom.lattice.grid.GridAddress;
+import io.vlingo.xoom.lattice.grid.application.message.ActorDeliver;
+import io.vlingo.xoom.lattice.grid.application.message.Answer;
+import io.vlingo.xoom.lattice.grid.application.message.Credit;
+import io.vlingo.xoom.lattice.grid.application.message.Decoder;
+import io.vlingo.xoom.lattice.grid.application.message.DefinitionReply;
+import io.vlingo.xoom.lattice.grid.application.message.DefinitionRequest;
+import io.vlingo.xoom.lattice.grid.application.message.Forward;
+import io.vlingo.xoom.lattice.grid.application.message.GridDeliver;
+import io.vlingo.xoom.lattice.grid.application.message.Lane;
+import io.vlingo.xoom.lattice.grid.application.message.Message;
+import io.vlingo.xoom.lattice.grid.application.message.Redirect;
+import io.vlingo.xoom.lattice.grid.application.message.Relocate;
+import io.vlingo.xoom.lattice.grid.application.message.RelocateBatch;
+import io.vlingo.xoom.lattice.grid.application.message.RelocateChunk;
+import io.vlingo.xoom.lattice.grid.application.message.RemoteInvocation;
+import io.vlingo.xoom.lattice.grid.application.message.Start;
+import io.vlingo.xoom.wire.node.Id;
+
+public class CompactCodecTest {
+  private static final String Representation = "run()";
+
+  private final FSTConfiguration conf = FSTConfiguration.createDefaultConfiguration();
+  private final Address address = GridAddress.from(UUID.randomUUID(), "actor");
+
+  @Test
+  public void testThatGridDeliverRoundTrips() {
+    final long correlationId = 123456789L;
+    final GridDeliver<Runnable> decoded =
+            roundTrip(registered(), new GridDeliver<>(Runnable.class, address, null, consumer(), correlationId, Representation));
+
+    assertEquals(Runnable.class, decoded.protocol);
+    assertEquals(address, decoded.address);
+    assertEquals("actor", decoded.address.name());
+    assertEquals(correlationId, decoded.answerCorrelationId);
+    assertEquals(Representation, decoded.representation);
+    assertNull(decoded.definition);
+    assertTrue(decoded.consumer != null);
+  }
+
+  @Test
+  public void testThatTimeToLiveRoundTrips() {
+    final GridDeliver<Runnable> gridDeliver =
+            roundTrip(registered(), new GridDeliver<>(Runnable.class, address, null, consumer(), 1L, Representation, 30000L));
+    assertEquals(30000L, gridDeliver.timeToLive);
+
+    final ActorDeliver<Runnable> actorDeliver =
+            roundTrip(registered(), new ActorDeliver<>(Runnable.class, null, consumer(), Representation, 2L, 1500L));
+    assertEquals(2L, actorDeliver.answerCorrelationId);
+    assertEquals(1500L, actorDeliver.timeToLive);
+
+    final GridDeliver<Runnable> told =
+            roundTrip(registered(), new GridDeliver<>(Runnable.class, address, null, consumer(), Representation));
+    assertEquals(Message.NoTimeToLive, told.timeToLive);
+  }
+
+  @Test
+  public void testThatRemoteInvocationRoundTrips() {
+    final RemoteInvocation<Runnable> invocation = new RemoteInvocation<>(CompactCodecTest.class, 2, new Object[] { "label", 7 });
+    final GridDeliver<Runnable> decoded =
+            roundTrip(registered(), new GridDeliver<>(Runnable.class, address, null, invocation, Representation));
+
+    final RemoteInvocation<?> received = (RemoteInvocation<?>) decoded.consumer;
+    assertEquals(CompactCodecTest.class, received.declaringClass);
+    assertEquals(2, received.methodId);
+    assertEquals("label", received.arguments[0]);
+    assertEquals(7, received.arguments[1]);
+  }
+
+  @Test
+  public void testThatAnswersRoundTrip() {
+    final long correlationId = Long.MAX_VALUE;
+    final Answer<Object> result = roundTrip(registered(), new Answer<Object>(correlationId, "result"));
+    assertEquals(correlationId, result.correlationId);
+    assertEquals("result", result.result);
+    assertNull(result.error);
+
+    final Answer<Object> error = roundTrip(registered(), new Answer<Object>(correlationId, new IllegalStateException("failed")));
+    assertNull(error.result);
+    assertEquals("failed", error.error.getMessage());
+  }
+
+  @Test
+  public void testThatForwardedStartRoundTrips() {
+    final Forward decoded = roundTrip(registered(), new Forward(Id.of(3), new Start<>(Runnable.class, address, null)));
+    assertEquals(3, decoded.originalSender.value());
+    final Start<?> start = (Start<?>) decoded.message;
+    assertEquals(Runnable.class, start.protocol);
+    assertEquals(address, start.address);
+  }
+
+  @Test
+  public void testThatRelocateRoundTrips() {
+    final Relocate decoded = roundTrip(registered(), new Relocate(address, null, 42,
+            Arrays.asList(new GridDeliver<>(Runnable.class, address, null, consumer(), Representation))));
+    assertEquals(address, decoded.address);
+    assertEquals(42, decoded.snapshot);
+    assertEquals(1, decoded.pending.size());
+    assertEquals(Representation, decoded.pending.get(0).representation);
+  }
+
+  @Test
+  public void testThatRelocateBatchRoundTrips() {
+    final Address other = GridAddress.from(UUID.randomUUID(), "other");
+    final RelocateBatch decoded = roundTrip(registered(), new RelocateBatch(Arrays.asList(
+            new Relocate(address, null, 42, Arrays.asList(new GridDeliver<>(Runnable.class, address, null, consumer(), Representation))),
+            new Relocate(other, null, "snapshot", Arrays.asList())), 77L));
+    assertEquals(77L, decoded.answerCorrelationId);
+    assertEquals(2, decoded.relocations.size());
+    assertEquals(address, decoded.relocations.get(0).address);
+    assertEquals(1, decoded.relocations.get(0).pending.size());
+    assertEquals(other, decoded.relocations.get(1).address);
+    assertEquals("snapshot", decoded.relocations.get(1).snapshot);
+  }
+
+  @Test
+  public void testThatRelocateChunkRoundTrips() {
+    final RelocateChunk decoded = roundTrip(registered(), new RelocateChunk(5L, 100, 96, new byte[] { 1, 2, 3, 4 }));
+    assertEquals(5L, decoded.transferId);
+    assertEquals(100, decoded.totalBytes);
+    assertEquals(96, decoded.offset);
+    assertEquals(4, decoded.bytes[3]);
+    assertTrue(decoded.isLast());
+  }
+
+  @Test
+  public void testThatCreditRoundTrips() {
+    final Credit decoded = roundTrip(registered(), new Credit(512));
+    assertEquals(512, decoded.credits);
+  }
+
+  @Test
+  public void testThatDefinitionRequestAndReplyRoundTrip() {
+    final DefinitionRequest request = roundTrip(registered(), new DefinitionRequest(address));
+    assertEquals(address, request.address);
+
+    final DefinitionReply reply = roundTrip(registered(), new DefinitionReply(address, null));
+    assertEquals(address, reply.address);
+    assertNull(reply.definition);
+  }
+
+  @Test
+  public void testThatRedirectRoundTrips() {
+    final Redirect decoded = roundTrip(registered(), new Redirect(address, Id.of(3)));
+
+    assertEquals(address, decoded.address);
+    assertEquals(Id.of(3), decoded.owner);
+    assertEquals(Lane.Control, lane(new Redirect(address, Id.of(3))));
+  }
+
+  @Test
+  public void testThatRegisteredNamesAreSmallerThanLiterals() {
+    final Message message = new GridDeliver<>(Runnable.class, address, null, null, Representation);
+    final int registered = new CompactEncoder(registered(), conf).encode(message).length;
+    final int literal = new CompactEncoder(new CompactDictionary(getClass().getClassLoader()), conf).encode(message).length;
+    assertTrue(registered + Runnable.class.getName().length() + Representation.length() <= literal);
+  }
+
+  @Test
+  public void testThatLiteralNamesRoundTrip() {
+    final GridDeliver<Runnable> decoded = roundTrip(new CompactDictionary(getClass().getClassLoader()),
+            new GridDeliver<>(Runnable.class, address, null, null, Representation));
+    assertEquals(Runnable.class, decoded.protocol);
+    assertEquals(Representation, decoded.representation);
+  }
+
+  @Test
+  public void testThatAddressHashIsReadWithoutDecoding() {
+    final int expected = addressHash(registered(), new Start<>(Runnable.class, address, null));
+    assertNotEquals(Decoder.UnknownAddressHash, expected);
+    assertEquals(expected, addressHash(registered(), new GridDeliver<>(Runnable.class, address, null, consumer(), Representation)));
+    assertEquals(expected, addressHash(new CompactDictionary(getClass().getClassLoader()),
+            new GridDeliver<>(Runnable.class, address, null, consumer(), Representation)));
+    assertEquals(expected, addressHash(registered(), new Relocate(address, null, 42, Arrays.asList())));
+    assertEquals(expected, addressHash(registered(), new Forward(Id.of(3), new Start<>(Runnable.class, address, null))));
+    assertEquals(expected, addressHash(registered(), new DefinitionReply(address, null)));
+    assertEquals(Decoder.UnknownAddressHash, addressHash(registered(), new Answer<>(1L, "result")));
+  }
+
+  @Test
+  public void testThatLaneIsReadWithoutDecoding() {
+    assertEquals(Lane.Control, lane(new Answer<>(1L, "result")));
+    assertEquals(Lane.Control, lane(new Forward(Id.of(3), new Start<>(Runnable.class, address, null))));
+    assertEquals(Lane.Relocation, lane(new Relocate(address, null, 42, Arrays.asList())));
+    assertEquals(Lane.Application, lane(new GridDeliver<>(Runnable.class, address, null, consumer(), Representation)));
+  }
+
+  private Lane lane(final Message message) {
+    final ByteBuffer buffer = ByteBuffer.allocate(4096);
+    new CompactEncoder(registered(), conf).encode(message, buffer);
+    buffer.flip();
+    final Lane lane = new CompactDecoder(registered(), conf).lane(buffer);
+    assertEquals(0, buffer.position());
+    assertEquals(Lane.of(message), lane);
+    return lane;
+  }
+
+  private int addressHash(final CompactDictionary dictionary, final Message message) {
+    final ByteBuffer buffer = ByteBuffer.allocate(4096);
+    new CompactEncoder(dictionary, conf).encode(message, buffer);
+    buffer.flip();
+    final int hash = new CompactDecoder(dictionary, conf).addressHash(buffer);
+    assertEquals(0, buffer.position());
+    return hash;
+  }
+
+  @SuppressWarnings("unchecked")
+  private <M extends Message> M roundTrip(final CompactDictionary dictionary, final M message) {
+    final ByteBuffer buffer = ByteBuffer.allocate(4096);
+    new CompactEncoder(dictionary, conf).encode(message, buffer);
+    buffer.flip();
+    final Message decoded = new CompactDecoder(dictionary, conf).decode(buffer);
+    assertEquals(0, buffer.remaining());
+    return (M) decoded;
+  }
+
+  private CompactDictionary registered() {
+    return new CompactDictionary(getClass().getClassLoader())
+            .registerClass(Runnable.class)
+            .registerString(Representation);
+  }
+
+  private SerializableConsumer<Runnable> consumer() {
+    return Runnable::run;
+  }
+}
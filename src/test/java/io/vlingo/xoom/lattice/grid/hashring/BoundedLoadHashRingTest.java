@@ -0,0 +1,176 @@
+// Copyright © 2012-2023 VLINGO LABS. All rights reserved.
+//
+// This Source Code Form is subject to the terms of the
+// Mozilla Public License, v. 2.0. If a copy of the MPL
+// was not distributed with this file, You can obtain
+// one at https://mozilla.org/MPL/2.0/.
+
+package io.vlingo.xoom.lattice.grid.hashring;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import org.junit.Test;
+
+public class BoundedLoadHashRingTest {
+  private static final String[] Nodes = { "node1", "node2", "node3" };
+
+  @Test
+  public void testThatEmptyRingAssignsNull() {
+    assertNull(new BoundedLoadHashRing<>(new SnapshotHashRing<String>(100), 0.25).nodeOf(UUID.randomUUID()));
+  }
+
+  @Test
+  public void testThatBalancedLoadsKeepTheRingPlacement() {
+    final HashRing<String> plain = includeAll(new SnapshotHashRing<>(100));
+    final BoundedLoadHashRing<String> bounded = boundedRing(0.25);
+    report(bounded, 100, 110, 90);
+    assertNull(bounded.nextPlacement());
+
+    for (int sample = 0; sample < 1000; ++sample) {
+      final UUID id = UUID.randomUUID();
+      assertEquals(plain.nodeOf(id), bounded.nodeOf(id));
+    }
+  }
+
+  @Test
+  public void testThatOverloadedNodeSpillsOnlyItsExcess() {
+    final HashRing<String> plain = includeAll(new SnapshotHashRing<>(100));
+    final BoundedLoadHashRing<String> bounded = boundedRing(0.25);
+    report(bounded, 1000, 100, 100);
+    final LoadPlacement<String> placement = bounded.nextPlacement();
+    assertNotNull(placement);
+    assertTrue(bounded.place(placement));
+
+    // capacity is ceil(1.25 * 400) = 500, so about half of the ids of node1 stay on it
+    assertEquals(500, placement.capacity());
+    assertEquals(0.5, placement.spillOf(Nodes[0]), 0.0001);
+
+    int owned = 0;
+    int kept = 0;
+    for (int sample = 0; sample < 10000; ++sample) {
+      final UUID id = UUID.randomUUID();
+      final String owner = plain.nodeOf(id);
+      final String node = bounded.nodeOf(id);
+      if (owner.equals(Nodes[0])) {
+        ++owned;
+        kept += node.equals(Nodes[0]) ? 1 : 0;
+      } else {
+        assertEquals(owner, node);
+      }
+    }
+    final double keptFraction = (double) kept / owned;
+    assertTrue(keptFraction > 0.45 && keptFraction < 0.55);
+  }
+
+  @Test
+  public void testThatNoPlacementUntilAllReported() {
+    final BoundedLoadHashRing<String> bounded = boundedRing(0.25);
+    bounded.report(Nodes[0], loads(1000, 0, 0)).report(Nodes[1], loads(0, 100, 0));
+    assertNull(bounded.nextPlacement());
+
+    bounded.report(Nodes[2], loads(0, 0, 100));
+    assertNotNull(bounded.nextPlacement());
+  }
+
+  @Test
+  public void testThatSamePlacementPlacesEqually() {
+    final BoundedLoadHashRing<String> bounded = boundedRing(0.25);
+    report(bounded, 1000, 100, 100);
+    final LoadPlacement<String> placement = bounded.nextPlacement();
+    bounded.place(placement);
+
+    final BoundedLoadHashRing<String> other = new BoundedLoadHashRing<>(new SnapshotHashRing<>(100), 0.25);
+    other.includeNode(Nodes[2]).includeNode(Nodes[1]).includeNode(Nodes[0]);
+    other.place(LoadPlacement.from(placement.encoded(node -> node), node -> node));
+
+    for (int sample = 0; sample < 1000; ++sample) {
+      final UUID id = UUID.randomUUID();
+      assertEquals(bounded.nodeOf(id), other.nodeOf(id));
+    }
+  }
+
+  @Test
+  public void testThatIdsReturnOnlyWellBelowCapacity() {
+    final BoundedLoadHashRing<String> bounded = boundedRing(0.25);
+    report(bounded, 1000, 100, 100);
+    bounded.place(bounded.nextPlacement());
+    final long spilling = bounded.epoch();
+
+    // node1 keeps 50% of 700 = 350, under capacity 375 but above the return level 337.5
+    report(bounded, 700, 100, 100);
+    assertNull(bounded.nextPlacement());
+    assertEquals(spilling, bounded.epoch());
+
+    // node1 keeps 50% of 500 = 250, under the return level 262.5, so it keeps 262.5 again
+    report(bounded, 500, 100, 100);
+    final LoadPlacement<String> returning = bounded.nextPlacement();
+    assertNotNull(returning);
+    assertEquals(0.475, returning.spillOf(Nodes[0]), 0.0001);
+    bounded.place(returning);
+
+    // node1 is itself within the return level 120, so all of its ids return
+    report(bounded, 120, 100, 100);
+    final LoadPlacement<String> returned = bounded.nextPlacement();
+    assertNotNull(returned);
+    assertEquals(0, returned.spillOf(Nodes[0]), 0);
+  }
+
+  @Test
+  public void testThatOnlyPlacementChangesAdvanceTheEpoch() {
+    final BoundedLoadHashRing<String> bounded = boundedRing(0.25);
+    final long included = bounded.epoch();
+    report(bounded, 100, 100, 100);
+    assertNull(bounded.nextPlacement());
+    assertEquals(included, bounded.epoch());
+
+    report(bounded, 1000, 100, 100);
+    final LoadPlacement<String> placement = bounded.nextPlacement();
+    final HashRing<String> copy = bounded.copy();
+    assertTrue(bounded.place(placement));
+    assertNotEquals(included, bounded.epoch());
+    assertEquals(included, copy.epoch());
+
+    final long placed = bounded.epoch();
+    assertTrue(!bounded.place(placement));
+    assertEquals(placed, bounded.epoch());
+  }
+
+  private BoundedLoadHashRing<String> boundedRing(final double epsilon) {
+    final BoundedLoadHashRing<String> ring = new BoundedLoadHashRing<>(new SnapshotHashRing<>(100), epsilon);
+    includeAll(ring);
+    return ring;
+  }
+
+  private static HashRing<String> includeAll(final HashRing<String> ring) {
+    for (final String node : Nodes) {
+      ring.includeNode(node);
+    }
+    return ring;
+  }
+
+  private static Map<String, Long> loads(final long... loads) {
+    final Map<String, Long> natural = new HashMap<>();
+    for (int index = 0; index < loads.length; ++index) {
+      natural.put(Nodes[index], loads[index]);
+    }
+    return natural;
+  }
+
+  /**
+   * Reports the natural loads as if every node held just its own ids, which is
+   * all the ring sees of them since it only sums the reports.
+   */
+  private static void report(final BoundedLoadHashRing<String> ring, final long... naturalLoads) {
+    ring.report(Nodes[0], loads(naturalLoads[0], 0, 0))
+        .report(Nodes[1], loads(0, naturalLoads[1], 0))
+        .report(Nodes[2], loads(0, 0, naturalLoads[2]));
+  }
+}
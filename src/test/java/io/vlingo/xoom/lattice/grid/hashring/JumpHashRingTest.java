@@ -0,0 +1,73 @@
+// Copyright © 2012-2023 VLINGO LABS. All rights reserved.
+//
+// This Source Code Form is subject to the terms of the
+// Mozilla Public License, v. 2.0. If a copy of the MPL
+// was not distributed with this file, You can obtain
+// one at https://mozilla.org/MPL/2.0/.
+
+package io.vlingo.xoom.lattice.grid.hashring;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.UUID;
+
+import org.junit.Test;
+
+public class JumpHashRingTest {
+  private static final int Samples = 30_000;
+
+  @Test
+  public void testThatEmptyRingAssignsNull() {
+    assertNull(new JumpHashRing<String>().nodeOf(UUID.randomUUID()));
+  }
+
+  @Test
+  public void testThatBucketsAreBalanced() {
+    final int buckets = 5;
+    final int[] counts = new int[buckets];
+    for (long key = 0; key < Samples; ++key) {
+      ++counts[JumpHashRing.bucketOf(key * 0x9e3779b97f4a7c15L, buckets)];
+    }
+    for (final int count : counts) {
+      assertTrue("bucket has " + count, Math.abs(count - Samples / buckets) < Samples / 20);
+    }
+  }
+
+  @Test
+  public void testThatAddingABucketOnlyMovesKeysToIt() {
+    for (long key = 0; key < Samples; ++key) {
+      final long hashed = key * 0x9e3779b97f4a7c15L;
+      final int before = JumpHashRing.bucketOf(hashed, 4);
+      final int after = JumpHashRing.bucketOf(hashed, 5);
+      assertTrue(after == before || after == 4);
+    }
+  }
+
+  @Test
+  public void testThatNodesAreOrderedByName() {
+    final HashRing<String> forward = new JumpHashRing<>();
+    final HashRing<String> backward = new JumpHashRing<>();
+    forward.includeNode("node1").includeNode("node2").includeNode("node3");
+    backward.includeNode("node3").includeNode("node2").includeNode("node1");
+    for (int sample = 0; sample < 1000; ++sample) {
+      final UUID id = UUID.randomUUID();
+      assertEquals(forward.nodeOf(id), backward.nodeOf(id));
+    }
+  }
+
+  @Test
+  public void testThatExcludingTheLastNodeRetainsOtherAssignments() {
+    final HashRing<String> ring = new JumpHashRing<>();
+    ring.includeNode("node1").includeNode("node2").includeNode("node3");
+    final HashRing<String> excluded = ring.copy().excludeNode("node3");
+    for (int sample = 0; sample < 1000; ++sample) {
+      final UUID id = UUID.randomUUID();
+      final String node = ring.nodeOf(id);
+      if (!node.equals("node3")) {
+        assertEquals(node, excluded.nodeOf(id));
+      }
+    }
+  }
+}
@@ -0,0 +1,78 @@
+// Copyright © 2012-2023 VLINGO LABS. All rights reserved.
+//
+// This Source Code Form is subject to the terms of the
+// Mozilla Public License, v. 2.0. If a copy of the MPL
+// was not distributed with this file, You can obtain
+// one at https://mozilla.org/MPL/2.0/.
+
+package io.vlingo.xoom.lattice.grid.hashring;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import org.junit.Test;
+
+public class MaglevHashRingTest {
+  private static final String[] Nodes = { "node1", "node2", "node3" };
+  private static final int Samples = 30_000;
+
+  @Test
+  public void testThatEmptyRingAssignsNull() {
+    assertNull(new MaglevHashRing<String>(101).nodeOf(UUID.randomUUID()));
+  }
+
+  @Test
+  public void testThatNodesShareTheTableEvenly() {
+    final HashRing<String> ring = includeAll(new MaglevHashRing<>(), Nodes);
+    final Map<String, Integer> counts = new HashMap<>();
+    for (int sample = 0; sample < Samples; ++sample) {
+      counts.merge(ring.nodeOf(UUID.randomUUID()), 1, Integer::sum);
+    }
+    for (final String node : Nodes) {
+      final int count = counts.get(node);
+      assertTrue(node + " has " + count, Math.abs(count - Samples / Nodes.length) < Samples / 20);
+    }
+  }
+
+  @Test
+  public void testThatInclusionOrderDoesNotMatter() {
+    final HashRing<String> forward = includeAll(new MaglevHashRing<>(1009), Nodes[0], Nodes[1], Nodes[2]);
+    final HashRing<String> backward = includeAll(new MaglevHashRing<>(1009), Nodes[2], Nodes[1], Nodes[0]);
+    for (int sample = 0; sample < 1000; ++sample) {
+      final UUID id = UUID.randomUUID();
+      assertEquals(forward.nodeOf(id), backward.nodeOf(id));
+    }
+  }
+
+  @Test
+  public void testThatExcludingMostlyRetainsRemainingAssignments() {
+    final HashRing<String> ring = includeAll(new MaglevHashRing<>(), Nodes);
+    final HashRing<String> excluded = ring.copy().excludeNode(Nodes[1]);
+
+    int retained = 0;
+    int remaining = 0;
+    for (int sample = 0; sample < Samples; ++sample) {
+      final UUID id = UUID.randomUUID();
+      final String node = ring.nodeOf(id);
+      if (!node.equals(Nodes[1])) {
+        ++remaining;
+        if (node.equals(excluded.nodeOf(id))) {
+          ++retained;
+        }
+      }
+    }
+    assertTrue(retained + " of " + remaining, retained > remaining * 0.95);
+  }
+
+  private static HashRing<String> includeAll(final HashRing<String> ring, final String... nodes) {
+    for (final String node : nodes) {
+      ring.includeNode(node);
+    }
+    return ring;
+  }
+}
@@ -0,0 +1,56 @@
+// Copyright © 2012-2023 VLINGO LABS. All rights reserved.
+//
+// This Source Code Form is subject to the terms of the
+// Mozilla Public License, v. 2.0. If a copy of the MPL
+// was not distributed with this file, You can obtain
+// one at https://mozilla.org/MPL/2.0/.
+
+package io.vlingo.xoom.lattice.grid.hashring;
+
+import static org.junit.Assert.assertEquals;
+
+import java.nio.ByteBuffer;
+import java.util.UUID;
+
+import org.junit.Test;
+
+public class MurmurHashTest {
+  private static final int Seed = 31;
+
+  @Test
+  public void testThatUUIDHashesAsItsString() {
+    for (int sample = 0; sample < 1000; ++sample) {
+      final UUID id = UUID.randomUUID();
+      assertEquals(bytesHash(id.toString()), MurmurHash.hash32(id, Seed));
+    }
+    final UUID extremes = new UUID(-1L, 0L);
+    assertEquals(bytesHash(extremes.toString()), MurmurHash.hash32(extremes, Seed));
+  }
+
+  @Test
+  public void testThatCharSequenceHashesAsItsBytes() {
+    final String[] samples = { "", "a", "ab", "abc", "abcd", "node1", "node12", "node123", "12345678901" };
+    for (final String sample : samples) {
+      assertEquals(bytesHash(sample), MurmurHash.hash32(sample, Seed));
+      assertEquals(bytesHash(sample), MurmurHash.hash32(new StringBuilder(sample), Seed));
+    }
+  }
+
+  @Test
+  public void testThatNonAsciiCharSequenceHashesAsItsBytes() {
+    final String sample = "nöde-é中";
+    assertEquals(bytesHash(sample), MurmurHash.hash32(sample, Seed));
+  }
+
+  @Test
+  public void testThatObjectHashesAsItsString() {
+    final UUID id = UUID.randomUUID();
+    assertEquals(bytesHash(id.toString()), MurmurHash.hash32((Object) id, Seed));
+    assertEquals(bytesHash("42"), MurmurHash.hash32((Object) 42L, Seed));
+  }
+
+  private int bytesHash(final String id) {
+    final byte[] bytes = id.getBytes();
+    return MurmurHash.hash32(ByteBuffer.wrap(bytes), 0, bytes.length, Seed);
+  }
+}
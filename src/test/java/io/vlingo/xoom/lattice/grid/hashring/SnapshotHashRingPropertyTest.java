@@ -0,0 +1,19 @@
+// Copyright © 2012-2023 VLINGO LABS. All rights reserved.
+//
+// This Source Code Form is subject to the terms of the
+// Mozilla Public License, v. 2.0. If a copy of the MPL
+// was not distributed with this file, You can obtain
+// one at https://mozilla.org/MPL/2.0/.
+
+package io.vlingo.xoom.lattice.grid.hashring;
+
+import java.util.function.BiFunction;
+
+public class SnapshotHashRingPropertyTest extends HashRingPropertyTest {
+  @Override
+  protected HashRing<String> ring(
+      final int pointsPerNode,
+      final BiFunction<Integer, String, HashedNodePoint<String>> factory) {
+    return new SnapshotHashRing<>(pointsPerNode);
+  }
+}
@@ -0,0 +1,118 @@
+// Copyright © 2012-2023 VLINGO LABS. All rights reserved.
+//
+// This Source Code Form is subject to the terms of the
+// Mozilla Public License, v. 2.0. If a copy of the MPL
+// was not distributed with this file, You can obtain
+// one at https://mozilla.org/MPL/2.0/.
+
+package io.vlingo.xoom.lattice.grid.hashring;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import java.util.UUID;
+import java.util.function.Function;
+
+import org.junit.Test;
+
+public class SnapshotHashRingTest {
+  private static final String[] Nodes = { "node1", "node2", "node3" };
+
+  @Test
+  public void testThatNodesArePlacedAsBySortedMapRing() {
+    final HashRing<String> sortedMap = new MurmurSortedMapHashRing<>(100);
+    final HashRing<String> snapshot = new SnapshotHashRing<>(100);
+    for (final String node : Nodes) {
+      sortedMap.includeNode(node);
+      snapshot.includeNode(node);
+    }
+
+    for (int sample = 0; sample < 1000; ++sample) {
+      final UUID id = UUID.randomUUID();
+      assertEquals(sortedMap.nodeOf(id), snapshot.nodeOf(id));
+    }
+
+    sortedMap.excludeNode(Nodes[1]);
+    snapshot.excludeNode(Nodes[1]);
+
+    for (int sample = 0; sample < 1000; ++sample) {
+      final UUID id = UUID.randomUUID();
+      assertEquals(sortedMap.nodeOf(id), snapshot.nodeOf(id));
+    }
+  }
+
+  @Test
+  public void testThatInclusionOrderDoesNotMatter() {
+    final HashRing<String> forward = new SnapshotHashRing<>(100);
+    final HashRing<String> backward = new SnapshotHashRing<>(100);
+    for (int index = 0; index < Nodes.length; ++index) {
+      forward.includeNode(Nodes[index]);
+      backward.includeNode(Nodes[Nodes.length - 1 - index]);
+    }
+
+    for (int sample = 0; sample < 1000; ++sample) {
+      final UUID id = UUID.randomUUID();
+      assertEquals(forward.nodeOf(id), backward.nodeOf(id));
+    }
+  }
+
+  @Test
+  public void testThatCopyIsIsolatedFromChanges() {
+    final HashRing<String> ring = new SnapshotHashRing<>(100);
+    ring.includeNode(Nodes[0]);
+
+    final HashRing<String> copy = ring.copy();
+    ring.excludeNode(Nodes[0]);
+    ring.includeNode(Nodes[1]);
+
+    assertEquals(Nodes[0], copy.nodeOf("any"));
+    assertEquals(Nodes[1], ring.nodeOf("any"));
+  }
+
+  @Test
+  public void testThatOnlyChangesAdvanceTheEpoch() {
+    final HashRing<String> ring = new SnapshotHashRing<>(100);
+    final long initial = ring.epoch();
+
+    ring.includeNode(Nodes[0]);
+    final long included = ring.epoch();
+    assertNotEquals(initial, included);
+
+    ring.includeNode(Nodes[0]);
+    ring.excludeNode(Nodes[1]);
+    assertEquals(included, ring.epoch());
+
+    ring.excludeNode(Nodes[0]);
+    assertNotEquals(included, ring.epoch());
+  }
+
+  @Test
+  public void testThatReassignmentMatchesBothRings() {
+    final HashRing<String> ring = new SnapshotHashRing<>(100);
+    ring.includeNode(Nodes[0]);
+    ring.includeNode(Nodes[1]);
+
+    final HashRing<String> beforeJoin = ring.copy();
+    ring.includeNode(Nodes[2]);
+    assertNotEquals(0, assertReassignment(beforeJoin, ring, Nodes[0]));
+
+    final HashRing<String> beforeLeave = ring.copy();
+    ring.excludeNode(Nodes[0]);
+    assertNotEquals(0, assertReassignment(beforeLeave, ring, Nodes[0]));
+    assertEquals(0, assertReassignment(beforeLeave, ring, Nodes[1]));
+  }
+
+  private int assertReassignment(final HashRing<String> previous, final HashRing<String> current, final String from) {
+    final Function<Object, String> reassignment = current.reassignment(previous, from);
+    int moved = 0;
+    for (int sample = 0; sample < 10000; ++sample) {
+      final UUID id = UUID.randomUUID();
+      final String expected = from.equals(previous.nodeOf(id)) && !from.equals(current.nodeOf(id)) ? current.nodeOf(id) : null;
+      assertEquals(expected, reassignment.apply(id));
+      if (expected != null) {
+        ++moved;
+      }
+    }
+    return moved;
+  }
+}
@@ -0,0 +1,202 @@
+// Copyright © 2012-2023 VLINGO LABS. All rights reserved.
+//
+// This Source Code Form is subject to the terms of the
+// Mozilla Public License, v. 2.0. If a copy of the MPL
+// was not distributed with this file, You can obtain
+// one at https://mozilla.org/MPL/2.0/.
+
+package io.vlingo.xoom.lattice.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import io.vlingo.xoom.wire.node.Id;
+
+public class OutBuffersTest {
+  private static final Id Node = Id.of(2);
+
+  private Path spillDirectory;
+
+  @Test
+  public void testThatFramesDrainInOrder() {
+    final OutBuffers buffers = buffersOf(1024, OutBuffers.Overflow.Reject);
+    for (int index = 0; index < 10; ++index) {
+      assertTrue(buffers.enqueue(Node, frame("message-" + index)));
+    }
+    assertEquals(10, buffers.frames(Node));
+    assertEquals(expected(0, 10), drain(buffers));
+    assertEquals(0, buffers.frames(Node));
+    assertTrue(buffers.framedNodes().isEmpty());
+  }
+
+  @Test
+  public void testThatFramesWrapAroundTheRing() {
+    final FrameRing ring = new FrameRing(64);
+    final List<String> drained = new ArrayList<>();
+    for (int round = 0; round < 20; ++round) {
+      assertTrue(ring.offer(frame("frame-" + round + "-abcdefghij")));
+      assertTrue(ring.offer(frame("next-" + round)));
+      ring.dropOldest();
+      ring.drain(frame -> drained.add(text(frame)));
+    }
+    assertEquals(20, drained.size());
+    assertEquals("next-19", drained.get(19));
+  }
+
+  @Test
+  public void testThatRejectKeepsTheBufferedFrames() {
+    final OutBuffers buffers = buffersOf(64, OutBuffers.Overflow.Reject);
+    int accepted = 0;
+    while (buffers.enqueue(Node, frame("message-" + accepted))) {
+      ++accepted;
+    }
+    assertFalse(buffers.enqueue(Node, frame("message-" + accepted)));
+    assertEquals(expected(0, accepted), drain(buffers));
+  }
+
+  @Test
+  public void testThatDropOldestKeepsTheNewestFrames() {
+    final OutBuffers buffers = buffersOf(64, OutBuffers.Overflow.DropOldest);
+    for (int index = 0; index < 100; ++index) {
+      assertTrue(buffers.enqueue(Node, frame("message-" + (100 + index))));
+    }
+    final List<String> drained = drain(buffers);
+    assertEquals(expected(200 - drained.size(), 200), drained);
+    assertFalse(buffersOf(64, OutBuffers.Overflow.DropOldest).enqueue(Node, ByteBuffer.allocate(64)));
+  }
+
+  @Test
+  public void testThatDropOldestNeverDropsPinnedFrames() {
+    final OutBuffers buffers = buffersOf(64, OutBuffers.Overflow.DropOldest);
+    final List<Long> dropped = new ArrayList<>();
+    assertTrue(buffers.enqueue(Node, frame("message-100"), 100, true, dropped::add));
+    assertTrue(buffers.enqueue(Node, frame("message-101"), 101, true, dropped::add));
+    assertTrue(buffers.enqueue(Node, frame("relocate-0"), 1, false, dropped::add));
+    assertTrue(buffers.enqueue(Node, frame("message-102"), 102, true, dropped::add));
+    assertEquals(Arrays.asList(100L, 101L), dropped);
+    assertFalse(buffers.enqueue(Node, frame("message-103"), 103, true, dropped::add));
+    assertTrue(buffers.enqueue(Node, frame("relocate-1"), 2, false, dropped::add));
+    assertTrue(buffers.enqueue(Node, frame("message-104"), 104, true, dropped::add));
+    assertEquals(Arrays.asList(100L, 101L), dropped);
+    assertEquals(Arrays.asList("relocate-0", "message-102", "relocate-1", "message-104"), drain(buffers));
+  }
+
+  @Test
+  public void testThatSpilledFramesReplayAfterTheRing() throws IOException {
+    final OutBuffers buffers = buffersOf(64, OutBuffers.Overflow.Spill);
+    for (int index = 0; index < 1000; ++index) {
+      assertTrue(buffers.enqueue(Node, frame("message-" + index)));
+    }
+    assertEquals(1000, buffers.frames(Node));
+    assertTrue(spillFiles() > 1);
+
+    assertEquals(expected(0, 1000), drain(buffers));
+    assertEquals(0, spillFiles());
+  }
+
+  @Test
+  public void testThatDeclinedFramesStayBuffered() throws IOException {
+    final OutBuffers buffers = buffersOf(64, OutBuffers.Overflow.Spill);
+    for (int index = 0; index < 1000; ++index) {
+      assertTrue(buffers.enqueue(Node, frame("message-" + index)));
+    }
+    final List<String> drained = new ArrayList<>();
+    for (final int taking : new int[] { 1, 500, 10 }) {
+      assertFalse(buffers.drainWhile(Node, (frame, tag) -> drained.size() < taking && drained.add(text(frame))));
+    }
+    assertEquals(expected(0, 500), drained);
+    assertEquals(500, buffers.frames(Node));
+
+    assertTrue(buffers.drainWhile(Node, (frame, tag) -> drained.add(text(frame))));
+    assertEquals(expected(0, 1000), drained);
+    assertTrue(buffers.framedNodes().isEmpty());
+    assertEquals(0, spillFiles());
+  }
+
+  @Test
+  public void testThatTagsDrainWithTheirFrames() {
+    final OutBuffers buffers = buffersOf(64, OutBuffers.Overflow.Spill);
+    for (int index = 0; index < 100; ++index) {
+      assertTrue(buffers.enqueue(Node, frame("message-" + index), 1000 + index));
+    }
+    final List<String> drained = new ArrayList<>();
+    buffers.drain(Node, (frame, tag) -> drained.add(text(frame).replace("message-", "") + ":" + tag));
+    assertEquals(100, drained.size());
+    for (int index = 0; index < 100; ++index) {
+      assertEquals(index + ":" + (1000 + index), drained.get(index));
+    }
+  }
+
+  @Test
+  public void testThatDiscardDeletesSpillFiles() throws IOException {
+    final OutBuffers buffers = buffersOf(64, OutBuffers.Overflow.Spill);
+    for (int index = 0; index < 100; ++index) {
+      buffers.enqueue(Node, frame("message-" + index));
+    }
+    buffers.discard(Node);
+    assertEquals(0, buffers.frames(Node));
+    assertEquals(0, spillFiles());
+  }
+
+  @Before
+  public void setUp() throws IOException {
+    spillDirectory = Files.createTempDirectory("out-buffers-test");
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    try (final Stream<Path> files = Files.list(spillDirectory)) {
+      files.forEach(path -> path.toFile().delete());
+    }
+    Files.deleteIfExists(spillDirectory);
+  }
+
+  private OutBuffers buffersOf(final int capacity, final OutBuffers.Overflow overflow) {
+    return new OutBuffers(null, capacity, overflow, spillDirectory, 4096);
+  }
+
+  private long spillFiles() throws IOException {
+    try (final Stream<Path> files = Files.list(spillDirectory)) {
+      return files.count();
+    }
+  }
+
+  private List<String> drain(final OutBuffers buffers) {
+    final List<String> drained = new ArrayList<>();
+    buffers.drain(Node, frame -> drained.add(text(frame)));
+    return drained;
+  }
+
+  private List<String> expected(final int from, final int to) {
+    final String[] expected = new String[to - from];
+    for (int index = from; index < to; ++index) {
+      expected[index - from] = "message-" + index;
+    }
+    return Arrays.asList(expected);
+  }
+
+  private static ByteBuffer frame(final String text) {
+    return ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static String text(final ByteBuffer frame) {
+    final byte[] bytes = new byte[frame.remaining()];
+    frame.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+}
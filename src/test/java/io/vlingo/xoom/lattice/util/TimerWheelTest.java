@@ -0,0 +1,105 @@
+// Copyright © 2012-2023 VLINGO LABS. All rights reserved.
+//
+// This Source Code Form is subject to the terms of the
+// Mozilla Public License, v. 2.0. If a copy of the MPL
+// was not distributed with this file, You can obtain
+// one at https://mozilla.org/MPL/2.0/.
+
+package io.vlingo.xoom.lattice.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+
+public class TimerWheelTest {
+  @Test
+  public void testThatElementsExpireAtTheirDeadline() {
+    final TimerWheel<String> wheel = new TimerWheel<>(10, 8, 0);
+    final List<String> expired = new ArrayList<>();
+    wheel.schedule("a", 25);
+    wheel.schedule("b", 50);
+
+    wheel.advance(20, expired::add);
+    assertTrue(expired.isEmpty());
+
+    wheel.advance(30, expired::add);
+    assertEquals(Arrays.asList("a"), expired);
+
+    wheel.advance(50, expired::add);
+    assertEquals(Arrays.asList("a", "b"), expired);
+  }
+
+  @Test
+  public void testThatDeadlinesBeyondOneTurnWaitForTheirRound() {
+    final TimerWheel<String> wheel = new TimerWheel<>(10, 4, 0);
+    final List<String> expired = new ArrayList<>();
+    wheel.schedule("late", 100); // 10 ticks on a 4 bucket wheel
+
+    for (long now = 10; now < 100; now += 10) {
+      wheel.advance(now, expired::add);
+      assertTrue(expired.isEmpty());
+    }
+    wheel.advance(100, expired::add);
+    assertEquals(Arrays.asList("late"), expired);
+  }
+
+  @Test
+  public void testThatLongPauseExpiresEverythingDue() {
+    final TimerWheel<Integer> wheel = new TimerWheel<>(10, 4, 0);
+    final List<Integer> expired = new ArrayList<>();
+    for (int element = 1; element <= 20; ++element) {
+      wheel.schedule(element, element * 10);
+    }
+    wheel.advance(10_000, expired::add);
+    assertEquals(20, expired.size());
+  }
+
+  @Test
+  public void testThatPastDeadlineExpiresOnNextTick() {
+    final TimerWheel<String> wheel = new TimerWheel<>(10, 8, 1000);
+    final List<String> expired = new ArrayList<>();
+    wheel.schedule("past", 500);
+    wheel.advance(1010, expired::add);
+    assertEquals(Arrays.asList("past"), expired);
+  }
+
+  @Test
+  public void testThatElementsScheduledWhileAdvancingAreNotMissed() throws InterruptedException {
+    final TimerWheel<Integer> wheel = new TimerWheel<>(1, 64, 0);
+    final AtomicLong now = new AtomicLong(0);
+    final AtomicBoolean scheduling = new AtomicBoolean(true);
+    final ConcurrentHashMap<Integer, Long> expiredAt = new ConcurrentHashMap<>();
+
+    final Thread advancing = new Thread(() -> {
+      while (scheduling.get() || expiredAt.size() < 20_000) {
+        wheel.advance(now.incrementAndGet(), element -> expiredAt.put(element, now.get()));
+        if (now.get() > 10_000_000) {
+          return;
+        }
+      }
+    });
+    advancing.start();
+
+    final long[] scheduledAt = new long[20_000];
+    for (int element = 0; element < scheduledAt.length; ++element) {
+      wheel.schedule(element, now.get()); // due on the next tick
+      scheduledAt[element] = now.get();
+    }
+    scheduling.set(false);
+    advancing.join(30_000);
+
+    assertEquals(scheduledAt.length, expiredAt.size());
+    for (int element = 0; element < scheduledAt.length; ++element) {
+      // a missed bucket would hold it back a whole turn of 64 ticks
+      assertTrue("element " + element, expiredAt.get(element) <= scheduledAt[element] + 2);
+    }
+  }
+}
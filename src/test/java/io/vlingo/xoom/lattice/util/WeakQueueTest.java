@@ -1,10 +1,13 @@
 package io.vlingo.xoom.lattice.util;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.function.Function;
@@ -193,10 +196,128 @@ public class WeakQueueTest {
   }
 
 
-  // WeakQueue should obey the Collection API protocol TODO
+  @Test
+  public void testSizeExcludesGCedElements() {
+    WeakQueue<Object> queue = new WeakQueue<>();
 
+    Collection<Sample> samples = generateSamples(1000);
+    Collection<Object> hard = samples.stream()
+        .filter(p -> p.index % 2 == 0)
+        .map(p -> p.object)
+        .collect(Collectors.toCollection(ArrayList::new));
+
+    samples.forEach(p -> queue.add(p.object));
+    assertEquals(1000, queue.size());
+
+    samples = null;
+
+    for (int attempt = 0; attempt < 50 && queue.size() > hard.size(); ++attempt) {
+      System.gc();
+      sleep(20);
+    }
+    assertEquals(hard.size(), queue.size());
+    assertFifo(hard, queue::poll);
+    assertEquals(0, queue.size());
+  }
+
+
+  // WeakQueue should obey the Collection API protocol
+
+  @Test
+  public void testRemoveObjectRemovesOnlyThatElement() {
+    WeakQueue<Object> queue = new WeakQueue<>();
+    List<Object> samples = new ArrayList<>(fMap(generateSamples(5), s -> s.object));
+    queue.addAll(samples);
+
+    assertTrue(queue.remove(samples.get(2)));
+    assertFalse(queue.remove(samples.get(2)));
+    assertEquals(4, queue.size());
+
+    samples.remove(2);
+    assertFifo(samples, queue::poll);
+    assertTrue(queue.isEmpty());
+  }
 
-  // WeakQueue should be thread-safe TODO
+  @Test
+  public void testIteratorPresentsAndRemovesElements() {
+    WeakQueue<Object> queue = new WeakQueue<>();
+    List<Object> samples = new ArrayList<>(fMap(generateSamples(10), s -> s.object));
+    queue.addAll(samples);
+
+    final List<Object> iterated = new ArrayList<>();
+    final Iterator<Object> iterator = queue.iterator();
+    while (iterator.hasNext()) {
+      final Object next = iterator.next();
+      iterated.add(next);
+      if (iterated.size() % 2 == 0) {
+        iterator.remove();
+      }
+    }
+    assertEquals(samples, iterated);
+    assertEquals(5, queue.size());
+    assertTrue(queue.contains(samples.get(0)));
+    assertFalse(queue.contains(samples.get(1)));
+  }
+
+  @Test
+  public void testClearEmptiesQueue() {
+    WeakQueue<Object> queue = new WeakQueue<>();
+    Collection<Object> samples = fMap(generateSamples(100), s -> s.object);
+    queue.addAll(samples);
+    queue.clear();
+    assertTrue(queue.isEmpty());
+    assertNull(queue.peek());
+  }
+
+
+  // WeakQueue should be thread-safe
+
+  @Test
+  public void testConcurrentOffersArePolledInPerProducerOrder() throws InterruptedException {
+    final WeakQueue<Object> queue = new WeakQueue<>();
+    final int producers = 4;
+    final int perProducer = 10_000;
+    final Sample[][] samples = new Sample[producers][perProducer];
+    final Thread[] threads = new Thread[producers];
+    for (int producer = 0; producer < producers; ++producer) {
+      final Sample[] own = samples[producer];
+      for (int index = 0; index < perProducer; ++index) {
+        own[index] = new Sample(index, producer);
+      }
+      threads[producer] = new Thread(() -> {
+        for (final Sample sample : own) {
+          queue.offer(sample);
+        }
+      });
+      threads[producer].start();
+    }
+
+    final int[] expected = new int[producers];
+    int polled = 0;
+    while (polled < producers * perProducer) {
+      final Object next = queue.poll();
+      if (next == null) {
+        Thread.yield();
+        continue;
+      }
+      final Sample sample = (Sample) next;
+      final int producer = (Integer) sample.object;
+      assertEquals(expected[producer]++, sample.index);
+      ++polled;
+    }
+    for (final Thread thread : threads) {
+      thread.join();
+    }
+    assertTrue(queue.isEmpty());
+  }
+
+  private void sleep(final long millis) {
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
 
 
 
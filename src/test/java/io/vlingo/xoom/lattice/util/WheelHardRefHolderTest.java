@@ -0,0 +1,71 @@
+// Copyright © 2012-2023 VLINGO LABS. All rights reserved.
+//
+// This Source Code Form is subject to the terms of the
+// Mozilla Public License, v. 2.0. If a copy of the MPL
+// was not distributed with this file, You can obtain
+// one at https://mozilla.org/MPL/2.0/.
+
+package io.vlingo.xoom.lattice.util;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+
+public class WheelHardRefHolderTest {
+  @Test
+  public void testThatReferencesAreHeldForTheTimeout() {
+    final AtomicLong now = new AtomicLong(1000);
+    final WheelHardRefHolder holder = new WheelHardRefHolder(50, 10, now::get);
+    holder.holdOnTo("a");
+    now.set(1020);
+    holder.holdOnTo("b");
+
+    for (long time = 1010; time < 1050; time += 10) {
+      now.set(time);
+      holder.intervalSignal(null, null);
+    }
+    assertEquals(2, holder.size());
+
+    now.set(1060);
+    holder.intervalSignal(null, null);
+    assertEquals(1, holder.size());
+
+    now.set(1080);
+    holder.intervalSignal(null, null);
+    assertEquals(0, holder.size());
+  }
+
+  @Test
+  public void testThatLongPauseReleasesEverything() {
+    final AtomicLong now = new AtomicLong(0);
+    final WheelHardRefHolder holder = new WheelHardRefHolder(50, 10, now::get);
+    for (int tick = 0; tick < 5; ++tick) {
+      now.set(tick * 10);
+      holder.holdOnTo(tick);
+    }
+    now.set(100_000);
+    holder.intervalSignal(null, null);
+    assertEquals(0, holder.size());
+  }
+
+  @Test
+  public void testThatConcurrentHoldsAreAllKept() throws InterruptedException {
+    final WheelHardRefHolder holder = new WheelHardRefHolder(60_000, 1000);
+    final Thread[] threads = new Thread[4];
+    for (int index = 0; index < threads.length; ++index) {
+      threads[index] = new Thread(() -> {
+        for (int count = 0; count < 10_000; ++count) {
+          holder.holdOnTo(new Object());
+        }
+      });
+      threads[index].start();
+    }
+    for (final Thread thread : threads) {
+      thread.join();
+    }
+    holder.intervalSignal(null, null);
+    assertEquals(40_000, holder.size());
+  }
+}